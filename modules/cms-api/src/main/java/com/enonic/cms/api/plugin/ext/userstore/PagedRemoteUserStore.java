@@ -0,0 +1,38 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.api.plugin.ext.userstore;
+
+/**
+ * Optional interface of a remote user store that can list its principals in pages, and list only the principals changed
+ * since an earlier synchronization. A user store implementing it is synchronized without holding all principals in
+ * memory.
+ */
+public interface PagedRemoteUserStore
+{
+    /**
+     * Returns a marker of the current state of the store, such as the highest update sequence number or the latest
+     * modify timestamp. Returns null if changes can not be tracked.
+     */
+    public String getChangeMarker();
+
+    /**
+     * Returns a page of users.
+     *
+     * @param changedSince a marker returned by getChangeMarker, to list only users changed after it, or null for all users
+     * @param cursor       the next cursor of the previous page, or null for the first page
+     * @param pageSize     the maximum number of users in the page
+     */
+    public RemotePrincipalPage<RemoteUser> getUsers( String changedSince, String cursor, int pageSize );
+
+    /**
+     * Returns a page of groups.
+     *
+     * @param changedSince a marker returned by getChangeMarker, to list only groups changed after it, or null for all
+     *                     groups
+     * @param cursor       the next cursor of the previous page, or null for the first page
+     * @param pageSize     the maximum number of groups in the page
+     */
+    public RemotePrincipalPage<RemoteGroup> getGroups( String changedSince, String cursor, int pageSize );
+}
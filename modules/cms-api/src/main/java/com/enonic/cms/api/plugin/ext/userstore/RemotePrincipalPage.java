@@ -0,0 +1,39 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.api.plugin.ext.userstore;
+
+import java.util.List;
+
+public final class RemotePrincipalPage<T extends RemotePrincipal>
+{
+    private final List<T> principals;
+
+    private final String nextCursor;
+
+    /**
+     * @param principals the principals of the page
+     * @param nextCursor the cursor of the next page, or null if this is the last page
+     */
+    public RemotePrincipalPage( final List<T> principals, final String nextCursor )
+    {
+        this.principals = principals;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getPrincipals()
+    {
+        return this.principals;
+    }
+
+    public String getNextCursor()
+    {
+        return this.nextCursor;
+    }
+
+    public boolean isLast()
+    {
+        return this.nextCursor == null;
+    }
+}
@@ -11,6 +11,7 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
@@ -35,6 +36,7 @@ import com.enonic.cms.core.language.LanguageEntity;
 import com.enonic.cms.core.security.group.GroupEntity;
 import com.enonic.cms.core.security.group.GroupKey;
 import com.enonic.cms.core.security.group.GroupKeyComparator;
+import com.enonic.cms.core.security.group.GroupMembershipClosure;
 import com.enonic.cms.core.security.user.UserEntity;
 import com.enonic.cms.core.structure.SiteKey;
 import com.enonic.cms.core.structure.menuitem.ContentHomeEntity;
@@ -614,6 +616,27 @@ public class ContentEntity
             return false;
         }
 
+        return isAccessRightSet( access, type );
+    }
+
+    /**
+     * Returns true if any of the groups of the closure is given the access right.
+     */
+    public boolean hasAccessRightSet( final GroupMembershipClosure groups, final ContentAccessType type )
+    {
+        for ( final Map.Entry<GroupKey, ContentAccessEntity> entry : contentAccessRights.entrySet() )
+        {
+            if ( isAccessRightSet( entry.getValue(), type ) && groups.contains( entry.getKey() ) )
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean isAccessRightSet( final ContentAccessEntity access, final ContentAccessType type )
+    {
         switch ( type )
         {
             case READ:
@@ -642,6 +665,22 @@ public class ContentEntity
         }
     }
 
+    public void accumulateAccess( final ContentAccessRightsAccumulated accumulated, final GroupMembershipClosure groups )
+    {
+        for ( final Map.Entry<GroupKey, ContentAccessEntity> entry : contentAccessRights.entrySet() )
+        {
+            if ( accumulated.isAllTrue() )
+            {
+                return;
+            }
+
+            if ( groups.containsAccumulated( entry.getKey() ) )
+            {
+                accumulated.accumulate( entry.getValue() );
+            }
+        }
+    }
+
     @Override
     public boolean equals( Object o )
     {
@@ -6,6 +6,7 @@ package com.enonic.cms.core.content;
 
 import java.util.List;
 
+import com.enonic.cms.core.search.ContentIndexBatch;
 import com.enonic.cms.core.search.query.ContentDocument;
 
 /**
@@ -15,6 +16,11 @@ public interface IndexService
 {
     public void reindex( List<ContentKey> contentKeys );
 
+    /**
+     * Load the given content in a separate transaction and create the index changes for it, without applying them.
+     */
+    public ContentIndexBatch createIndexBatch( List<ContentKey> contentKeys );
+
     ContentDocument createContentDocument( ContentEntity content, final boolean updateMetadataOnly );
 
     public void optimizeIndex();
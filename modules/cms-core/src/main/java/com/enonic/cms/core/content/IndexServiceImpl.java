@@ -11,6 +11,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.enonic.cms.core.search.ContentIndexBatch;
 import com.enonic.cms.core.search.query.ContentDocument;
 import com.enonic.cms.core.search.query.ContentIndexService;
 import com.enonic.cms.store.dao.ContentDao;
@@ -57,6 +58,31 @@ public final class IndexServiceImpl
         contentDao.getHibernateTemplate().clear();
     }
 
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true, timeout = 3600)
+    public ContentIndexBatch createIndexBatch( final List<ContentKey> contentKeys )
+    {
+        final FindContentByKeysCommand command = new FindContentByKeysCommand().contentKeys( contentKeys ).eagerFetches(
+            ContentEagerFetches.PRESET_FOR_INDEXING ).fetchEntitiesAsReadOnly( true ).byPassCache( true );
+
+        final ContentMap contentMap = contentDao.findByKeys( command );
+        final ContentIndexBatch batch = new ContentIndexBatch();
+
+        for ( ContentKey contentKey : contentKeys )
+        {
+            final ContentEntity content = contentMap.get( contentKey );
+            if ( content == null || content.isDeleted() )
+            {
+                batch.remove( contentKey );
+            }
+            else
+            {
+                batch.index( contentDocumentFactory.createContentDocument( content, false ), false );
+            }
+        }
+
+        contentDao.getHibernateTemplate().clear();
+        return batch;
+    }
 
     @Override
     public ContentDocument createContentDocument( ContentEntity content, final boolean updateMetadataOnly )
@@ -8,8 +8,10 @@ import com.enonic.cms.core.content.ContentEntity;
 import com.enonic.cms.core.content.category.CategoryAccessResolver;
 import com.enonic.cms.core.security.AbstractAccessResolver;
 import com.enonic.cms.core.security.group.GroupEntity;
+import com.enonic.cms.core.security.group.GroupMembershipClosure;
 import com.enonic.cms.core.security.group.GroupMembershipSearcher;
 import com.enonic.cms.core.security.user.UserEntity;
+import com.enonic.cms.core.security.user.UserKey;
 import com.enonic.cms.store.dao.GroupDao;
 
 
@@ -18,56 +20,34 @@ public class ContentAccessResolver
 {
     private CategoryAccessResolver categoryAccessResolver;
 
+    private final GroupDao groupDao;
+
+    private UserKey membershipClosureUserKey;
+
+    private GroupMembershipClosure membershipClosure;
+
     public ContentAccessResolver( GroupDao groupDao )
     {
         super( groupDao );
+        this.groupDao = groupDao;
         categoryAccessResolver = new CategoryAccessResolver( groupDao );
     }
 
     public ContentAccessRightsAccumulated getAccumulatedAccessRights( final UserEntity user, final ContentEntity content )
     {
         final ContentAccessRightsAccumulated accumulated = new ContentAccessRightsAccumulated( false );
+        final GroupMembershipClosure groups = getMembershipClosure( user );
 
-        // anonymous group
-        doGetAccumulatedAccessRights( accumulated, getAnonymousGroup(), content );
-        if ( accumulated.isAllTrue() || user.isAnonymous() )
+        content.accumulateAccess( accumulated, groups );
+        if ( accumulated.isAllTrue() )
         {
             return accumulated;
         }
 
-        // user's group
-        if ( user.getUserGroup() != null )
-        {
-            doGetAccumulatedAccessRights( accumulated, user.getUserGroup(), content );
-            if ( accumulated.isAllTrue() )
-            {
-                return accumulated;
-            }
-        }
-
-        // check "authenticated users" group
-        if ( user.getUserStore() != null )
-        {
-            final GroupEntity authenticatedUsersGroup = getAuthenticatedUsersGroup( user.getUserStore() );
-            // NB! All users are always implicit member of authenticated users
-            doGetAccumulatedAccessRights( accumulated, authenticatedUsersGroup, content );
-            if ( accumulated.isAllTrue() )
-            {
-                return accumulated;
-            }
-        }
-
         // check if user is member of enterprise admin and if so give all rights
-        if ( user.isMemberOf( getEnterpriseAdminsGroup(), true ) )
+        if ( groups.isAdministrator() )
         {
             accumulated.setAllTo( true );
-            return accumulated;
-        }
-
-        if ( user.isRoot() )
-        {
-            accumulated.setAllTo( true );
-            return accumulated;
         }
 
         return accumulated;
@@ -220,6 +200,22 @@ public class ContentAccessResolver
         return doHasAccess( executor, content, ContentAccessType.READ );
     }
 
+    /**
+     * Checks the access rights of the content against all groups of the user at once, instead of traversing the
+     * memberships of each group.
+     */
+    @Override
+    protected boolean doHasAccess( final UserEntity user, final ContentEntity content, final ContentAccessType accessType )
+    {
+        if ( user == null )
+        {
+            throw new IllegalArgumentException( "Given user cannot be null" );
+        }
+
+        final GroupMembershipClosure groups = getMembershipClosure( user );
+        return content.hasAccessRightSet( groups, accessType ) || groups.isAdministrator();
+    }
+
     protected boolean hasAccess( final ContentEntity content, final GroupEntity group, final ContentAccessType accessType,
                                  final boolean checkMemberships )
     {
@@ -249,28 +245,19 @@ public class ContentAccessResolver
         return searcher.startSearch( group );
     }
 
-    private void doGetAccumulatedAccessRights( final ContentAccessRightsAccumulated accumulated, final GroupEntity group,
-                                               final ContentEntity content )
+    /**
+     * Returns the groups of the user. The last one is kept, as a resolver is mostly used for many content of the same
+     * user.
+     */
+    private GroupMembershipClosure getMembershipClosure( final UserEntity user )
     {
-        // first, accumulate any rights set for the given group
-        content.accumulateAccess( accumulated, group );
-        if ( accumulated.isAllTrue() )
+        if ( membershipClosure == null || !user.getKey().equals( membershipClosureUserKey ) )
         {
-            return;
+            membershipClosure = groupDao.findMembershipClosure( user );
+            membershipClosureUserKey = user.getKey();
         }
 
-        final GroupMembershipSearcher searcher = new GroupMembershipSearcher()
-        {
-            public boolean isGroupFound( GroupEntity traversedGroup )
-            {
-                content.accumulateAccess( accumulated, traversedGroup );
-                boolean hasFinishedSearching = accumulated.isAllTrue();
-                return hasFinishedSearching;
-            }
-        };
-
-        searcher.startSearch( group );
-        return;
+        return membershipClosure;
     }
 
 }
@@ -8,8 +8,6 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.util.ArrayList;
-import java.util.List;
 
 import org.apache.commons.lang.StringUtils;
 
@@ -21,10 +19,20 @@ import com.enonic.cms.core.content.imports.sourcevalueholders.AbstractSourceValu
 import com.enonic.cms.core.content.imports.sourcevalueholders.StringArraySourceValue;
 import com.enonic.cms.core.content.imports.sourcevalueholders.StringSourceValue;
 
+/**
+ * Reads the lines of the import data one by one as the entries are asked for, so that only the current line is held
+ * in memory.
+ */
 public class ImportDataReaderCsv
     extends AbstractImportDataReader
 {
-    private final List<ImportDataEntry> entries = new ArrayList<ImportDataEntry>();
+    private final InputStream data;
+
+    private final BufferedReader reader;
+
+    private int lineNumber = 0;
+
+    private boolean endOfData = false;
 
     private ImportDataEntry prefetchedNextDataEntry;
 
@@ -33,7 +41,19 @@ public class ImportDataReaderCsv
     {
         super( config );
 
-        readAllLines( data );
+        this.data = data;
+
+        try
+        {
+            this.reader = new BufferedReader( new InputStreamReader( data, "UTF-8" ) );
+        }
+        catch ( IOException e )
+        {
+            throw new ImportCSVSourceException( "Failed to create input stream: " + e.getMessage(), e );
+        }
+
+        // reads the first entry, so that errors in it are reported before importing
+        this.prefetchedNextDataEntry = readNextEntry();
     }
 
     public ImportDataEntry getNextEntry()
@@ -66,62 +86,46 @@ public class ImportDataReaderCsv
             return next;
         }
 
-        if ( entries.size() == 0 )
-        {
-            return null;
-        }
-        return entries.remove( 0 );
+        return readNextEntry();
     }
 
-    private void readAllLines( final InputStream data )
-        throws ImportCSVSourceException
+    private ImportDataEntry readNextEntry()
     {
-        BufferedReader br;
-
-        try
-        {
-            br = new BufferedReader( new InputStreamReader( data, "UTF-8" ) );
-        }
-        catch ( IOException e )
-        {
-            throw new ImportCSVSourceException( "Failed to create input stream: " + e.getMessage(), e );
-        }
-
-        int lineNumber = 1;
-        String line = readNextLine( br, lineNumber );
+        String line = readNextLine();
         while ( line != null )
         {
-            if ( lineNumber <= config.getSkip() )
-            {
-                lineNumber++;
-                line = readNextLine( br, lineNumber );
-                continue;
-            }
-            else if ( StringUtils.isBlank( line ) )
+            if ( lineNumber <= config.getSkip() || StringUtils.isBlank( line ) )
             {
                 // skipping blank lines
-                lineNumber++;
-                line = readNextLine( br, lineNumber );
+                line = readNextLine();
                 continue;
             }
-            else
-            {
-                final LineParser lineParser = new LineParser( lineNumber, line );
-                final ImportDataEntry entry = lineParser.parse();
 
-                entries.add( entry );
-
-                lineNumber++;
-                line = readNextLine( br, lineNumber );
-            }
+            final LineParser lineParser = new LineParser( lineNumber, line );
+            return lineParser.parse();
         }
+
+        return null;
     }
 
-    private String readNextLine( BufferedReader br, int lineNumber )
+    private String readNextLine()
     {
+        if ( endOfData )
+        {
+            return null;
+        }
+
+        lineNumber++;
+
         try
         {
-            return br.readLine();
+            final String line = reader.readLine();
+            if ( line == null )
+            {
+                endOfData = true;
+                data.close();
+            }
+            return line;
         }
         catch ( IOException e )
         {
@@ -8,7 +8,6 @@ package com.enonic.cms.core.content.imports;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.StringWriter;
-import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
@@ -22,6 +21,7 @@ import javax.xml.transform.stream.StreamResult;
 import org.apache.commons.codec.DecoderException;
 import org.apache.commons.codec.binary.Base64;
 import org.jdom.Document;
+import org.jdom.Element;
 import org.jdom.transform.JDOMSource;
 
 import net.sf.saxon.Configuration;
@@ -44,14 +44,18 @@ import com.enonic.cms.core.content.imports.sourcevalueholders.BinarySourceValue;
 import com.enonic.cms.core.content.imports.sourcevalueholders.StringArraySourceValue;
 import com.enonic.cms.core.content.imports.sourcevalueholders.StringSourceValue;
 
-// TODO: improve implementation: read as we go
+/**
+ * Reads the entries of an xml import as they are asked for. When the base is a simple path, the base elements are
+ * streamed one by one, see ImportDataXmlStream, so that memory use does not grow with the size of the import data.
+ * Otherwise the whole document is read before the first entry.
+ */
 public class ImportDataReaderXml
     extends AbstractImportDataReader
 {
-    private final List<ImportDataEntry> entries = new ArrayList<ImportDataEntry>();
-
     private final XPathEvaluator evaluator = new XPathEvaluator();
 
+    private final Iterator<NodeInfo> baseNodes;
+
     private ImportDataEntry prefetchedNextDataEntry;
 
     public ImportDataReaderXml( final CtyImportConfig config, final InputStream data )
@@ -60,12 +64,24 @@ public class ImportDataReaderXml
 
         try
         {
-            readData( data );
+            this.baseNodes = ImportDataXmlStream.isStreamable( config ) ? streamBaseNodes( data ) : getBaseNodes( data ).iterator();
+
+            // reads the first entry, so that errors in it are reported before importing
+            this.prefetchedNextDataEntry = fetchNextEntry();
+        }
+        catch ( ImportException e )
+        {
+            throw e;
         }
         catch ( Throwable e )
         {
             throw new ImportException( "Could not read import data: " + e.getMessage(), e );
         }
+
+        if ( this.prefetchedNextDataEntry == null )
+        {
+            throw new ImportException( "No elements found at base: " + config.getBase() );
+        }
     }
 
     public ImportDataEntry getNextEntry()
@@ -98,31 +114,65 @@ public class ImportDataReaderXml
             return next;
         }
 
-        if ( entries.size() == 0 )
+        if ( !baseNodes.hasNext() )
         {
             return null;
         }
-        return entries.remove( 0 );
+
+        try
+        {
+            return createEntry( baseNodes.next() );
+        }
+        catch ( ImportException e )
+        {
+            throw e;
+        }
+        catch ( Exception e )
+        {
+            throw new ImportException( "Could not read import data: " + e.getMessage(), e );
+        }
     }
 
-    private void readData( final InputStream data )
+    private ImportDataEntry createEntry( final NodeInfo baseNode )
         throws Exception
     {
-        final List<NodeInfo> baseNodes = getBaseNodes( data );
+        final ImportDataEntry entry = new ImportDataEntry( config.getSyncMapping() );
+        addMappings( baseNode, entry );
+        addMetadataMappings( baseNode, entry );
+        addBlocks( baseNode, entry );
+        return entry;
+    }
 
-        if ( baseNodes.size() == 0 )
-        {
-            throw new ImportException( "No elements found at base: " + config.getBase() );
-        }
+    private Iterator<NodeInfo> streamBaseNodes( final InputStream data )
+        throws Exception
+    {
+        final ImportDataXmlStream stream = new ImportDataXmlStream( config, data );
+        this.evaluator.setDefaultElementNamespace( stream.getDefaultElementNamespace() );
 
-        for ( NodeInfo baseNode : baseNodes )
+        return new Iterator<NodeInfo>()
         {
-            final ImportDataEntry entry = new ImportDataEntry( config.getSyncMapping() );
-            addMappings( baseNode, entry );
-            addMetadataMappings( baseNode, entry );
-            addBlocks( baseNode, entry );
-            entries.add( entry );
-        }
+            public boolean hasNext()
+            {
+                return stream.hasNext();
+            }
+
+            public NodeInfo next()
+            {
+                try
+                {
+                    return toNodeInfo( stream.next() );
+                }
+                catch ( XPathException e )
+                {
+                    throw new ImportException( "Could not read import data: " + e.getMessage(), e );
+                }
+            }
+
+            public void remove()
+            {
+                throw new UnsupportedOperationException();
+            }
+        };
     }
 
     private List<NodeInfo> getBaseNodes( final InputStream data )
@@ -134,10 +184,14 @@ public class ImportDataReaderXml
 
         this.evaluator.setDefaultElementNamespace( doc.getRootElement().getNamespace().getURI() );
 
-        final XPathExpression exprRoot = this.evaluator.createExpression( "*" );
-        final Object resultRoot = exprRoot.evaluateSingle( new JDOMSource( doc.getRootElement() ) );
+        return getBaseNodes( toNodeInfo( doc.getRootElement() ), config.getBase() );
+    }
 
-        return getBaseNodes( (NodeInfo) resultRoot, config.getBase() );
+    private NodeInfo toNodeInfo( final Element element )
+        throws XPathException
+    {
+        final XPathExpression exprRoot = this.evaluator.createExpression( "*" );
+        return (NodeInfo) exprRoot.evaluateSingle( new JDOMSource( element ) );
     }
 
     private List<NodeInfo> getBaseNodes( final NodeInfo nodeInfo, final String xpath )
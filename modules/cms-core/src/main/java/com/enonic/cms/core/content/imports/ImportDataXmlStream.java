@@ -0,0 +1,505 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.core.content.imports;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UnsupportedEncodingException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.jdom.Attribute;
+import org.jdom.CDATA;
+import org.jdom.Comment;
+import org.jdom.Element;
+import org.jdom.Namespace;
+import org.jdom.ProcessingInstruction;
+import org.jdom.Text;
+
+import net.sf.saxon.om.NamespaceResolver;
+
+import com.google.common.collect.ImmutableSet;
+
+import com.enonic.cms.core.content.contenttype.CtyImportBlockConfig;
+import com.enonic.cms.core.content.contenttype.CtyImportConfig;
+import com.enonic.cms.core.content.contenttype.CtyImportMappingConfig;
+
+/**
+ * Reads the elements at the base of an xml import one by one, without reading the whole document into memory. Each
+ * element is returned as the root of its own small tree, with the namespaces in scope declared on it.
+ * <p/>
+ * Only a base that is a path of child steps, like "/products/product" or "product", can be streamed, and only when the
+ * mappings do not look outside the base element. Other imports must be read as a whole, see isStreamable.
+ */
+final class ImportDataXmlStream
+    implements Iterator<Element>
+{
+    private static final Pattern STEP = Pattern.compile( "\\*|[\\p{L}_][\\p{L}\\p{N}_.\\-]*(:[\\p{L}_][\\p{L}\\p{N}_.\\-]*)?" );
+
+    private static final Pattern OUTSIDE_CONTEXT = Pattern.compile(
+        "\\.\\.|(ancestor|parent|preceding|following)(-or-self|-sibling)?\\s*::|\\b(root|id|idref|key|doc|document|collection)\\s*\\(" );
+
+    private static final Set<String> OPERATOR_NAMES = ImmutableSet.of( "and", "or", "div", "mod" );
+
+    private final InputStream data;
+
+    private final XMLStreamReader reader;
+
+    private final String[] steps;
+
+    private final String[] stepNamespaces;
+
+    private final String defaultElementNamespace;
+
+    private final LinkedList<Map<String, String>> namespaceDeclarations = new LinkedList<Map<String, String>>();
+
+    private int depth;
+
+    private int matchedDepth;
+
+    private boolean atStartElement;
+
+    private boolean endOfData;
+
+    private Element next;
+
+    public ImportDataXmlStream( final CtyImportConfig config, final InputStream data )
+        throws XMLStreamException, UnsupportedEncodingException
+    {
+        this.data = data;
+        this.steps = toAbsoluteSteps( config.getBase() );
+        this.stepNamespaces = new String[this.steps.length];
+
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty( XMLInputFactory.IS_COALESCING, Boolean.TRUE );
+        this.reader = factory.createXMLStreamReader( new InputStreamReader( data, "UTF-8" ) );
+
+        while ( this.reader.next() != XMLStreamConstants.START_ELEMENT )
+        {
+            if ( this.reader.getEventType() == XMLStreamConstants.END_DOCUMENT )
+            {
+                throw new ImportException( "No root element in import data" );
+            }
+        }
+
+        this.defaultElementNamespace = nullToEmpty( this.reader.getNamespaceURI() );
+        resolveStepNamespaces( config.getNamespaceResolver() );
+        this.atStartElement = true;
+    }
+
+    /**
+     * Returns the namespace of the root element, which unprefixed names in the mappings are in.
+     */
+    public String getDefaultElementNamespace()
+    {
+        return this.defaultElementNamespace;
+    }
+
+    /**
+     * Returns true if the base of the import is a path of child steps and no mapping looks outside the base element.
+     */
+    public static boolean isStreamable( final CtyImportConfig config )
+    {
+        if ( toAbsoluteSteps( config.getBase() ) == null )
+        {
+            return false;
+        }
+
+        if ( !isWithinContext( config.getMappings() ) || !isWithinContext( config.getMetadataMappings() ) )
+        {
+            return false;
+        }
+
+        for ( final CtyImportBlockConfig block : config.getBlocks() )
+        {
+            if ( !isWithinContext( block.getBase() ) || !isWithinContext( block.getMappings() ) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isWithinContext( final List<CtyImportMappingConfig> mappings )
+    {
+        for ( final CtyImportMappingConfig mapping : mappings )
+        {
+            if ( !isWithinContext( mapping.getSource() ) || ( mapping.hasAdditionalSource() && !isWithinContext(
+                mapping.getAdditionalSource() ) ) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isWithinContext( final String xpath )
+    {
+        return xpath == null || ( !OUTSIDE_CONTEXT.matcher( xpath ).find() && !containsAbsolutePath( xpath ) );
+    }
+
+    /**
+     * Whether the expression has a location path starting at the root, like "/a/b" or "@id = //b". A slash starts a path
+     * unless it follows an operand, like a name, ".", ")" or "]", where it is a step of a relative path.
+     */
+    private static boolean containsAbsolutePath( final String xpath )
+    {
+        boolean afterOperand = false;
+        boolean afterSlash = false;
+
+        int i = 0;
+        while ( i < xpath.length() )
+        {
+            final char c = xpath.charAt( i );
+            if ( Character.isWhitespace( c ) )
+            {
+                i++;
+                continue;
+            }
+
+            if ( c == '/' )
+            {
+                if ( !afterOperand && !afterSlash )
+                {
+                    return true;
+                }
+
+                // the second slash of "//" continues the relative path
+                afterOperand = false;
+                afterSlash = true;
+                i++;
+                continue;
+            }
+
+            afterSlash = false;
+
+            if ( c == '\'' || c == '"' )
+            {
+                final int end = xpath.indexOf( c, i + 1 );
+                i = end < 0 ? xpath.length() : end + 1;
+                afterOperand = true;
+            }
+            else if ( Character.isLetter( c ) || c == '_' )
+            {
+                final int start = i;
+                while ( i < xpath.length() && isNameChar( xpath, i ) )
+                {
+                    i++;
+                }
+
+                // after an operand, "and", "or", "div" and "mod" are operators
+                afterOperand = !( afterOperand && OPERATOR_NAMES.contains( xpath.substring( start, i ) ) );
+            }
+            else if ( Character.isDigit( c ) || c == '.' )
+            {
+                while ( i < xpath.length() && ( Character.isDigit( xpath.charAt( i ) ) || xpath.charAt( i ) == '.' ) )
+                {
+                    i++;
+                }
+                afterOperand = true;
+            }
+            else
+            {
+                // after an operand, "*" is multiplication, otherwise any element
+                afterOperand = c == ')' || c == ']' || ( c == '*' && !afterOperand );
+                i++;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isNameChar( final String xpath, final int index )
+    {
+        final char c = xpath.charAt( index );
+        if ( c == ':' )
+        {
+            // a prefix separator, but not an axis separator
+            return index + 1 < xpath.length() && xpath.charAt( index + 1 ) != ':' && xpath.charAt( index - 1 ) != ':';
+        }
+        return Character.isLetterOrDigit( c ) || c == '_' || c == '-' || c == '.';
+    }
+
+    /**
+     * Returns the steps of the base from the document, or null if the base is not a path of child steps. A relative
+     * base is evaluated from the root element, as when read as a whole.
+     */
+    private static String[] toAbsoluteSteps( final String base )
+    {
+        if ( base == null )
+        {
+            return null;
+        }
+
+        final String path = base.trim();
+        final boolean absolute = path.startsWith( "/" );
+        final String[] relativeSteps = ( absolute ? path.substring( 1 ) : path ).split( "/", -1 );
+        for ( final String step : relativeSteps )
+        {
+            if ( !STEP.matcher( step ).matches() )
+            {
+                return null;
+            }
+        }
+
+        if ( absolute )
+        {
+            return relativeSteps;
+        }
+
+        final String[] steps = new String[relativeSteps.length + 1];
+        steps[0] = "*";
+        System.arraycopy( relativeSteps, 0, steps, 1, relativeSteps.length );
+        return steps;
+    }
+
+    private void resolveStepNamespaces( final NamespaceResolver importDefNamespace )
+    {
+        for ( int i = 0; i < this.steps.length; i++ )
+        {
+            final int colon = this.steps[i].indexOf( ':' );
+            if ( colon < 0 )
+            {
+                // unprefixed names are in the namespace of the root element
+                this.stepNamespaces[i] = this.defaultElementNamespace;
+                continue;
+            }
+
+            final String prefix = this.steps[i].substring( 0, colon );
+            String uri = this.reader.getNamespaceContext().getNamespaceURI( prefix );
+            if ( ( uri == null || uri.length() == 0 ) && importDefNamespace != null )
+            {
+                uri = importDefNamespace.getURIForPrefix( prefix, false );
+            }
+            if ( uri == null || uri.length() == 0 )
+            {
+                throw new ImportException( "Undeclared namespace prefix '" + prefix + "' in base: " + this.steps[i] );
+            }
+
+            this.stepNamespaces[i] = uri;
+            this.steps[i] = this.steps[i].substring( colon + 1 );
+        }
+    }
+
+    public boolean hasNext()
+    {
+        if ( this.next == null && !this.endOfData )
+        {
+            try
+            {
+                this.next = readNextBaseElement();
+            }
+            catch ( XMLStreamException e )
+            {
+                close();
+                throw new ImportException( "Could not read import data: " + e.getMessage(), e );
+            }
+        }
+
+        return this.next != null;
+    }
+
+    public Element next()
+    {
+        if ( !hasNext() )
+        {
+            throw new NoSuchElementException();
+        }
+
+        final Element element = this.next;
+        this.next = null;
+        return element;
+    }
+
+    public void remove()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    private Element readNextBaseElement()
+        throws XMLStreamException
+    {
+        while ( this.atStartElement || this.reader.hasNext() )
+        {
+            final int event = this.atStartElement ? XMLStreamConstants.START_ELEMENT : this.reader.next();
+            this.atStartElement = false;
+
+            if ( event == XMLStreamConstants.START_ELEMENT )
+            {
+                this.depth++;
+                pushNamespaceDeclarations();
+
+                if ( this.matchedDepth == this.depth - 1 && this.depth <= this.steps.length && matchesStep( this.depth - 1 ) )
+                {
+                    this.matchedDepth = this.depth;
+                }
+
+                if ( this.matchedDepth == this.steps.length && this.depth == this.steps.length )
+                {
+                    final Element element = readElement();
+                    endElement();
+                    return element;
+                }
+            }
+            else if ( event == XMLStreamConstants.END_ELEMENT )
+            {
+                endElement();
+            }
+        }
+
+        close();
+        return null;
+    }
+
+    private boolean matchesStep( final int index )
+    {
+        if ( "*".equals( this.steps[index] ) )
+        {
+            return true;
+        }
+
+        return this.steps[index].equals( this.reader.getLocalName() ) &&
+            this.stepNamespaces[index].equals( nullToEmpty( this.reader.getNamespaceURI() ) );
+    }
+
+    private void endElement()
+    {
+        if ( this.matchedDepth == this.depth )
+        {
+            this.matchedDepth--;
+        }
+
+        this.namespaceDeclarations.removeLast();
+        this.depth--;
+    }
+
+    private void pushNamespaceDeclarations()
+    {
+        this.namespaceDeclarations.addLast( getNamespaceDeclarations() );
+    }
+
+    private Map<String, String> getNamespaceDeclarations()
+    {
+        final Map<String, String> declarations = new HashMap<String, String>();
+        for ( int i = 0; i < this.reader.getNamespaceCount(); i++ )
+        {
+            declarations.put( nullToEmpty( this.reader.getNamespacePrefix( i ) ), nullToEmpty( this.reader.getNamespaceURI( i ) ) );
+        }
+        return declarations;
+    }
+
+    private Element readElement()
+        throws XMLStreamException
+    {
+        final Element root = createElement();
+
+        // the namespaces in scope, inner declarations overriding outer ones
+        final Map<String, String> inScope = new HashMap<String, String>();
+        for ( final Map<String, String> declarations : this.namespaceDeclarations )
+        {
+            inScope.putAll( declarations );
+        }
+        declareNamespaces( root, inScope );
+
+        Element current = root;
+        int level = 1;
+        while ( level > 0 )
+        {
+            switch ( this.reader.next() )
+            {
+                case XMLStreamConstants.START_ELEMENT:
+                    final Element child = createElement();
+                    declareNamespaces( child, getNamespaceDeclarations() );
+                    current.addContent( child );
+                    current = child;
+                    level++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    level--;
+                    current = level > 0 ? current.getParentElement() : current;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.SPACE:
+                case XMLStreamConstants.ENTITY_REFERENCE:
+                    current.addContent( new Text( this.reader.getText() ) );
+                    break;
+                case XMLStreamConstants.CDATA:
+                    current.addContent( new CDATA( this.reader.getText() ) );
+                    break;
+                case XMLStreamConstants.COMMENT:
+                    current.addContent( new Comment( this.reader.getText() ) );
+                    break;
+                case XMLStreamConstants.PROCESSING_INSTRUCTION:
+                    current.addContent( new ProcessingInstruction( this.reader.getPITarget(), nullToEmpty( this.reader.getPIData() ) ) );
+                    break;
+            }
+        }
+
+        return root;
+    }
+
+    private Element createElement()
+    {
+        final Namespace elementNamespace =
+            Namespace.getNamespace( nullToEmpty( this.reader.getPrefix() ), nullToEmpty( this.reader.getNamespaceURI() ) );
+        final Element element = new Element( this.reader.getLocalName(), elementNamespace );
+        for ( int i = 0; i < this.reader.getAttributeCount(); i++ )
+        {
+            final Namespace namespace = Namespace.getNamespace( nullToEmpty( this.reader.getAttributePrefix( i ) ),
+                                                                nullToEmpty( this.reader.getAttributeNamespace( i ) ) );
+            element.setAttribute( new Attribute( this.reader.getAttributeLocalName( i ), this.reader.getAttributeValue( i ), namespace ) );
+        }
+        return element;
+    }
+
+    private void declareNamespaces( final Element element, final Map<String, String> declarations )
+    {
+        for ( final Map.Entry<String, String> declaration : declarations.entrySet() )
+        {
+            // the namespace of the element is declared by the element itself, and undeclarations can not be represented
+            if ( declaration.getKey().equals( element.getNamespacePrefix() ) || declaration.getValue().length() == 0 )
+            {
+                continue;
+            }
+
+            element.addNamespaceDeclaration( Namespace.getNamespace( declaration.getKey(), declaration.getValue() ) );
+        }
+    }
+
+    private void close()
+    {
+        this.endOfData = true;
+
+        try
+        {
+            this.reader.close();
+            this.data.close();
+        }
+        catch ( XMLStreamException e )
+        {
+            // ignore
+        }
+        catch ( IOException e )
+        {
+            // ignore
+        }
+    }
+
+    private static String nullToEmpty( final String value )
+    {
+        return value != null ? value : "";
+    }
+}
@@ -7,8 +7,10 @@ package com.enonic.cms.core.content.imports;
 import java.io.InputStream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.enonic.cms.core.content.IndexService;
 import com.enonic.cms.core.content.category.CategoryAccessResolver;
 import com.enonic.cms.core.content.category.CategoryAccessType;
 import com.enonic.cms.core.content.category.CategoryEntity;
@@ -31,6 +33,9 @@ public class ImportJobFactory
     @Autowired
     private ImportService importService;
 
+    @Autowired
+    private IndexService indexService;
+
     @Autowired
     private ContentDao contentDao;
 
@@ -45,6 +50,10 @@ public class ImportJobFactory
 
     private static boolean executeInOneTransaction = false;
 
+    private int batchSize;
+
+    private int threads;
+
     public ImportJob createImportJob( final ImportContentCommand command )
     {
         if ( command.publishFrom != null && command.publishTo != null && !command.publishFrom.isBefore( command.publishTo ) )
@@ -59,6 +68,7 @@ public class ImportJobFactory
         ImportJobImpl importJob = new ImportJobImpl();
 
         importJob.setImportService( importService );
+        importJob.setIndexService( indexService );
         importJob.setContentDao( contentDao );
         importJob.setContentIndexService( contentIndexService );
 
@@ -69,6 +79,8 @@ public class ImportJobFactory
         importJob.setDefaultPublishFrom( command.publishFrom );
         importJob.setDefaultPublishTo( command.publishTo );
         importJob.setExecuteInOneTransaction( executeInOneTransaction );
+        importJob.setBatchSize( batchSize );
+        importJob.setThreads( threads );
 
         if ( command.assigneeKey != null )
         {
@@ -150,6 +162,18 @@ public class ImportJobFactory
         }
     }
 
+    @Value("${cms.import.batchSize}")
+    public void setBatchSize( final int batchSize )
+    {
+        this.batchSize = Math.max( 1, batchSize );
+    }
+
+    @Value("${cms.import.threads}")
+    public void setThreads( final int threads )
+    {
+        this.threads = Math.max( 1, threads );
+    }
+
     public static void setExecuteInOneTransaction( boolean value )
     {
         ImportJobFactory.executeInOneTransaction = value;
@@ -4,22 +4,41 @@
  */
 package com.enonic.cms.core.content.imports;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 
 import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
+
 import com.enonic.cms.framework.util.GenericConcurrencyLock;
 
 import com.enonic.cms.core.content.ContentEntity;
 import com.enonic.cms.core.content.ContentKey;
+import com.enonic.cms.core.content.IndexService;
 import com.enonic.cms.core.content.category.CategoryEntity;
 import com.enonic.cms.core.content.category.CategoryKey;
+import com.enonic.cms.core.content.contenttype.CtyImportBlockConfig;
 import com.enonic.cms.core.content.contenttype.CtyImportConfig;
+import com.enonic.cms.core.content.contenttype.CtyImportMappingConfig;
 import com.enonic.cms.core.content.contenttype.CtyImportPurgeConfig;
 import com.enonic.cms.core.search.query.ContentIndexService;
 import com.enonic.cms.core.security.user.UserEntity;
@@ -31,8 +50,12 @@ public class ImportJobImpl
 {
     private static final Logger LOG = LoggerFactory.getLogger( ImportJobImpl.class );
 
+    private static final int REINDEX_BATCH_SIZE = 100;
+
     private ImportService importService;
 
+    private IndexService indexService;
+
     private ContentIndexService contentIndexService;
 
     private ContentDao contentDao;
@@ -51,7 +74,7 @@ public class ImportJobImpl
 
     private DateTime defaultPublishTo;
 
-    private List<ContentKey> contentNotAffectedByImport;
+    private Set<ContentKey> contentNotAffectedByImport;
 
     private Map<String, ContentKey> existingContentKeysBySyncValue;
 
@@ -63,6 +86,10 @@ public class ImportJobImpl
 
     private String assignmentDescription;
 
+    private int batchSize = 1;
+
+    private int threads = 1;
+
     private static GenericConcurrencyLock<CategoryKey> concurrencyLock = GenericConcurrencyLock.create();
 
     public ImportResult start()
@@ -88,27 +115,13 @@ public class ImportJobImpl
             importResult = new ImportResult();
             importResult.startTimer();
 
-            int count = 0;
-
-            while ( importDataReader.hasMoreEntries() )
+            if ( isImportInBatches() )
             {
-                count++;
-
-                final ImportDataEntry nextEntry = importDataReader.getNextEntry();
-
-                long lastEntryImportTime = System.currentTimeMillis();
-
-                if ( executeInOneTransaction )
-                {
-                    importService.importData_withoutRequiresNewPropagation_for_test_only( nextEntry, this );
-                }
-                else
-                {
-                    importService.importData( nextEntry, this );
-                }
-
-                LOG.info( "Import job #" + this.getImportJobNumber() + "entry #" + count + " finished in " +
-                              ( System.currentTimeMillis() - lastEntryImportTime ) + " milliseconds." );
+                importInBatches();
+            }
+            else
+            {
+                importEntryByEntry();
             }
 
             if ( importConfig.isSyncEnabled() )
@@ -134,9 +147,191 @@ public class ImportJobImpl
         return this.hashCode();
     }
 
+    private void importEntryByEntry()
+    {
+        int count = 0;
+
+        while ( importDataReader.hasMoreEntries() )
+        {
+            count++;
+
+            final ImportDataEntry nextEntry = importDataReader.getNextEntry();
+
+            long lastEntryImportTime = System.currentTimeMillis();
+
+            if ( executeInOneTransaction )
+            {
+                importService.importData_withoutRequiresNewPropagation_for_test_only( nextEntry, this );
+            }
+            else
+            {
+                importService.importData( nextEntry, this );
+            }
+
+            LOG.info( "Import job #" + this.getImportJobNumber() + "entry #" + count + " finished in " +
+                          ( System.currentTimeMillis() - lastEntryImportTime ) + " milliseconds." );
+        }
+    }
+
+    private boolean isImportInBatches()
+    {
+        return !executeInOneTransaction && ( batchSize > 1 || threads > 1 ) && !isRelatingToImportedContent();
+    }
+
+    /**
+     * Whether the entries may relate to content imported earlier in the same import data. Related content is looked up
+     * in the index, where the content stored in batches is not found until all batches are stored.
+     */
+    private boolean isRelatingToImportedContent()
+    {
+        final String contentTypeName = categoryToImportTo.getContentType().getName();
+
+        final List<CtyImportMappingConfig> mappings = new ArrayList<CtyImportMappingConfig>( importConfig.getMappings() );
+        for ( CtyImportBlockConfig block : importConfig.getBlocks() )
+        {
+            mappings.addAll( block.getMappings() );
+        }
+
+        for ( CtyImportMappingConfig mapping : mappings )
+        {
+            if ( mapping.getRelatedContentType() != null && mapping.getRelatedContentType().equalsIgnoreCase( contentTypeName ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Imports the entries in batches of batchSize, each batch in its own transaction, stored by a pool of threads.
+     * The content is not indexed as each batch is stored, but all at once at the end, also when the import fails.
+     */
+    private void importInBatches()
+    {
+        final Set<String> usedSyncValues = new HashSet<String>();
+        final Set<ContentKey> contentToIndex = new HashSet<ContentKey>();
+        final LinkedList<Future<Set<ContentKey>>> pending = new LinkedList<Future<Set<ContentKey>>>();
+        final ExecutorService executor = Executors.newFixedThreadPool( threads, new ImportThreadFactory( getImportJobNumber() ) );
+
+        try
+        {
+            int count = 0;
+
+            while ( importDataReader.hasMoreEntries() )
+            {
+                final List<ImportDataEntry> batch = new ArrayList<ImportDataEntry>( batchSize );
+                while ( batch.size() < batchSize && importDataReader.hasMoreEntries() )
+                {
+                    batch.add( importDataReader.getNextEntry() );
+                }
+
+                if ( importConfig.isSyncEnabled() )
+                {
+                    checkSyncValues( batch, usedSyncValues );
+                }
+
+                // limits the entries read ahead of the threads storing them
+                if ( pending.size() >= threads * 2 )
+                {
+                    contentToIndex.addAll( waitFor( pending.removeFirst() ) );
+                }
+
+                pending.add( executor.submit( new ImportBatchTask( batch ) ) );
+                count += batch.size();
+            }
+
+            while ( !pending.isEmpty() )
+            {
+                contentToIndex.addAll( waitFor( pending.removeFirst() ) );
+            }
+
+            LOG.info( "Import job #" + this.getImportJobNumber() + ": " + count + " entries stored in batches of " + batchSize +
+                          " by " + threads + " threads" );
+        }
+        finally
+        {
+            // after a failure, batches not yet started are cancelled, and batches being stored are waited for
+            for ( Future<Set<ContentKey>> future : pending )
+            {
+                future.cancel( false );
+            }
+            executor.shutdown();
+
+            for ( Future<Set<ContentKey>> future : pending )
+            {
+                try
+                {
+                    contentToIndex.addAll( waitFor( future ) );
+                }
+                catch ( RuntimeException e )
+                {
+                    // the failure of the import is already thrown
+                }
+            }
+
+            reindex( contentToIndex );
+        }
+    }
+
+    private void checkSyncValues( final List<ImportDataEntry> batch, final Set<String> usedSyncValues )
+    {
+        for ( ImportDataEntry importDataEntry : batch )
+        {
+            if ( importDataEntry.getSyncValue() == null )
+            {
+                throw new InvalidImportDataException( "Sync value not found: " + importDataEntry );
+            }
+
+            // entries with the same sync value could otherwise be stored at the same time by different threads, the sync
+            // values are compared ignoring case, as when resolving the existing content
+            if ( !usedSyncValues.add( importDataEntry.getSyncValue().toLowerCase() ) )
+            {
+                throw new InvalidImportDataException(
+                    "Import data did not contain unique entries as defined by the sync field, found duplicate with sync value: \"" +
+                        importDataEntry.getSyncValue() + "\"" );
+            }
+        }
+    }
+
+    private Set<ContentKey> waitFor( final Future<Set<ContentKey>> future )
+    {
+        try
+        {
+            return future.get();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new ImportException( "Import job #" + this.getImportJobNumber() + " was interrupted", e );
+        }
+        catch ( ExecutionException e )
+        {
+            throw Throwables.propagate( e.getCause() );
+        }
+    }
+
+    private void reindex( final Set<ContentKey> contentKeys )
+    {
+        if ( contentKeys.isEmpty() )
+        {
+            return;
+        }
+
+        final long startTime = System.currentTimeMillis();
+        for ( List<ContentKey> partition : Lists.partition( new ArrayList<ContentKey>( contentKeys ), REINDEX_BATCH_SIZE ) )
+        {
+            indexService.reindex( partition );
+        }
+
+        LOG.info( "Import job #" + this.getImportJobNumber() + ": indexed " + contentKeys.size() + " content in " +
+                      ( System.currentTimeMillis() - startTime ) + " milliseconds." );
+    }
+
     private void initSyncMode()
     {
-        contentNotAffectedByImport = contentDao.findContentKeysByCategory( categoryToImportTo.getKey() );
+        // a set, since imported content is removed from it for every entry, and possibly by several threads
+        final List<ContentKey> contentInCategory = contentDao.findContentKeysByCategory( categoryToImportTo.getKey() );
+        contentNotAffectedByImport = Collections.synchronizedSet( new LinkedHashSet<ContentKey>( contentInCategory ) );
 
         LOG.info( "Import job #" + this.getImportJobNumber() + ": found " + contentNotAffectedByImport.size() +
                       " existing content in category: " + categoryToImportTo.getPathAsString() );
@@ -246,6 +441,11 @@ public class ImportJobImpl
         this.importService = value;
     }
 
+    public void setIndexService( IndexService value )
+    {
+        this.indexService = value;
+    }
+
     public void setContentIndexService( ContentIndexService value )
     {
         this.contentIndexService = value;
@@ -291,6 +491,16 @@ public class ImportJobImpl
         executeInOneTransaction = value;
     }
 
+    public void setBatchSize( int value )
+    {
+        this.batchSize = Math.max( 1, value );
+    }
+
+    public void setThreads( int value )
+    {
+        this.threads = Math.max( 1, value );
+    }
+
     public UserEntity getAssignee()
     {
         return assignee;
@@ -320,5 +530,47 @@ public class ImportJobImpl
     {
         this.assignmentDescription = assignmentDescription;
     }
-}
 
+    private final class ImportBatchTask
+        implements Callable<Set<ContentKey>>
+    {
+        private final List<ImportDataEntry> batch;
+
+        private ImportBatchTask( final List<ImportDataEntry> batch )
+        {
+            this.batch = batch;
+        }
+
+        @Override
+        public Set<ContentKey> call()
+        {
+            final long startTime = System.currentTimeMillis();
+            final Set<ContentKey> contentToIndex = importService.importBatch( batch, ImportJobImpl.this );
+
+            LOG.info( "Import job #" + getImportJobNumber() + ": batch of " + batch.size() + " entries finished in " +
+                          ( System.currentTimeMillis() - startTime ) + " milliseconds." );
+            return contentToIndex;
+        }
+    }
+
+    private static final class ImportThreadFactory
+        implements ThreadFactory
+    {
+        private final String namePrefix;
+
+        private final AtomicInteger threadNumber = new AtomicInteger( 1 );
+
+        private ImportThreadFactory( final int importJobNumber )
+        {
+            this.namePrefix = "content-import-" + importJobNumber + "-";
+        }
+
+        @Override
+        public Thread newThread( final Runnable runnable )
+        {
+            final Thread thread = new Thread( runnable, this.namePrefix + this.threadNumber.getAndIncrement() );
+            thread.setDaemon( true );
+            return thread;
+        }
+    }
+}
@@ -58,42 +58,55 @@ public class ImportResult
         return elapsedTime.getTotalTimeSeconds();
     }
 
-    public void addInserted( final ContentEntity content )
+    /**
+     * Returns the number of entries imported per second, counting inserted, updated and skipped entries.
+     */
+    public synchronized double getRowsPerSecond()
+    {
+        final double elapsedTimeInSeconds = getElapsedTimeInSeconds();
+        if ( elapsedTimeInSeconds == 0 )
+        {
+            return 0;
+        }
+        return ( inserted.size() + updated.size() + skipped.size() ) / elapsedTimeInSeconds;
+    }
+
+    public synchronized void addInserted( final ContentEntity content )
     {
         inserted.put( content.getKey(), content.getMainVersion().getTitle() );
     }
 
-    public void addUpdated( final ContentEntity content )
+    public synchronized void addUpdated( final ContentEntity content )
     {
         updated.put( content.getKey(), content.getMainVersion().getTitle() );
     }
 
-    public void addUnchanged( final ContentEntity content )
+    public synchronized void addUnchanged( final ContentEntity content )
     {
         skipped.put( content.getKey(), content.getMainVersion().getTitle() );
     }
 
-    public void addDeleted( final ContentEntity content )
+    public synchronized void addDeleted( final ContentEntity content )
     {
         deleted.put( content.getKey(), content.getMainVersion().getTitle() );
     }
 
-    public void addArchived( final ContentEntity content )
+    public synchronized void addArchived( final ContentEntity content )
     {
         archived.put( content.getKey(), content.getMainVersion().getTitle() );
     }
 
-    public void addRemaining( final ContentEntity content )
+    public synchronized void addRemaining( final ContentEntity content )
     {
         remaining.put( content.getKey(), content.getMainVersion().getTitle() );
     }
 
-    public void addAlreadyArchived( final ContentEntity content )
+    public synchronized void addAlreadyArchived( final ContentEntity content )
     {
         alreadyArchived.put( content.getKey(), content.getMainVersion().getTitle() );
     }
 
-    public void addAssigned( final ContentEntity content )
+    public synchronized void addAssigned( final ContentEntity content )
     {
         assigned.put( content.getKey(), content.getMainVersion().getTitle() );
     }
@@ -27,6 +27,7 @@ public class ImportResultXmlCreator
     {
         final Element root = new Element( "importreport" );
         root.setAttribute( "elapsedTimeInSeconds", String.valueOf( importResult.getElapsedTimeInSeconds() ) );
+        root.setAttribute( "rowsPerSecond", String.valueOf( Math.round( importResult.getRowsPerSecond() ) ) );
         final Document doc = new Document( root );
 
         root.addContent( createReportElement( "inserted", importResult.getInserted() ) );
@@ -4,6 +4,9 @@
  */
 package com.enonic.cms.core.content.imports;
 
+import java.util.List;
+import java.util.Set;
+
 import com.enonic.cms.core.content.ContentKey;
 import com.enonic.cms.core.security.user.UserEntity;
 
@@ -13,6 +16,12 @@ public interface ImportService
 
     boolean importData_withoutRequiresNewPropagation_for_test_only( ImportDataEntry importDataEntry, ImportJob importJob );
 
+    /**
+     * Imports the entries in one transaction, without indexing them. Returns the keys of the content to index when the
+     * transaction has committed.
+     */
+    Set<ContentKey> importBatch( List<ImportDataEntry> importDataEntries, ImportJob importJob );
+
     void archiveContent( UserEntity importer, ContentKey contentKey, ImportResult importResult );
 
     void archiveContent_withoutRequiresNewPropagation_for_test_only( UserEntity importer, ContentKey contentKey,
@@ -4,6 +4,9 @@
  */
 package com.enonic.cms.core.content.imports;
 
+import java.util.List;
+import java.util.Set;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -13,12 +16,15 @@ import org.springframework.transaction.annotation.Transactional;
 import com.enonic.cms.core.content.ContentEntity;
 import com.enonic.cms.core.content.ContentKey;
 import com.enonic.cms.core.content.ContentStorer;
+import com.enonic.cms.core.content.category.CategoryEntity;
 import com.enonic.cms.core.content.command.UnassignContentCommand;
 import com.enonic.cms.core.search.IndexTransactionService;
 import com.enonic.cms.core.search.query.ContentIndexService;
 import com.enonic.cms.core.security.user.UserEntity;
+import com.enonic.cms.store.dao.CategoryDao;
 import com.enonic.cms.store.dao.ContentDao;
 import com.enonic.cms.store.dao.ContentTypeDao;
+import com.enonic.cms.store.dao.UserDao;
 
 @Service("importService")
 public class ImportServiceImpl
@@ -33,6 +39,12 @@ public class ImportServiceImpl
     @Autowired
     private ContentTypeDao contentTypeDao;
 
+    @Autowired
+    private CategoryDao categoryDao;
+
+    @Autowired
+    private UserDao userDao;
+
     @Autowired
     private ContentIndexService contentIndexService;
 
@@ -58,6 +70,29 @@ public class ImportServiceImpl
         return result;
     }
 
+    @Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = Exception.class, timeout = 3600)
+    public Set<ContentKey> importBatch( List<ImportDataEntry> importDataEntries, ImportJob importJob )
+    {
+        indexTransactionService.startTransaction();
+        for ( ImportDataEntry importDataEntry : importDataEntries )
+        {
+            /* Batches are stored by several threads, each must use the entities of its own session */
+            doImportData( importDataEntry, reloadEntities( importJob ) );
+        }
+
+        /* The import job indexes the content of all batches at once, when they are stored */
+        return indexTransactionService.deferJournal();
+    }
+
+    private ImportJob reloadEntities( final ImportJob importJob )
+    {
+        final CategoryEntity category = categoryDao.findByKey( importJob.getCategoryToImportTo().getKey() );
+        final UserEntity importer = importJob.getImporter() != null ? userDao.findByKey( importJob.getImporter().getKey() ) : null;
+        final UserEntity assignee = importJob.getAssignee() != null ? userDao.findByKey( importJob.getAssignee().getKey() ) : null;
+
+        return new ReloadedImportJob( importJob, category, importer, assignee );
+    }
+
     private boolean doImportData( ImportDataEntry importDataEntry, ImportJob importJob )
     {
         try
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.core.content.imports;
+
+import java.util.Date;
+
+import org.joda.time.DateTime;
+
+import com.enonic.cms.core.content.ContentKey;
+import com.enonic.cms.core.content.category.CategoryEntity;
+import com.enonic.cms.core.content.contenttype.CtyImportConfig;
+import com.enonic.cms.core.security.user.UserEntity;
+
+/**
+ * An import job with its category, importer and assignee loaded in the session of the thread importing an entry.
+ */
+final class ReloadedImportJob
+    implements ImportJob
+{
+    private final ImportJob importJob;
+
+    private final CategoryEntity categoryToImportTo;
+
+    private final UserEntity importer;
+
+    private final UserEntity assignee;
+
+    ReloadedImportJob( final ImportJob importJob, final CategoryEntity categoryToImportTo, final UserEntity importer,
+                       final UserEntity assignee )
+    {
+        this.importJob = importJob;
+        this.categoryToImportTo = categoryToImportTo;
+        this.importer = importer;
+        this.assignee = assignee;
+    }
+
+    public ImportResult start()
+    {
+        throw new UnsupportedOperationException( "Import job is already started" );
+    }
+
+    public CategoryEntity getCategoryToImportTo()
+    {
+        return categoryToImportTo;
+    }
+
+    public DateTime getDefaultPublishFrom()
+    {
+        return importJob.getDefaultPublishFrom();
+    }
+
+    public DateTime getDefaultPublishTo()
+    {
+        return importJob.getDefaultPublishTo();
+    }
+
+    public UserEntity getImporter()
+    {
+        return importer;
+    }
+
+    public ImportResult getImportResult()
+    {
+        return importJob.getImportResult();
+    }
+
+    public void registerImportedContent( final ContentKey contentKey )
+    {
+        importJob.registerImportedContent( contentKey );
+    }
+
+    public CtyImportConfig getImportConfig()
+    {
+        return importJob.getImportConfig();
+    }
+
+    public ContentKey resolveExistingContentBySyncValue( final ImportDataEntry importDataEntry )
+    {
+        return importJob.resolveExistingContentBySyncValue( importDataEntry );
+    }
+
+    public UserEntity getAssignee()
+    {
+        return assignee;
+    }
+
+    public String getAssignmentDescription()
+    {
+        return importJob.getAssignmentDescription();
+    }
+
+    public Date getAssignmentDueDate()
+    {
+        return importJob.getAssignmentDueDate();
+    }
+}
@@ -0,0 +1,397 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.core.image.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.io.Files;
+
+import com.enonic.cms.framework.cache.CacheFacade;
+import com.enonic.cms.framework.cache.CacheManager;
+
+import com.enonic.cms.core.image.ImageRequest;
+import com.enonic.cms.core.image.ImageResponse;
+
+/**
+ * Second level image cache keeping processed images as files, so they survive restarts and evictions from the memory
+ * cache. Files are named by the cache key of the image request, which includes the blob key and the parameters, so an
+ * entry never goes stale.
+ * <p/>
+ * The cache is bounded by the total size of the files. When it is exceeded, the least recently used files are deleted.
+ * Recency is tracked in memory, and is initialized from the modification time of the files on startup.
+ * <p/>
+ * The disk cache is cleared together with the memory image cache, by following its generation. This covers clearing
+ * from admin as well as clearing by another cluster node.
+ */
+@Component
+public final class DiskImageCache
+{
+    private final static Logger LOG = LoggerFactory.getLogger( DiskImageCache.class );
+
+    private static final String TMP_SUFFIX = ".tmp";
+
+    private boolean enabled;
+
+    private File directory;
+
+    private long maxSize;
+
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<String, Long>( 1000, 0.75f, true );
+
+    private long size;
+
+    private final AtomicLong hitCount = new AtomicLong( 0 );
+
+    private final AtomicLong missCount = new AtomicLong( 0 );
+
+    private final AtomicLong evictionCount = new AtomicLong( 0 );
+
+    private CacheFacade memoryCache;
+
+    private long generation;
+
+    @PostConstruct
+    public void init()
+    {
+        if ( !this.enabled )
+        {
+            return;
+        }
+
+        if ( !this.directory.isDirectory() && !this.directory.mkdirs() )
+        {
+            LOG.warn( "Failed to create image cache directory [" + this.directory.getAbsolutePath() + "], disk image cache disabled" );
+            this.enabled = false;
+            return;
+        }
+
+        this.generation = this.memoryCache != null ? this.memoryCache.getGeneration() : 0;
+        loadEntries();
+        evict();
+    }
+
+    private void loadEntries()
+    {
+        final List<File> files = Lists.newArrayList();
+        final File[] dirs = this.directory.listFiles();
+        for ( final File dir : dirs != null ? dirs : new File[0] )
+        {
+            final File[] children = dir.listFiles();
+            if ( children != null )
+            {
+                files.addAll( Arrays.asList( children ) );
+            }
+        }
+
+        final Map<File, Long> lastModified = Maps.newHashMap();
+        for ( final File file : files )
+        {
+            lastModified.put( file, file.lastModified() );
+        }
+
+        // oldest first, so that the least recently written files are evicted first
+        Collections.sort( files, new Comparator<File>()
+        {
+            public int compare( final File file1, final File file2 )
+            {
+                return lastModified.get( file1 ).compareTo( lastModified.get( file2 ) );
+            }
+        } );
+
+        synchronized ( this.entries )
+        {
+            for ( final File file : files )
+            {
+                if ( file.getName().endsWith( TMP_SUFFIX ) )
+                {
+                    file.delete();
+                    continue;
+                }
+
+                final long length = file.length();
+                this.entries.put( file.getName(), length );
+                this.size += length;
+            }
+        }
+
+        LOG.info( "Disk image cache [" + this.directory.getAbsolutePath() + "] contains " + getCount() + " images" );
+    }
+
+    public ImageResponse get( final ImageRequest req )
+    {
+        final byte[] data = get( req.getCacheKey() );
+        return data != null ? new ImageResponse( req.getName(), data, req.getFormat() ) : null;
+    }
+
+    public void put( final ImageRequest req, final ImageResponse res )
+    {
+        put( req.getCacheKey(), res.getData() );
+    }
+
+    private byte[] get( final String key )
+    {
+        if ( !this.enabled )
+        {
+            return null;
+        }
+
+        clearIfMemoryCacheCleared();
+
+        synchronized ( this.entries )
+        {
+            if ( this.entries.get( key ) == null )
+            {
+                this.missCount.incrementAndGet();
+                return null;
+            }
+        }
+
+        try
+        {
+            final byte[] data = Files.toByteArray( getFile( key ) );
+            this.hitCount.incrementAndGet();
+            return data;
+        }
+        catch ( final IOException e )
+        {
+            // evicted or removed after the lookup
+            remove( key );
+            this.missCount.incrementAndGet();
+            return null;
+        }
+    }
+
+    private void put( final String key, final byte[] data )
+    {
+        if ( !this.enabled || data.length > this.maxSize )
+        {
+            return;
+        }
+
+        final long generation = clearIfMemoryCacheCleared();
+
+        final File file = getFile( key );
+        File tmpFile = null;
+
+        try
+        {
+            // unique per writer, so concurrent renders of the same image never write to the same file
+            Files.createParentDirs( file );
+            tmpFile = File.createTempFile( key + ".", TMP_SUFFIX, file.getParentFile() );
+            Files.write( data, tmpFile );
+            if ( !tmpFile.renameTo( file ) )
+            {
+                // another writer may have published the same image, which is then replaced
+                if ( !file.delete() || !tmpFile.renameTo( file ) )
+                {
+                    throw new IOException( "Failed to rename [" + tmpFile.getAbsolutePath() + "]" );
+                }
+            }
+        }
+        catch ( final IOException e )
+        {
+            LOG.warn( "Failed to write image to disk image cache [" + file.getAbsolutePath() + "]", e );
+            if ( tmpFile != null )
+            {
+                tmpFile.delete();
+            }
+            return;
+        }
+
+        synchronized ( this.entries )
+        {
+            final Long previous = this.entries.put( key, (long) data.length );
+            this.size += data.length - ( previous != null ? previous : 0 );
+        }
+
+        // checked after the put, so the image is either removed here or by the clear that changed the generation
+        if ( this.memoryCache != null && this.memoryCache.getGeneration() != generation )
+        {
+            remove( key );
+            file.delete();
+            return;
+        }
+
+        evict();
+    }
+
+    /**
+     * Deletes all cached images.
+     */
+    public void clear()
+    {
+        if ( !this.enabled )
+        {
+            return;
+        }
+
+        synchronized ( this.entries )
+        {
+            this.entries.clear();
+            this.size = 0;
+        }
+
+        final File[] dirs = this.directory.listFiles();
+        for ( final File dir : dirs != null ? dirs : new File[0] )
+        {
+            final File[] children = dir.listFiles();
+            for ( final File file : children != null ? children : new File[0] )
+            {
+                // temporary files are left to their writers
+                if ( !file.getName().endsWith( TMP_SUFFIX ) )
+                {
+                    file.delete();
+                }
+            }
+        }
+    }
+
+    private long clearIfMemoryCacheCleared()
+    {
+        if ( this.memoryCache == null )
+        {
+            return 0;
+        }
+
+        final long generation = this.memoryCache.getGeneration();
+        synchronized ( this.entries )
+        {
+            if ( this.generation == generation )
+            {
+                return generation;
+            }
+
+            this.generation = generation;
+        }
+
+        LOG.info( "Image cache cleared, clearing disk image cache [" + this.directory.getAbsolutePath() + "]" );
+        clear();
+        return generation;
+    }
+
+    private void remove( final String key )
+    {
+        synchronized ( this.entries )
+        {
+            final Long length = this.entries.remove( key );
+            if ( length != null )
+            {
+                this.size -= length;
+            }
+        }
+    }
+
+    private void evict()
+    {
+        final List<String> evicted = Lists.newArrayList();
+
+        synchronized ( this.entries )
+        {
+            final Iterator<Map.Entry<String, Long>> it = this.entries.entrySet().iterator();
+            while ( this.size > this.maxSize && it.hasNext() )
+            {
+                final Map.Entry<String, Long> entry = it.next();
+                evicted.add( entry.getKey() );
+                this.size -= entry.getValue();
+                it.remove();
+            }
+        }
+
+        for ( final String key : evicted )
+        {
+            getFile( key ).delete();
+            this.evictionCount.incrementAndGet();
+        }
+    }
+
+    private File getFile( final String key )
+    {
+        return new File( new File( this.directory, key.substring( 0, Math.min( 2, key.length() ) ) ), key );
+    }
+
+    public boolean isEnabled()
+    {
+        return this.enabled;
+    }
+
+    public int getCount()
+    {
+        synchronized ( this.entries )
+        {
+            return this.entries.size();
+        }
+    }
+
+    public long getSizeInBytes()
+    {
+        synchronized ( this.entries )
+        {
+            return this.size;
+        }
+    }
+
+    public long getMaxSize()
+    {
+        return this.maxSize;
+    }
+
+    public long getHitCount()
+    {
+        return this.hitCount.get();
+    }
+
+    public long getMissCount()
+    {
+        return this.missCount.get();
+    }
+
+    public long getEvictionCount()
+    {
+        return this.evictionCount.get();
+    }
+
+    @Autowired
+    public void setCacheManager( final CacheManager cacheManager )
+    {
+        this.memoryCache = cacheManager.getImageCache();
+    }
+
+    @Value("${cms.cache.image.disk.enabled}")
+    public void setEnabled( final boolean enabled )
+    {
+        this.enabled = enabled;
+    }
+
+    @Value("${cms.cache.image.disk.directory}")
+    public void setDirectory( final File directory )
+    {
+        this.directory = directory;
+    }
+
+    @Value("${cms.cache.image.disk.maxSize}")
+    public void setMaxSize( final long maxSize )
+    {
+        this.maxSize = maxSize;
+    }
+}
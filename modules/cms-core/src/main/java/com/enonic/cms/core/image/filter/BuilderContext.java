@@ -4,12 +4,18 @@
  */
 package com.enonic.cms.core.image.filter;
 
+import java.util.concurrent.ExecutorService;
+
 public final class BuilderContext
 {
     private final static int DEFAULT_BACKGROUND = 0x00FFFFFF;
 
     private int backgroundColor = DEFAULT_BACKGROUND;
 
+    private ExecutorService tileExecutor;
+
+    private int tileCount;
+
     public int getBackgroundColor()
     {
         return this.backgroundColor;
@@ -19,4 +25,23 @@ public final class BuilderContext
     {
         this.backgroundColor = backgroundColor;
     }
+
+    public ExecutorService getTileExecutor()
+    {
+        return this.tileExecutor;
+    }
+
+    public int getTileCount()
+    {
+        return this.tileCount;
+    }
+
+    /**
+     * Lets neighbourhood filters run on the given number of tiles in parallel.
+     */
+    public void setTileExecutor( ExecutorService tileExecutor, int tileCount )
+    {
+        this.tileExecutor = tileExecutor;
+        this.tileCount = tileCount;
+    }
 }
@@ -4,12 +4,14 @@
  */
 package com.enonic.cms.core.image.filter;
 
+import java.awt.Dimension;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.List;
 
 public final class ImageFilterSet
-    implements ImageFilter
+    implements ScalingImageFilter
 {
     private final List<ImageFilter> list;
 
@@ -20,12 +22,27 @@ public final class ImageFilterSet
 
     public void addFilter( ImageFilter filter )
     {
-        if ( filter != null )
+        if ( filter == null )
+        {
+            return;
+        }
+
+        ImageFilter last = this.list.isEmpty() ? null : this.list.get( this.list.size() - 1 );
+        if ( filter instanceof PointImageFilter && last instanceof PointImageFilter )
+        {
+            ( (PointImageFilter) last ).merge( (PointImageFilter) filter );
+        }
+        else
         {
             this.list.add( filter );
         }
     }
 
+    public int getFilterCount()
+    {
+        return this.list.size();
+    }
+
     public BufferedImage filter( BufferedImage source )
     {
         BufferedImage target = source;
@@ -37,4 +54,46 @@ public final class ImageFilterSet
 
         return target;
     }
+
+    public BufferedImage filter( BufferedImage sourceRegion, int sourceWidth, int sourceHeight )
+    {
+        ScalingImageFilter first = getFirstScalingFilter();
+        if ( first == null )
+        {
+            return filter( sourceRegion );
+        }
+
+        BufferedImage target = first.filter( sourceRegion, sourceWidth, sourceHeight );
+        for ( ImageFilter filter : this.list.subList( 1, this.list.size() ) )
+        {
+            target = filter.filter( target );
+        }
+
+        return target;
+    }
+
+    public Rectangle getSourceRegion( int sourceWidth, int sourceHeight )
+    {
+        ScalingImageFilter first = getFirstScalingFilter();
+        return first != null ? first.getSourceRegion( sourceWidth, sourceHeight ) : null;
+    }
+
+    public Dimension getScaledSize( int sourceWidth, int sourceHeight )
+    {
+        ScalingImageFilter first = getFirstScalingFilter();
+        return first != null ? first.getScaledSize( sourceWidth, sourceHeight ) : null;
+    }
+
+    /**
+     * Only the first filter sees the source, so only a scaling first filter says anything about the source.
+     */
+    private ScalingImageFilter getFirstScalingFilter()
+    {
+        if ( !this.list.isEmpty() && this.list.get( 0 ) instanceof ScalingImageFilter )
+        {
+            return (ScalingImageFilter) this.list.get( 0 );
+        }
+
+        return null;
+    }
 }
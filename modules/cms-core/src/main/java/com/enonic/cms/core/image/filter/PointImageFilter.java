@@ -0,0 +1,91 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.core.image.filter;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.RGBImageFilter;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.jhlabs.image.PointFilter;
+
+import com.enonic.cms.framework.util.ImageHelper;
+
+/**
+ * Filter computing each pixel from the same pixel of the source only. Consecutive point filters are merged, and the
+ * merged filter applies all of them in one pass over an int raster, instead of creating an image for each filter.
+ */
+public final class PointImageFilter
+    implements ImageFilter
+{
+    private final List<RGBOperation> operations = new ArrayList<RGBOperation>();
+
+    private boolean alpha;
+
+    public PointImageFilter( final PointFilter filter )
+    {
+        this.operations.add( new RGBOperation()
+        {
+            public int filterRGB( int x, int y, int rgb )
+            {
+                return filter.filterRGB( x, y, rgb );
+            }
+        } );
+    }
+
+    public PointImageFilter( final RGBImageFilter filter )
+    {
+        this.operations.add( new RGBOperation()
+        {
+            public int filterRGB( int x, int y, int rgb )
+            {
+                return filter.filterRGB( x, y, rgb );
+            }
+        } );
+
+        // awt image filters have always produced images with alpha
+        this.alpha = true;
+    }
+
+    public void merge( PointImageFilter filter )
+    {
+        this.operations.addAll( filter.operations );
+        this.alpha |= filter.alpha;
+    }
+
+    public BufferedImage filter( BufferedImage source )
+    {
+        int width = source.getWidth();
+        int height = source.getHeight();
+
+        BufferedImage target = ImageHelper.createImage( width, height, this.alpha || source.getColorModel().hasAlpha() );
+        int[] pixels = ( (DataBufferInt) target.getRaster().getDataBuffer() ).getData();
+
+        for ( int y = 0; y < height; y++ )
+        {
+            int offset = y * width;
+            source.getRGB( 0, y, width, 1, pixels, offset, width );
+
+            for ( int x = 0; x < width; x++ )
+            {
+                int rgb = pixels[offset + x];
+                for ( RGBOperation operation : this.operations )
+                {
+                    rgb = operation.filterRGB( x, y, rgb );
+                }
+
+                pixels[offset + x] = rgb;
+            }
+        }
+
+        return target;
+    }
+
+    private interface RGBOperation
+    {
+        public int filterRGB( int x, int y, int rgb );
+    }
+}
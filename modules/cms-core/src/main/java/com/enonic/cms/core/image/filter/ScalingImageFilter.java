@@ -0,0 +1,33 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.core.image.filter;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+/**
+ * Filter that scales its source down, and so can tell in advance how much of the source it needs. This lets the
+ * source be decoded at a reduced resolution, instead of decoding the full original and scaling it afterwards.
+ */
+public interface ScalingImageFilter
+    extends ImageFilter
+{
+    /**
+     * Returns the part of the source that is visible in the result, or null if all of it is.
+     */
+    public Rectangle getSourceRegion( int sourceWidth, int sourceHeight );
+
+    /**
+     * Returns the size the source region is scaled to, or null if it is not known.
+     */
+    public Dimension getScaledSize( int sourceWidth, int sourceHeight );
+
+    /**
+     * Filters the source region of an original of the given size, decoded at any resolution. The result is sized from
+     * the original, as if the original was filtered.
+     */
+    public BufferedImage filter( BufferedImage sourceRegion, int sourceWidth, int sourceHeight );
+}
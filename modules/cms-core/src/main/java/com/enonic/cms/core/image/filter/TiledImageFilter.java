@@ -0,0 +1,116 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.core.image.filter;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.BufferedImageOp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.google.common.base.Throwables;
+
+/**
+ * Runs a neighbourhood operation, like a convolution, on horizontal tiles in parallel. Each tile is filtered with the
+ * margin rows it needs from its neighbours, and the margin is dropped from the result, so the tiles join up to the same
+ * image the operation gives for the whole source.
+ */
+public final class TiledImageFilter
+    implements ImageFilter
+{
+    private static final int MIN_TILE_HEIGHT = 64;
+
+    private final BufferedImageOp operation;
+
+    private final int margin;
+
+    private final ExecutorService executor;
+
+    private final int tileCount;
+
+    public TiledImageFilter( BufferedImageOp operation, int margin, ExecutorService executor, int tileCount )
+    {
+        this.operation = operation;
+        this.margin = margin;
+        this.executor = executor;
+        this.tileCount = tileCount;
+    }
+
+    public BufferedImage filter( BufferedImage source )
+    {
+        int width = source.getWidth();
+        int height = source.getHeight();
+
+        int tiles = Math.min( this.tileCount, height / Math.max( MIN_TILE_HEIGHT, this.margin * 4 ) );
+        if ( tiles < 2 )
+        {
+            return this.operation.filter( source, null );
+        }
+
+        BufferedImage target = this.operation.createCompatibleDestImage( source, null );
+        int tileHeight = ( height + tiles - 1 ) / tiles;
+
+        List<Future<?>> futures = new ArrayList<Future<?>>( tiles );
+        for ( int top = 0; top < height; top += tileHeight )
+        {
+            futures.add( this.executor.submit( new Tile( source, target, top, Math.min( height, top + tileHeight ) ) ) );
+        }
+
+        for ( Future<?> future : futures )
+        {
+            try
+            {
+                future.get();
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException( "Interrupted while filtering image", e );
+            }
+            catch ( ExecutionException e )
+            {
+                throw Throwables.propagate( e.getCause() );
+            }
+        }
+
+        return target;
+    }
+
+    private final class Tile
+        implements Runnable
+    {
+        private final BufferedImage source;
+
+        private final BufferedImage target;
+
+        private final int top;
+
+        private final int bottom;
+
+        private Tile( BufferedImage source, BufferedImage target, int top, int bottom )
+        {
+            this.source = source;
+            this.target = target;
+            this.top = top;
+            this.bottom = bottom;
+        }
+
+        public void run()
+        {
+            int width = this.source.getWidth();
+            int bandTop = Math.max( 0, this.top - margin );
+            int bandBottom = Math.min( this.source.getHeight(), this.bottom + margin );
+
+            BufferedImage band = operation.filter( this.source.getSubimage( 0, bandTop, width, bandBottom - bandTop ), null );
+
+            // tiles write disjoint rows of the target
+            int rows = this.bottom - this.top;
+            int[] pixels = band.getRGB( 0, this.top - bandTop, width, rows, null, 0, width );
+            this.target.setRGB( 0, this.top, width, rows, pixels, 0, width );
+        }
+    }
+}
@@ -18,8 +18,9 @@ public final class BlurFilterCommand
 
     protected Object doBuild( BuilderContext context, Object[] args )
     {
+        int radius = getIntArg( args, 0, 2 );
         GaussianFilter filter = new GaussianFilter();
-        filter.setRadius( getIntArg( args, 0, 2 ) );
-        return filter;
+        filter.setRadius( radius );
+        return tiled( context, filter, Math.max( radius, 1 ) );
     }
 }
@@ -5,11 +5,20 @@
 package com.enonic.cms.core.image.filter.command;
 
 import java.awt.image.BufferedImageOp;
+import java.awt.image.RGBImageFilter;
+
+import com.jhlabs.image.GrayscaleFilter;
+import com.jhlabs.image.HSBAdjustFilter;
+import com.jhlabs.image.InvertFilter;
+import com.jhlabs.image.PointFilter;
+import com.jhlabs.image.RGBAdjustFilter;
 
 import com.enonic.cms.core.image.filter.AwtImageFilter;
 import com.enonic.cms.core.image.filter.BuilderContext;
 import com.enonic.cms.core.image.filter.ImageFilter;
 import com.enonic.cms.core.image.filter.OperationImageFilter;
+import com.enonic.cms.core.image.filter.PointImageFilter;
+import com.enonic.cms.core.image.filter.TiledImageFilter;
 
 public abstract class FilterCommand
 {
@@ -28,7 +37,15 @@ public abstract class FilterCommand
     public final ImageFilter build( BuilderContext context, Object[] args )
     {
         Object filter = doBuild( context, args );
-        if ( filter instanceof BufferedImageOp )
+        if ( isPointFilter( filter ) )
+        {
+            return new PointImageFilter( (PointFilter) filter );
+        }
+        else if ( filter instanceof RGBImageFilter )
+        {
+            return new PointImageFilter( (RGBImageFilter) filter );
+        }
+        else if ( filter instanceof BufferedImageOp )
         {
             return wrap( (BufferedImageOp) filter );
         }
@@ -48,6 +65,30 @@ public abstract class FilterCommand
 
     protected abstract Object doBuild( BuilderContext context, Object[] args );
 
+    /**
+     * Point filters that need no preparation before filtering single pixels. Transfer filters like gamma build their
+     * lookup tables when filtering an image, so they are run as whole image operations.
+     */
+    private boolean isPointFilter( Object filter )
+    {
+        return filter instanceof GrayscaleFilter || filter instanceof InvertFilter || filter instanceof RGBAdjustFilter ||
+            filter instanceof HSBAdjustFilter;
+    }
+
+    /**
+     * Wraps a neighbourhood operation reading at most margin pixels around each pixel, so that it runs on tiles in
+     * parallel when the context has a tile executor.
+     */
+    protected final Object tiled( BuilderContext context, BufferedImageOp operation, int margin )
+    {
+        if ( context.getTileExecutor() == null || context.getTileCount() < 2 )
+        {
+            return operation;
+        }
+
+        return new TiledImageFilter( operation, margin, context.getTileExecutor(), context.getTileCount() );
+    }
+
     private ImageFilter wrap( BufferedImageOp operation )
     {
         return new OperationImageFilter( operation );
@@ -18,6 +18,6 @@ public final class SharpenFilterCommand
 
     protected Object doBuild( BuilderContext context, Object[] args )
     {
-        return new SharpenFilter();
+        return tiled( context, new SharpenFilter(), 1 );
     }
 }
\ No newline at end of file
@@ -5,10 +5,15 @@
 
 package com.enonic.cms.core.image.filter.effect;
 
+import java.awt.Dimension;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 
+import com.enonic.cms.core.image.filter.ScalingImageFilter;
+
 public final class ScaleBlockFilter
         extends BaseImageFilter
+        implements ScalingImageFilter
 {
 
     private final int width;
@@ -29,9 +34,35 @@ public final class ScaleBlockFilter
 
     public BufferedImage filter( BufferedImage source )
     {
-        int sourceWidth = source.getWidth();
-        int sourceHeight = source.getHeight();
+        return filter( source, source.getWidth(), source.getHeight() );
+    }
+
+    public BufferedImage filter( BufferedImage sourceRegion, int sourceWidth, int sourceHeight )
+    {
+        Dimension scaledSize = getScaledSize( sourceWidth, sourceHeight );
+        int newWidth = scaledSize.width;
+        int newHeight = scaledSize.height;
 
+        int viewWidth = this.width;
+        int viewHeight = this.height;
+
+        int widthDiff = newWidth - viewWidth;
+        int widthOffset = (int) ( widthDiff * this.xOffset );
+
+        int heightDiff = newHeight - viewHeight;
+        int heightOffset = (int) ( heightDiff * this.yOffset );
+
+        BufferedImage targetImage = getScaledInstance( sourceRegion, newWidth, newHeight );
+        return targetImage.getSubimage( widthOffset, heightOffset, viewWidth, viewHeight );
+    }
+
+    public Rectangle getSourceRegion( int sourceWidth, int sourceHeight )
+    {
+        return null;
+    }
+
+    public Dimension getScaledSize( int sourceWidth, int sourceHeight )
+    {
         float ratio = (float) sourceWidth / (float) sourceHeight;
         float scale = 1f;
 
@@ -49,30 +80,19 @@ public final class ScaleBlockFilter
             newWidth = (int) ( newHeight / scale );
         }
 
-        int viewWidth = this.width;
         if ( newWidth < this.width )
         {
             newWidth = this.width;
             newHeight = (int) ( newWidth * scale );
-            viewWidth = newWidth;
         }
 
-        int viewHeight = this.height;
         if ( newHeight < this.height )
         {
             newHeight = this.height;
             newWidth = (int) ( newHeight * scale );
-            viewHeight = newHeight;
         }
 
-        int widthDiff = newWidth - viewWidth;
-        int widthOffset = (int) ( widthDiff * this.xOffset );
-
-        int heightDiff = newHeight - viewHeight;
-        int heightOffset = (int) ( heightDiff * this.yOffset );
-
-        BufferedImage targetImage = getScaledInstance( source, newWidth, newHeight );
-        return targetImage.getSubimage( widthOffset, heightOffset, viewWidth, viewHeight );
+        return new Dimension( newWidth, newHeight );
     }
 
 }
\ No newline at end of file
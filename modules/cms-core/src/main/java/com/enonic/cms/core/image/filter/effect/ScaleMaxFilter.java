@@ -4,10 +4,15 @@
  */
 package com.enonic.cms.core.image.filter.effect;
 
+import java.awt.Dimension;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 
+import com.enonic.cms.core.image.filter.ScalingImageFilter;
+
 public final class ScaleMaxFilter
     extends BaseImageFilter
+    implements ScalingImageFilter
 {
     private final int size;
 
@@ -18,14 +23,28 @@ public final class ScaleMaxFilter
 
     public BufferedImage filter( BufferedImage source )
     {
-        int width = source.getWidth();
-        int height = source.getHeight();
-        int max = Math.max( width, height );
+        return filter( source, source.getWidth(), source.getHeight() );
+    }
+
+    public BufferedImage filter( BufferedImage sourceRegion, int sourceWidth, int sourceHeight )
+    {
+        Dimension scaledSize = getScaledSize( sourceWidth, sourceHeight );
+        return getScaledInstance( sourceRegion, scaledSize.width, scaledSize.height );
+    }
+
+    public Rectangle getSourceRegion( int sourceWidth, int sourceHeight )
+    {
+        return null;
+    }
+
+    public Dimension getScaledSize( int sourceWidth, int sourceHeight )
+    {
+        int max = Math.max( sourceWidth, sourceHeight );
 
         float scale = (float) this.size / (float) max;
-        int newWidth = (int) ( (float) width * scale );
-        int newHeight = (int) ( (float) height * scale );
+        int newWidth = (int) ( (float) sourceWidth * scale );
+        int newHeight = (int) ( (float) sourceHeight * scale );
 
-        return getScaledInstance( source, newWidth, newHeight );
+        return new Dimension( newWidth, newHeight );
     }
 }
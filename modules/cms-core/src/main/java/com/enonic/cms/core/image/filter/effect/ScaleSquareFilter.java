@@ -4,10 +4,15 @@
  */
 package com.enonic.cms.core.image.filter.effect;
 
+import java.awt.Dimension;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 
+import com.enonic.cms.core.image.filter.ScalingImageFilter;
+
 public final class ScaleSquareFilter
     extends BaseImageFilter
+    implements ScalingImageFilter
 {
     private final int size;
 
@@ -18,21 +23,33 @@ public final class ScaleSquareFilter
 
     public BufferedImage filter( BufferedImage source )
     {
-        int width = source.getWidth();
-        int height = source.getHeight();
+        Rectangle region = getSourceRegion( source.getWidth(), source.getHeight() );
+        BufferedImage cropped = source.getSubimage( region.x, region.y, region.width, region.height );
+
+        return filter( cropped, source.getWidth(), source.getHeight() );
+    }
 
-        BufferedImage cropped;
-        if ( width < height )
+    public BufferedImage filter( BufferedImage sourceRegion, int sourceWidth, int sourceHeight )
+    {
+        return getScaledInstance( sourceRegion, this.size, this.size );
+    }
+
+    public Rectangle getSourceRegion( int sourceWidth, int sourceHeight )
+    {
+        if ( sourceWidth < sourceHeight )
         {
-            int offset = (int) ( ( height - width ) / 2f );
-            cropped = source.getSubimage( 0, offset, width, width );
+            int offset = (int) ( ( sourceHeight - sourceWidth ) / 2f );
+            return new Rectangle( 0, offset, sourceWidth, sourceWidth );
         }
         else
         {
-            int offset = (int) ( ( width - height ) / 2f );
-            cropped = source.getSubimage( offset, 0, height, height );
+            int offset = (int) ( ( sourceWidth - sourceHeight ) / 2f );
+            return new Rectangle( offset, 0, sourceHeight, sourceHeight );
         }
+    }
 
-        return getScaledInstance( cropped, this.size, this.size );
+    public Dimension getScaledSize( int sourceWidth, int sourceHeight )
+    {
+        return new Dimension( this.size, this.size );
     }
 }
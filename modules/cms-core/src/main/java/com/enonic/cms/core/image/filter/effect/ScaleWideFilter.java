@@ -4,10 +4,15 @@
  */
 package com.enonic.cms.core.image.filter.effect;
 
+import java.awt.Dimension;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 
+import com.enonic.cms.core.image.filter.ScalingImageFilter;
+
 public final class ScaleWideFilter
     extends BaseImageFilter
+    implements ScalingImageFilter
 {
     private final int width;
 
@@ -24,11 +29,12 @@ public final class ScaleWideFilter
 
     public BufferedImage filter( BufferedImage source )
     {
-        int sourceWidth = source.getWidth();
-        int sourceHeight = source.getHeight();
+        return filter( source, source.getWidth(), source.getHeight() );
+    }
 
-        float scale = (float) this.width / (float) sourceWidth;
-        int newHeight = (int) ( scale * sourceHeight );
+    public BufferedImage filter( BufferedImage sourceRegion, int sourceWidth, int sourceHeight )
+    {
+        int newHeight = getScaledSize( sourceWidth, sourceHeight ).height;
 
         int viewHeight = this.height;
         if ( this.height > newHeight )
@@ -39,7 +45,20 @@ public final class ScaleWideFilter
         int heightDiff = newHeight - viewHeight;
         int heightOffset = (int) ( heightDiff * this.offset );
 
-        BufferedImage targetImage = getScaledInstance( source, this.width, newHeight );
+        BufferedImage targetImage = getScaledInstance( sourceRegion, this.width, newHeight );
         return targetImage.getSubimage( 0, heightOffset, this.width, viewHeight );
     }
+
+    public Rectangle getSourceRegion( int sourceWidth, int sourceHeight )
+    {
+        return null;
+    }
+
+    public Dimension getScaledSize( int sourceWidth, int sourceHeight )
+    {
+        float scale = (float) this.width / (float) sourceWidth;
+        int newHeight = (int) ( scale * sourceHeight );
+
+        return new Dimension( this.width, newHeight );
+    }
 }
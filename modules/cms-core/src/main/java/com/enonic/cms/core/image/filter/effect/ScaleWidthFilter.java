@@ -4,10 +4,15 @@
  */
 package com.enonic.cms.core.image.filter.effect;
 
+import java.awt.Dimension;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 
+import com.enonic.cms.core.image.filter.ScalingImageFilter;
+
 public final class ScaleWidthFilter
     extends BaseImageFilter
+    implements ScalingImageFilter
 {
     private final int size;
 
@@ -18,12 +23,26 @@ public final class ScaleWidthFilter
 
     public BufferedImage filter( BufferedImage source )
     {
-        int width = source.getWidth();
-        int height = source.getHeight();
-        float scale = (float) this.size / (float) width;
+        return filter( source, source.getWidth(), source.getHeight() );
+    }
+
+    public BufferedImage filter( BufferedImage sourceRegion, int sourceWidth, int sourceHeight )
+    {
+        Dimension scaledSize = getScaledSize( sourceWidth, sourceHeight );
+        return getScaledInstance( sourceRegion, scaledSize.width, scaledSize.height );
+    }
+
+    public Rectangle getSourceRegion( int sourceWidth, int sourceHeight )
+    {
+        return null;
+    }
+
+    public Dimension getScaledSize( int sourceWidth, int sourceHeight )
+    {
+        float scale = (float) this.size / (float) sourceWidth;
         int newWidth = this.size;
-        int newHeight = (int) ( (float) height * scale );
+        int newHeight = (int) ( (float) sourceHeight * scale );
 
-        return getScaledInstance( source, newWidth, newHeight );
+        return new Dimension( newWidth, newHeight );
     }
 }
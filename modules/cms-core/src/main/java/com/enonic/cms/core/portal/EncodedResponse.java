@@ -0,0 +1,80 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.core.portal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.lang.StringUtils;
+
+import com.enonic.esl.util.DigestUtil;
+
+/**
+ * The encoded content of a response. The ETag and the gzipped bytes are computed when first needed, and kept for the
+ * next request serving the same content.
+ */
+public final class EncodedResponse
+{
+    private final String content;
+
+    private final String encoding;
+
+    private final byte[] bytes;
+
+    private String etag;
+
+    private byte[] gzippedBytes;
+
+    public EncodedResponse( final String content, final String encoding )
+        throws UnsupportedEncodingException
+    {
+        this.content = content != null ? content : "";
+        this.encoding = encoding;
+        this.bytes = this.content.getBytes( encoding );
+    }
+
+    /**
+     * Returns true if this is the given content in the given encoding.
+     */
+    public boolean isEncodingOf( final String content, final String encoding )
+    {
+        return this.encoding.equals( encoding ) && this.content.equals( content != null ? content : "" );
+    }
+
+    public byte[] getBytes()
+    {
+        return this.bytes;
+    }
+
+    /**
+     * Returns the ETag of the content, or null if the content is empty.
+     */
+    public synchronized String getEtag()
+    {
+        if ( this.etag == null && StringUtils.isNotEmpty( this.content ) )
+        {
+            this.etag = "content_" + DigestUtil.generateSHA( this.content );
+        }
+
+        return this.etag;
+    }
+
+    public synchronized byte[] getGzippedBytes()
+        throws IOException
+    {
+        if ( this.gzippedBytes == null )
+        {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream( this.bytes.length / 4 + 64 );
+            final GZIPOutputStream gzip = new GZIPOutputStream( out );
+            gzip.write( this.bytes );
+            gzip.close();
+            this.gzippedBytes = out.toByteArray();
+        }
+
+        return this.gzippedBytes;
+    }
+}
@@ -5,6 +5,7 @@
 package com.enonic.cms.core.portal;
 
 import java.io.UnsupportedEncodingException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.joda.time.DateTime;
 
@@ -29,6 +30,8 @@ public class PortalResponse
 
     private RedirectInstruction redirectInstruction;
 
+    private AtomicReference<EncodedResponse> lastEncodedResponse;
+
     public static PortalResponse createContent( RenderedWindowResult renderedWindowResult )
     {
         PortalResponse response = new PortalResponse();
@@ -55,6 +58,7 @@ public class PortalResponse
         PortalResponse response = new PortalResponse();
         response.content = renderedPageResult.getContent();
         response.httpContentType = renderedPageResult.getHttpContentType();
+        response.lastEncodedResponse = renderedPageResult.getEncodedResponse();
         if ( renderedPageResult.getContentEncoding() != null )
         {
             response.contentEncoding = renderedPageResult.getContentEncoding();
@@ -94,7 +98,28 @@ public class PortalResponse
     public byte[] getContentAsBytes()
         throws UnsupportedEncodingException
     {
-        return content.getBytes( contentEncoding );
+        return getEncodedContent().getBytes();
+    }
+
+    /**
+     * Returns the encoded content. A page rendered from the page cache reuses the encoding of the previous request for
+     * the page, if the content is unchanged.
+     */
+    public EncodedResponse getEncodedContent()
+        throws UnsupportedEncodingException
+    {
+        final EncodedResponse last = lastEncodedResponse != null ? lastEncodedResponse.get() : null;
+        if ( last != null && last.isEncodingOf( content, contentEncoding ) )
+        {
+            return last;
+        }
+
+        final EncodedResponse encoded = new EncodedResponse( content, contentEncoding );
+        if ( lastEncodedResponse != null )
+        {
+            lastEncodedResponse.set( encoded );
+        }
+        return encoded;
     }
 
     public void setContent( String content )
@@ -9,6 +9,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.enonic.cms.framework.cache.CacheManager;
+
 import com.enonic.cms.core.config.ConfigProperties;
 import com.enonic.cms.core.portal.datasource.context.DataSourcesContextXmlCreator;
 import com.enonic.cms.core.portal.livetrace.LivePortalTraceService;
@@ -31,6 +33,8 @@ public final class DataSourceExecutorFactory
 
     private SitePropertiesService sitePropertiesService;
 
+    private DataSourceResultCache resultCache;
+
     public DataSourceExecutor createDataSourceExecutor( final DataSourceExecutorContext context )
     {
         context.setRootProperties( this.cmsProperties );
@@ -47,6 +51,7 @@ public final class DataSourceExecutorFactory
         dataSourceExecutor.setLivePortalTraceService( livePortalTraceService );
         dataSourceExecutor.setDefaultResultRootElementName( this.defaultDataSourceRootElementName );
         dataSourceExecutor.setInvoker( this.dataSourceInvoker );
+        dataSourceExecutor.setResultCache( this.resultCache );
         return dataSourceExecutor;
     }
 
@@ -85,4 +90,10 @@ public final class DataSourceExecutorFactory
     {
         this.defaultDataSourceRootElementName = defaultDataSourceRootElementName;
     }
+
+    @Autowired
+    public void setCacheManager( final CacheManager cacheManager )
+    {
+        this.resultCache = new DataSourceResultCache( cacheManager.getDatasourceCache() );
+    }
 }
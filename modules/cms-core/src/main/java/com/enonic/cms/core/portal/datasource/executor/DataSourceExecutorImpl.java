@@ -43,6 +43,8 @@ final class DataSourceExecutorImpl
 
     private DataSourceInvoker invoker;
 
+    private DataSourceResultCache resultCache;
+
     public DataSourceExecutorImpl( final DataSourceExecutorContext context )
     {
         this.context = context;
@@ -171,6 +173,11 @@ final class DataSourceExecutorImpl
         this.invoker = invoker;
     }
 
+    public void setResultCache( final DataSourceResultCache resultCache )
+    {
+        this.resultCache = resultCache;
+    }
+
     private void doExecuteDataSource( final DataSourceResultBuilder result, final DataSourceElement element )
     {
         final DataSourceRequestFactory factory = new DataSourceRequestFactory( this.expressionFunctionsExecutor, this.context );
@@ -213,7 +220,22 @@ final class DataSourceExecutorImpl
             return result;
         }
 
-        result = this.invoker.execute( request );
+        final boolean shared = this.resultCache != null && this.resultCache.isCacheable( request );
+        if ( shared )
+        {
+            result = this.resultCache.get( request );
+            DatasourceExecutionTracer.traceIsSharedCacheUsed( result != null, this.livePortalTraceService );
+        }
+
+        if ( result == null )
+        {
+            result = this.invoker.execute( request );
+
+            if ( shared )
+            {
+                this.resultCache.put( request, result );
+            }
+        }
 
         if ( request.isCache() )
         {
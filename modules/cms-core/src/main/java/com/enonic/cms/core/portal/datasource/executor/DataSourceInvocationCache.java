@@ -4,45 +4,35 @@
  */
 package com.enonic.cms.core.portal.datasource.executor;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
-import org.elasticsearch.common.collect.Maps;
 import org.jdom.Document;
 
 import com.enonic.cms.core.portal.datasource.handler.DataSourceRequest;
+import com.enonic.cms.core.portal.datasource.handler.DataSourceRequestKey;
 
+/**
+ * Results of the datasources invoked while rendering one request, shared by the page and all its windows. Windows may
+ * be rendered in parallel, so the cache is safe for concurrent use. The cached documents are shared by all callers
+ * and must never be modified; copy what you need from them.
+ */
 public final class DataSourceInvocationCache
 {
-    private final HashMap<String, Document> cache;
+    private final ConcurrentMap<DataSourceRequestKey, Document> cache;
 
     public DataSourceInvocationCache()
     {
-        this.cache = Maps.newHashMap();
-    }
-
-    private String createCacheKey( final DataSourceRequest req )
-    {
-        final StringBuilder str = new StringBuilder();
-        str.append( req.getName() );
-
-        for ( final Map.Entry<String, String> param : req.getParams().entrySet() )
-        {
-            str.append( "-" ).append( param.getKey() ).append( ":" ).append( param.getValue() );
-        }
-
-        return str.toString();
+        this.cache = new ConcurrentHashMap<DataSourceRequestKey, Document>();
     }
 
     public Document get( final DataSourceRequest req )
     {
-        final String key = createCacheKey( req );
-        return this.cache.get( key );
+        return this.cache.get( req.getKey() );
     }
 
     public void put( final DataSourceRequest req, final Document doc )
     {
-        final String key = createCacheKey( req );
-        this.cache.put( key, doc );
+        this.cache.put( req.getKey(), doc );
     }
 }
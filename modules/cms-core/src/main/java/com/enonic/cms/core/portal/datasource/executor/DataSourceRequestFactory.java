@@ -35,6 +35,7 @@ final class DataSourceRequestFactory
         request.setSiteKey( context.getSite() != null ? context.getSite().getKey() : null );
         request.setUser( context.getUser() );
         request.setCache( element.isCache() );
+        request.setCacheTimeToLive( element.getCacheTimeToLive() );
         request.setVerticalSession( context.getVerticalSession() );
         request.setHttpRequest( context.getHttpRequest() );
         evaluateParameters( request, element );
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.core.portal.datasource.executor;
+
+import org.jdom.Document;
+
+import com.enonic.cms.framework.cache.CacheFacade;
+
+import com.enonic.cms.core.portal.datasource.handler.DataSourceRequest;
+import com.enonic.cms.core.preview.PreviewContext;
+
+/**
+ * Results of datasources declared with a cache-ttl, shared between requests until they expire. Results depend on the
+ * permissions of the user, so entries are kept per user. As with the invocation cache, the documents are shared and
+ * must never be modified.
+ */
+final class DataSourceResultCache
+{
+    private final CacheFacade cacheFacade;
+
+    public DataSourceResultCache( final CacheFacade cacheFacade )
+    {
+        this.cacheFacade = cacheFacade;
+    }
+
+    public boolean isCacheable( final DataSourceRequest request )
+    {
+        if ( this.cacheFacade == null || !request.isCache() || request.getCacheTimeToLive() <= 0 )
+        {
+            return false;
+        }
+
+        final PreviewContext previewContext = request.getPreviewContext();
+        return previewContext == null || !previewContext.isPreviewing();
+    }
+
+    public Document get( final DataSourceRequest request )
+    {
+        return (Document) this.cacheFacade.get( request.getName(), createCacheKey( request ) );
+    }
+
+    public void put( final DataSourceRequest request, final Document doc )
+    {
+        this.cacheFacade.put( request.getName(), createCacheKey( request ), doc, request.getCacheTimeToLive() );
+    }
+
+    private String createCacheKey( final DataSourceRequest request )
+    {
+        final StringBuilder str = new StringBuilder();
+        str.append( request.getSiteKey() ).append( "-" );
+        str.append( request.getUser() != null ? request.getUser().getKey() : null ).append( "-" );
+        str.append( request.getKey() );
+        return str.toString();
+    }
+}
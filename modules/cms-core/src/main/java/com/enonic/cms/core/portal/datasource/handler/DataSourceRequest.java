@@ -18,6 +18,10 @@ public final class DataSourceRequest
 
     private boolean cache;
 
+    private int cacheTimeToLive;
+
+    private DataSourceRequestKey key;
+
     private final Map<String, String> paramMap;
 
     public DataSourceRequest()
@@ -33,6 +37,7 @@ public final class DataSourceRequest
     public void setName( final String name )
     {
         this.name = name;
+        this.key = null;
     }
 
     public Map<String, String> getParams()
@@ -43,6 +48,17 @@ public final class DataSourceRequest
     public void addParam( final String name, final String value )
     {
         this.paramMap.put( name, value );
+        this.key = null;
+    }
+
+    public DataSourceRequestKey getKey()
+    {
+        if ( this.key == null )
+        {
+            this.key = new DataSourceRequestKey( this.name, this.paramMap );
+        }
+
+        return this.key;
     }
 
     public boolean isCache()
@@ -54,4 +70,17 @@ public final class DataSourceRequest
     {
         this.cache = cache;
     }
+
+    /**
+     * Seconds the result may be shared between requests, or 0 if it is only cached within the request.
+     */
+    public int getCacheTimeToLive()
+    {
+        return cacheTimeToLive;
+    }
+
+    public void setCacheTimeToLive( final int cacheTimeToLive )
+    {
+        this.cacheTimeToLive = cacheTimeToLive;
+    }
 }
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+
+package com.enonic.cms.core.portal.datasource.handler;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Identifies a datasource invocation by its name and evaluated parameters. The hash code is computed once, so the key
+ * is cheap to look up repeatedly in hash based caches.
+ */
+public final class DataSourceRequestKey
+{
+    private final String name;
+
+    private final SortedMap<String, String> params;
+
+    private final int hashCode;
+
+    public DataSourceRequestKey( final String name, final Map<String, String> params )
+    {
+        this.name = name;
+        this.params = new TreeMap<String, String>( params );
+        this.hashCode = 31 * ( name != null ? name.hashCode() : 0 ) + this.params.hashCode();
+    }
+
+    public String getName()
+    {
+        return this.name;
+    }
+
+    @Override
+    public boolean equals( final Object o )
+    {
+        if ( this == o )
+        {
+            return true;
+        }
+
+        if ( !( o instanceof DataSourceRequestKey ) )
+        {
+            return false;
+        }
+
+        final DataSourceRequestKey that = (DataSourceRequestKey) o;
+        return this.hashCode == that.hashCode && ( this.name != null ? this.name.equals( that.name ) : that.name == null ) &&
+            this.params.equals( that.params );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return this.hashCode;
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder str = new StringBuilder();
+        str.append( this.name );
+
+        for ( final Map.Entry<String, String> param : this.params.entrySet() )
+        {
+            str.append( "-" ).append( param.getKey() ).append( ":" ).append( param.getValue() );
+        }
+
+        return str.toString();
+    }
+}
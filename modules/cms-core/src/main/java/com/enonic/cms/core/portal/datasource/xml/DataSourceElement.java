@@ -15,6 +15,8 @@ public final class DataSourceElement
 
     private boolean cache;
 
+    private int cacheTimeToLive;
+
     private String resultElement;
 
     private String condition;
@@ -31,6 +33,7 @@ public final class DataSourceElement
     {
         this.name = source.name;
         this.cache = source.cache;
+        this.cacheTimeToLive = source.cacheTimeToLive;
         this.resultElement = source.resultElement;
         this.condition = source.condition;
         this.parameters = Maps.newHashMap( source.parameters );
@@ -61,6 +64,16 @@ public final class DataSourceElement
         this.cache = cache;
     }
 
+    public int getCacheTimeToLive()
+    {
+        return this.cacheTimeToLive;
+    }
+
+    public void setCacheTimeToLive( final int cacheTimeToLive )
+    {
+        this.cacheTimeToLive = cacheTimeToLive;
+    }
+
     public String getCondition()
     {
         return condition;
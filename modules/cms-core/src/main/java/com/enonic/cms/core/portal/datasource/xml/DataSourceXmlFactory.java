@@ -5,6 +5,7 @@
 
 package com.enonic.cms.core.portal.datasource.xml;
 
+import org.apache.commons.lang.StringUtils;
 import org.jdom.Element;
 import org.jdom.output.Format;
 import org.jdom.output.XMLOutputter;
@@ -57,6 +58,12 @@ public final class DataSourceXmlFactory
             result.setCache( "true".equals( cacheAttr ) );
         }
 
+        final String cacheTimeToLiveAttr = root.getAttributeValue( "cache-ttl" );
+        if ( StringUtils.isNotEmpty( cacheTimeToLiveAttr ) && StringUtils.isNumeric( cacheTimeToLiveAttr ) )
+        {
+            result.setCacheTimeToLive( Integer.parseInt( cacheTimeToLiveAttr ) );
+        }
+
         for ( final Element child : JDOMUtil.getElements( root ) )
         {
             addParameter( result, child );
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.core.portal.image;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.enonic.cms.framework.util.SingleFlight;
+
+import com.enonic.cms.core.image.ImageResponse;
+
+/**
+ * Bounded pool decoding and scaling images, so that a burst of uncached image requests can not occupy every request
+ * thread. The request thread waits for its task to complete. When the queue is full, the task is rejected instead of
+ * queued, and the request can be answered with a retry later response.
+ * <p/>
+ * Requests for the same image are coalesced through the image flights, so a burst for one image takes one slot.
+ * Neighbourhood filters like blur may split an image in tiles, which are filtered by a separate tile pool.
+ */
+@Component
+public class ImageProcessingExecutor
+{
+    private int threads;
+
+    private int queueSize;
+
+    private int retryAfter;
+
+    private int tileThreads;
+
+    private ThreadPoolExecutor executor;
+
+    private ExecutorService tileExecutor;
+
+    private final SingleFlight<String, ImageResponse> imageFlights = SingleFlight.create();
+
+    private final AtomicLong processedCount = new AtomicLong( 0 );
+
+    private final AtomicLong rejectedCount = new AtomicLong( 0 );
+
+    private final AtomicLong processingTimeNanos = new AtomicLong( 0 );
+
+    private final AtomicLong maxProcessingTimeNanos = new AtomicLong( 0 );
+
+    @PostConstruct
+    public void start()
+    {
+        this.executor = new ThreadPoolExecutor( threads, threads, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>( queueSize ),
+                                                new ImageProcessingThreadFactory( "image-processing-" ), new ThreadPoolExecutor.AbortPolicy() );
+        this.executor.allowCoreThreadTimeOut( true );
+
+        if ( this.tileThreads > 1 )
+        {
+            this.tileExecutor = Executors.newFixedThreadPool( this.tileThreads, new ImageProcessingThreadFactory( "image-tile-" ) );
+        }
+    }
+
+    @PreDestroy
+    public void stop()
+    {
+        this.executor.shutdownNow();
+
+        if ( this.tileExecutor != null )
+        {
+            this.tileExecutor.shutdownNow();
+        }
+    }
+
+    public <T> T execute( final Callable<T> task )
+        throws Exception
+    {
+        final Future<T> future;
+        try
+        {
+            future = this.executor.submit( new TimedCallable<T>( task ) );
+        }
+        catch ( final RejectedExecutionException e )
+        {
+            this.rejectedCount.incrementAndGet();
+            throw new ImageProcessingRejectedException( "Image processing queue is full", this.retryAfter );
+        }
+
+        try
+        {
+            return future.get();
+        }
+        catch ( final InterruptedException e )
+        {
+            future.cancel( true );
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+        catch ( final ExecutionException e )
+        {
+            final Throwable cause = e.getCause();
+            if ( cause instanceof Exception )
+            {
+                throw (Exception) cause;
+            }
+
+            throw (Error) cause;
+        }
+    }
+
+    private void registerProcessingTime( final long nanos )
+    {
+        this.processedCount.incrementAndGet();
+        this.processingTimeNanos.addAndGet( nanos );
+
+        long max = this.maxProcessingTimeNanos.get();
+        while ( nanos > max && !this.maxProcessingTimeNanos.compareAndSet( max, nanos ) )
+        {
+            max = this.maxProcessingTimeNanos.get();
+        }
+    }
+
+    /**
+     * Pool filtering image tiles in parallel, or null if tiled filtering is off.
+     */
+    public ExecutorService getTileExecutor()
+    {
+        return this.tileExecutor;
+    }
+
+    public int getTileThreads()
+    {
+        return this.tileThreads;
+    }
+
+    public SingleFlight<String, ImageResponse> getImageFlights()
+    {
+        return this.imageFlights;
+    }
+
+    /**
+     * Number of tasks waiting for a processing thread.
+     */
+    public int getQueueSize()
+    {
+        return this.executor.getQueue().size();
+    }
+
+    /**
+     * Number of tasks being processed.
+     */
+    public int getActiveCount()
+    {
+        return this.executor.getActiveCount();
+    }
+
+    public long getProcessedCount()
+    {
+        return this.processedCount.get();
+    }
+
+    /**
+     * Number of tasks rejected because the queue was full.
+     */
+    public long getRejectedCount()
+    {
+        return this.rejectedCount.get();
+    }
+
+    /**
+     * Average time in milliseconds to process an image.
+     */
+    public long getAverageProcessingTime()
+    {
+        final long count = this.processedCount.get();
+        return count > 0 ? this.processingTimeNanos.get() / count / 1000000L : 0;
+    }
+
+    /**
+     * Longest time in milliseconds to process an image.
+     */
+    public long getMaxProcessingTime()
+    {
+        return this.maxProcessingTimeNanos.get() / 1000000L;
+    }
+
+    private final class TimedCallable<T>
+        implements Callable<T>
+    {
+        private final Callable<T> task;
+
+        private TimedCallable( final Callable<T> task )
+        {
+            this.task = task;
+        }
+
+        @Override
+        public T call()
+            throws Exception
+        {
+            final long start = System.nanoTime();
+            try
+            {
+                return this.task.call();
+            }
+            finally
+            {
+                registerProcessingTime( System.nanoTime() - start );
+            }
+        }
+    }
+
+    private static final class ImageProcessingThreadFactory
+        implements ThreadFactory
+    {
+        private final String prefix;
+
+        private final AtomicInteger threadNumber = new AtomicInteger( 1 );
+
+        private ImageProcessingThreadFactory( final String prefix )
+        {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread( final Runnable runnable )
+        {
+            final Thread thread = new Thread( runnable, this.prefix + threadNumber.getAndIncrement() );
+            thread.setDaemon( true );
+            return thread;
+        }
+    }
+
+    @Value("${cms.image.processing.threads}")
+    public void setThreads( final int threads )
+    {
+        this.threads = Math.max( threads, 1 );
+    }
+
+    @Value("${cms.image.processing.queueSize}")
+    public void setQueueSize( final int queueSize )
+    {
+        this.queueSize = Math.max( queueSize, 1 );
+    }
+
+    @Value("${cms.image.processing.tileThreads}")
+    public void setTileThreads( final int tileThreads )
+    {
+        this.tileThreads = tileThreads;
+    }
+
+    @Value("${cms.image.processing.retryAfter}")
+    public void setRetryAfter( final int retryAfter )
+    {
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,25 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.core.portal.image;
+
+/**
+ * Thrown when the image processing queue is full. The request may be retried after the given number of seconds.
+ */
+public final class ImageProcessingRejectedException
+    extends RuntimeException
+{
+    private final int retryAfter;
+
+    public ImageProcessingRejectedException( final String message, final int retryAfter )
+    {
+        super( message );
+        this.retryAfter = retryAfter;
+    }
+
+    public int getRetryAfter()
+    {
+        return this.retryAfter;
+    }
+}
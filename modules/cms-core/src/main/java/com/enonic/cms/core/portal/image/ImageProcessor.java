@@ -4,7 +4,15 @@
  */
 package com.enonic.cms.core.portal.image;
 
+import java.awt.Dimension;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 
 import com.enonic.cms.framework.util.ImageHelper;
 
@@ -13,30 +21,113 @@ import com.enonic.cms.core.image.ImageResponse;
 import com.enonic.cms.core.image.filter.BuilderContext;
 import com.enonic.cms.core.image.filter.ImageFilter;
 import com.enonic.cms.core.image.filter.ImageFilterBuilder;
+import com.enonic.cms.core.image.filter.ScalingImageFilter;
 
 public final class ImageProcessor
 {
     private final ImageFilterBuilder imageFilterBuilder;
 
+    private ExecutorService tileExecutor;
+
+    private int tileCount;
+
     public ImageProcessor()
     {
         this.imageFilterBuilder = new ImageFilterBuilder();
     }
 
-    public ImageResponse process( ImageRequest req, BufferedImage image )
+    public ImageResponse process( ImageRequest req, ImageInputStream in )
         throws Exception
     {
-        image = getFilter( req ).filter( image );
+        ImageFilter filter = getFilter( req );
+        ImageReader reader = ImageHelper.getReader( in );
+        int width;
+        int height;
+        BufferedImage image;
+        try
+        {
+            width = reader.getWidth( 0 );
+            height = reader.getHeight( 0 );
+            image = readImage( reader, filter, width, height );
+        }
+        finally
+        {
+            reader.dispose();
+        }
+
+        if ( filter instanceof ScalingImageFilter )
+        {
+            // sized from the original, not from the subsampled image that the reader rounds up
+            image = ( (ScalingImageFilter) filter ).filter( image, width, height );
+        }
+        else
+        {
+            image = filter.filter( image );
+        }
+
         return createResponse( req, image );
     }
 
+    /**
+     * Decodes only what the filter needs. When the filter starts by scaling down, the source is read with subsampling,
+     * and cropped to the visible region, so memory scales with the result instead of with the original.
+     */
+    private BufferedImage readImage( ImageReader reader, ImageFilter filter, int width, int height )
+        throws IOException
+    {
+        ImageReadParam param = reader.getDefaultReadParam();
+        if ( filter instanceof ScalingImageFilter )
+        {
+            setSourceRegion( param, (ScalingImageFilter) filter, width, height );
+        }
+
+        return reader.read( 0, param );
+    }
+
+    private void setSourceRegion( ImageReadParam param, ScalingImageFilter filter, int width, int height )
+    {
+        Rectangle region = filter.getSourceRegion( width, height );
+        if ( region != null )
+        {
+            param.setSourceRegion( region );
+        }
+        else
+        {
+            region = new Rectangle( 0, 0, width, height );
+        }
+
+        int subsampling = getSubsampling( region.width, region.height, filter.getScaledSize( width, height ) );
+        if ( subsampling > 1 )
+        {
+            param.setSourceSubsampling( subsampling, subsampling, 0, 0 );
+        }
+    }
+
+    static int getSubsampling( int regionWidth, int regionHeight, Dimension scaledSize )
+    {
+        if ( scaledSize == null || scaledSize.width <= 0 || scaledSize.height <= 0 )
+        {
+            return 1;
+        }
+
+        // keep at least twice the scaled size, so that the smooth scaling still has pixels to average
+        return Math.max( 1, Math.min( regionWidth / ( scaledSize.width * 2 ), regionHeight / ( scaledSize.height * 2 ) ) );
+    }
+
     private ImageFilter getFilter( ImageRequest req )
     {
         BuilderContext context = new BuilderContext();
         context.setBackgroundColor( req.getParams().getBackgroundColor() );
+        context.setTileExecutor( this.tileExecutor, this.tileCount );
         return this.imageFilterBuilder.build( context, req.getParams().getFilter() );
     }
 
+    public void setTileExecutor( ExecutorService tileExecutor, int tileCount )
+    {
+        this.tileExecutor = tileExecutor;
+        this.tileCount = tileCount;
+    }
+
     private ImageResponse createResponse( ImageRequest req, BufferedImage image )
         throws Exception
     {
@@ -4,9 +4,14 @@
  */
 package com.enonic.cms.core.portal.image;
 
-import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.util.concurrent.locks.Lock;
+import java.io.IOException;
+import java.util.concurrent.Callable;
+
+import javax.imageio.stream.FileImageInputStream;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
 
 import org.apache.commons.codec.digest.DigestUtils;
 import org.slf4j.Logger;
@@ -20,14 +25,13 @@ import com.google.common.base.Preconditions;
 import com.enonic.cms.framework.blob.BlobKey;
 import com.enonic.cms.framework.blob.BlobRecord;
 import com.enonic.cms.framework.blob.BlobStore;
-import com.enonic.cms.framework.util.GenericConcurrencyLock;
-import com.enonic.cms.framework.util.ImageHelper;
 
 import com.enonic.cms.core.content.access.ContentAccessResolver;
 import com.enonic.cms.core.content.binary.AttachmentNotFoundException;
 import com.enonic.cms.core.content.binary.BinaryDataEntity;
 import com.enonic.cms.core.image.ImageRequest;
 import com.enonic.cms.core.image.ImageResponse;
+import com.enonic.cms.core.image.cache.DiskImageCache;
 import com.enonic.cms.core.image.cache.ImageCache;
 import com.enonic.cms.core.portal.livetrace.ImageRequestTrace;
 import com.enonic.cms.core.portal.livetrace.ImageRequestTracer;
@@ -48,6 +52,8 @@ public final class ImageServiceImpl
 
     private ImageCache imageCache;
 
+    private DiskImageCache diskImageCache;
+
     private final ImageProcessor processor;
 
     private ContentDao contentDao;
@@ -62,11 +68,11 @@ public final class ImageServiceImpl
 
     private PreviewService previewService;
 
+    private ImageProcessingExecutor imageProcessingExecutor;
+
     @Autowired
     private LivePortalTraceService livePortalTraceService;
 
-    private static GenericConcurrencyLock<String> concurrencyLock = GenericConcurrencyLock.create();
-
     private File directory;
 
     public ImageServiceImpl()
@@ -99,44 +105,91 @@ public final class ImageServiceImpl
 
         imageRequest.setBlobKey( blobKey );
 
-        final Lock locker = concurrencyLock.getLock( imageRequest.getCacheKey() );
-        try
+        ImageResponse res = imageCache.get( imageRequest );
+        if ( res != null )
+        {
+            ImageRequestTracer.traceImageResponse( imageRequestTrace, res );
+            ImageRequestTracer.traceUsedCachedResult( imageRequestTrace, true );
+            ImageRequestTracer.traceCacheTier( imageRequestTrace, ImageRequestTrace.CACHE_TIER_MEMORY );
+            return res;
+        }
+
+        // Concurrent misses for the same image wait for one processing and share its result
+        final ImageFlight flight = new ImageFlight( imageRequest, imageRequestTrace );
+        ImageRequestTracer.startConcurrencyBlockTimer( imageRequestTrace );
+        res = imageProcessingExecutor.getImageFlights().execute( imageRequest.getCacheKey(), flight );
+
+        if ( !flight.leader )
+        {
+            ImageRequestTracer.stopConcurrencyBlockTimer( imageRequestTrace );
+            ImageRequestTracer.traceUsedCachedResult( imageRequestTrace, true );
+        }
+
+        ImageRequestTracer.traceImageResponse( imageRequestTrace, res );
+        return res;
+    }
+
+    private final class ImageFlight
+        implements Callable<ImageResponse>
+    {
+        private final ImageRequest imageRequest;
+
+        private final ImageRequestTrace imageRequestTrace;
+
+        private boolean leader = false;
+
+        private ImageFlight( final ImageRequest imageRequest, final ImageRequestTrace imageRequestTrace )
         {
-            ImageRequestTracer.startConcurrencyBlockTimer( imageRequestTrace );
-            locker.lock();
+            this.imageRequest = imageRequest;
+            this.imageRequestTrace = imageRequestTrace;
+        }
+
+        @Override
+        public ImageResponse call()
+        {
+            this.leader = true;
             ImageRequestTracer.stopConcurrencyBlockTimer( imageRequestTrace );
 
+            // Another request may have processed the image while we checked the cache
             ImageResponse res = imageCache.get( imageRequest );
             if ( res != null )
             {
-                ImageRequestTracer.traceImageResponse( imageRequestTrace, res );
                 ImageRequestTracer.traceUsedCachedResult( imageRequestTrace, true );
+                ImageRequestTracer.traceCacheTier( imageRequestTrace, ImageRequestTrace.CACHE_TIER_MEMORY );
+                return res;
+            }
+
+            res = diskImageCache.get( imageRequest );
+            if ( res != null )
+            {
+                imageCache.put( imageRequest, res );
+                ImageRequestTracer.traceUsedCachedResult( imageRequestTrace, true );
+                ImageRequestTracer.traceCacheTier( imageRequestTrace, ImageRequestTrace.CACHE_TIER_DISK );
                 return res;
             }
 
             try
             {
-                res = doProcess( imageRequest );
-                ImageRequestTracer.traceImageResponse( imageRequestTrace, res );
+                res = doProcess( imageRequest, imageRequestTrace );
                 ImageRequestTracer.traceUsedCachedResult( imageRequestTrace, false );
                 return res;
             }
             catch ( AttachmentNotFoundException e )
             {
-                LOG.error( "Cannot read image with key {} from configured BLOB directory ( {} ). Check your CMS configuration.", blobKey,
-                           directory.getAbsolutePath() );
+                LOG.error( "Cannot read image with key {} from configured BLOB directory ( {} ). Check your CMS configuration.",
+                           imageRequest.getBlobKey(), directory.getAbsolutePath() );
                 return ImageResponse.notFound();
             }
+            catch ( ImageProcessingRejectedException e )
+            {
+                throw e;
+            }
             catch ( Exception e )
             {
                 throw new ImageProcessorException(
                     "Failed to process image [contentKey=" + imageRequest.getContentKey() + "] : " + e.getMessage(), e );
             }
         }
-        finally
-        {
-            locker.unlock();
-        }
     }
 
     public Long getImageTimestamp( final ImageRequest req )
@@ -194,17 +247,18 @@ public final class ImageServiceImpl
         return DigestUtils.shaHex( photo );
     }
 
-    private byte[] fetchImage( ImageRequest req )
+    private ImageInputStream openImage( ImageRequest req )
+        throws IOException
     {
         if ( req.getUserKey() != null )
         {
             UserEntity entity = this.userDao.findByKey( req.getUserKey().toString() );
-            if ( entity == null )
+            if ( entity == null || entity.getPhoto() == null )
             {
-                return null;
+                throw new IOException( "User photo not found [" + req.getUserKey() + "]" );
             }
 
-            return entity.getPhoto();
+            return new MemoryCacheImageInputStream( new ByteArrayInputStream( entity.getPhoto() ) );
         }
 
         BlobRecord binary = this.blobStore.getRecord( new BlobKey( req.getBlobKey() ) );
@@ -213,17 +267,46 @@ public final class ImageServiceImpl
             throw AttachmentNotFoundException.notFound( req.getBlobKey() );
         }
 
-        return binary.getAsBytes();
+        // read file blobs with random access, the decoder only reads the parts it needs
+        File file = binary.getAsFile();
+        if ( file != null )
+        {
+            return new FileImageInputStream( file );
+        }
+
+        return new MemoryCacheImageInputStream( new ByteArrayInputStream( binary.getAsBytes() ) );
     }
 
-    private ImageResponse doProcess( ImageRequest req )
+    private ImageResponse doProcess( final ImageRequest req, final ImageRequestTrace trace )
         throws Exception
     {
-        byte[] bytes = fetchImage( req );
-        BufferedImage image = ImageHelper.readImage( bytes );
+        // the image is opened on the request thread, as user photos are loaded through its hibernate session
+        final ImageInputStream in = openImage( req );
+
+        final long submitted = System.currentTimeMillis();
+        final long[] started = new long[1];
+        final ImageResponse imageResponse;
+        try
+        {
+            imageResponse = imageProcessingExecutor.execute( new Callable<ImageResponse>()
+            {
+                @Override
+                public ImageResponse call()
+                    throws Exception
+                {
+                    started[0] = System.currentTimeMillis();
+                    return processor.process( req, in );
+                }
+            } );
+        }
+        finally
+        {
+            in.close();
+        }
+        ImageRequestTracer.traceProcessing( trace, started[0] - submitted, System.currentTimeMillis() - started[0] );
 
-        ImageResponse imageResponse = processor.process( req, image );
         imageCache.put( req, imageResponse );
+        diskImageCache.put( req, imageResponse );
         return imageResponse;
     }
 
@@ -233,6 +316,19 @@ public final class ImageServiceImpl
         this.imageCache = imageCache;
     }
 
+    @Autowired
+    public void setDiskImageCache( DiskImageCache diskImageCache )
+    {
+        this.diskImageCache = diskImageCache;
+    }
+
+    @Autowired
+    public void setImageProcessingExecutor( ImageProcessingExecutor imageProcessingExecutor )
+    {
+        this.imageProcessingExecutor = imageProcessingExecutor;
+        this.processor.setTileExecutor( imageProcessingExecutor.getTileExecutor(), imageProcessingExecutor.getTileThreads() );
+    }
+
     @Autowired
     public void setContentDao( ContentDao contentDao )
     {
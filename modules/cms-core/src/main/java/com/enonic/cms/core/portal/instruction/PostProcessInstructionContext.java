@@ -114,4 +114,21 @@ public class PostProcessInstructionContext
     {
         this.siteURLResolverDisableHtmlEscaping = siteURLResolverDisableHtmlEscaping;
     }
+
+    /**
+     * Returns a copy of this context, sharing its values.
+     */
+    public PostProcessInstructionContext copy()
+    {
+        final PostProcessInstructionContext copy = new PostProcessInstructionContext();
+        copy.windowRendererContext = this.windowRendererContext;
+        copy.previewContext = this.previewContext;
+        copy.httpRequest = this.httpRequest;
+        copy.site = this.site;
+        copy.encodeImageUrlParams = this.encodeImageUrlParams;
+        copy.inContextOfWindow = this.inContextOfWindow;
+        copy.siteURLResolverEnableHtmlEscaping = this.siteURLResolverEnableHtmlEscaping;
+        copy.siteURLResolverDisableHtmlEscaping = this.siteURLResolverDisableHtmlEscaping;
+        return copy;
+    }
 }
@@ -4,6 +4,17 @@
  */
 package com.enonic.cms.core.portal.instruction;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import com.google.common.base.Throwables;
+
+import com.enonic.cms.core.portal.rendering.WindowRenderingExecutor;
+
 /**
  * Created by IntelliJ IDEA.
  * User: rmh
@@ -16,45 +27,146 @@ public class PostProcessInstructionProcessor
 
     private final PostProcessInstructionExecutor executor;
 
+    private final WindowRenderingExecutor windowRenderingExecutor;
+
     public PostProcessInstructionProcessor( final PostProcessInstructionContext context, final PostProcessInstructionExecutor executor )
+    {
+        this( context, executor, null );
+    }
+
+    /**
+     * With a window rendering executor, all windows in the document are rendered in parallel before the instructions
+     * are replaced in document order.
+     */
+    public PostProcessInstructionProcessor( final PostProcessInstructionContext context, final PostProcessInstructionExecutor executor,
+                                            final WindowRenderingExecutor windowRenderingExecutor )
     {
         this.context = context;
         this.executor = executor;
+        this.windowRenderingExecutor = windowRenderingExecutor;
     }
 
     public String processInstructions( String document )
     {
-        PostProcessInstructionParser parser = new PostProcessInstructionParser( document );
+        final Map<Integer, Future<String>> renderedWindows = renderWindowsInParallel( document );
 
-        StringBuffer resultBuffer = new StringBuffer();
+        try
+        {
+            PostProcessInstructionParser parser = new PostProcessInstructionParser( document );
 
-        PostProcessInstruction instruction = parser.next();
+            StringBuffer resultBuffer = new StringBuffer();
 
-        while ( instruction != null )
-        {
-            try
+            int index = 0;
+
+            PostProcessInstruction instruction = parser.next();
+
+            while ( instruction != null )
             {
-                String processedInstructionResult = executor.execute( instruction, context );
+                try
+                {
+                    final Future<String> renderedWindow = renderedWindows.get( index );
 
-                parser.replaceInInput( resultBuffer, processedInstructionResult );
+                    String processedInstructionResult =
+                        renderedWindow != null ? getRenderedWindow( renderedWindow ) : executor.execute( instruction, context );
+
+                    parser.replaceInInput( resultBuffer, processedInstructionResult );
+                }
+                catch ( PostProcessInstructionUnknownTypeException e )
+                {
+                    parser.replaceInInput( resultBuffer, parser.getCurrentParsedInstuctionString() );
+                }
+                catch ( PostProcessInstructionSerializingException e )
+                {
+                    parser.replaceInInput( resultBuffer, parser.getCurrentParsedInstuctionString() );
+                }
+
+                index++;
+                instruction = parser.next();
             }
-            catch ( PostProcessInstructionUnknownTypeException e )
+
+            parser.appendTail( resultBuffer );
+
+            return resultBuffer.toString();
+        }
+        finally
+        {
+            // windows still rendering when the page fails are not needed any more
+            for ( final Future<String> renderedWindow : renderedWindows.values() )
             {
-                parser.replaceInInput( resultBuffer, parser.getCurrentParsedInstuctionString() );
+                if ( !renderedWindow.isDone() )
+                {
+                    renderedWindow.cancel( true );
+                }
             }
-            catch ( PostProcessInstructionSerializingException e )
+        }
+    }
+
+    /**
+     * Submit every window instruction in the document, keyed by its position among the instructions.
+     */
+    private Map<Integer, Future<String>> renderWindowsInParallel( final String document )
+    {
+        final Map<Integer, Future<String>> renderedWindows = new HashMap<Integer, Future<String>>();
+
+        if ( windowRenderingExecutor == null || context.isInContextOfWindow() )
+        {
+            return renderedWindows;
+        }
+
+        final Map<Integer, PostProcessInstruction> windowInstructions = new LinkedHashMap<Integer, PostProcessInstruction>();
+
+        final PostProcessInstructionParser parser = new PostProcessInstructionParser( document );
+
+        int index = 0;
+
+        PostProcessInstruction instruction = parser.next();
+
+        while ( instruction != null )
+        {
+            if ( instruction.getType() == PostProcessInstructionType.CREATE_WINDOWPLACEHOLDER )
             {
-                parser.replaceInInput( resultBuffer, parser.getCurrentParsedInstuctionString() );
+                windowInstructions.put( index, instruction );
             }
 
+            index++;
             instruction = parser.next();
         }
 
-        parser.appendTail( resultBuffer );
+        if ( windowInstructions.size() < 2 )
+        {
+            // nothing to run in parallel with
+            return renderedWindows;
+        }
 
-        return resultBuffer.toString();
-    }
+        for ( final Map.Entry<Integer, PostProcessInstruction> windowInstruction : windowInstructions.entrySet() )
+        {
+            renderedWindows.put( windowInstruction.getKey(), windowRenderingExecutor.submit( new Callable<String>()
+            {
+                @Override
+                public String call()
+                {
+                    return executor.execute( windowInstruction.getValue(), windowRenderingExecutor.reloadInCurrentSession( context ) );
+                }
+            } ) );
+        }
 
+        return renderedWindows;
+    }
 
+    private String getRenderedWindow( final Future<String> renderedWindow )
+    {
+        try
+        {
+            return renderedWindow.get();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException( "Interrupted while waiting for window to render", e );
+        }
+        catch ( ExecutionException e )
+        {
+            throw Throwables.propagate( e.getCause() );
+        }
+    }
 }
-
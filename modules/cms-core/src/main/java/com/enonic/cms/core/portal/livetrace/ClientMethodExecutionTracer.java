@@ -5,10 +5,14 @@
 
 package com.enonic.cms.core.portal.livetrace;
 
+import com.enonic.cms.core.portal.livetrace.latency.LatencyCategory;
+
 public class ClientMethodExecutionTracer
 {
     public static ClientMethodExecutionTrace startTracing( final String methodName, final LivePortalTraceService livePortalTraceService )
     {
+        livePortalTraceService.startLatencyTimer( LatencyCategory.CLIENT_METHOD, methodName );
+
         if ( livePortalTraceService.tracingEnabled() )
         {
             return livePortalTraceService.startClientMethodExecutionTracing( methodName );
@@ -21,6 +25,8 @@ public class ClientMethodExecutionTracer
 
     public static void stopTracing( ClientMethodExecutionTrace trace, final LivePortalTraceService livePortalTraceService )
     {
+        livePortalTraceService.stopLatencyTimer( LatencyCategory.CLIENT_METHOD );
+
         if ( trace != null )
         {
             livePortalTraceService.stopTracing( trace );
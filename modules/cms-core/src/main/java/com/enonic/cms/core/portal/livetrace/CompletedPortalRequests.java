@@ -6,62 +6,78 @@ package com.enonic.cms.core.portal.livetrace;
 
 import java.util.LinkedList;
 import java.util.List;
-
-import com.google.common.collect.ImmutableList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
- * Oct 6, 2010
+ * Ring buffer of the most recently completed requests. A trace is written to the slot given by its completed number,
+ * overwriting the trace completed maxSize requests earlier, so adding never takes a lock.
  */
 public class CompletedPortalRequests
 {
-    private static long historyCounter = 0;
+    private final AtomicLong historyCounter = new AtomicLong( 0 );
 
-    private int maxSize;
+    private final int maxSize;
 
-    private final LinkedList<PortalRequestTrace> list = new LinkedList<PortalRequestTrace>();
+    private final AtomicReferenceArray<PortalRequestTrace> ring;
 
     public CompletedPortalRequests( int maxSize )
     {
-        this.maxSize = maxSize;
+        this.maxSize = Math.max( maxSize, 1 );
+        this.ring = new AtomicReferenceArray<PortalRequestTrace>( this.maxSize );
     }
 
     public void add( PortalRequestTrace portalRequestTrace )
     {
-        synchronized ( list )
+        final long completedNumber = historyCounter.incrementAndGet();
+        portalRequestTrace.setCompletedNumber( completedNumber );
+
+        final int index = indexOf( completedNumber );
+        while ( true )
         {
-            portalRequestTrace.setCompletedNumber( ++historyCounter );
-            list.addFirst( portalRequestTrace );
-            doRetainSize();
+            // a slow writer must not overwrite a trace that completed a full round later
+            final PortalRequestTrace current = ring.get( index );
+            if ( current != null && current.getCompletedNumber() > completedNumber )
+            {
+                return;
+            }
+            if ( ring.compareAndSet( index, current, portalRequestTrace ) )
+            {
+                return;
+            }
         }
     }
 
     public List<PortalRequestTrace> getList()
     {
-        synchronized ( list )
-        {
-            return ImmutableList.copyOf( list );
-        }
+        return collect( Long.MAX_VALUE, 0 );
     }
 
     public List<PortalRequestTrace> getCompletedAfter( long completedNumber )
     {
-        LinkedList<PortalRequestTrace> list = new LinkedList<PortalRequestTrace>();
-        for ( PortalRequestTrace trace : getList() )
-        {
-            if ( trace.getCompletedNumber() > completedNumber )
-            {
-                list.addLast( trace );
-            }
-        }
-        return list;
+        return collect( Long.MAX_VALUE, completedNumber );
     }
 
     public List<PortalRequestTrace> getCompletedBefore( long completedNumber )
     {
-        LinkedList<PortalRequestTrace> list = new LinkedList<PortalRequestTrace>();
-        for ( PortalRequestTrace trace : getList() )
+        return collect( completedNumber, 0 );
+    }
+
+    /**
+     * Returns the traces with completed number between the given numbers, exclusive, with the last completed first.
+     */
+    private List<PortalRequestTrace> collect( final long before, final long after )
+    {
+        final long latest = historyCounter.get();
+        final long first = Math.min( latest, before - 1 );
+        final long last = Math.max( latest - maxSize + 1, after + 1 );
+
+        final LinkedList<PortalRequestTrace> list = new LinkedList<PortalRequestTrace>();
+        for ( long number = first; number >= last && number > 0; number-- )
         {
-            if ( trace.getCompletedNumber() < completedNumber )
+            // skip slots not yet written, or already overwritten by a later trace
+            final PortalRequestTrace trace = ring.get( indexOf( number ) );
+            if ( trace != null && trace.getCompletedNumber() == number )
             {
                 list.addLast( trace );
             }
@@ -69,16 +85,13 @@ public class CompletedPortalRequests
         return list;
     }
 
-    private void doRetainSize()
+    private int indexOf( final long completedNumber )
     {
-        if ( list.size() > maxSize )
-        {
-            list.removeLast();
-        }
+        return (int) ( completedNumber % maxSize );
     }
 
     public int getSize()
     {
-        return list.size();
+        return (int) Math.min( historyCounter.get(), maxSize );
     }
 }
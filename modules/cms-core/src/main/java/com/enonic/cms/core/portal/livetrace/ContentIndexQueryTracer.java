@@ -9,12 +9,15 @@ import java.util.Collection;
 import java.util.Iterator;
 
 import com.enonic.cms.core.content.index.ContentIndexQuery;
+import com.enonic.cms.core.portal.livetrace.latency.LatencyCategory;
 import com.enonic.cms.core.time.TimeService;
 
 public class ContentIndexQueryTracer
 {
     public static ContentIndexQueryTrace startTracing( final LivePortalTraceService livePortalTraceService )
     {
+        livePortalTraceService.startLatencyTimer( LatencyCategory.INDEX_QUERY, null );
+
         if ( livePortalTraceService.tracingEnabled() )
         {
             return livePortalTraceService.startContentIndexQueryTracing();
@@ -27,6 +30,8 @@ public class ContentIndexQueryTracer
 
     public static void stopTracing( ContentIndexQueryTrace trace, final LivePortalTraceService livePortalTraceService )
     {
+        livePortalTraceService.stopLatencyTimer( LatencyCategory.INDEX_QUERY );
+
         if ( trace != null )
         {
             livePortalTraceService.stopTracing( trace );
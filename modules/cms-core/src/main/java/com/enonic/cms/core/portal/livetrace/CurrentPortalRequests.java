@@ -4,8 +4,8 @@
  */
 package com.enonic.cms.core.portal.livetrace;
 
-import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import com.google.common.collect.ImmutableList;
 
@@ -14,19 +14,19 @@ import com.google.common.collect.ImmutableList;
  */
 public class CurrentPortalRequests
 {
-    private final LinkedList<PortalRequestTrace> currentPortalRequestTraces = new LinkedList<PortalRequestTrace>();
+    private final ConcurrentLinkedQueue<PortalRequestTrace> currentPortalRequestTraces = new ConcurrentLinkedQueue<PortalRequestTrace>();
 
-    public synchronized void add( PortalRequestTrace trace )
+    public void add( PortalRequestTrace trace )
     {
-        currentPortalRequestTraces.addLast( trace );
+        currentPortalRequestTraces.add( trace );
     }
 
-    public synchronized void remove( PortalRequestTrace trace )
+    public void remove( PortalRequestTrace trace )
     {
         currentPortalRequestTraces.remove( trace );
     }
 
-    public synchronized List<PortalRequestTrace> getList()
+    public List<PortalRequestTrace> getList()
     {
         return ImmutableList.copyOf( currentPortalRequestTraces );
     }
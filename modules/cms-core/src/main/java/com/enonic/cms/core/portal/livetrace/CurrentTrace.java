@@ -5,6 +5,8 @@
 
 package com.enonic.cms.core.portal.livetrace;
 
+import com.enonic.cms.core.portal.livetrace.latency.LatencyCategory;
+
 public class CurrentTrace
 {
     private PortalRequestTrace portalRequestTrace;
@@ -25,6 +27,8 @@ public class CurrentTrace
 
     private WindowRenderingTrace windowRenderingTrace;
 
+    private LatencyTimer latencyTimer;
+
     PortalRequestTrace getPortalRequestTrace()
     {
         return portalRequestTrace;
@@ -127,6 +131,53 @@ public class CurrentTrace
         this.windowRenderingTrace = windowRenderingTrace;
     }
 
+    void startLatencyTimer( final LatencyCategory category, final String name )
+    {
+        // unnamed timers, like index queries, are named by the datasource or client method they run in
+        final String timerName = name != null || latencyTimer == null ? name : latencyTimer.getName();
+        latencyTimer = new LatencyTimer( category, timerName, latencyTimer );
+    }
+
+    void nameLatencyTimer( final LatencyCategory category, final String name )
+    {
+        final LatencyTimer timer = findLatencyTimer( category );
+        if ( timer != null )
+        {
+            timer.setName( name );
+        }
+    }
+
+    LatencyTimer stopLatencyTimer( final LatencyCategory category )
+    {
+        final LatencyTimer timer = findLatencyTimer( category );
+        if ( timer != null )
+        {
+            // timers started after this one and never stopped are dropped with it
+            latencyTimer = timer.getParent();
+        }
+        return timer;
+    }
+
+    private LatencyTimer findLatencyTimer( final LatencyCategory category )
+    {
+        for ( LatencyTimer timer = latencyTimer; timer != null; timer = timer.getParent() )
+        {
+            if ( timer.getCategory() == category )
+            {
+                return timer;
+            }
+        }
+        return null;
+    }
+
+    CurrentTrace forkForWindowRendering()
+    {
+        final CurrentTrace fork = new CurrentTrace();
+        fork.portalRequestTrace = portalRequestTrace;
+        fork.pageRenderingTrace = pageRenderingTrace;
+        return fork;
+    }
+
     boolean isInPageRenderingTrace()
     {
         return windowRenderingTrace == null && pageRenderingTrace != null;
@@ -21,6 +21,8 @@ public class DatasourceExecutionTrace
 
     private boolean isCacheUsed = false;
 
+    private boolean isSharedCacheUsed = false;
+
     private List<DatasourceMethodArgument> datasourceMethodArgumentList = new ArrayList<DatasourceMethodArgument>();
 
     private Traces<ClientMethodExecutionTrace> clientMethodExecutionTraceTraces;
@@ -73,6 +75,17 @@ public class DatasourceExecutionTrace
         isCacheUsed = cacheUsed;
     }
 
+    @SuppressWarnings("UnusedDeclaration")
+    public boolean isSharedCacheUsed()
+    {
+        return isSharedCacheUsed;
+    }
+
+    void setSharedCacheUsed( boolean sharedCacheUsed )
+    {
+        isSharedCacheUsed = sharedCacheUsed;
+    }
+
     void addDatasourceMethodArgument( DatasourceMethodArgument datasourceMethodArgument )
     {
         datasourceMethodArgumentList.add( datasourceMethodArgument );
@@ -10,12 +10,15 @@ import java.util.Map;
 
 import com.enonic.cms.core.portal.datasource.DataSourceType;
 import com.enonic.cms.core.portal.datasource.handler.DataSourceRequest;
+import com.enonic.cms.core.portal.livetrace.latency.LatencyCategory;
 
 public class DatasourceExecutionTracer
 {
     public static DatasourceExecutionTrace startTracing( DataSourceType datasourcesType, String datasourceMethodName,
                                                          LivePortalTraceService livePortalTraceService )
     {
+        livePortalTraceService.startLatencyTimer( LatencyCategory.DATASOURCE, datasourceMethodName );
+
         if ( !livePortalTraceService.tracingEnabled() )
         {
             return null;
@@ -31,7 +34,14 @@ public class DatasourceExecutionTracer
 
     public static void stopTracing( DatasourceExecutionTrace trace, LivePortalTraceService livePortalTraceService )
     {
-        if ( trace != null && livePortalTraceService != null )
+        if ( livePortalTraceService == null )
+        {
+            return;
+        }
+
+        livePortalTraceService.stopLatencyTimer( LatencyCategory.DATASOURCE );
+
+        if ( trace != null )
         {
             livePortalTraceService.stopTracing( trace );
         }
@@ -78,6 +88,20 @@ public class DatasourceExecutionTracer
         }
     }
 
+    public static void traceIsSharedCacheUsed( boolean sharedCacheUsed, LivePortalTraceService livePortalTraceService )
+    {
+        if ( livePortalTraceService == null )
+        {
+            return;
+        }
+
+        DatasourceExecutionTrace trace = livePortalTraceService.getCurrentTrace().getDatasourceExecutionTrace();
+        if ( trace != null )
+        {
+            trace.setSharedCacheUsed( sharedCacheUsed );
+        }
+    }
+
     private static String objectToString( Object object )
     {
         if ( object == null )
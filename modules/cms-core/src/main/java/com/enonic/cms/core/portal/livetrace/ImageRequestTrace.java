@@ -12,6 +12,10 @@ public class ImageRequestTrace
     extends BaseTrace
     implements Trace
 {
+    public static final String CACHE_TIER_MEMORY = "memory";
+
+    public static final String CACHE_TIER_DISK = "disk";
+
     private MaxLengthedString contentKey = new MaxLengthedString();
 
     private MaxLengthedString label = new MaxLengthedString();
@@ -28,6 +32,12 @@ public class ImageRequestTrace
 
     private CacheUsage cacheUsage = new CacheUsage().setCacheable( true );
 
+    private String cacheTier;
+
+    private Long processingQueueTime;
+
+    private Long processingTime;
+
     @SuppressWarnings("UnusedDeclaration")
     public String getContentKey()
     {
@@ -110,4 +120,37 @@ public class ImageRequestTrace
         return cacheUsage;
     }
 
+    @SuppressWarnings("UnusedDeclaration")
+    public String getCacheTier()
+    {
+        return cacheTier;
+    }
+
+    void setCacheTier( String cacheTier )
+    {
+        this.cacheTier = cacheTier;
+    }
+
+    @SuppressWarnings("UnusedDeclaration")
+    public Long getProcessingQueueTime()
+    {
+        return processingQueueTime;
+    }
+
+    void setProcessingQueueTime( Long processingQueueTime )
+    {
+        this.processingQueueTime = processingQueueTime;
+    }
+
+    @SuppressWarnings("UnusedDeclaration")
+    public Long getProcessingTime()
+    {
+        return processingTime;
+    }
+
+    void setProcessingTime( Long processingTime )
+    {
+        this.processingTime = processingTime;
+    }
+
 }
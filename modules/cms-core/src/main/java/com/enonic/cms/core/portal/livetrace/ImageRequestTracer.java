@@ -76,6 +76,23 @@ public class ImageRequestTracer
         }
     }
 
+    public static void traceCacheTier( ImageRequestTrace trace, String cacheTier )
+    {
+        if ( trace != null )
+        {
+            trace.setCacheTier( cacheTier );
+        }
+    }
+
+    public static void traceProcessing( ImageRequestTrace trace, long queueTime, long processingTime )
+    {
+        if ( trace != null )
+        {
+            trace.setProcessingQueueTime( queueTime );
+            trace.setProcessingTime( processingTime );
+        }
+    }
+
     public static void traceImageResponse( ImageRequestTrace trace, ImageResponse imageResponse )
     {
         if ( trace != null && imageResponse != null )
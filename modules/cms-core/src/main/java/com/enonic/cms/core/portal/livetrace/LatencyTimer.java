@@ -0,0 +1,53 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.core.portal.livetrace;
+
+import com.enonic.cms.core.portal.livetrace.latency.LatencyCategory;
+
+/**
+ * A running latency measurement. The timers of a thread form a stack, linked by their parent.
+ */
+final class LatencyTimer
+{
+    private final LatencyCategory category;
+
+    private final LatencyTimer parent;
+
+    private final long startTime = System.nanoTime();
+
+    private String name;
+
+    LatencyTimer( final LatencyCategory category, final String name, final LatencyTimer parent )
+    {
+        this.category = category;
+        this.name = name;
+        this.parent = parent;
+    }
+
+    LatencyCategory getCategory()
+    {
+        return category;
+    }
+
+    LatencyTimer getParent()
+    {
+        return parent;
+    }
+
+    long getStartTime()
+    {
+        return startTime;
+    }
+
+    String getName()
+    {
+        return name;
+    }
+
+    void setName( final String name )
+    {
+        this.name = name;
+    }
+}
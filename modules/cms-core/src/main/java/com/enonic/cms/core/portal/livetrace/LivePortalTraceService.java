@@ -7,6 +7,7 @@ package com.enonic.cms.core.portal.livetrace;
 import java.util.List;
 
 import com.enonic.cms.core.portal.datasource.DataSourceType;
+import com.enonic.cms.core.portal.livetrace.latency.LatencyCategory;
 import com.enonic.cms.core.structure.page.WindowKey;
 
 /**
@@ -16,6 +17,8 @@ public interface LivePortalTraceService
 {
     boolean tracingEnabled();
 
+    boolean sampleRequest();
+
     PortalRequestTrace startPortalRequestTracing( String url );
 
     PageRenderingTrace startPageRenderTracing( PortalRequestTrace portalRequestTrace );
@@ -42,10 +45,20 @@ public interface LivePortalTraceService
 
     ImageRequestTrace startImageRequestTracing( PortalRequestTrace portalRequestTrace );
 
+    void startLatencyTimer( LatencyCategory category, String name );
+
+    void nameLatencyTimer( LatencyCategory category, String name );
+
+    void stopLatencyTimer( LatencyCategory category );
+
     PortalRequestTrace getCurrentPortalRequestTrace();
 
     CurrentTrace getCurrentTrace();
 
+    CurrentTrace forkCurrentTrace();
+
+    void setCurrentTrace( CurrentTrace currentTrace );
+
     void stopTracing( PortalRequestTrace livePortalRequestTrace );
 
     void stopTracing( PageRenderingTrace pageRenderTrace );
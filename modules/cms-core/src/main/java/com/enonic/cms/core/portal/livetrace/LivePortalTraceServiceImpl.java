@@ -18,6 +18,8 @@ import org.springframework.stereotype.Service;
 import com.google.common.base.Preconditions;
 
 import com.enonic.cms.core.portal.datasource.DataSourceType;
+import com.enonic.cms.core.portal.livetrace.latency.LatencyCategory;
+import com.enonic.cms.core.portal.livetrace.latency.LatencyMetrics;
 import com.enonic.cms.core.structure.page.WindowKey;
 import com.enonic.cms.core.time.TimeService;
 
@@ -32,14 +34,20 @@ public class LivePortalTraceServiceImpl
 
     private static AtomicLong requestCounter = new AtomicLong();
 
+    private final AtomicLong sampleCounter = new AtomicLong();
+
     private TimeService timeService;
 
+    private LatencyMetrics latencyMetrics;
+
     private boolean enabled = false;
 
     private int historySize;
 
     private int longestSize;
 
+    private double sampleRate = 1.0;
+
     private CurrentPortalRequests currentPortalRequests = new CurrentPortalRequests();
 
     private CompletedPortalRequests completedPortalRequests;
@@ -57,7 +65,8 @@ public class LivePortalTraceServiceImpl
     {
         if ( enabled )
         {
-            LOG.info( "Live Portal Tracing is enabled [historySize=" + historySize + ", longestSize=" + longestSize + "]" );
+            LOG.info( "Live Portal Tracing is enabled [historySize=" + historySize + ", longestSize=" + longestSize + ", sampleRate=" +
+                          sampleRate + "]" );
 
             longestPortalPageRequests = new LongestPortalRequests( longestSize );
             longestPortalAttachmentRequests = new LongestPortalRequests( longestSize );
@@ -75,6 +84,21 @@ public class LivePortalTraceServiceImpl
         return enabled;
     }
 
+    /**
+     * Decides whether the next request is traced. Every request is traced when the sample rate is 1, otherwise the
+     * requests are picked evenly, so that the given fraction of them is traced.
+     */
+    public boolean sampleRequest()
+    {
+        if ( sampleRate >= 1.0 )
+        {
+            return true;
+        }
+
+        final long count = sampleCounter.incrementAndGet();
+        return (long) ( count * sampleRate ) != (long) ( ( count - 1 ) * sampleRate );
+    }
+
     public PortalRequestTrace startPortalRequestTracing( final String url )
     {
         checkEnabled();
@@ -436,7 +460,8 @@ public class LivePortalTraceServiceImpl
             int windowsTotalPeriod = windowRenderingTraces != null ? windowRenderingTraces.getTotalPeriodInMilliseconds() : 0;
             final long stopTime = timeService.getNowAsDateTime().getMillis();
             final long startTime = instructionPostProcessingTrace.getStartTime().getMillis();
-            final long duration = ( stopTime - startTime ) - windowsTotalPeriod;
+            // windows rendered in parallel may together take longer than the post processing itself
+            final long duration = Math.max( 0, ( stopTime - startTime ) - windowsTotalPeriod );
             instructionPostProcessingTrace.setDurationInMilliseconds( duration );
         }
         else if ( getCurrentTrace().getWindowRenderingTrace() != null )
@@ -498,6 +523,42 @@ public class LivePortalTraceServiceImpl
         return completedPortalRequests.getCompletedBefore( historyRecordNumber );
     }
 
+    @Override
+    public void startLatencyTimer( final LatencyCategory category, final String name )
+    {
+        if ( latencyMetricsEnabled() )
+        {
+            getCurrentTrace().startLatencyTimer( category, name );
+        }
+    }
+
+    @Override
+    public void nameLatencyTimer( final LatencyCategory category, final String name )
+    {
+        if ( latencyMetricsEnabled() )
+        {
+            getCurrentTrace().nameLatencyTimer( category, name );
+        }
+    }
+
+    @Override
+    public void stopLatencyTimer( final LatencyCategory category )
+    {
+        if ( latencyMetricsEnabled() )
+        {
+            final LatencyTimer timer = getCurrentTrace().stopLatencyTimer( category );
+            if ( timer != null )
+            {
+                latencyMetrics.record( category, timer.getName(), System.nanoTime() - timer.getStartTime() );
+            }
+        }
+    }
+
+    private boolean latencyMetricsEnabled()
+    {
+        return latencyMetrics != null && latencyMetrics.isEnabled();
+    }
+
     public PortalRequestTrace getCurrentPortalRequestTrace()
     {
         if ( !enabled )
@@ -547,12 +608,38 @@ public class LivePortalTraceServiceImpl
         return currentTrace;
     }
 
+    /**
+     * Return a trace for another thread rendering windows on behalf of the current page rendering.
+     */
+    public CurrentTrace forkCurrentTrace()
+    {
+        return getCurrentTrace().forkForWindowRendering();
+    }
+
+    public void setCurrentTrace( final CurrentTrace currentTrace )
+    {
+        if ( currentTrace == null )
+        {
+            CURRENT_TRACE.remove();
+        }
+        else
+        {
+            CURRENT_TRACE.set( currentTrace );
+        }
+    }
+
     @Autowired
     public void setTimeService( TimeService timeService )
     {
         this.timeService = timeService;
     }
 
+    @Autowired
+    public void setLatencyMetrics( LatencyMetrics latencyMetrics )
+    {
+        this.latencyMetrics = latencyMetrics;
+    }
+
     @Value("${cms.livePortalTrace.enabled}")
     public void setEnabled( String enabled )
     {
@@ -570,4 +657,10 @@ public class LivePortalTraceServiceImpl
     {
         this.longestSize = value;
     }
+
+    @Value("${cms.livePortalTrace.sampleRate}")
+    public void setSampleRate( double value )
+    {
+        this.sampleRate = Math.max( 0.0, Math.min( value, 1.0 ) );
+    }
 }
@@ -4,56 +4,140 @@
  */
 package com.enonic.cms.core.portal.livetrace;
 
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.PriorityQueue;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import com.google.common.collect.ImmutableList;
 
 /**
- * Oct 6, 2010
+ * Keeps the longest requests in one bounded heap per request thread, so request threads never wait for each other.
+ * The heaps are merged when the list is read. The duration of the shortest request in the merged list is remembered,
+ * as requests shorter than that can never make it to the list, and the heaps are trimmed down to the merged list.
  */
 public class LongestPortalRequests
 {
-    private int maxSize;
+    private final Comparator<PortalRequestTrace> longestFirst = new PortalRequestTraceComparatorByLongestTime();
 
-    private final TreeSet<PortalRequestTrace> list;
+    private final Comparator<PortalRequestTrace> shortestFirst = Collections.reverseOrder( longestFirst );
+
+    private final int maxSize;
+
+    private final ConcurrentLinkedQueue<ThreadHeap> heaps = new ConcurrentLinkedQueue<ThreadHeap>();
+
+    private final ThreadLocal<ThreadHeap> threadHeap = new ThreadLocal<ThreadHeap>()
+    {
+        @Override
+        protected ThreadHeap initialValue()
+        {
+            final ThreadHeap heap = new ThreadHeap( Thread.currentThread(), new PriorityQueue<PortalRequestTrace>( 16, shortestFirst ) );
+            heaps.add( heap );
+            return heap;
+        }
+    };
+
+    private volatile long minDuration = -1;
 
     public LongestPortalRequests( int maxSize )
     {
-        this.maxSize = maxSize;
-        list = new TreeSet<PortalRequestTrace>( new PortalRequestTraceComparatorByLongestTime() );
+        this.maxSize = Math.max( maxSize, 1 );
     }
 
     public void add( PortalRequestTrace item )
     {
-        synchronized ( list )
+        if ( item.getDuration().getAsMilliseconds() < minDuration )
+        {
+            return;
+        }
+
+        final PriorityQueue<PortalRequestTrace> heap = threadHeap.get().traces;
+
+        // only contended while the list is read
+        synchronized ( heap )
         {
-            list.add( item );
-            doRetainSize();
+            heap.offer( item );
+            if ( heap.size() > maxSize )
+            {
+                heap.poll();
+            }
         }
     }
 
-    public List<PortalRequestTrace> getList()
+    public synchronized List<PortalRequestTrace> getList()
     {
-        synchronized ( list )
+        final TreeSet<PortalRequestTrace> merged = new TreeSet<PortalRequestTrace>( longestFirst );
+        for ( final ThreadHeap heap : heaps )
         {
-            return ImmutableList.copyOf( list );
+            synchronized ( heap.traces )
+            {
+                merged.addAll( heap.traces );
+            }
+            while ( merged.size() > maxSize )
+            {
+                merged.pollLast();
+            }
         }
+
+        if ( merged.size() == maxSize )
+        {
+            trim( merged.last() );
+            minDuration = merged.last().getDuration().getAsMilliseconds();
+        }
+
+        return ImmutableList.copyOf( merged );
     }
 
-    private void doRetainSize()
+    private void trim( final PortalRequestTrace shortest )
     {
-        if ( list.size() > maxSize )
+        final Iterator<ThreadHeap> heapIterator = heaps.iterator();
+        while ( heapIterator.hasNext() )
         {
-            list.remove( list.last() );
+            final ThreadHeap heap = heapIterator.next();
+            synchronized ( heap.traces )
+            {
+                final Iterator<PortalRequestTrace> it = heap.traces.iterator();
+                while ( it.hasNext() )
+                {
+                    if ( longestFirst.compare( it.next(), shortest ) > 0 )
+                    {
+                        it.remove();
+                    }
+                }
+
+                if ( heap.traces.isEmpty() && !heap.owner.isAlive() )
+                {
+                    heapIterator.remove();
+                }
+            }
         }
     }
 
-    public void clear()
+    public synchronized void clear()
     {
-        synchronized ( list )
+        minDuration = -1;
+        for ( final ThreadHeap heap : heaps )
+        {
+            synchronized ( heap.traces )
+            {
+                heap.traces.clear();
+            }
+        }
+    }
+
+    private static final class ThreadHeap
+    {
+        private final Thread owner;
+
+        private final PriorityQueue<PortalRequestTrace> traces;
+
+        private ThreadHeap( final Thread owner, final PriorityQueue<PortalRequestTrace> traces )
         {
-            list.clear();
+            this.owner = owner;
+            this.traces = traces;
         }
     }
 }
@@ -40,7 +40,7 @@ public class PageRenderingTrace
         return cacheUsage;
     }
 
-    void addWindowRenderingTrace( WindowRenderingTrace trace )
+    synchronized void addWindowRenderingTrace( WindowRenderingTrace trace )
     {
         if ( windowRenderingTraces == null )
         {
@@ -22,13 +22,29 @@ public class PortalRequestTracer
 {
     public static PortalRequestTrace startTracing( final String originalUrl, final LivePortalTraceService livePortalTraceService )
     {
-        if ( livePortalTraceService.tracingEnabled() )
+        return startTracing( originalUrl, livePortalTraceService, false );
+    }
+
+    /**
+     * Starts tracing the request if it is picked by the sample rate, or always when forced.
+     */
+    public static PortalRequestTrace startTracing( final String originalUrl, final LivePortalTraceService livePortalTraceService,
+                                                   final boolean force )
+    {
+        if ( !livePortalTraceService.tracingEnabled() )
+        {
+            return null;
+        }
+
+        if ( force || livePortalTraceService.sampleRequest() )
         {
             String originalUrlDecoded = UrlPathDecoder.decode( originalUrl );
             return livePortalTraceService.startPortalRequestTracing( originalUrlDecoded );
         }
         else
         {
+            // drop what is left from the last traced request on this thread
+            livePortalTraceService.setCurrentTrace( null );
             return null;
         }
     }
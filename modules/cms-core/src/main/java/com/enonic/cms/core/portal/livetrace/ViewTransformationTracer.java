@@ -5,11 +5,14 @@
 
 package com.enonic.cms.core.portal.livetrace;
 
+import com.enonic.cms.core.portal.livetrace.latency.LatencyCategory;
 
 public class ViewTransformationTracer
 {
     public static ViewTransformationTrace startTracing( final LivePortalTraceService livePortalTraceService )
     {
+        livePortalTraceService.startLatencyTimer( LatencyCategory.VIEW, null );
+
         if ( !livePortalTraceService.tracingEnabled() )
         {
             return null;
@@ -20,14 +23,19 @@ public class ViewTransformationTracer
 
     public static void stopTracing( final ViewTransformationTrace trace, final LivePortalTraceService livePortalTraceService )
     {
+        livePortalTraceService.stopLatencyTimer( LatencyCategory.VIEW );
+
         if ( trace != null )
         {
             livePortalTraceService.stopTracing( trace );
         }
     }
 
-    public static void traceView( final String name, final ViewTransformationTrace trace )
+    public static void traceView( final String name, final ViewTransformationTrace trace,
+                                  final LivePortalTraceService livePortalTraceService )
     {
+        livePortalTraceService.nameLatencyTimer( LatencyCategory.VIEW, name );
+
         if ( trace != null )
         {
             trace.setView( name );
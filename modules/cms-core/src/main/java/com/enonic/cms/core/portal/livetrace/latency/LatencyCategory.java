@@ -0,0 +1,25 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.core.portal.livetrace.latency;
+
+public enum LatencyCategory
+{
+    DATASOURCE( "datasources" ),
+    VIEW( "views" ),
+    CLIENT_METHOD( "clientMethods" ),
+    INDEX_QUERY( "indexQueries" );
+
+    private final String name;
+
+    private LatencyCategory( final String name )
+    {
+        this.name = name;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.core.portal.livetrace.latency;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of latencies in microseconds with a fixed number of buckets. Values below 32 have a bucket each, larger
+ * values are split in 16 buckets per power of two, so a percentile is never more than 1/16 off. Recording only
+ * increments counters, so the histogram can be updated by any number of threads without locking.
+ */
+public final class LatencyHistogram
+{
+    private static final int PRECISION_BITS = 4;
+
+    private static final int SUB_BUCKETS = 1 << PRECISION_BITS;
+
+    private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+
+    private static final int MAX_EXPONENT = 40;
+
+    private static final long MAX_VALUE = ( 1L << ( MAX_EXPONENT + 1 ) ) - 1;
+
+    private static final int BUCKET_COUNT = LINEAR_LIMIT + ( MAX_EXPONENT - PRECISION_BITS ) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray( BUCKET_COUNT );
+
+    private final AtomicLong count = new AtomicLong( 0 );
+
+    private final AtomicLong total = new AtomicLong( 0 );
+
+    private final AtomicLong max = new AtomicLong( 0 );
+
+    public void record( final long micros )
+    {
+        final long value = Math.min( Math.max( micros, 0 ), MAX_VALUE );
+
+        buckets.incrementAndGet( indexOf( value ) );
+        count.incrementAndGet();
+        total.addAndGet( value );
+
+        long current = max.get();
+        while ( value > current && !max.compareAndSet( current, value ) )
+        {
+            current = max.get();
+        }
+    }
+
+    public long getCount()
+    {
+        return count.get();
+    }
+
+    public long getMean()
+    {
+        final long count = getCount();
+        return count > 0 ? total.get() / count : 0;
+    }
+
+    public long getMax()
+    {
+        return max.get();
+    }
+
+    /**
+     * Returns the highest value of the bucket holding the given percentile, or the max value if that is lower.
+     */
+    public long getPercentile( final double percentile )
+    {
+        final long count = getCount();
+        if ( count == 0 )
+        {
+            return 0;
+        }
+
+        final long rank = Math.max( 1, (long) Math.ceil( count * percentile / 100.0 ) );
+        long seen = 0;
+        for ( int i = 0; i < BUCKET_COUNT; i++ )
+        {
+            seen += buckets.get( i );
+            if ( seen >= rank )
+            {
+                return Math.min( highestValueOf( i ), getMax() );
+            }
+        }
+
+        return getMax();
+    }
+
+    static int indexOf( final long value )
+    {
+        if ( value < LINEAR_LIMIT )
+        {
+            return (int) value;
+        }
+
+        final int exponent = 63 - Long.numberOfLeadingZeros( value );
+        final int subBucket = (int) ( value >>> ( exponent - PRECISION_BITS ) ) & ( SUB_BUCKETS - 1 );
+        return LINEAR_LIMIT + ( exponent - PRECISION_BITS - 1 ) * SUB_BUCKETS + subBucket;
+    }
+
+    static long highestValueOf( final int index )
+    {
+        if ( index < LINEAR_LIMIT )
+        {
+            return index;
+        }
+
+        final int exponent = ( index - LINEAR_LIMIT ) / SUB_BUCKETS + PRECISION_BITS + 1;
+        final int subBucket = ( index - LINEAR_LIMIT ) % SUB_BUCKETS;
+        return ( (long) ( SUB_BUCKETS + subBucket + 1 ) << ( exponent - PRECISION_BITS ) ) - 1;
+    }
+}
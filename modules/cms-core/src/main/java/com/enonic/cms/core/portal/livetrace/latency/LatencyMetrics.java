@@ -0,0 +1,190 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.core.portal.livetrace.latency;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Latency histograms of datasources, views, client methods and index queries, by name. The histograms are fed by the
+ * live portal tracers whether live portal tracing is enabled or not, and are exported as an MXBean.
+ */
+@Component
+public final class LatencyMetrics
+    implements LatencyMetricsMXBean
+{
+    private static final Logger LOG = LoggerFactory.getLogger( LatencyMetrics.class );
+
+    private static final String OTHER_NAME = "other";
+
+    private static final int MAX_NAMES = 1000;
+
+    private boolean enabled;
+
+    private String instanceName;
+
+    private ObjectName objectName;
+
+    private final Map<LatencyCategory, ConcurrentMap<String, LatencyHistogram>> histograms =
+        new EnumMap<LatencyCategory, ConcurrentMap<String, LatencyHistogram>>( LatencyCategory.class );
+
+    private volatile long since = System.currentTimeMillis();
+
+    public LatencyMetrics()
+    {
+        for ( final LatencyCategory category : LatencyCategory.values() )
+        {
+            histograms.put( category, new ConcurrentHashMap<String, LatencyHistogram>() );
+        }
+    }
+
+    @PostConstruct
+    public void start()
+    {
+        if ( !enabled )
+        {
+            return;
+        }
+
+        try
+        {
+            final ObjectName name = new ObjectName( "com.enonic.cms:type=LatencyMetrics,instance=" + ObjectName.quote( instanceName ) );
+            ManagementFactory.getPlatformMBeanServer().registerMBean( this, name );
+            objectName = name;
+        }
+        catch ( final Exception e )
+        {
+            LOG.warn( "Failed to register latency metrics MBean", e );
+        }
+    }
+
+    @PreDestroy
+    public void stop()
+    {
+        if ( objectName == null )
+        {
+            return;
+        }
+
+        try
+        {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean( objectName );
+        }
+        catch ( final Exception e )
+        {
+            LOG.warn( "Failed to unregister latency metrics MBean", e );
+        }
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    public void record( final LatencyCategory category, final String name, final long nanos )
+    {
+        if ( enabled )
+        {
+            getHistogram( category, name != null ? name : OTHER_NAME ).record( nanos / 1000 );
+        }
+    }
+
+    private LatencyHistogram getHistogram( final LatencyCategory category, final String name )
+    {
+        final ConcurrentMap<String, LatencyHistogram> map = histograms.get( category );
+        final LatencyHistogram histogram = map.get( name );
+        if ( histogram != null )
+        {
+            return histogram;
+        }
+
+        // names come from configuration, this only guards against an unexpected number of them
+        final String key = map.size() < MAX_NAMES ? name : OTHER_NAME;
+        final LatencyHistogram created = new LatencyHistogram();
+        final LatencyHistogram existing = map.putIfAbsent( key, created );
+        return existing != null ? existing : created;
+    }
+
+    /**
+     * Returns the latencies of the category ordered by name.
+     */
+    public List<LatencyStats> getStats( final LatencyCategory category )
+    {
+        final List<LatencyStats> list = Lists.newArrayList();
+        for ( final Map.Entry<String, LatencyHistogram> entry : new TreeMap<String, LatencyHistogram>( histograms.get( category ) ).entrySet() )
+        {
+            list.add( new LatencyStats( entry.getKey(), entry.getValue() ) );
+        }
+        return list;
+    }
+
+    @Override
+    public long getSince()
+    {
+        return since;
+    }
+
+    @Override
+    public List<LatencyStats> getDatasources()
+    {
+        return getStats( LatencyCategory.DATASOURCE );
+    }
+
+    @Override
+    public List<LatencyStats> getViews()
+    {
+        return getStats( LatencyCategory.VIEW );
+    }
+
+    @Override
+    public List<LatencyStats> getClientMethods()
+    {
+        return getStats( LatencyCategory.CLIENT_METHOD );
+    }
+
+    @Override
+    public List<LatencyStats> getIndexQueries()
+    {
+        return getStats( LatencyCategory.INDEX_QUERY );
+    }
+
+    @Override
+    public void reset()
+    {
+        for ( final ConcurrentMap<String, LatencyHistogram> map : histograms.values() )
+        {
+            map.clear();
+        }
+        since = System.currentTimeMillis();
+    }
+
+    @Value("${cms.metrics.latency.enabled}")
+    public void setEnabled( final boolean enabled )
+    {
+        this.enabled = enabled;
+    }
+
+    @Value("${cms.jmx.mbean.instance.name}")
+    public void setInstanceName( final String instanceName )
+    {
+        this.instanceName = instanceName;
+    }
+}
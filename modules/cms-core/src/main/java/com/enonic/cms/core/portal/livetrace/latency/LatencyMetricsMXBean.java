@@ -0,0 +1,22 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.core.portal.livetrace.latency;
+
+import java.util.List;
+
+public interface LatencyMetricsMXBean
+{
+    long getSince();
+
+    List<LatencyStats> getDatasources();
+
+    List<LatencyStats> getViews();
+
+    List<LatencyStats> getClientMethods();
+
+    List<LatencyStats> getIndexQueries();
+
+    void reset();
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.core.portal.livetrace.latency;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Snapshot of a latency histogram, with times in milliseconds.
+ */
+public final class LatencyStats
+{
+    private final String name;
+
+    private final long count;
+
+    private final double mean;
+
+    private final double p50;
+
+    private final double p90;
+
+    private final double p99;
+
+    private final double max;
+
+    @ConstructorProperties({"name", "count", "mean", "p50", "p90", "p99", "max"})
+    public LatencyStats( final String name, final long count, final double mean, final double p50, final double p90, final double p99,
+                         final double max )
+    {
+        this.name = name;
+        this.count = count;
+        this.mean = mean;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.max = max;
+    }
+
+    LatencyStats( final String name, final LatencyHistogram histogram )
+    {
+        this( name, histogram.getCount(), toMillis( histogram.getMean() ), toMillis( histogram.getPercentile( 50 ) ),
+              toMillis( histogram.getPercentile( 90 ) ), toMillis( histogram.getPercentile( 99 ) ), toMillis( histogram.getMax() ) );
+    }
+
+    private static double toMillis( final long micros )
+    {
+        return micros / 1000.0;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public long getCount()
+    {
+        return count;
+    }
+
+    public double getMean()
+    {
+        return mean;
+    }
+
+    public double getP50()
+    {
+        return p50;
+    }
+
+    public double getP90()
+    {
+        return p90;
+    }
+
+    public double getP99()
+    {
+        return p99;
+    }
+
+    public double getMax()
+    {
+        return max;
+    }
+}
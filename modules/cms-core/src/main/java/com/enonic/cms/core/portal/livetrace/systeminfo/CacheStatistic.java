@@ -22,6 +22,10 @@ class CacheStatistic
 
     private int effectiveness;
 
+    private long evictionCount;
+
+    private long sizeInBytes;
+
     @SuppressWarnings("UnusedDeclaration")
     public int getCount()
     {
@@ -98,4 +102,26 @@ class CacheStatistic
     {
         this.effectiveness = effectiveness;
     }
+
+    @SuppressWarnings("UnusedDeclaration")
+    public long getEvictionCount()
+    {
+        return evictionCount;
+    }
+
+    void setEvictionCount( final long evictionCount )
+    {
+        this.evictionCount = evictionCount;
+    }
+
+    @SuppressWarnings("UnusedDeclaration")
+    public long getSizeInBytes()
+    {
+        return sizeInBytes;
+    }
+
+    void setSizeInBytes( final long sizeInBytes )
+    {
+        this.sizeInBytes = sizeInBytes;
+    }
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+
+package com.enonic.cms.core.portal.livetrace.systeminfo;
+
+
+class ConcurrencyStatistic
+{
+    private long executionCount;
+
+    private long coalescedCount;
+
+    private int inFlightCount;
+
+    private long totalWaitTime;
+
+    private long maxWaitTime;
+
+    @SuppressWarnings("UnusedDeclaration")
+    public long getExecutionCount()
+    {
+        return executionCount;
+    }
+
+    void setExecutionCount( final long executionCount )
+    {
+        this.executionCount = executionCount;
+    }
+
+    @SuppressWarnings("UnusedDeclaration")
+    public long getCoalescedCount()
+    {
+        return coalescedCount;
+    }
+
+    void setCoalescedCount( final long coalescedCount )
+    {
+        this.coalescedCount = coalescedCount;
+    }
+
+    @SuppressWarnings("UnusedDeclaration")
+    public int getInFlightCount()
+    {
+        return inFlightCount;
+    }
+
+    void setInFlightCount( final int inFlightCount )
+    {
+        this.inFlightCount = inFlightCount;
+    }
+
+    @SuppressWarnings("UnusedDeclaration")
+    public long getTotalWaitTime()
+    {
+        return totalWaitTime;
+    }
+
+    void setTotalWaitTime( final long totalWaitTime )
+    {
+        this.totalWaitTime = totalWaitTime;
+    }
+
+    @SuppressWarnings("UnusedDeclaration")
+    public long getMaxWaitTime()
+    {
+        return maxWaitTime;
+    }
+
+    void setMaxWaitTime( final long maxWaitTime )
+    {
+        this.maxWaitTime = maxWaitTime;
+    }
+}
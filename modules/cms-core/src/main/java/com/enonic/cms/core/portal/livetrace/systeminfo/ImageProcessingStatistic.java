@@ -0,0 +1,88 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+
+package com.enonic.cms.core.portal.livetrace.systeminfo;
+
+
+class ImageProcessingStatistic
+{
+    private int queueSize;
+
+    private int activeCount;
+
+    private long processedCount;
+
+    private long rejectedCount;
+
+    private long averageProcessingTime;
+
+    private long maxProcessingTime;
+
+    @SuppressWarnings("UnusedDeclaration")
+    public int getQueueSize()
+    {
+        return queueSize;
+    }
+
+    void setQueueSize( final int queueSize )
+    {
+        this.queueSize = queueSize;
+    }
+
+    @SuppressWarnings("UnusedDeclaration")
+    public int getActiveCount()
+    {
+        return activeCount;
+    }
+
+    void setActiveCount( final int activeCount )
+    {
+        this.activeCount = activeCount;
+    }
+
+    @SuppressWarnings("UnusedDeclaration")
+    public long getProcessedCount()
+    {
+        return processedCount;
+    }
+
+    void setProcessedCount( final long processedCount )
+    {
+        this.processedCount = processedCount;
+    }
+
+    @SuppressWarnings("UnusedDeclaration")
+    public long getRejectedCount()
+    {
+        return rejectedCount;
+    }
+
+    void setRejectedCount( final long rejectedCount )
+    {
+        this.rejectedCount = rejectedCount;
+    }
+
+    @SuppressWarnings("UnusedDeclaration")
+    public long getAverageProcessingTime()
+    {
+        return averageProcessingTime;
+    }
+
+    void setAverageProcessingTime( final long averageProcessingTime )
+    {
+        this.averageProcessingTime = averageProcessingTime;
+    }
+
+    @SuppressWarnings("UnusedDeclaration")
+    public long getMaxProcessingTime()
+    {
+        return maxProcessingTime;
+    }
+
+    void setMaxProcessingTime( final long maxProcessingTime )
+    {
+        this.maxProcessingTime = maxProcessingTime;
+    }
+}
@@ -27,6 +27,20 @@ public class SystemInfo
 
     private CacheStatistic xsltCacheStatistic;
 
+    private CacheStatistic datasourceCacheStatistic;
+
+    private CacheStatistic imageCacheStatistic;
+
+    private CacheStatistic imageDiskCacheStatistic;
+
+    private ConcurrencyStatistic pageRenderConcurrencyStatistic;
+
+    private ConcurrencyStatistic windowRenderConcurrencyStatistic;
+
+    private ConcurrencyStatistic imageProcessConcurrencyStatistic;
+
+    private ImageProcessingStatistic imageProcessingStatistic;
+
     @SuppressWarnings("UnusedDeclaration")
     public DateTime getSystemTime()
     {
@@ -125,4 +139,81 @@ public class SystemInfo
     {
         this.xsltCacheStatistic = xsltCacheStatistic;
     }
+
+    @SuppressWarnings("UnusedDeclaration")
+    public CacheStatistic getDatasourceCacheStatistic()
+    {
+        return datasourceCacheStatistic;
+    }
+
+    void setDatasourceCacheStatistic( CacheStatistic datasourceCacheStatistic )
+    {
+        this.datasourceCacheStatistic = datasourceCacheStatistic;
+    }
+
+    @SuppressWarnings("UnusedDeclaration")
+    public CacheStatistic getImageCacheStatistic()
+    {
+        return imageCacheStatistic;
+    }
+
+    void setImageCacheStatistic( CacheStatistic imageCacheStatistic )
+    {
+        this.imageCacheStatistic = imageCacheStatistic;
+    }
+
+    @SuppressWarnings("UnusedDeclaration")
+    public CacheStatistic getImageDiskCacheStatistic()
+    {
+        return imageDiskCacheStatistic;
+    }
+
+    void setImageDiskCacheStatistic( CacheStatistic imageDiskCacheStatistic )
+    {
+        this.imageDiskCacheStatistic = imageDiskCacheStatistic;
+    }
+
+    @SuppressWarnings("UnusedDeclaration")
+    public ConcurrencyStatistic getPageRenderConcurrencyStatistic()
+    {
+        return pageRenderConcurrencyStatistic;
+    }
+
+    void setPageRenderConcurrencyStatistic( ConcurrencyStatistic pageRenderConcurrencyStatistic )
+    {
+        this.pageRenderConcurrencyStatistic = pageRenderConcurrencyStatistic;
+    }
+
+    @SuppressWarnings("UnusedDeclaration")
+    public ConcurrencyStatistic getWindowRenderConcurrencyStatistic()
+    {
+        return windowRenderConcurrencyStatistic;
+    }
+
+    void setWindowRenderConcurrencyStatistic( ConcurrencyStatistic windowRenderConcurrencyStatistic )
+    {
+        this.windowRenderConcurrencyStatistic = windowRenderConcurrencyStatistic;
+    }
+
+    @SuppressWarnings("UnusedDeclaration")
+    public ConcurrencyStatistic getImageProcessConcurrencyStatistic()
+    {
+        return imageProcessConcurrencyStatistic;
+    }
+
+    void setImageProcessConcurrencyStatistic( ConcurrencyStatistic imageProcessConcurrencyStatistic )
+    {
+        this.imageProcessConcurrencyStatistic = imageProcessConcurrencyStatistic;
+    }
+
+    @SuppressWarnings("UnusedDeclaration")
+    public ImageProcessingStatistic getImageProcessingStatistic()
+    {
+        return imageProcessingStatistic;
+    }
+
+    void setImageProcessingStatistic( ImageProcessingStatistic imageProcessingStatistic )
+    {
+        this.imageProcessingStatistic = imageProcessingStatistic;
+    }
 }
@@ -18,7 +18,12 @@ import org.springframework.stereotype.Component;
 
 import com.enonic.cms.framework.cache.CacheFacade;
 import com.enonic.cms.framework.cache.CacheManager;
+import com.enonic.cms.framework.util.SingleFlight;
 
+import com.enonic.cms.core.image.cache.DiskImageCache;
+import com.enonic.cms.core.portal.image.ImageProcessingExecutor;
+import com.enonic.cms.core.portal.rendering.PageRendererFactory;
+import com.enonic.cms.core.portal.rendering.WindowRendererFactory;
 import com.enonic.cms.core.time.TimeService;
 
 @Component
@@ -27,6 +32,18 @@ public class SystemInfoFactory
     @Autowired
     private TimeService timeService;
 
+    @Autowired
+    private PageRendererFactory pageRendererFactory;
+
+    @Autowired
+    private WindowRendererFactory windowRendererFactory;
+
+    @Autowired
+    private DiskImageCache diskImageCache;
+
+    @Autowired
+    private ImageProcessingExecutor imageProcessingExecutor;
+
     private ThreadMXBean threadMXBean;
 
     private MemoryMXBean memoryMXBean;
@@ -51,6 +68,13 @@ public class SystemInfoFactory
         systemInfo.setPageCacheStatistic( createCacheStatistic( cacheManager.getPageCache() ) );
         systemInfo.setEntityCacheStatistic( createCacheStatistic( cacheManager.getEntityCache() ) );
         systemInfo.setXsltCacheStatistic( createCacheStatistic( cacheManager.getXsltCache() ) );
+        systemInfo.setDatasourceCacheStatistic( createCacheStatistic( cacheManager.getDatasourceCache() ) );
+        systemInfo.setImageCacheStatistic( createCacheStatistic( cacheManager.getImageCache() ) );
+        systemInfo.setImageDiskCacheStatistic( createCacheStatistic( diskImageCache ) );
+        systemInfo.setPageRenderConcurrencyStatistic( createConcurrencyStatistic( pageRendererFactory.getRenderFlights() ) );
+        systemInfo.setWindowRenderConcurrencyStatistic( createConcurrencyStatistic( windowRendererFactory.getRenderFlights() ) );
+        systemInfo.setImageProcessConcurrencyStatistic( createConcurrencyStatistic( imageProcessingExecutor.getImageFlights() ) );
+        systemInfo.setImageProcessingStatistic( createImageProcessingStatistic() );
 
         systemInfo.setJavaHeapMemoryStatistic( createJavaMemoryStatistic( memoryMXBean.getHeapMemoryUsage() ) );
         systemInfo.setJavaNonHeapMemoryStatistic( createJavaMemoryStatistic( memoryMXBean.getNonHeapMemoryUsage() ) );
@@ -66,6 +90,18 @@ public class SystemInfoFactory
         return javaThreadStatistic;
     }
 
+    private ImageProcessingStatistic createImageProcessingStatistic()
+    {
+        ImageProcessingStatistic imageProcessingStatistic = new ImageProcessingStatistic();
+        imageProcessingStatistic.setQueueSize( imageProcessingExecutor.getQueueSize() );
+        imageProcessingStatistic.setActiveCount( imageProcessingExecutor.getActiveCount() );
+        imageProcessingStatistic.setProcessedCount( imageProcessingExecutor.getProcessedCount() );
+        imageProcessingStatistic.setRejectedCount( imageProcessingExecutor.getRejectedCount() );
+        imageProcessingStatistic.setAverageProcessingTime( imageProcessingExecutor.getAverageProcessingTime() );
+        imageProcessingStatistic.setMaxProcessingTime( imageProcessingExecutor.getMaxProcessingTime() );
+        return imageProcessingStatistic;
+    }
+
     private JavaMemoryStatistic createJavaMemoryStatistic( MemoryUsage memoryUsage )
     {
         JavaMemoryStatistic javaMemoryStatistic = new JavaMemoryStatistic();
@@ -86,7 +122,36 @@ public class SystemInfoFactory
         cacheStatistic.setRemoveAllCount( cache.getRemoveAllCount() );
         cacheStatistic.setMemoryCapacityUsage( cache.getMemoryCapacityUsage() );
         cacheStatistic.setEffectiveness( cache.getEffectiveness() );
+        cacheStatistic.setEvictionCount( cache.getEvictionCount() );
+        cacheStatistic.setSizeInBytes( cache.getSizeInBytes() );
         return cacheStatistic;
     }
-}
 
+    private CacheStatistic createCacheStatistic( final DiskImageCache cache )
+    {
+        final long hitCount = cache.getHitCount();
+        final long missCount = cache.getMissCount();
+        final long requestCount = hitCount + missCount;
+
+        CacheStatistic cacheStatistic = new CacheStatistic();
+        cacheStatistic.setCount( cache.getCount() );
+        cacheStatistic.setHitCount( hitCount );
+        cacheStatistic.setMissCount( missCount );
+        cacheStatistic.setEffectiveness( requestCount > 0 ? (int) ( hitCount * 100 / requestCount ) : 0 );
+        cacheStatistic.setEvictionCount( cache.getEvictionCount() );
+        cacheStatistic.setSizeInBytes( cache.getSizeInBytes() );
+        cacheStatistic.setMemoryCapacityUsage( cache.getMaxSize() > 0 ? (int) ( cache.getSizeInBytes() * 100 / cache.getMaxSize() ) : 0 );
+        return cacheStatistic;
+    }
+
+    private ConcurrencyStatistic createConcurrencyStatistic( final SingleFlight<?, ?> flights )
+    {
+        ConcurrencyStatistic concurrencyStatistic = new ConcurrencyStatistic();
+        concurrencyStatistic.setExecutionCount( flights.getExecutionCount() );
+        concurrencyStatistic.setCoalescedCount( flights.getCoalescedCount() );
+        concurrencyStatistic.setInFlightCount( flights.getInFlightCount() );
+        concurrencyStatistic.setTotalWaitTime( flights.getTotalWaitTime() );
+        concurrencyStatistic.setMaxWaitTime( flights.getMaxWaitTime() );
+        return concurrencyStatistic;
+    }
+}
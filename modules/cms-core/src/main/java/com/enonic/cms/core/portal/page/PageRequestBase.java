@@ -36,7 +36,10 @@ public abstract class PageRequestBase
 
     private boolean actionRequest;
 
-    private PortletKey currentPortletKey;
+    /**
+     * Per thread, since the windows of a page may be rendered in parallel.
+     */
+    private final ThreadLocal<PortletKey> currentPortletKey = new ThreadLocal<PortletKey>();
 
     private Map<String, String[]> getLocalParameterMap()
     {
@@ -163,12 +166,19 @@ public abstract class PageRequestBase
 
     public PortletKey getCurrentPortletKey()
     {
-        return this.currentPortletKey;
+        return this.currentPortletKey.get();
     }
 
     public void setCurrentPortletKey( PortletKey value )
     {
-        this.currentPortletKey = value;
+        if ( value == null )
+        {
+            this.currentPortletKey.remove();
+        }
+        else
+        {
+            this.currentPortletKey.set( value );
+        }
     }
 
     public final Document getAsXml()
@@ -4,12 +4,12 @@
  */
 package com.enonic.cms.core.portal.rendering;
 
-import java.util.concurrent.locks.Lock;
+import java.util.concurrent.Callable;
 
 import org.jdom.Document;
 import org.joda.time.DateTime;
 
-import com.enonic.cms.framework.util.GenericConcurrencyLock;
+import com.enonic.cms.framework.util.SingleFlight;
 import com.enonic.cms.framework.xml.XMLDocument;
 
 import com.enonic.cms.core.CacheObjectSettings;
@@ -50,6 +50,7 @@ import com.enonic.cms.core.resource.ResourceFile;
 import com.enonic.cms.core.resource.ResourceKey;
 import com.enonic.cms.core.resource.ResourceService;
 import com.enonic.cms.core.security.user.UserEntity;
+import com.enonic.cms.core.structure.SiteProperties;
 import com.enonic.cms.core.structure.SitePropertiesService;
 import com.enonic.cms.core.structure.TemplateParameter;
 import com.enonic.cms.core.structure.menuitem.MenuItemEntity;
@@ -93,7 +94,9 @@ public class PageRenderer
 
     private PageRenderingTrace pageRenderingTrace;
 
-    private static GenericConcurrencyLock<PageCacheKey> concurrencyLock = GenericConcurrencyLock.create();
+    private SingleFlight<PageCacheKey, RenderedPageResult> renderFlights;
+
+    private WindowRenderingExecutor windowRenderingExecutor;
 
     protected PageRenderer( PageRendererContext pageRendererContext, LivePortalTraceService livePortalTraceService )
     {
@@ -168,41 +171,50 @@ public class PageRenderer
             return renderedPageResult;
         }
 
-        PageCacheKey pageCacheKey = resolvePageCacheKey();
+        final PageCacheKey pageCacheKey = resolvePageCacheKey();
 
-        final Lock locker = concurrencyLock.getLock( pageCacheKey );
-        try
+        final RenderedPageResult cachedPageResult = getCachedPageResult( pageCacheKey );
+        if ( cachedPageResult != null )
         {
-            PageRenderingTracer.startConcurrencyBlockTimer( pageRenderingTrace );
-            locker.lock();
-            PageRenderingTracer.stopConcurrencyBlockTimer( pageRenderingTrace );
+            // Found the page in cache, return the clone to prevent further rendering of the cached object
+            PageRenderingTracer.traceUsedCachedResult( pageRenderingTrace, true, true );
+            return (RenderedPageResult) cachedPageResult.clone();
+        }
 
-            CachedObject cachedPageHolder = pageCache.getCachedPage( pageCacheKey );
-            if ( cachedPageHolder != null )
-            {
-                // Found the page in cache, return the clone to prevent further rendering of the cached object
-                RenderedPageResult cachedPageResult = (RenderedPageResult) cachedPageHolder.getObject();
-                PageRenderingTracer.traceUsedCachedResult( pageRenderingTrace, true, true );
-                return (RenderedPageResult) cachedPageResult.clone();
-            }
+        // Concurrent misses for the same page wait for one rendering and share its result
+        final PageRenderFlight flight = new PageRenderFlight( pageTemplate, pageCacheKey );
+        PageRenderingTracer.startConcurrencyBlockTimer( pageRenderingTrace );
+        final RenderedPageResult renderedPageResultToCache = renderFlights.execute( pageCacheKey, flight );
 
-            RenderedPageResult renderedPageResultToCache = renderPageTemplateExcludingPortlets( pageTemplate );
-            // Ensure to mark the result as retrieved from cache, before we put it in the cache
-            renderedPageResultToCache.setRetrievedFromCache( true );
-            CacheObjectSettings cacheSettings = CacheObjectSettings.createFrom( resolvedMenuItemCacheSettings );
-            CachedObject cachedPage = pageCache.cachePage( pageCacheKey, renderedPageResultToCache, cacheSettings );
-            renderedPageResultToCache.setExpirationTime( cachedPage.getExpirationTime() );
-
-            // Have to return another instance since we did not retrieve this result from cache
-            RenderedPageResult renderedPageResultToReturn = (RenderedPageResult) renderedPageResultToCache.clone();
-            renderedPageResultToReturn.setRetrievedFromCache( false );
-            PageRenderingTracer.traceUsedCachedResult( pageRenderingTrace, true, false );
-            return renderedPageResultToReturn;
-        }
-        finally
+        if ( !flight.rendered )
         {
-            locker.unlock();
+            PageRenderingTracer.stopConcurrencyBlockTimer( pageRenderingTrace );
+            PageRenderingTracer.traceUsedCachedResult( pageRenderingTrace, true, true );
+            return (RenderedPageResult) renderedPageResultToCache.clone();
         }
+
+        // Have to return another instance since we did not retrieve this result from cache
+        RenderedPageResult renderedPageResultToReturn = (RenderedPageResult) renderedPageResultToCache.clone();
+        renderedPageResultToReturn.setRetrievedFromCache( false );
+        PageRenderingTracer.traceUsedCachedResult( pageRenderingTrace, true, false );
+        return renderedPageResultToReturn;
+    }
+
+    private RenderedPageResult getCachedPageResult( final PageCacheKey pageCacheKey )
+    {
+        final CachedObject cachedPageHolder = pageCache.getCachedPage( pageCacheKey );
+        return cachedPageHolder != null ? (RenderedPageResult) cachedPageHolder.getObject() : null;
+    }
+
+    private RenderedPageResult renderAndCachePageTemplate( final PageTemplateEntity pageTemplate, final PageCacheKey pageCacheKey )
+    {
+        RenderedPageResult renderedPageResultToCache = renderPageTemplateExcludingPortlets( pageTemplate );
+        // Ensure to mark the result as retrieved from cache, before we put it in the cache
+        renderedPageResultToCache.setRetrievedFromCache( true );
+        CacheObjectSettings cacheSettings = CacheObjectSettings.createFrom( resolvedMenuItemCacheSettings );
+        CachedObject cachedPage = pageCache.cachePage( pageCacheKey, renderedPageResultToCache, cacheSettings );
+        renderedPageResultToCache.setExpirationTime( cachedPage.getExpirationTime() );
+        return renderedPageResultToCache;
     }
 
     private RenderedPageResult renderPageTemplateExcludingPortlets( final PageTemplateEntity pageTemplate )
@@ -233,7 +245,7 @@ public class PageRenderer
             {
                 throw new StylesheetNotFoundException( stylesheetKey );
             }
-            ViewTransformationTracer.traceView( pageTemplateStylesheet.getPath(), trace );
+            ViewTransformationTracer.traceView( pageTemplateStylesheet.getPath(), trace, livePortalTraceService );
 
             final Document model;
             model = dataSourceResult.getAsJDOMDocument();
@@ -328,7 +340,8 @@ public class PageRenderer
             postProcessInstructionContext.setSiteURLResolverDisableHtmlEscaping( createSiteURLResolver( false ) );
 
             PostProcessInstructionProcessor postProcessInstructionProcessor =
-                new PostProcessInstructionProcessor( postProcessInstructionContext, postProcessInstructionExecutor );
+                new PostProcessInstructionProcessor( postProcessInstructionContext, postProcessInstructionExecutor,
+                                                     resolveWindowRenderingExecutor( pageTemplate ) );
 
             return postProcessInstructionProcessor.processInstructions( pageMarkup );
 
@@ -339,6 +352,24 @@ public class PageRenderer
         }
     }
 
+    private WindowRenderingExecutor resolveWindowRenderingExecutor( final PageTemplateEntity pageTemplate )
+    {
+        if ( windowRenderingExecutor == null || RenderTrace.isTraceOn() )
+        {
+            // render trace is kept per thread and expects the windows to be rendered one after another
+            return null;
+        }
+
+        if ( context.getPreviewContext() != null && context.getPreviewContext().isPreviewing() )
+        {
+            // previewed entities are modified in memory only, reloading them for the window rendering threads would lose that
+            return null;
+        }
+
+        final SiteProperties siteProperties = sitePropertiesService.getSiteProperties( context.getSite().getKey() );
+        return siteProperties.getParallelWindowRenderingEnabled( pageTemplate.getKey() ) ? windowRenderingExecutor : null;
+    }
+
     private SiteURLResolver createSiteURLResolver( boolean escapeHtmlParameterAmps )
     {
         SiteURLResolver siteURLResolver = new SiteURLResolver();
@@ -504,6 +535,38 @@ public class PageRenderer
         }
     }
 
+    private final class PageRenderFlight
+        implements Callable<RenderedPageResult>
+    {
+        private final PageTemplateEntity pageTemplate;
+
+        private final PageCacheKey pageCacheKey;
+
+        private boolean rendered = false;
+
+        private PageRenderFlight( final PageTemplateEntity pageTemplate, final PageCacheKey pageCacheKey )
+        {
+            this.pageTemplate = pageTemplate;
+            this.pageCacheKey = pageCacheKey;
+        }
+
+        @Override
+        public RenderedPageResult call()
+        {
+            PageRenderingTracer.stopConcurrencyBlockTimer( pageRenderingTrace );
+
+            // Another request may have rendered the page while we checked the cache
+            final RenderedPageResult cachedPageResult = getCachedPageResult( pageCacheKey );
+            if ( cachedPageResult != null )
+            {
+                return cachedPageResult;
+            }
+
+            this.rendered = true;
+            return renderAndCachePageTemplate( pageTemplate, pageCacheKey );
+        }
+    }
+
     public void setDataSourceExecutorFactory( DataSourceExecutorFactory value )
     {
         this.dataSourceExecutorFactory = value;
@@ -548,5 +611,14 @@ public class PageRenderer
     {
         this.postProcessInstructionExecutor = postProcessInstructionExecutor;
     }
-}
 
+    public void setRenderFlights( SingleFlight<PageCacheKey, RenderedPageResult> value )
+    {
+        this.renderFlights = value;
+    }
+
+    public void setWindowRenderingExecutor( WindowRenderingExecutor value )
+    {
+        this.windowRenderingExecutor = value;
+    }
+}
@@ -8,6 +8,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
+import com.enonic.cms.framework.util.SingleFlight;
+
 import com.enonic.cms.core.SiteURLResolver;
 import com.enonic.cms.core.TightestCacheSettingsResolver;
 import com.enonic.cms.core.portal.cache.PageCacheService;
@@ -53,6 +55,11 @@ public class PageRendererFactory
     @Autowired
     private LivePortalTraceService livePortalTraceService;
 
+    @Autowired
+    private WindowRenderingExecutor windowRenderingExecutor;
+
+    private final SingleFlight<PageCacheKey, RenderedPageResult> renderFlights = SingleFlight.create();
+
     public PageRenderer createPageRenderer( PageRendererContext pageRendererContext )
     {
         PageRenderer pageRenderer = new PageRenderer( pageRendererContext, livePortalTraceService );
@@ -66,7 +73,14 @@ public class PageRendererFactory
         pageRenderer.setTightestCacheSettingsResolver( tightestCacheSettingsResolver );
         pageRenderer.setTimeService( timeService );
         pageRenderer.setPostProcessInstructionExecutor( postProcessInstructionExecutor );
+        pageRenderer.setRenderFlights( renderFlights );
+        pageRenderer.setWindowRenderingExecutor( windowRenderingExecutor );
 
         return pageRenderer;
     }
+
+    public SingleFlight<PageCacheKey, RenderedPageResult> getRenderFlights()
+    {
+        return renderFlights;
+    }
 }
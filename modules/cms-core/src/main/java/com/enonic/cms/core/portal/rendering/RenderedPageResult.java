@@ -4,12 +4,18 @@
  */
 package com.enonic.cms.core.portal.rendering;
 
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicReference;
+
 import org.joda.time.DateTime;
 
+import com.enonic.cms.core.portal.EncodedResponse;
+
 /**
  * This class implements the render result.
  */
 public final class RenderedPageResult
+    implements Serializable
 {
     private DateTime renderedAt;
 
@@ -27,6 +33,12 @@ public final class RenderedPageResult
 
     private DateTime expirationTime;
 
+    /**
+     * Encoded response of the last request served from this result. It is shared with the clones, so that requests
+     * served from the same cached page reuse the encoding while the content is unchanged.
+     */
+    private transient AtomicReference<EncodedResponse> encodedResponse = new AtomicReference<EncodedResponse>();
+
     public DateTime getRenderedAt()
     {
         return renderedAt;
@@ -97,6 +109,16 @@ public final class RenderedPageResult
         this.httpContentType = value;
     }
 
+    public AtomicReference<EncodedResponse> getEncodedResponse()
+    {
+        if ( encodedResponse == null )
+        {
+            // not kept when serialized
+            encodedResponse = new AtomicReference<EncodedResponse>();
+        }
+        return encodedResponse;
+    }
+
     public Object clone()
     {
         RenderedPageResult clone = new RenderedPageResult();
@@ -108,6 +130,7 @@ public final class RenderedPageResult
         clone.setRenderedAt( renderedAt );
         clone.setRetrievedFromCache( retrievedFromCache );
         clone.redirectPath = redirectPath;
+        clone.encodedResponse = getEncodedResponse();
         return clone;
     }
 }
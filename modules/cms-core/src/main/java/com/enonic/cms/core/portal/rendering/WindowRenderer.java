@@ -4,13 +4,13 @@
  */
 package com.enonic.cms.core.portal.rendering;
 
-import java.util.concurrent.locks.Lock;
+import java.util.concurrent.Callable;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.enonic.cms.framework.util.GenericConcurrencyLock;
 import com.enonic.cms.framework.util.MimeTypeResolver;
+import com.enonic.cms.framework.util.SingleFlight;
 import com.enonic.cms.framework.xml.XMLDocument;
 import com.enonic.cms.framework.xml.XMLDocumentFactory;
 
@@ -95,7 +95,7 @@ public class WindowRenderer
 
     private LivePortalTraceService liveTraceService;
 
-    private static GenericConcurrencyLock<WindowCacheKey> concurrencyLock = GenericConcurrencyLock.create();
+    private SingleFlight<WindowCacheKey, RenderedWindowResult> renderFlights;
 
     /**
      * The window rendering trace for this window rendering.
@@ -207,42 +207,26 @@ public class WindowRenderer
             }
 
             final WindowCacheKey cacheKey = resolveCacheKey( window, executor.getKey() );
-            final RenderedWindowResult windowResult;
 
-            final Lock locker = concurrencyLock.getLock( cacheKey );
-            try
+            // see if window result is in cache
+            final RenderedWindowResult cachedWindowResult = getCachedWindowResult( cacheKey );
+            if ( cachedWindowResult != null )
             {
-                WindowRenderingTracer.startConcurrencyBlockTimer( windowRenderingTrace );
-                locker.lock();
-                WindowRenderingTracer.stopConcurrencyBlockTimer( windowRenderingTrace );
-
-                // see if window result is in cache
-                final CachedObject cachedPortletHolder = pageCache.getCachedPortletWindow( cacheKey );
-                if ( cachedPortletHolder != null )
-                {
-                    windowResult = (RenderedWindowResult) cachedPortletHolder.getObject();
-                    WindowRenderingTracer.traceUsedCachedResult( windowRenderingTrace, true, true );
-                }
-                else
-                {
-                    // window not in cache, need to render...
-                    windowResult = doExecuteDatasourcesAndTransformView( window, executor );
-                    WindowRenderingTracer.traceUsedCachedResult( windowRenderingTrace, true, false );
-
-                    // register the rendered window in the cache
-                    if ( windowResult.isErrorFree() )
-                    {
-                        final CachedObject newCachedPortletHolder =
-                            pageCache.cachePortletWindow( cacheKey, windowResult, CacheObjectSettings.createFrom( portletCacheSettings ) );
-                        windowResult.setExpirationTimeInCache( newCachedPortletHolder.getExpirationTime() );
-                    }
-                }
+                WindowRenderingTracer.traceUsedCachedResult( windowRenderingTrace, true, true );
+                return cloneAndExecutePostProcessInstructions( cachedWindowResult );
             }
-            finally
+
+            // concurrent misses for the same window wait for one rendering and share its result
+            final WindowRenderFlight flight = new WindowRenderFlight( window, executor, cacheKey, portletCacheSettings );
+            WindowRenderingTracer.startConcurrencyBlockTimer( windowRenderingTrace );
+            final RenderedWindowResult windowResult = renderFlights.execute( cacheKey, flight );
+
+            if ( !flight.rendered )
             {
-                locker.unlock();
+                WindowRenderingTracer.stopConcurrencyBlockTimer( windowRenderingTrace );
             }
 
+            WindowRenderingTracer.traceUsedCachedResult( windowRenderingTrace, true, !flight.rendered );
             return cloneAndExecutePostProcessInstructions( windowResult );
         }
         finally
@@ -251,6 +235,28 @@ public class WindowRenderer
         }
     }
 
+    private RenderedWindowResult getCachedWindowResult( final WindowCacheKey cacheKey )
+    {
+        final CachedObject cachedPortletHolder = pageCache.getCachedPortletWindow( cacheKey );
+        return cachedPortletHolder != null ? (RenderedWindowResult) cachedPortletHolder.getObject() : null;
+    }
+
+    private RenderedWindowResult renderAndCacheWindow( final Window window, final UserEntity executor, final WindowCacheKey cacheKey,
+                                                       final CacheSettings portletCacheSettings )
+    {
+        final RenderedWindowResult windowResult = doExecuteDatasourcesAndTransformView( window, executor );
+
+        // register the rendered window in the cache
+        if ( windowResult.isErrorFree() )
+        {
+            final CachedObject newCachedPortletHolder =
+                pageCache.cachePortletWindow( cacheKey, windowResult, CacheObjectSettings.createFrom( portletCacheSettings ) );
+            windowResult.setExpirationTimeInCache( newCachedPortletHolder.getExpirationTime() );
+        }
+
+        return windowResult;
+    }
+
     private RenderedWindowResult cloneAndExecutePostProcessInstructions( final RenderedWindowResult evaluatedPortlet )
     {
         RenderedWindowResult clonedRenderedWindowResult = evaluatedPortlet.clone();
@@ -402,7 +408,7 @@ public class WindowRenderer
             {
                 throw new StylesheetNotFoundException( window.getPortlet().getStyleKey() );
             }
-            ViewTransformationTracer.traceView( viewFile.getPath(), trace );
+            ViewTransformationTracer.traceView( viewFile.getPath(), trace, liveTraceService );
 
             final TransformationParams transformationParams = new TransformationParams();
             for ( TemplateParameter templateParameter : window.getPortlet().getTemplateParameters().values() )
@@ -605,6 +611,45 @@ public class WindowRenderer
         }
     }
 
+    private final class WindowRenderFlight
+        implements Callable<RenderedWindowResult>
+    {
+        private final Window window;
+
+        private final UserEntity executor;
+
+        private final WindowCacheKey cacheKey;
+
+        private final CacheSettings portletCacheSettings;
+
+        private boolean rendered = false;
+
+        private WindowRenderFlight( final Window window, final UserEntity executor, final WindowCacheKey cacheKey,
+                                    final CacheSettings portletCacheSettings )
+        {
+            this.window = window;
+            this.executor = executor;
+            this.cacheKey = cacheKey;
+            this.portletCacheSettings = portletCacheSettings;
+        }
+
+        @Override
+        public RenderedWindowResult call()
+        {
+            WindowRenderingTracer.stopConcurrencyBlockTimer( windowRenderingTrace );
+
+            // another request may have rendered the window while we checked the cache
+            final RenderedWindowResult cachedWindowResult = getCachedWindowResult( cacheKey );
+            if ( cachedWindowResult != null )
+            {
+                return cachedWindowResult;
+            }
+
+            this.rendered = true;
+            return renderAndCacheWindow( window, executor, cacheKey, portletCacheSettings );
+        }
+    }
+
     public void setDataSourceExecutorFactory( DataSourceExecutorFactory value )
     {
         this.dataSourceExecutorFactory = value;
@@ -649,4 +694,9 @@ public class WindowRenderer
     {
         this.liveTraceService = liveTraceService;
     }
+
+    public void setRenderFlights( SingleFlight<WindowCacheKey, RenderedWindowResult> renderFlights )
+    {
+        this.renderFlights = renderFlights;
+    }
 }
@@ -302,5 +302,36 @@ public class WindowRendererContext
     {
         this.regionsInPage = regionsInPage;
     }
-}
 
+    /**
+     * Returns a copy of this context, sharing its values.
+     */
+    public WindowRendererContext copy()
+    {
+        final WindowRendererContext copy = new WindowRendererContext();
+        copy.pageRequestType = this.pageRequestType;
+        copy.originalUrl = this.originalUrl;
+        copy.renderer = this.renderer;
+        copy.site = this.site;
+        copy.menuItem = this.menuItem;
+        copy.contentFromRequest = this.contentFromRequest;
+        copy.language = this.language;
+        copy.pageTemplate = this.pageTemplate;
+        copy.regionsInPage = this.regionsInPage;
+        copy.invocationCache = this.invocationCache;
+        copy.previewContext = this.previewContext;
+        copy.forceNoCacheUsage = this.forceNoCacheUsage;
+        copy.encodeURIs = this.encodeURIs;
+        copy.locale = this.locale;
+        copy.deviceClass = this.deviceClass;
+        copy.sitePath = this.sitePath;
+        copy.originalSitePath = this.originalSitePath;
+        copy.verticalSession = this.verticalSession;
+        copy.profile = this.profile;
+        copy.httpRequest = this.httpRequest;
+        copy.isRenderedInline = this.isRenderedInline;
+        copy.ticketId = this.ticketId;
+        copy.overridingSitePropertyCreateUrlAsPath = this.overridingSitePropertyCreateUrlAsPath;
+        return copy;
+    }
+}
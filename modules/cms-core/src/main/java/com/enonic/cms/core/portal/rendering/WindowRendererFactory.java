@@ -8,6 +8,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import com.enonic.cms.framework.util.MimeTypeResolver;
+import com.enonic.cms.framework.util.SingleFlight;
 
 import com.enonic.cms.core.SiteURLResolver;
 import com.enonic.cms.core.portal.cache.PageCache;
@@ -52,6 +53,8 @@ public class WindowRendererFactory
     @Autowired
     private LivePortalTraceService livePortalTraceService;
 
+    private final SingleFlight<WindowCacheKey, RenderedWindowResult> renderFlights = SingleFlight.create();
+
     public WindowRenderer createPortletRenderer( WindowRendererContext windowRendererContext )
     {
         PageCache pageCache = pageCacheService.getPageCacheService( windowRendererContext.getSite().getKey() );
@@ -67,8 +70,14 @@ public class WindowRendererFactory
         windowRenderer.setSitePropertiesService( sitePropertiesService );
         windowRenderer.setPostProcessInstructionExecutor( postProcessInstructionExecutor );
         windowRenderer.setLiveTraceService( livePortalTraceService );
+        windowRenderer.setRenderFlights( renderFlights );
 
         return windowRenderer;
     }
 
+    public SingleFlight<WindowCacheKey, RenderedWindowResult> getRenderFlights()
+    {
+        return renderFlights;
+    }
+
 }
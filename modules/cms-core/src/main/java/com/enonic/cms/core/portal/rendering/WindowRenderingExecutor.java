@@ -0,0 +1,319 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.core.portal.rendering;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.servlet.http.HttpServletRequest;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.hibernate3.SessionFactoryUtils;
+import org.springframework.orm.hibernate3.SessionHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import com.enonic.cms.core.content.ContentEntity;
+import com.enonic.cms.core.language.LanguageEntity;
+import com.enonic.cms.core.portal.instruction.PostProcessInstructionContext;
+import com.enonic.cms.core.portal.livetrace.CurrentTrace;
+import com.enonic.cms.core.portal.livetrace.LivePortalTraceService;
+import com.enonic.cms.core.portal.page.PageRequestFactory;
+import com.enonic.cms.core.security.user.UserEntity;
+import com.enonic.cms.core.servlet.ServletRequestAccessor;
+import com.enonic.cms.core.structure.SiteEntity;
+import com.enonic.cms.core.structure.menuitem.MenuItemEntity;
+import com.enonic.cms.core.structure.page.template.PageTemplateEntity;
+import com.enonic.cms.store.dao.ContentDao;
+import com.enonic.cms.store.dao.LanguageDao;
+import com.enonic.cms.store.dao.MenuItemDao;
+import com.enonic.cms.store.dao.PageTemplateDao;
+import com.enonic.cms.store.dao.SiteDao;
+import com.enonic.cms.store.dao.UserDao;
+
+/**
+ * Bounded pool rendering windows of a page in parallel. Tasks are run with the request state of the submitting thread:
+ * the servlet request, the request attributes holding the logged in user, and the live trace of the page. Each task
+ * gets its own hibernate session, as the one of the request can not be shared between threads. The entities of the
+ * page must be reloaded into that session by the task, see {@link #reloadInCurrentSession}.
+ * <p/>
+ * When the queue is full, the task is run by the submitting thread, so a busy pool degrades to sequential rendering.
+ */
+@Component
+public class WindowRenderingExecutor
+{
+    private SessionFactory sessionFactory;
+
+    private LivePortalTraceService livePortalTraceService;
+
+    private SiteDao siteDao;
+
+    private MenuItemDao menuItemDao;
+
+    private PageTemplateDao pageTemplateDao;
+
+    private UserDao userDao;
+
+    private LanguageDao languageDao;
+
+    private ContentDao contentDao;
+
+    private int threads;
+
+    private int queueSize;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void start()
+    {
+        this.executor = new ThreadPoolExecutor( threads, threads, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>( queueSize ),
+                                                new WindowRenderingThreadFactory(), new ThreadPoolExecutor.CallerRunsPolicy() );
+        this.executor.allowCoreThreadTimeOut( true );
+    }
+
+    @PreDestroy
+    public void stop()
+    {
+        this.executor.shutdownNow();
+    }
+
+    public <T> Future<T> submit( final Callable<T> task )
+    {
+        return this.executor.submit( new RequestScopedCallable<T>( task ) );
+    }
+
+    /**
+     * Copy the context of a page, with its entities loaded from the hibernate session of the current thread. Lazy
+     * collections of the entities loaded by the request thread belong to the session of the request, and can not be
+     * initialized by a window rendering thread.
+     */
+    public PostProcessInstructionContext reloadInCurrentSession( final PostProcessInstructionContext context )
+    {
+        final PostProcessInstructionContext copy = context.copy();
+
+        if ( context.getSite() != null )
+        {
+            copy.setSite( reload( siteDao.findByKey( context.getSite().getKey() ), context.getSite() ) );
+        }
+
+        final WindowRendererContext windowContext = context.getWindowRendererContext();
+        if ( windowContext != null )
+        {
+            copy.setWindowRendererContext( reloadInCurrentSession( windowContext ) );
+        }
+
+        return copy;
+    }
+
+    private WindowRendererContext reloadInCurrentSession( final WindowRendererContext context )
+    {
+        final WindowRendererContext copy = context.copy();
+
+        final SiteEntity site = context.getSite();
+        if ( site != null )
+        {
+            copy.setSite( reload( siteDao.findByKey( site.getKey() ), site ) );
+        }
+
+        final MenuItemEntity menuItem = context.getMenuItem();
+        if ( menuItem != null )
+        {
+            copy.setMenuItem( reload( menuItemDao.findByKey( menuItem.getKey() ), menuItem ) );
+        }
+
+        final PageTemplateEntity pageTemplate = context.getPageTemplate();
+        if ( pageTemplate != null )
+        {
+            copy.setPageTemplate( reload( pageTemplateDao.findByKey( pageTemplate.getKey() ), pageTemplate ) );
+        }
+
+        final UserEntity renderer = context.getRenderer();
+        if ( renderer != null )
+        {
+            copy.setRenderer( reload( userDao.findByKey( renderer.getKey() ), renderer ) );
+        }
+
+        final LanguageEntity language = context.getLanguage();
+        if ( language != null )
+        {
+            copy.setLanguage( reload( languageDao.findByKey( language.getKey() ), language ) );
+        }
+
+        final ContentEntity contentFromRequest = context.getContentFromRequest();
+        if ( contentFromRequest != null )
+        {
+            copy.setContentFromRequest( reload( contentDao.findByKey( contentFromRequest.getKey() ), contentFromRequest ) );
+        }
+
+        if ( copy.getMenuItem() != null && copy.getPageTemplate() != null )
+        {
+            copy.setRegionsInPage(
+                RegionsResolver.resolveRegionsForPageRequest( copy.getMenuItem(), copy.getPageTemplate(), copy.getPageRequestType() ) );
+        }
+
+        return copy;
+    }
+
+    private static <T> T reload( final T loaded, final T original )
+    {
+        // an entity gone since the request loaded it is rendered as the request saw it
+        return loaded != null ? loaded : original;
+    }
+
+    private final class RequestScopedCallable<T>
+        implements Callable<T>
+    {
+        private final Callable<T> task;
+
+        private final Thread submitter = Thread.currentThread();
+
+        private final HttpServletRequest request = ServletRequestAccessor.getRequest();
+
+        private final RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+
+        private final CurrentTrace currentTrace = livePortalTraceService.forkCurrentTrace();
+
+        private RequestScopedCallable( final Callable<T> task )
+        {
+            this.task = task;
+
+            if ( this.request != null )
+            {
+                // make sure the page request is created by the request thread, not raced for by the windows
+                PageRequestFactory.getPageRequest( this.request );
+            }
+        }
+
+        @Override
+        public T call()
+            throws Exception
+        {
+            if ( Thread.currentThread() == this.submitter )
+            {
+                // rejected by a full pool, running on the request thread that already has everything in place
+                return this.task.call();
+            }
+
+            ServletRequestAccessor.setRequest( this.request );
+            RequestContextHolder.setRequestAttributes( this.requestAttributes );
+            livePortalTraceService.setCurrentTrace( this.currentTrace );
+            final Session session = openSession();
+
+            try
+            {
+                return this.task.call();
+            }
+            finally
+            {
+                closeSession( session );
+                livePortalTraceService.setCurrentTrace( null );
+                RequestContextHolder.resetRequestAttributes();
+                ServletRequestAccessor.setRequest( null );
+            }
+        }
+    }
+
+    private Session openSession()
+    {
+        final Session session = SessionFactoryUtils.getSession( sessionFactory, true );
+        TransactionSynchronizationManager.bindResource( sessionFactory, new SessionHolder( session ) );
+        return session;
+    }
+
+    private void closeSession( final Session session )
+    {
+        TransactionSynchronizationManager.unbindResource( sessionFactory );
+        SessionFactoryUtils.closeSession( session );
+    }
+
+    private static final class WindowRenderingThreadFactory
+        implements ThreadFactory
+    {
+        private final AtomicInteger threadNumber = new AtomicInteger( 1 );
+
+        @Override
+        public Thread newThread( final Runnable runnable )
+        {
+            final Thread thread = new Thread( runnable, "window-rendering-" + threadNumber.getAndIncrement() );
+            thread.setDaemon( true );
+            return thread;
+        }
+    }
+
+    @Autowired
+    @Qualifier("sessionFactory")
+    public void setSessionFactory( final SessionFactory sessionFactory )
+    {
+        this.sessionFactory = sessionFactory;
+    }
+
+    @Autowired
+    public void setLivePortalTraceService( final LivePortalTraceService livePortalTraceService )
+    {
+        this.livePortalTraceService = livePortalTraceService;
+    }
+
+    @Autowired
+    public void setSiteDao( final SiteDao siteDao )
+    {
+        this.siteDao = siteDao;
+    }
+
+    @Autowired
+    public void setMenuItemDao( final MenuItemDao menuItemDao )
+    {
+        this.menuItemDao = menuItemDao;
+    }
+
+    @Autowired
+    public void setPageTemplateDao( final PageTemplateDao pageTemplateDao )
+    {
+        this.pageTemplateDao = pageTemplateDao;
+    }
+
+    @Autowired
+    public void setUserDao( final UserDao userDao )
+    {
+        this.userDao = userDao;
+    }
+
+    @Autowired
+    public void setLanguageDao( final LanguageDao languageDao )
+    {
+        this.languageDao = languageDao;
+    }
+
+    @Autowired
+    public void setContentDao( final ContentDao contentDao )
+    {
+        this.contentDao = contentDao;
+    }
+
+    @Value("${cms.portal.parallelWindowRendering.threads}")
+    public void setThreads( final int threads )
+    {
+        this.threads = threads;
+    }
+
+    @Value("${cms.portal.parallelWindowRendering.queueSize}")
+    public void setQueueSize( final int queueSize )
+    {
+        this.queueSize = queueSize;
+    }
+}
@@ -0,0 +1,14 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.core.resource;
+
+/**
+ * Notified when a resource is created, changed, moved or deleted. A change to a folder applies to all resources below
+ * it.
+ */
+public interface FileResourceListener
+{
+    void resourceChanged( FileResourceName name );
+}
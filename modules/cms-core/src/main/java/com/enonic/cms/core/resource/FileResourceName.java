@@ -94,6 +94,11 @@ public final class FileResourceName
         }
     }
 
+    public boolean isAtOrBelow( FileResourceName parent )
+    {
+        return parent.isRoot() || parent.equals( this ) || this.path.startsWith( parent.path + "/" );
+    }
+
     public String getPath()
     {
         return this.path;
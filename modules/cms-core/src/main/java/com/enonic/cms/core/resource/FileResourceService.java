@@ -35,4 +35,11 @@ public interface FileResourceService
     boolean copyResource( FileResourceName from, FileResourceName to );
 
     InputStream getResourceStream( FileResourceName name, boolean ignoreBom );
+
+    void addResourceListener( FileResourceListener listener );
+
+    /**
+     * Watches the resource for changes made outside of this service, which are reported to the listeners as well.
+     */
+    void watchResource( FileResourceName name );
 }
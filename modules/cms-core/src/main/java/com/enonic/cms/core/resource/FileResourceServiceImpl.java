@@ -13,10 +13,20 @@ import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.input.BOMInputStream;
 import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -29,10 +39,60 @@ import com.enonic.cms.framework.util.MimeTypeResolver;
 public class FileResourceServiceImpl
     implements FileResourceService
 {
+    private final static Logger LOG = LoggerFactory.getLogger( FileResourceServiceImpl.class );
+
     private File resourceRoot;
 
     private MimeTypeResolver mimeTypeResolver;
 
+    private long checkInterval;
+
+    private final List<FileResourceListener> listeners = new CopyOnWriteArrayList<FileResourceListener>();
+
+    private FileResourceWatcher watcher;
+
+    private ScheduledExecutorService watcherExecutor;
+
+    @PostConstruct
+    public void start()
+    {
+        if ( this.checkInterval <= 0 )
+        {
+            return;
+        }
+
+        this.watcherExecutor = Executors.newSingleThreadScheduledExecutor( new WatcherThreadFactory() );
+        this.watcherExecutor.scheduleWithFixedDelay( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                checkWatchedResources();
+            }
+        }, this.checkInterval, this.checkInterval, TimeUnit.MILLISECONDS );
+    }
+
+    @PreDestroy
+    public void stop()
+    {
+        if ( this.watcherExecutor != null )
+        {
+            this.watcherExecutor.shutdownNow();
+        }
+    }
+
+    void checkWatchedResources()
+    {
+        try
+        {
+            this.watcher.check();
+        }
+        catch ( final RuntimeException e )
+        {
+            LOG.warn( "Failed to check resources for changes", e );
+        }
+    }
+
     @Override
     public FileResource getResource( final FileResourceName name )
     {
@@ -89,7 +149,13 @@ public class FileResourceServiceImpl
     @Override
     public boolean createFile( FileResourceName name, FileResourceData data )
     {
-        return !name.isRoot() && doCreateFile( name, data );
+        if ( name.isRoot() || !doCreateFile( name, data ) )
+        {
+            return false;
+        }
+
+        resourceChanged( name );
+        return true;
     }
 
     private boolean doCreateFile( FileResourceName name, FileResourceData data )
@@ -124,6 +190,17 @@ public class FileResourceServiceImpl
 
     @Override
     public boolean deleteResource( final FileResourceName name )
+    {
+        if ( !doDeleteResource( name ) )
+        {
+            return false;
+        }
+
+        resourceChanged( name );
+        return true;
+    }
+
+    private boolean doDeleteResource( final FileResourceName name )
     {
         File fileToDelete = getFile( name );
 
@@ -229,16 +306,30 @@ public class FileResourceServiceImpl
         try
         {
             Files.write( data.getAsBytes(), file );
-            return true;
         }
         catch ( IOException e )
         {
             throw new RuntimeException( "Not able to write to file " + file.getAbsolutePath(), e );
         }
+
+        resourceChanged( name );
+        return true;
     }
 
     @Override
     public boolean moveResource( final FileResourceName from, final FileResourceName to )
+    {
+        if ( !doMoveResource( from, to ) )
+        {
+            return false;
+        }
+
+        resourceChanged( from );
+        resourceChanged( to );
+        return true;
+    }
+
+    private boolean doMoveResource( final FileResourceName from, final FileResourceName to )
     {
         File fromFile = getFile( from );
 
@@ -330,6 +421,17 @@ public class FileResourceServiceImpl
 
     @Override
     public boolean copyResource( final FileResourceName from, final FileResourceName to )
+    {
+        if ( !doCopyResource( from, to ) )
+        {
+            return false;
+        }
+
+        resourceChanged( to );
+        return true;
+    }
+
+    private boolean doCopyResource( final FileResourceName from, final FileResourceName to )
     {
         File fromFile = getFile( from );
 
@@ -411,10 +513,51 @@ public class FileResourceServiceImpl
         }
     }
 
+    @Override
+    public void addResourceListener( final FileResourceListener listener )
+    {
+        this.listeners.add( listener );
+    }
+
+    @Override
+    public void watchResource( final FileResourceName name )
+    {
+        this.watcher.watch( name );
+    }
+
+    private void resourceChanged( final FileResourceName name )
+    {
+        // the listeners are notified here, so the watcher should not report the same change again
+        this.watcher.refresh( name );
+        notifyListeners( name );
+    }
+
+    private void notifyListeners( final FileResourceName name )
+    {
+        for ( final FileResourceListener listener : this.listeners )
+        {
+            listener.resourceChanged( name );
+        }
+    }
+
     @Value("${cms.resource.path}")
     public void setResourceRoot( final File resourceRoot )
     {
         this.resourceRoot = resourceRoot;
+        this.watcher = new FileResourceWatcher( resourceRoot, new FileResourceListener()
+        {
+            @Override
+            public void resourceChanged( final FileResourceName name )
+            {
+                notifyListeners( name );
+            }
+        } );
+    }
+
+    @Value("${cms.resource.checkInterval}")
+    public void setCheckInterval( final long checkInterval )
+    {
+        this.checkInterval = checkInterval;
     }
 
     @Autowired
@@ -422,4 +565,16 @@ public class FileResourceServiceImpl
     {
         this.mimeTypeResolver = mimeTypeResolver;
     }
+
+    private static final class WatcherThreadFactory
+        implements ThreadFactory
+    {
+        @Override
+        public Thread newThread( final Runnable runnable )
+        {
+            final Thread thread = new Thread( runnable, "resource-watcher" );
+            thread.setDaemon( true );
+            return thread;
+        }
+    }
 }
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.core.resource;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Detects changes made to watched resource files outside of the resource service, for instance by deploying files
+ * directly to the resource directory. Each watched file is checked once per call to {@link #check()}, no matter how
+ * many templates depend on it.
+ */
+final class FileResourceWatcher
+{
+    private final File root;
+
+    private final FileResourceListener listener;
+
+    private final ConcurrentMap<FileResourceName, Long> watched = new ConcurrentHashMap<FileResourceName, Long>();
+
+    public FileResourceWatcher( final File root, final FileResourceListener listener )
+    {
+        this.root = root;
+        this.listener = listener;
+    }
+
+    public void watch( final FileResourceName name )
+    {
+        if ( !this.watched.containsKey( name ) )
+        {
+            this.watched.putIfAbsent( name, lastModified( name ) );
+        }
+    }
+
+    /**
+     * Takes a new timestamp of the watched files at or below the given name, as their listeners have already been
+     * notified of the change.
+     */
+    public void refresh( final FileResourceName name )
+    {
+        for ( final FileResourceName watchedName : this.watched.keySet() )
+        {
+            if ( watchedName.isAtOrBelow( name ) )
+            {
+                this.watched.put( watchedName, lastModified( watchedName ) );
+            }
+        }
+    }
+
+    public void check()
+    {
+        for ( final Map.Entry<FileResourceName, Long> entry : this.watched.entrySet() )
+        {
+            final long lastModified = lastModified( entry.getKey() );
+            if ( lastModified != entry.getValue() && this.watched.replace( entry.getKey(), entry.getValue(), lastModified ) )
+            {
+                this.listener.resourceChanged( entry.getKey() );
+            }
+        }
+    }
+
+    public int getWatchedCount()
+    {
+        return this.watched.size();
+    }
+
+    private long lastModified( final FileResourceName name )
+    {
+        // zero if the file does not exist, so a deleted file is reported as changed
+        return new File( this.root, name.getPath() ).lastModified();
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+
+package com.enonic.cms.core.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.enonic.cms.core.content.ContentKey;
+import com.enonic.cms.core.search.query.ContentDocument;
+
+/**
+ * Index changes of one transaction, applied to the index with bulk requests. Removals are applied before documents
+ * are indexed, so a content that is both removed and indexed ends up indexed.
+ */
+public final class ContentIndexBatch
+{
+    private final Set<ContentKey> removals = new LinkedHashSet<ContentKey>();
+
+    private final List<ContentDocument> documents = new ArrayList<ContentDocument>();
+
+    private final List<ContentDocument> metadataDocuments = new ArrayList<ContentDocument>();
+
+    private final long created = System.currentTimeMillis();
+
+    public void index( final ContentDocument doc, final boolean updateMetadataOnly )
+    {
+        if ( updateMetadataOnly )
+        {
+            this.metadataDocuments.add( doc );
+        }
+        else
+        {
+            this.documents.add( doc );
+        }
+    }
+
+    public void remove( final ContentKey contentKey )
+    {
+        this.removals.add( contentKey );
+    }
+
+    /**
+     * Content to remove from the index.
+     */
+    public Set<ContentKey> getRemovals()
+    {
+        return this.removals;
+    }
+
+    /**
+     * Documents to index, replacing any existing document for the same content.
+     */
+    public List<ContentDocument> getDocuments()
+    {
+        return this.documents;
+    }
+
+    /**
+     * Documents where only the metadata is updated.
+     */
+    public List<ContentDocument> getMetadataDocuments()
+    {
+        return this.metadataDocuments;
+    }
+
+    /**
+     * All content affected by this batch.
+     */
+    public Set<ContentKey> getContentKeys()
+    {
+        final Set<ContentKey> contentKeys = new LinkedHashSet<ContentKey>( this.removals );
+
+        for ( final ContentDocument doc : this.documents )
+        {
+            contentKeys.add( doc.getContentKey() );
+        }
+
+        for ( final ContentDocument doc : this.metadataDocuments )
+        {
+            contentKeys.add( doc.getContentKey() );
+        }
+
+        return contentKeys;
+    }
+
+    public int size()
+    {
+        return this.removals.size() + this.documents.size() + this.metadataDocuments.size();
+    }
+
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+    /**
+     * Time in milliseconds when the batch was created.
+     */
+    public long getCreated()
+    {
+        return this.created;
+    }
+}
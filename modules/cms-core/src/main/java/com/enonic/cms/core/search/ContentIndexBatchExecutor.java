@@ -0,0 +1,366 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+
+package com.enonic.cms.core.search;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+
+import com.enonic.cms.core.content.ContentKey;
+import com.enonic.cms.core.content.IndexService;
+import com.enonic.cms.core.search.query.ContentIndexService;
+
+/**
+ * Applies the index changes of committed transactions. By default a batch is applied by the committing thread. In
+ * async mode batches are queued and applied in commit order by a background thread, so the commit returns as soon as
+ * the batch is built. When the queue is full, the committing thread waits for room in the queue, so batches are never
+ * applied out of order. Batches committed after the executor is stopped are applied by the committing thread.
+ * <p/>
+ * A failing batch is retried with increasing delay. When the retries are exhausted, its content keys are written to
+ * the retry journal, and the content is reindexed from the database after the next batch succeeds.
+ */
+@Component
+public class ContentIndexBatchExecutor
+{
+    private final static Logger LOG = LoggerFactory.getLogger( ContentIndexBatchExecutor.class );
+
+    private static final int RECOVERY_BATCH_SIZE = 100;
+
+    private ContentIndexService contentIndexService;
+
+    private IndexService indexService;
+
+    private boolean async;
+
+    private int queueSize;
+
+    private int maxRetries;
+
+    private long retryDelay;
+
+    private File retryJournalFile;
+
+    private IndexRetryJournal retryJournal;
+
+    private ThreadPoolExecutor executor;
+
+    private Semaphore queuePermits;
+
+    private final ConcurrentLinkedQueue<ContentIndexBatch> pendingBatches = new ConcurrentLinkedQueue<ContentIndexBatch>();
+
+    private final AtomicLong maxIndexLag = new AtomicLong( 0 );
+
+    private final AtomicLong failedBatchCount = new AtomicLong( 0 );
+
+    @PostConstruct
+    public void start()
+    {
+        this.retryJournal = new IndexRetryJournal( this.retryJournalFile );
+        if ( !this.retryJournal.isEmpty() )
+        {
+            LOG.warn( "Index retry journal [" + this.retryJournalFile.getAbsolutePath() + "] is not empty, content will be reindexed" );
+        }
+
+        if ( this.async )
+        {
+            // the queue is bounded by the permits, one for each queued batch and one for the batch being applied
+            this.queuePermits = new Semaphore( this.queueSize + 1, true );
+            this.executor = new ThreadPoolExecutor( 1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(),
+                                                    new IndexBatchThreadFactory() );
+        }
+    }
+
+    @PreDestroy
+    public void stop()
+        throws InterruptedException
+    {
+        if ( this.executor != null )
+        {
+            this.executor.shutdown();
+            if ( !this.executor.awaitTermination( 30, TimeUnit.SECONDS ) )
+            {
+                for ( final Runnable task : this.executor.shutdownNow() )
+                {
+                    final ContentIndexBatch batch = ( (IndexBatchTask) task ).batch;
+                    LOG.warn( "Index batch not applied before shutdown, content will be reindexed later: " +
+                                  Iterables.toString( batch.getContentKeys() ) );
+                    this.retryJournal.add( batch.getContentKeys() );
+                    this.pendingBatches.remove( batch );
+                }
+            }
+        }
+    }
+
+    public void execute( final ContentIndexBatch batch )
+    {
+        if ( this.executor == null )
+        {
+            apply( batch );
+            registerLag( batch );
+            return;
+        }
+
+        try
+        {
+            this.queuePermits.acquire();
+        }
+        catch ( final InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            LOG.warn( "Interrupted while waiting to queue index batch, content will be reindexed later: " +
+                          Iterables.toString( batch.getContentKeys() ) );
+            this.retryJournal.add( batch.getContentKeys() );
+            return;
+        }
+
+        this.pendingBatches.add( batch );
+        try
+        {
+            this.executor.execute( new IndexBatchTask( batch ) );
+        }
+        catch ( final RejectedExecutionException e )
+        {
+            // stopped, nothing is left to apply the batch but the committing thread
+            this.queuePermits.release();
+            applyWithRetry( batch );
+        }
+    }
+
+    private final class IndexBatchTask
+        implements Runnable
+    {
+        private final ContentIndexBatch batch;
+
+        private IndexBatchTask( final ContentIndexBatch batch )
+        {
+            this.batch = batch;
+        }
+
+        @Override
+        public void run()
+        {
+            try
+            {
+                applyWithRetry( this.batch );
+            }
+            finally
+            {
+                queuePermits.release();
+            }
+        }
+    }
+
+    private void applyWithRetry( final ContentIndexBatch batch )
+    {
+        try
+        {
+            if ( doApplyWithRetry( batch ) )
+            {
+                recoverFromRetryJournal();
+            }
+        }
+        finally
+        {
+            this.pendingBatches.remove( batch );
+            registerLag( batch );
+        }
+    }
+
+    private boolean doApplyWithRetry( final ContentIndexBatch batch )
+    {
+        int retry = 0;
+        while ( true )
+        {
+            try
+            {
+                apply( batch );
+                return true;
+            }
+            catch ( final RuntimeException e )
+            {
+                retry++;
+                if ( retry > this.maxRetries || !sleep( this.retryDelay * ( 1L << Math.min( retry - 1, 10 ) ) ) )
+                {
+                    LOG.error( "Failed to apply index batch, content will be reindexed later: " + Iterables.toString( batch.getContentKeys() ),
+                               e );
+                    this.failedBatchCount.incrementAndGet();
+                    this.retryJournal.add( batch.getContentKeys() );
+                    return false;
+                }
+
+                LOG.warn( "Failed to apply index batch, retrying (" + retry + ") ...", e );
+            }
+        }
+    }
+
+    private void apply( final ContentIndexBatch batch )
+    {
+        this.contentIndexService.index( batch );
+        this.contentIndexService.flush();
+    }
+
+    private void recoverFromRetryJournal()
+    {
+        if ( this.retryJournal.isEmpty() )
+        {
+            return;
+        }
+
+        final List<ContentKey> contentKeys = this.retryJournal.drain();
+        LOG.info( "Reindexing " + contentKeys.size() + " content from index retry journal" );
+
+        final List<List<ContentKey>> partitions = Lists.partition( contentKeys, RECOVERY_BATCH_SIZE );
+        for ( int i = 0; i < partitions.size(); i++ )
+        {
+            try
+            {
+                this.indexService.reindex( partitions.get( i ) );
+            }
+            catch ( final RuntimeException e )
+            {
+                LOG.error( "Failed to reindex content from index retry journal", e );
+                this.retryJournal.add( contentKeys.subList( i * RECOVERY_BATCH_SIZE, contentKeys.size() ) );
+                return;
+            }
+        }
+    }
+
+    private boolean sleep( final long millis )
+    {
+        try
+        {
+            Thread.sleep( millis );
+            return true;
+        }
+        catch ( final InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void registerLag( final ContentIndexBatch batch )
+    {
+        final long lag = System.currentTimeMillis() - batch.getCreated();
+
+        long max = this.maxIndexLag.get();
+        while ( lag > max && !this.maxIndexLag.compareAndSet( max, lag ) )
+        {
+            max = this.maxIndexLag.get();
+        }
+    }
+
+    public boolean isAsync()
+    {
+        return this.executor != null;
+    }
+
+    /**
+     * Number of batches committed but not yet applied to the index.
+     */
+    public int getPendingBatchCount()
+    {
+        return this.pendingBatches.size();
+    }
+
+    /**
+     * Time in milliseconds the oldest pending batch has been waiting to be applied.
+     */
+    public long getIndexLag()
+    {
+        final ContentIndexBatch oldest = this.pendingBatches.peek();
+        return oldest != null ? Math.max( 0, System.currentTimeMillis() - oldest.getCreated() ) : 0;
+    }
+
+    /**
+     * Longest time in milliseconds from a batch was created until it was applied.
+     */
+    public long getMaxIndexLag()
+    {
+        return this.maxIndexLag.get();
+    }
+
+    /**
+     * Number of batches that failed after all retries.
+     */
+    public long getFailedBatchCount()
+    {
+        return this.failedBatchCount.get();
+    }
+
+    private static final class IndexBatchThreadFactory
+        implements ThreadFactory
+    {
+        @Override
+        public Thread newThread( final Runnable runnable )
+        {
+            final Thread thread = new Thread( runnable, "index-batch" );
+            thread.setDaemon( true );
+            return thread;
+        }
+    }
+
+    @Autowired
+    public void setContentIndexService( final ContentIndexService contentIndexService )
+    {
+        this.contentIndexService = contentIndexService;
+    }
+
+    @Autowired
+    public void setIndexService( final IndexService indexService )
+    {
+        this.indexService = indexService;
+    }
+
+    @Value("${cms.index.async}")
+    public void setAsync( final boolean async )
+    {
+        this.async = async;
+    }
+
+    @Value("${cms.index.async.queueSize}")
+    public void setQueueSize( final int queueSize )
+    {
+        this.queueSize = queueSize;
+    }
+
+    @Value("${cms.index.async.maxRetries}")
+    public void setMaxRetries( final int maxRetries )
+    {
+        this.maxRetries = Math.max( maxRetries, 0 );
+    }
+
+    @Value("${cms.index.async.retryDelay}")
+    public void setRetryDelay( final long retryDelay )
+    {
+        this.retryDelay = retryDelay;
+    }
+
+    @Value("${cms.index.async.retryJournal}")
+    public void setRetryJournalFile( final File retryJournalFile )
+    {
+        this.retryJournalFile = retryJournalFile;
+    }
+}
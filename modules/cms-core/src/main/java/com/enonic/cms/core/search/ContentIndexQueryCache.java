@@ -0,0 +1,218 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+
+package com.enonic.cms.core.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import com.enonic.cms.core.content.index.ContentIndexQuery;
+import com.enonic.cms.core.structure.menuitem.MenuItemEntity;
+
+/**
+ * Short lived cache of content index query results, so that a query repeated by many requests is only sent to the
+ * index once per interval. Only queries for online content are cached, as these are the ones made by the portal.
+ * Admin and import queries must see their own changes, and always go to the index.
+ * <p/>
+ * The key is the normalized query, including the groups of the security filter, and the index generation. The
+ * generation is increased on every change of the index, which makes all cached results unreachable. Changes made by
+ * other cluster nodes are not seen, so results also expire after the max staleness.
+ */
+@Component
+public class ContentIndexQueryCache
+{
+    private static final long MINUTE = 60000L;
+
+    private long maxStaleness;
+
+    private int maxSize;
+
+    private Cache<String, ContentIndexQueryResult> cache;
+
+    private final AtomicLong generation = new AtomicLong( 0 );
+
+    @PostConstruct
+    public void init()
+    {
+        if ( this.maxStaleness > 0 && this.maxSize > 0 )
+        {
+            this.cache = CacheBuilder.newBuilder().maximumSize( this.maxSize ).expireAfterWrite( this.maxStaleness,
+                                                                                                 TimeUnit.MILLISECONDS ).recordStats().build();
+        }
+    }
+
+    /**
+     * Returns the cached result of the query, or loads it. Concurrent loads of the same query wait for the first one.
+     */
+    ContentIndexQueryResult get( final ContentIndexQuery query, final Callable<ContentIndexQueryResult> loader )
+    {
+        final String key = this.cache != null ? createKey( this.generation.get(), query ) : null;
+
+        try
+        {
+            return key != null ? this.cache.get( key, loader ) : loader.call();
+        }
+        catch ( final ExecutionException e )
+        {
+            throw Throwables.propagate( e.getCause() );
+        }
+        catch ( final UncheckedExecutionException e )
+        {
+            throw Throwables.propagate( e.getCause() );
+        }
+        catch ( final ExecutionError e )
+        {
+            throw Throwables.propagate( e.getCause() );
+        }
+        catch ( final Exception e )
+        {
+            throw Throwables.propagate( e );
+        }
+    }
+
+    /**
+     * Makes all cached results unreachable. Called on every change of the index.
+     */
+    public void invalidate()
+    {
+        this.generation.incrementAndGet();
+    }
+
+    static String createKey( final long generation, final ContentIndexQuery query )
+    {
+        if ( query.getContentOnlineAtFilter() == null )
+        {
+            return null;
+        }
+
+        final StringBuilder key = new StringBuilder();
+        key.append( generation );
+        appendText( key, query.getQuery() );
+        appendValue( key, query.getIndex() );
+        appendValue( key, query.getCount() );
+        appendValue( key, query.doReturnAllHits() );
+        appendValue( key, query.getContentStatusFilter() );
+
+        // the online filter is floored to the minute when translated
+        appendValue( key, query.getContentOnlineAtFilter().getMillis() / MINUTE );
+
+        appendValues( key, query.getContentFilter() );
+        appendValues( key, getSectionKeys( query.getSectionFilter() ) );
+        appendValue( key, query.isApprovedSectionContentOnly() );
+        appendValue( key, query.isUnapprovedSectionContentOnly() );
+        appendValues( key, query.getCategoryAccessTypeFilter() );
+        appendValue( key, query.getCategoryAccessTypeFilterPolicy() );
+        appendValue( key, query.getOrderBySection() );
+        appendText( key, query.getFacets() );
+        appendValues( key, query.getCategoryFilter() );
+        appendValues( key, query.getContentTypeFilter() );
+        appendValues( key, query.getSecurityFilter() );
+        return key.toString();
+    }
+
+    private static List<Object> getSectionKeys( final Collection<MenuItemEntity> sections )
+    {
+        if ( sections == null )
+        {
+            return null;
+        }
+
+        final List<Object> keys = new ArrayList<Object>( sections.size() );
+        for ( final MenuItemEntity section : sections )
+        {
+            keys.add( section.getKey() );
+        }
+        return keys;
+    }
+
+    private static void appendValue( final StringBuilder key, final Object value )
+    {
+        key.append( '|' ).append( value );
+    }
+
+    private static void appendText( final StringBuilder key, final String text )
+    {
+        // length prefixed, as free text may contain the separators
+        key.append( '|' ).append( text != null ? text.length() + ":" + text : "null" );
+    }
+
+    private static void appendValues( final StringBuilder key, final Collection<?> values )
+    {
+        // a missing filter is not the same as an empty one
+        if ( values == null )
+        {
+            key.append( "|null" );
+            return;
+        }
+
+        final List<String> sorted = new ArrayList<String>( values.size() );
+        for ( final Object value : values )
+        {
+            sorted.add( String.valueOf( value ) );
+        }
+        Collections.sort( sorted );
+
+        key.append( "|[" );
+        for ( final String value : sorted )
+        {
+            key.append( value.replace( ",", "\\," ) ).append( ',' );
+        }
+        key.append( ']' );
+    }
+
+    public boolean isEnabled()
+    {
+        return this.cache != null;
+    }
+
+    public long getGeneration()
+    {
+        return this.generation.get();
+    }
+
+    public long getSize()
+    {
+        return this.cache != null ? this.cache.size() : 0;
+    }
+
+    public long getHitCount()
+    {
+        return this.cache != null ? this.cache.stats().hitCount() : 0;
+    }
+
+    public long getMissCount()
+    {
+        return this.cache != null ? this.cache.stats().missCount() : 0;
+    }
+
+    @Value("${cms.index.queryCache.maxStaleness}")
+    public void setMaxStaleness( final long maxStaleness )
+    {
+        this.maxStaleness = maxStaleness;
+    }
+
+    @Value("${cms.index.queryCache.maxSize}")
+    public void setMaxSize( final int maxSize )
+    {
+        this.maxSize = maxSize;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+
+package com.enonic.cms.core.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.enonic.cms.core.content.ContentEntityFetcherImpl;
+import com.enonic.cms.core.content.ContentKey;
+import com.enonic.cms.core.content.resultset.ContentResultSet;
+import com.enonic.cms.core.content.resultset.ContentResultSetLazyFetcher;
+import com.enonic.cms.core.search.result.FacetsResultSet;
+import com.enonic.cms.store.dao.ContentDao;
+
+/**
+ * The index part of a content query result, which can be shared between requests. Content is fetched by each result
+ * set created from it, in the session of the request.
+ */
+final class ContentIndexQueryResult
+{
+    private final List<ContentKey> keys;
+
+    private final int fromIndex;
+
+    private final int totalHits;
+
+    private final FacetsResultSet facetsResultSet;
+
+    ContentIndexQueryResult( final List<ContentKey> keys, final int fromIndex, final int totalHits, final FacetsResultSet facetsResultSet )
+    {
+        this.keys = keys;
+        this.fromIndex = fromIndex;
+        this.totalHits = totalHits;
+        this.facetsResultSet = facetsResultSet;
+    }
+
+    int getTotalHits()
+    {
+        return this.totalHits;
+    }
+
+    ContentResultSet createResultSet( final ContentDao contentDao )
+    {
+        final ContentResultSetLazyFetcher contentResult =
+            new ContentResultSetLazyFetcher( new ContentEntityFetcherImpl( contentDao ), new ArrayList<ContentKey>( this.keys ),
+                                             this.fromIndex, this.totalHits );
+        contentResult.setFacetsResultSet( this.facetsResultSet );
+        return contentResult;
+    }
+}
@@ -9,8 +9,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
 
 import javax.annotation.PostConstruct;
 
@@ -93,6 +97,8 @@ public class ContentIndexServiceImpl
 
     private ContentDao contentDao;
 
+    private ContentIndexQueryCache queryCache = new ContentIndexQueryCache();
+
     @Autowired
     private LivePortalTraceService livePortalTraceService;
 
@@ -151,6 +157,7 @@ public class ContentIndexServiceImpl
     public void remove( final ContentKey contentKey )
     {
         doRemoveEntryWithId( contentKey );
+        queryCache.invalidate();
     }
 
     public void removeByCategory( final CategoryKey categoryKey )
@@ -158,6 +165,7 @@ public class ContentIndexServiceImpl
         ContentIndexQuery contentIndexQuery = new ContentIndexQuery( "" );
         contentIndexQuery.setCategoryFilter( Arrays.asList( categoryKey ) );
         doRemoveByQuery( contentIndexQuery );
+        queryCache.invalidate();
     }
 
     public void removeByContentType( final ContentTypeKey contentTypeKey )
@@ -165,6 +173,7 @@ public class ContentIndexServiceImpl
         ContentIndexQuery contentIndexQuery = new ContentIndexQuery( "" );
         contentIndexQuery.setContentTypeFilter( Arrays.asList( contentTypeKey ) );
         doRemoveByQuery( contentIndexQuery );
+        queryCache.invalidate();
     }
 
     private void doRemoveByQuery( final ContentIndexQuery contentIndexQuery )
@@ -216,6 +225,27 @@ public class ContentIndexServiceImpl
         }
 
         elasticSearchIndexService.index( CONTENT_INDEX_NAME, contentIndexData );
+        queryCache.invalidate();
+    }
+
+    public void index( final ContentIndexBatch batch )
+    {
+        final Set<ContentKey> removals = new LinkedHashSet<ContentKey>( batch.getRemovals() );
+        final List<ContentIndexData> contentIndexDatas = new ArrayList<ContentIndexData>();
+
+        for ( final ContentDocument doc : batch.getDocuments() )
+        {
+            removals.add( doc.getContentKey() );
+            contentIndexDatas.add( contentIndexDataFactory.create( doc, false ) );
+        }
+
+        for ( final ContentDocument doc : batch.getMetadataDocuments() )
+        {
+            contentIndexDatas.add( contentIndexDataFactory.create( doc, true ) );
+        }
+
+        elasticSearchIndexService.bulk( CONTENT_INDEX_NAME, removals, contentIndexDatas );
+        queryCache.invalidate();
     }
 
     public boolean isIndexed( final ContentKey contentKey, final IndexType indexType )
@@ -230,8 +260,6 @@ public class ContentIndexServiceImpl
 
     public ContentResultSet query( final ContentIndexQuery query )
     {
-        final SearchSourceBuilder translatedQuerySource;
-
         if ( isFilterBlockingAllContent( query ) )
         {
             return new ContentResultSetLazyFetcher( new ContentEntityFetcherImpl( contentDao ), new LinkedList<ContentKey>(), 0, 0 );
@@ -241,55 +269,80 @@ public class ContentIndexServiceImpl
 
         try
         {
-            optimizeCount( query );
-
-            try
-            {
-                translatedQuerySource = buildQuerySource( query );
-            }
-            catch ( Exception e )
+            final ContentIndexQueryResult result = queryCache.get( query, new Callable<ContentIndexQueryResult>()
             {
-                final ContentResultSetNonLazy rs = new ContentResultSetNonLazy( query.getIndex() );
-                rs.addError( "Failed to translate contentQuery ( " + query + " ): " + e.getMessage() );
-                return rs;
-            }
+                @Override
+                public ContentIndexQueryResult call()
+                {
+                    return doQuery( query, trace );
+                }
+            } );
+
+            ContentIndexQueryTracer.traceMatchCount( result.getTotalHits(), trace );
+            return result.createResultSet( contentDao );
+        }
+        catch ( QueryTranslationException e )
+        {
+            final ContentResultSetNonLazy rs = new ContentResultSetNonLazy( query.getIndex() );
+            rs.addError( "Failed to translate contentQuery ( " + query + " ): " + e.getCause().getMessage() );
+            return rs;
+        }
+        finally
+        {
+            ContentIndexQueryTracer.stopTracing( trace, livePortalTraceService );
+        }
+    }
 
-            ContentIndexQueryTracer.traceQuery( query, query.getIndex(), query.getCount(), translatedQuerySource.toString(), trace );
+    private ContentIndexQueryResult doQuery( final ContentIndexQuery query, final ContentIndexQueryTrace trace )
+    {
+        optimizeCount( query );
 
-            ContentIndexQueryTracer.traceElasticSearchStartTime( trace, timeService );
-            final SearchResponse searchResponse = doExecuteSearchRequest( translatedQuerySource );
-            ContentIndexQueryTracer.traceElasticSearchFinishedTime( trace, timeService );
+        final SearchSourceBuilder translatedQuerySource;
+        try
+        {
+            translatedQuerySource = buildQuerySource( query );
+        }
+        catch ( Exception e )
+        {
+            throw new QueryTranslationException( e );
+        }
 
-            SearchHits searchHits = searchResponse.getHits();
+        ContentIndexQueryTracer.traceQuery( query, query.getIndex(), query.getCount(), translatedQuerySource.toString(), trace );
 
-            LOG.debug(
-                "query: " + translatedQuerySource.toString() + " executed with " + searchHits.getHits().length + " searchHits of total " +
-                    searchHits.getTotalHits() );
+        ContentIndexQueryTracer.traceElasticSearchStartTime( trace, timeService );
+        final SearchResponse searchResponse = doExecuteSearchRequest( translatedQuerySource );
+        ContentIndexQueryTracer.traceElasticSearchFinishedTime( trace, timeService );
 
-            final int queryResultTotalSize = new Long( searchHits.getTotalHits() ).intValue();
+        SearchHits searchHits = searchResponse.getHits();
 
-            ContentIndexQueryTracer.traceMatchCount( queryResultTotalSize, trace );
+        LOG.debug( "query: " + translatedQuerySource.toString() + " executed with " + searchHits.getHits().length +
+                       " searchHits of total " + searchHits.getTotalHits() );
 
-            final int fromIndex = Math.max( query.getIndex(), 0 );
+        final int queryResultTotalSize = new Long( searchHits.getTotalHits() ).intValue();
 
-            final ArrayList<ContentKey> keys = new ArrayList<ContentKey>();
+        final int fromIndex = Math.max( query.getIndex(), 0 );
 
-            for ( final SearchHit hit : searchHits )
-            {
-                keys.add( new ContentKey( hit.getId() ) );
-            }
+        final ArrayList<ContentKey> keys = new ArrayList<ContentKey>();
 
-            final ContentResultSetLazyFetcher contentResult =
-                new ContentResultSetLazyFetcher( new ContentEntityFetcherImpl( contentDao ), keys, fromIndex, queryResultTotalSize );
+        for ( final SearchHit hit : searchHits )
+        {
+            keys.add( new ContentKey( hit.getId() ) );
+        }
 
-            final FacetsResultSet facetsResultSet = facetsResultSetCreator.createResultSet( searchResponse );
-            contentResult.setFacetsResultSet( facetsResultSet );
+        final FacetsResultSet facetsResultSet = facetsResultSetCreator.createResultSet( searchResponse );
 
-            return contentResult;
-        }
-        finally
+        return new ContentIndexQueryResult( keys, fromIndex, queryResultTotalSize, facetsResultSet );
+    }
+
+    /**
+     * Thrown from a query load, so that a query that can not be translated is not cached.
+     */
+    private static final class QueryTranslationException
+        extends RuntimeException
+    {
+        private QueryTranslationException( final Exception cause )
         {
-            ContentIndexQueryTracer.stopTracing( trace, livePortalTraceService );
+            super( cause );
         }
     }
 
@@ -433,6 +486,9 @@ public class ContentIndexServiceImpl
     public void flush()
     {
         elasticSearchIndexService.flush( CONTENT_INDEX_NAME );
+
+        // changes become visible to searches on flush, so results cached since the change was sent are stale
+        queryCache.invalidate();
     }
 
     public AggregatedResult query( final AggregatedQuery query )
@@ -463,6 +519,7 @@ public class ContentIndexServiceImpl
         elasticSearchIndexService.deleteMapping( CONTENT_INDEX_NAME, IndexType.Content );
         elasticSearchIndexService.deleteMapping( CONTENT_INDEX_NAME, IndexType.Binaries );
         addMapping();
+        queryCache.invalidate();
     }
 
     @Override
@@ -492,6 +549,12 @@ public class ContentIndexServiceImpl
         this.contentDao = contentDao;
     }
 
+    @Autowired
+    public void setQueryCache( ContentIndexQueryCache queryCache )
+    {
+        this.queryCache = queryCache;
+    }
+
     @Autowired
     public void setQueryTranslator( QueryTranslator queryTranslator )
     {
@@ -5,6 +5,7 @@
 
 package com.enonic.cms.core.search;
 
+import java.util.Collection;
 import java.util.Map;
 
 import org.elasticsearch.action.admin.cluster.health.ClusterHealthResponse;
@@ -58,6 +59,8 @@ public interface ElasticSearchIndexService
 
     public void index( IndexRequest request );
 
+    public void bulk( String indexName, Collection<ContentKey> removals, Collection<ContentIndexData> contentIndexDatas );
+
     public boolean get( String indexName, IndexType indexType, ContentKey contentKey );
 
     public long count( String indexName, String indexType, SearchSourceBuilder sourceBuilder );
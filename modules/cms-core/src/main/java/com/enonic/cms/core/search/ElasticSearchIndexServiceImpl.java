@@ -5,6 +5,7 @@
 
 package com.enonic.cms.core.search;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -35,6 +36,8 @@ import org.elasticsearch.action.admin.indices.settings.UpdateSettingsResponse;
 import org.elasticsearch.action.admin.indices.status.IndexStatus;
 import org.elasticsearch.action.admin.indices.status.IndicesStatusRequestBuilder;
 import org.elasticsearch.action.admin.indices.status.IndicesStatusResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.count.CountRequestBuilder;
 import org.elasticsearch.action.count.CountResponse;
 import org.elasticsearch.action.delete.DeleteRequest;
@@ -89,6 +92,10 @@ public class ElasticSearchIndexServiceImpl
 
     private int statusTimeout;
 
+    private int bulkMaxActions;
+
+    private long bulkMaxBytes;
+
     public static final TimeValue CLUSTER_NOWAIT_TIMEOUT = TimeValue.timeValueSeconds( 1 );
 
     private IndexSettingBuilder indexSettingBuilder;
@@ -305,6 +312,64 @@ public class ElasticSearchIndexServiceImpl
         doIndex( request );
     }
 
+    @Override
+    public void bulk( final String indexName, final Collection<ContentKey> removals, final Collection<ContentIndexData> contentIndexDatas )
+    {
+        BulkRequest bulkRequest = new BulkRequest();
+
+        for ( ContentKey contentKey : removals )
+        {
+            bulkRequest.add( new DeleteRequest( indexName, IndexType.Binaries.toString(), contentKey.toString() ) );
+            bulkRequest.add( new DeleteRequest( indexName, IndexType.Content.toString(), contentKey.toString() ) );
+            bulkRequest = doBulkIfFull( bulkRequest );
+        }
+
+        for ( ContentIndexData contentIndexData : contentIndexDatas )
+        {
+            for ( IndexRequest indexRequest : contentIndexRequestCreator.createIndexRequests( indexName, contentIndexData ) )
+            {
+                bulkRequest.add( indexRequest );
+            }
+            bulkRequest = doBulkIfFull( bulkRequest );
+        }
+
+        if ( bulkRequest.numberOfActions() > 0 )
+        {
+            doBulk( bulkRequest );
+        }
+    }
+
+    private BulkRequest doBulkIfFull( final BulkRequest bulkRequest )
+    {
+        if ( bulkRequest.numberOfActions() < bulkMaxActions && bulkRequest.estimatedSizeInBytes() < bulkMaxBytes )
+        {
+            return bulkRequest;
+        }
+
+        doBulk( bulkRequest );
+        return new BulkRequest();
+    }
+
+    private void doBulk( final BulkRequest bulkRequest )
+    {
+        final BulkResponse bulkResponse;
+        try
+        {
+            bulkResponse = this.client.bulk( bulkRequest ).actionGet( INDEX_REQUEST_TIMEOUT_SECONDS );
+        }
+        catch ( ElasticSearchException e )
+        {
+            throw new IndexException( "Failed to execute bulk request with " + bulkRequest.numberOfActions() + " actions", e );
+        }
+
+        if ( bulkResponse.hasFailures() )
+        {
+            throw new IndexException( "Bulk request failed: " + bulkResponse.buildFailureMessage() );
+        }
+
+        LOG.debug( "Bulk request with " + bulkRequest.numberOfActions() + " actions executed in " + bulkResponse.getTookInMillis() + " ms" );
+    }
+
     private IndexResponse doIndex( IndexRequest indexRequest )
     {
         try
@@ -535,6 +600,18 @@ public class ElasticSearchIndexServiceImpl
         this.contentIndexRequestCreator = contentIndexRequestCreator;
     }
 
+    @Value("${cms.index.bulk.maxActions}")
+    public void setBulkMaxActions( final int bulkMaxActions )
+    {
+        this.bulkMaxActions = bulkMaxActions;
+    }
+
+    @Value("${cms.index.bulk.maxBytes}")
+    public void setBulkMaxBytes( final long bulkMaxBytes )
+    {
+        this.bulkMaxBytes = bulkMaxBytes;
+    }
+
     @Value("${cms.index.statusTimeout}")
     public void setStatusTimeout( final int statusTimeout )
     {
@@ -41,6 +41,13 @@ public class IndexInitializerService
     @PostConstruct
     public void checkForIndexExists()
     {
+        if ( reindexContentToolService.isReindexCheckpointed() )
+        {
+            LOG.info( "Previous reindex did not complete, resuming reindex" );
+            taskExecutor.execute( new ReindexJob() );
+            return;
+        }
+
         if ( !indexOnStartup )
         {
             return;
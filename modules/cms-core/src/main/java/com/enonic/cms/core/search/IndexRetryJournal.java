@@ -0,0 +1,97 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+
+package com.enonic.cms.core.search;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Iterables;
+import com.google.common.io.Files;
+
+import com.enonic.cms.core.content.ContentKey;
+
+/**
+ * File holding the keys of content whose index changes could not be applied. The keys survive a restart, and the
+ * content is reindexed from the database once the index is available again.
+ */
+final class IndexRetryJournal
+{
+    private final static Logger LOG = LoggerFactory.getLogger( IndexRetryJournal.class );
+
+    private final File file;
+
+    public IndexRetryJournal( final File file )
+    {
+        this.file = file;
+    }
+
+    public synchronized void add( final Collection<ContentKey> contentKeys )
+    {
+        final StringBuilder str = new StringBuilder();
+        for ( final ContentKey contentKey : contentKeys )
+        {
+            str.append( contentKey.toString() ).append( '\n' );
+        }
+
+        try
+        {
+            Files.createParentDirs( this.file );
+            Files.append( str, this.file, Charsets.UTF_8 );
+        }
+        catch ( final IOException e )
+        {
+            LOG.error( "Failed to write index retry journal [" + this.file.getAbsolutePath() + "], content must be reindexed manually: " +
+                           Iterables.toString( contentKeys ), e );
+        }
+    }
+
+    /**
+     * Return all keys in the journal and empty it.
+     */
+    public synchronized List<ContentKey> drain()
+    {
+        final List<ContentKey> contentKeys = new ArrayList<ContentKey>();
+        if ( isEmpty() )
+        {
+            return contentKeys;
+        }
+
+        try
+        {
+            for ( final String line : Files.readLines( this.file, Charsets.UTF_8 ) )
+            {
+                if ( line.trim().length() > 0 )
+                {
+                    contentKeys.add( new ContentKey( line.trim() ) );
+                }
+            }
+        }
+        catch ( final IOException e )
+        {
+            LOG.error( "Failed to read index retry journal [" + this.file.getAbsolutePath() + "]", e );
+            return contentKeys;
+        }
+
+        if ( !this.file.delete() )
+        {
+            LOG.warn( "Failed to delete index retry journal [" + this.file.getAbsolutePath() + "]" );
+        }
+
+        return contentKeys;
+    }
+
+    public synchronized boolean isEmpty()
+    {
+        return !this.file.exists() || this.file.length() == 0;
+    }
+}
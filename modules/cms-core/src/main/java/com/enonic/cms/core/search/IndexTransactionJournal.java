@@ -21,7 +21,6 @@ import com.enonic.cms.core.content.ContentKey;
 import com.enonic.cms.core.content.ContentMap;
 import com.enonic.cms.core.content.IndexService;
 import com.enonic.cms.core.search.query.ContentDocument;
-import com.enonic.cms.core.search.query.ContentIndexService;
 import com.enonic.cms.store.dao.ContentDao;
 import com.enonic.cms.store.dao.ContentEagerFetches;
 import com.enonic.cms.store.dao.FindContentByKeysCommand;
@@ -37,13 +36,13 @@ public class IndexTransactionJournal
 
     private final IndexService indexService;
 
-    private final ContentIndexService contentIndexService;
+    private final ContentIndexBatchExecutor contentIndexBatchExecutor;
 
     private final Set<IndexTransactionJournalEntry> changeHistory;
 
-    public IndexTransactionJournal( ContentIndexService contentIndexService, IndexService indexService, ContentDao contentDao )
+    public IndexTransactionJournal( ContentIndexBatchExecutor contentIndexBatchExecutor, IndexService indexService, ContentDao contentDao )
     {
-        this.contentIndexService = contentIndexService;
+        this.contentIndexBatchExecutor = contentIndexBatchExecutor;
         this.indexService = indexService;
         this.contentDao = contentDao;
         this.changeHistory = new HashSet<IndexTransactionJournalEntry>();
@@ -113,6 +112,7 @@ public class IndexTransactionJournal
         }
 
         final ContentMap contentMap = preloadContent();
+        final ContentIndexBatch batch = new ContentIndexBatch();
 
         LOG.debug( "Flushing index changes from transaction journal" );
         for ( IndexTransactionJournalEntry journalEntry : changeHistory )
@@ -120,17 +120,17 @@ public class IndexTransactionJournal
             switch ( journalEntry.getOperation() )
             {
                 case UPDATE:
-                    handleFlushUpdateOperation( journalEntry, contentMap );
+                    handleFlushUpdateOperation( journalEntry, contentMap, batch );
                     break;
 
                 case DELETE:
-                    handleFlushDeleteOperation( journalEntry );
+                    handleFlushDeleteOperation( journalEntry, batch );
                     break;
             }
         }
         changeHistory.clear();
 
-        flushIndex();
+        contentIndexBatchExecutor.execute( batch );
     }
 
     private ContentMap preloadContent()
@@ -150,48 +150,44 @@ public class IndexTransactionJournal
         return contentDao.findByKeys( command );
     }
 
-    private void handleFlushUpdateOperation( final IndexTransactionJournalEntry journalEntry, final ContentMap contentMap )
+    private void handleFlushUpdateOperation( final IndexTransactionJournalEntry journalEntry, final ContentMap contentMap,
+                                             final ContentIndexBatch batch )
     {
         final ContentEntity content = contentMap.get( journalEntry.getContentKey() );
         if ( content == null )
         {
             LOG.warn( "Content to update index for did not exist (removing index for content instead): " + journalEntry.getContentKey() );
-            deleteContent( journalEntry.getContentKey() );
+            deleteContent( journalEntry.getContentKey(), batch );
         }
         else if ( content.isDeleted() )
         {
-            deleteContent( content.getKey() );
+            deleteContent( content.getKey(), batch );
         }
         else
         {
-            doUpdateContent( content, journalEntry.isUpdateMetadataOnly() );
+            doUpdateContent( content, journalEntry.isUpdateMetadataOnly(), batch );
         }
     }
 
-    private void handleFlushDeleteOperation( final IndexTransactionJournalEntry journalEntry )
+    private void handleFlushDeleteOperation( final IndexTransactionJournalEntry journalEntry, final ContentIndexBatch batch )
     {
-        deleteContent( journalEntry.getContentKey() );
+        deleteContent( journalEntry.getContentKey(), batch );
     }
 
-    private void doUpdateContent( final ContentEntity content, final boolean updateMetadataOnly )
+    private void doUpdateContent( final ContentEntity content, final boolean updateMetadataOnly, final ContentIndexBatch batch )
     {
         final ContentDocument doc = indexService.createContentDocument( content, updateMetadataOnly );
 
         LOG.debug( "Updating index for content: " + doc.getContentKey().toString() );
 
-        contentIndexService.index( doc, updateMetadataOnly );
+        batch.index( doc, updateMetadataOnly );
     }
 
-    private void deleteContent( ContentKey contentKey )
+    private void deleteContent( ContentKey contentKey, final ContentIndexBatch batch )
     {
         LOG.debug( "Deleting index for content: " + contentKey.toString() );
 
-        contentIndexService.remove( contentKey );
-    }
-
-    private void flushIndex()
-    {
-        contentIndexService.flush();
+        batch.remove( contentKey );
     }
 
     @Override
@@ -237,4 +233,16 @@ public class IndexTransactionJournal
         TransactionSynchronizationManager.unbindResourceIfPossible( IndexTransactionServiceImpl.TRANSACTION_JOURNAL_KEY );
         changeHistory.clear();
     }
+
+    public Set<ContentKey> deferJournal()
+    {
+        final Set<ContentKey> contentKeys = new HashSet<ContentKey>();
+        for ( IndexTransactionJournalEntry journalEntry : changeHistory )
+        {
+            contentKeys.add( journalEntry.getContentKey() );
+        }
+
+        clearJournal();
+        return contentKeys;
+    }
 }
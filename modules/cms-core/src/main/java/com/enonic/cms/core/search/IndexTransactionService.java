@@ -6,6 +6,7 @@
 package com.enonic.cms.core.search;
 
 import java.util.Collection;
+import java.util.Set;
 
 import com.enonic.cms.core.content.ContentKey;
 
@@ -25,4 +26,10 @@ public interface IndexTransactionService
     void deleteContent( ContentKey contentKey );
 
     void clearJournal();
+
+    /**
+     * Clears the journal of the current transaction without indexing anything, and returns the keys of the content
+     * registered in it. The caller is responsible for indexing that content when the transaction has committed.
+     */
+    Set<ContentKey> deferJournal();
 }
@@ -6,6 +6,8 @@
 package com.enonic.cms.core.search;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,7 +18,6 @@ import org.springframework.transaction.support.TransactionSynchronizationManager
 
 import com.enonic.cms.core.content.ContentKey;
 import com.enonic.cms.core.content.IndexService;
-import com.enonic.cms.core.search.query.ContentIndexService;
 import com.enonic.cms.store.dao.ContentDao;
 
 @Service
@@ -35,7 +36,7 @@ public class IndexTransactionServiceImpl
     private IndexService indexService;
 
     @Autowired
-    private ContentIndexService contentIndexService;
+    private ContentIndexBatchExecutor contentIndexBatchExecutor;
 
     @Override
     public void startTransaction()
@@ -93,6 +94,19 @@ public class IndexTransactionServiceImpl
         }
     }
 
+    @Override
+    public Set<ContentKey> deferJournal()
+    {
+        IndexTransactionJournal indexTransactionJournal =
+            (IndexTransactionJournal) TransactionSynchronizationManager.getResource( TRANSACTION_JOURNAL_KEY );
+
+        if ( indexTransactionJournal == null )
+        {
+            return Collections.emptySet();
+        }
+        return indexTransactionJournal.deferJournal();
+    }
+
     private IndexTransactionJournal newTransactionJournal()
     {
         IndexTransactionJournal indexTransactionJournal =
@@ -101,7 +115,7 @@ public class IndexTransactionServiceImpl
         {
             return indexTransactionJournal;
         }
-        indexTransactionJournal = new IndexTransactionJournal( contentIndexService, indexService, contentDao );
+        indexTransactionJournal = new IndexTransactionJournal( contentIndexBatchExecutor, indexService, contentDao );
         TransactionSynchronizationManager.bindResource( TRANSACTION_JOURNAL_KEY, indexTransactionJournal );
         return indexTransactionJournal;
     }
@@ -11,6 +11,7 @@ import com.enonic.cms.core.content.category.CategoryKey;
 import com.enonic.cms.core.content.contenttype.ContentTypeKey;
 import com.enonic.cms.core.content.index.ContentIndexQuery;
 import com.enonic.cms.core.content.resultset.ContentResultSet;
+import com.enonic.cms.core.search.ContentIndexBatch;
 import com.enonic.cms.core.search.ContentIndexedFields;
 import com.enonic.cms.core.search.IndexType;
 
@@ -48,6 +49,11 @@ public interface ContentIndexService
 
     public void index( ContentDocument doc );
 
+    /**
+     * Apply all changes of the batch using bulk requests.
+     */
+    public void index( ContentIndexBatch batch );
+
     /**
      * Return true if content is indexed.
      */
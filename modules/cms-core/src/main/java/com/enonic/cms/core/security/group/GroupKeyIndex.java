@@ -0,0 +1,49 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.core.security.group;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Assigns a small, dense number to each group key, so that sets of groups can be held as bit sets. The numbers are
+ * only meaningful within this virtual machine, and are never reused.
+ */
+public final class GroupKeyIndex
+{
+    private static final ConcurrentMap<GroupKey, Integer> INDEX_BY_KEY = new ConcurrentHashMap<GroupKey, Integer>();
+
+    private static final AtomicInteger NEXT_INDEX = new AtomicInteger( 0 );
+
+    private GroupKeyIndex()
+    {
+    }
+
+    /**
+     * Returns the number of the group key, assigning one if the key has none yet.
+     */
+    public static int indexOf( final GroupKey key )
+    {
+        final Integer index = INDEX_BY_KEY.get( key );
+        if ( index != null )
+        {
+            return index;
+        }
+
+        final Integer newIndex = NEXT_INDEX.getAndIncrement();
+        final Integer existingIndex = INDEX_BY_KEY.putIfAbsent( key, newIndex );
+        return existingIndex != null ? existingIndex : newIndex;
+    }
+
+    /**
+     * Returns the number of the group key, or -1 if the key has none.
+     */
+    public static int find( final GroupKey key )
+    {
+        final Integer index = INDEX_BY_KEY.get( key );
+        return index != null ? index : -1;
+    }
+}
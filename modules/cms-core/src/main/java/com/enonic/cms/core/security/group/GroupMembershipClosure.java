@@ -0,0 +1,127 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.core.security.group;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+import com.enonic.cms.core.security.user.UserEntity;
+
+/**
+ * The groups whose access rights apply to a user, resolved through all memberships, held as a bit set of group key
+ * numbers. Checking an access control list against it costs one bit lookup per entry, instead of a traversal of the
+ * membership graph.
+ * <p/>
+ * Rights given to the anonymous group apply to all users. Rights given to the groups the anonymous group is a member of
+ * are only included when rights are accumulated, as when checked one by one.
+ */
+public final class GroupMembershipClosure
+    implements Serializable
+{
+    private final BitSet groups = new BitSet();
+
+    private final BitSet accumulatedGroups = new BitSet();
+
+    private boolean administrator;
+
+    private GroupMembershipClosure()
+    {
+    }
+
+    public static GroupMembershipClosure create( final UserEntity user, final GroupEntity anonymousGroup,
+                                                 final GroupEntity authenticatedUsersGroup, final GroupEntity enterpriseAdminsGroup )
+    {
+        return create( user, anonymousGroup != null ? anonymousGroup.getGroupKey() : null, getAllGroupKeys( anonymousGroup ),
+                       getAllGroupKeys( user.getUserGroup() ), getAllGroupKeys( authenticatedUsersGroup ),
+                       enterpriseAdminsGroup != null ? enterpriseAdminsGroup.getGroupKey() : null );
+    }
+
+    /**
+     * Creates the closure from the keys of the groups resolved through all memberships of the anonymous group, the
+     * group of the user and the authenticated users group, each including the group itself.
+     */
+    public static GroupMembershipClosure create( final UserEntity user, final GroupKey anonymousGroup,
+                                                 final Collection<GroupKey> anonymousGroups, final Collection<GroupKey> userGroups,
+                                                 final Collection<GroupKey> authenticatedUsersGroups, final GroupKey enterpriseAdminsGroup )
+    {
+        final GroupMembershipClosure closure = new GroupMembershipClosure();
+
+        if ( anonymousGroup != null )
+        {
+            closure.groups.set( GroupKeyIndex.indexOf( anonymousGroup ) );
+            addAll( closure.accumulatedGroups, anonymousGroups );
+        }
+
+        if ( user.isAnonymous() )
+        {
+            return closure;
+        }
+
+        addAll( closure.groups, userGroups );
+
+        // NB! All users are always implicit member of authenticated users
+        addAll( closure.groups, authenticatedUsersGroups );
+
+        closure.accumulatedGroups.or( closure.groups );
+        closure.administrator = user.isRoot() || ( enterpriseAdminsGroup != null && userGroups.contains( enterpriseAdminsGroup ) );
+        return closure;
+    }
+
+    private static List<GroupKey> getAllGroupKeys( final GroupEntity group )
+    {
+        final List<GroupKey> groupKeys = new ArrayList<GroupKey>();
+        if ( group != null )
+        {
+            groupKeys.add( group.getGroupKey() );
+            for ( final GroupEntity membership : group.getAllMemberships() )
+            {
+                groupKeys.add( membership.getGroupKey() );
+            }
+        }
+        return groupKeys;
+    }
+
+    private static void addAll( final BitSet groups, final Collection<GroupKey> groupKeys )
+    {
+        for ( final GroupKey groupKey : groupKeys )
+        {
+            groups.set( GroupKeyIndex.indexOf( groupKey ) );
+        }
+    }
+
+    /**
+     * Returns true if rights given to the group apply to the user.
+     */
+    public boolean contains( final GroupKey group )
+    {
+        final int index = GroupKeyIndex.find( group );
+        return index >= 0 && this.groups.get( index );
+    }
+
+    /**
+     * Returns true if rights given to the group are included when accumulating the rights of the user.
+     */
+    public boolean containsAccumulated( final GroupKey group )
+    {
+        final int index = GroupKeyIndex.find( group );
+        return index >= 0 && this.accumulatedGroups.get( index );
+    }
+
+    /**
+     * Returns true if the user is root or member of the enterprise administrators, and has all rights.
+     */
+    public boolean isAdministrator()
+    {
+        return this.administrator;
+    }
+
+    public int size()
+    {
+        return this.groups.cardinality();
+    }
+}
@@ -71,6 +71,9 @@ public interface UserStoreService
     void synchronizeUserMemberships( final SynchronizeStatus status, final UserStoreKey userStoreKey, final RemoteUser remoteUser,
                                      final MemberCache memberCache );
 
+    void synchronizeUserMemberships( final SynchronizeStatus status, final UserStoreKey userStoreKey, final List<RemoteUser> remoteUsers,
+                                     final MemberCache memberCache );
+
     void deleteUsersLocally( final UserStoreKey userStore, final LocalUsersStatus status, final List<UserKey> users );
 
     GroupEntity synchronizeGroup( final GroupKey groupKey );
@@ -81,6 +84,9 @@ public interface UserStoreService
     void synchronizeGroupMemberships( final SynchronizeStatus status, final UserStoreKey userStoreKey, final RemoteGroup remoteGroup,
                                       final MemberCache memberCache );
 
+    void synchronizeGroupMemberships( final SynchronizeStatus status, final UserStoreKey userStoreKey, final List<RemoteGroup> remoteGroups,
+                                      final boolean syncMembers, final MemberCache memberCache );
+
     void deleteGroupsLocally( final LocalGroupsStatus status, final UserStoreKey userStoreKey, final List<GroupKey> groups );
 
     UserStoreEntity getDefaultUserStore();
@@ -789,6 +789,17 @@ public class UserStoreServiceImpl
         }
     }
 
+    @Transactional(propagation = Propagation.REQUIRED, rollbackFor = Exception.class)
+    public void synchronizeUserMemberships( final SynchronizeStatus status, final UserStoreKey userStoreKey, final List<RemoteUser> remoteUsers,
+                                            final MemberCache memberCache )
+    {
+        final RemoteUserStoreConnector rusc = doGetRemoteUSConnector( userStoreKey );
+        if ( rusc != null && rusc.canReadGroup() )
+        {
+            rusc.synchronizeUserMemberships( status, remoteUsers, memberCache );
+        }
+    }
+
 
     @Transactional(propagation = Propagation.REQUIRED, rollbackFor = Exception.class)
     public void deleteUsersLocally( final UserStoreKey userStoreKey, final LocalUsersStatus status, final List<UserKey> users )
@@ -849,6 +860,17 @@ public class UserStoreServiceImpl
         }
     }
 
+    @Transactional(propagation = Propagation.REQUIRED, rollbackFor = Exception.class)
+    public void synchronizeGroupMemberships( final SynchronizeStatus status, final UserStoreKey userStoreKey,
+                                             final List<RemoteGroup> remoteGroups, final boolean syncMembers, final MemberCache memberCache )
+    {
+        final RemoteUserStoreConnector rusc = doGetRemoteUSConnector( userStoreKey );
+        if ( rusc != null )
+        {
+            rusc.synchronizeGroupMemberships( status, remoteGroups, syncMembers, memberCache );
+        }
+    }
+
 
     @Transactional(propagation = Propagation.REQUIRED, rollbackFor = Exception.class)
     public void deleteGroupsLocally( final LocalGroupsStatus status, final UserStoreKey userStoreKey, final List<GroupKey> groups )
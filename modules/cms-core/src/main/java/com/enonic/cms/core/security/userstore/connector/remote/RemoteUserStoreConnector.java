@@ -19,8 +19,10 @@ import com.google.common.base.Preconditions;
 import com.enonic.cms.framework.util.GenericConcurrencyLock;
 
 import com.enonic.cms.api.plugin.ext.auth.AuthenticationResult;
+import com.enonic.cms.api.plugin.ext.userstore.PagedRemoteUserStore;
 import com.enonic.cms.api.plugin.ext.userstore.RemoteGroup;
 import com.enonic.cms.api.plugin.ext.userstore.RemotePrincipal;
+import com.enonic.cms.api.plugin.ext.userstore.RemotePrincipalPage;
 import com.enonic.cms.api.plugin.ext.userstore.RemoteUser;
 import com.enonic.cms.api.plugin.ext.userstore.RemoteUserStore;
 import com.enonic.cms.api.plugin.ext.userstore.UserFieldType;
@@ -432,20 +434,25 @@ public class RemoteUserStoreConnector
         }
     }
 
-    public synchronized void synchronizeUsers( final SynchronizeStatus status, final List<RemoteUser> remoteUsers,
-                                               final boolean syncMemberships, final MemberCache memberCache )
+    public void synchronizeUsers( final SynchronizeStatus status, final List<RemoteUser> remoteUsers, final boolean syncMemberships,
+                                  final MemberCache memberCache )
     {
         doSynchronizeUsers( status, remoteUsers, true, syncMemberships, memberCache );
     }
 
-    public synchronized void synchronizeUserMemberships( final SynchronizeStatus status, final RemoteUser remoteUser,
-                                                         final MemberCache memberCache )
+    public void synchronizeUserMemberships( final SynchronizeStatus status, final RemoteUser remoteUser, final MemberCache memberCache )
     {
         final List<RemoteUser> remoteUsers = new ArrayList<RemoteUser>( 1 );
         remoteUsers.add( remoteUser );
         doSynchronizeUsers( status, remoteUsers, false, true, memberCache );
     }
 
+    public void synchronizeUserMemberships( final SynchronizeStatus status, final List<RemoteUser> remoteUsers,
+                                            final MemberCache memberCache )
+    {
+        doSynchronizeUsers( status, remoteUsers, false, true, memberCache );
+    }
+
     private void doSynchronizeUsers( final SynchronizeStatus status, final List<RemoteUser> remoteUsers, final boolean syncUser,
                                      final boolean syncMemberships, final MemberCache memberCache )
     {
@@ -511,8 +518,8 @@ public class RemoteUserStoreConnector
         synchronizer.synchronize( group, new MemberCache() );
     }
 
-    public synchronized void synchronizeGroups( final SynchronizeStatus status, final List<RemoteGroup> remoteGroups,
-                                                final boolean syncMemberships, final boolean syncMembers, final MemberCache memberCache )
+    public void synchronizeGroups( final SynchronizeStatus status, final List<RemoteGroup> remoteGroups, final boolean syncMemberships,
+                                   final boolean syncMembers, final MemberCache memberCache )
     {
         if ( !connectorConfig.canReadGroup() )
         {
@@ -523,8 +530,15 @@ public class RemoteUserStoreConnector
         doSynchronizeGroups( status, remoteGroups, true, syncMemberships, syncMembers, memberCache );
     }
 
-    public synchronized void synchronizeGroupMemberships( final SynchronizeStatus status, final RemoteGroup remoteGroup,
-                                                          final MemberCache memberCache )
+    public void synchronizeGroupMemberships( final SynchronizeStatus status, final RemoteGroup remoteGroup, final MemberCache memberCache )
+    {
+        final List<RemoteGroup> remoteGroups = new ArrayList<RemoteGroup>( 1 );
+        remoteGroups.add( remoteGroup );
+        synchronizeGroupMemberships( status, remoteGroups, false, memberCache );
+    }
+
+    public void synchronizeGroupMemberships( final SynchronizeStatus status, final List<RemoteGroup> remoteGroups, final boolean syncMembers,
+                                             final MemberCache memberCache )
     {
         if ( !connectorConfig.canReadGroup() )
         {
@@ -532,9 +546,7 @@ public class RemoteUserStoreConnector
                                                                "Trying to synchronize groups without 'read' policy" );
         }
 
-        final List<RemoteGroup> remoteGroups = new ArrayList<RemoteGroup>( 1 );
-        remoteGroups.add( remoteGroup );
-        doSynchronizeGroups( status, remoteGroups, false, true, false, memberCache );
+        doSynchronizeGroups( status, remoteGroups, false, true, syncMembers, memberCache );
     }
 
     private void doSynchronizeGroups( final SynchronizeStatus status, final List<RemoteGroup> remoteGroups, final boolean syncGroup,
@@ -784,6 +796,29 @@ public class RemoteUserStoreConnector
         return remoteUserStorePlugin.getAllGroups();
     }
 
+    /**
+     * Returns true if the remote user store can list its principals in pages.
+     */
+    public boolean isPagingSupported()
+    {
+        return remoteUserStorePlugin instanceof PagedRemoteUserStore;
+    }
+
+    public String getChangeMarker()
+    {
+        return ( (PagedRemoteUserStore) remoteUserStorePlugin ).getChangeMarker();
+    }
+
+    public RemotePrincipalPage<RemoteUser> getUsers( final String changedSince, final String cursor, final int pageSize )
+    {
+        return ( (PagedRemoteUserStore) remoteUserStorePlugin ).getUsers( changedSince, cursor, pageSize );
+    }
+
+    public RemotePrincipalPage<RemoteGroup> getGroups( final String changedSince, final String cursor, final int pageSize )
+    {
+        return ( (PagedRemoteUserStore) remoteUserStorePlugin ).getGroups( changedSince, cursor, pageSize );
+    }
+
     public void setRemoteUserStorePlugin( final RemoteUserStore value )
     {
         remoteUserStorePlugin = value;
@@ -0,0 +1,481 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.core.security.userstore.connector.synchronize;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+
+import com.google.common.base.Throwables;
+
+import com.enonic.cms.framework.util.BatchedList;
+
+import com.enonic.cms.api.plugin.ext.userstore.RemoteGroup;
+import com.enonic.cms.api.plugin.ext.userstore.RemotePrincipal;
+import com.enonic.cms.api.plugin.ext.userstore.RemotePrincipalPage;
+import com.enonic.cms.api.plugin.ext.userstore.RemoteUser;
+import com.enonic.cms.core.security.group.GroupEntity;
+import com.enonic.cms.core.security.group.GroupKey;
+import com.enonic.cms.core.security.group.GroupSpecification;
+import com.enonic.cms.core.security.group.GroupType;
+import com.enonic.cms.core.security.user.UserEntity;
+import com.enonic.cms.core.security.user.UserKey;
+import com.enonic.cms.core.security.userstore.UserStoreKey;
+import com.enonic.cms.core.security.userstore.UserStoreService;
+import com.enonic.cms.core.security.userstore.connector.remote.MemberCache;
+import com.enonic.cms.core.security.userstore.connector.remote.RemoteUserStoreConnector;
+import com.enonic.cms.core.security.userstore.connector.synchronize.status.SynchronizeStatus;
+
+/**
+ * Synchronizes a user store whose plugin lists its principals in pages. Each page is split in batches that are applied
+ * in their own transactions by a pool of threads, while the next page is fetched.
+ * <p/>
+ * When changedSince is set, only the principals changed since are synchronized. Principals deleted remotely are only
+ * found by a full synchronization, which resolves them from the ids seen in the pages.
+ */
+public class PagedSynchronizeUserStoreJob
+    implements SynchronizeUserStoreJob
+{
+    private final UserStoreKey userStoreKey;
+
+    private final SynchronizeUserStoreType type;
+
+    private final int batchSize;
+
+    private final int pageSize;
+
+    private final int threads;
+
+    private final SynchronizeStatus status;
+
+    private UserStoreService userStoreService;
+
+    private RemoteUserStoreConnector userStoreConnector;
+
+    private SynchronizeChangeMarkers changeMarkers;
+
+    private Lock lock;
+
+    private String changedSince;
+
+    private ExecutorService executor;
+
+    public PagedSynchronizeUserStoreJob( final UserStoreKey userStoreKey, final SynchronizeUserStoreType type, final int batchSize,
+                                         final int pageSize, final int threads )
+    {
+        this.userStoreKey = userStoreKey;
+        this.type = type;
+        this.batchSize = batchSize;
+        this.pageSize = pageSize;
+        this.threads = threads;
+        this.status = new SynchronizeStatus( type );
+    }
+
+    public void start()
+    {
+        lock.lock();
+        try
+        {
+            final long startTime = System.currentTimeMillis();
+
+            // taken before reading, so changes made while synchronizing are included next time
+            final String changeMarker = userStoreConnector.getChangeMarker();
+
+            executor = Executors.newFixedThreadPool( threads, new SynchronizeThreadFactory( userStoreKey ) );
+            try
+            {
+                doStart();
+            }
+            finally
+            {
+                executor.shutdownNow();
+            }
+
+            changeMarkers.completed( userStoreKey, type, changeMarker, isFullSync(), startTime );
+        }
+        finally
+        {
+            lock.unlock();
+            status.setCompleted();
+        }
+    }
+
+    private void doStart()
+    {
+        switch ( type )
+        {
+            case USERS_ONLY:
+            {
+                synchronizeAllUsers();
+                synchronizeAllUserMemberships();
+                break;
+            }
+            case GROUPS_ONLY:
+            {
+                synchronizeAllGroups();
+                synchronizeAllGroupMemberships();
+                break;
+            }
+            case USERS_AND_GROUPS:
+            {
+                synchronizeAllUsers();
+                synchronizeAllGroups();
+                synchronizeAllUserMemberships();
+                synchronizeAllGroupMemberships();
+                break;
+            }
+        }
+    }
+
+    private boolean isFullSync()
+    {
+        return changedSince == null;
+    }
+
+    private void synchronizeAllUsers()
+    {
+        final Set<String> usedUserNames = new HashSet<String>();
+        final Set<String> remoteUserIdentities = new HashSet<String>();
+        status.setTotalRemoteUserCount( 0 );
+
+        new PagedPass<RemoteUser>()
+        {
+            @Override
+            protected RemotePrincipalPage<RemoteUser> getPage( final String cursor )
+            {
+                return userStoreConnector.getUsers( changedSince, cursor, pageSize );
+            }
+
+            @Override
+            protected List<RemoteUser> accept( final List<RemoteUser> remoteUsers )
+            {
+                status.addTotalRemoteUserCount( remoteUsers.size() );
+
+                final List<RemoteUser> accepted = new ArrayList<RemoteUser>( remoteUsers.size() );
+                for ( final RemoteUser remoteUser : remoteUsers )
+                {
+                    if ( !usedUserNames.add( remoteUser.getId().toLowerCase() ) )
+                    {
+                        status.userSkipped();
+                        continue;
+                    }
+
+                    accepted.add( remoteUser );
+                    if ( isFullSync() )
+                    {
+                        remoteUserIdentities.add( toIdentity( remoteUser.getId(), remoteUser.getSync() ) );
+                    }
+                }
+                return accepted;
+            }
+
+            @Override
+            protected void apply( final List<RemoteUser> batch, final MemberCache memberCache )
+            {
+                userStoreService.synchronizeUsers( status, userStoreKey, batch, false, memberCache );
+            }
+        }.run();
+
+        if ( isFullSync() )
+        {
+            deleteUsersNotFound( remoteUserIdentities );
+        }
+    }
+
+    private void deleteUsersNotFound( final Set<String> remoteUserIdentities )
+    {
+        final List<UserKey> usersToDelete = new ArrayList<UserKey>();
+        for ( final UserEntity user : userStoreService.getUsersAsMapByName( userStoreKey ).values() )
+        {
+            if ( !remoteUserIdentities.contains( toIdentity( user.getName(), user.getSync() ) ) )
+            {
+                usersToDelete.add( user.getKey() );
+            }
+        }
+
+        status.setTotalLocalUserCount( usersToDelete.size() );
+
+        final BatchedList<UserKey> batchedList = new BatchedList<UserKey>( usersToDelete, batchSize );
+        while ( batchedList.hasMoreBatches() )
+        {
+            userStoreService.deleteUsersLocally( userStoreKey, status.getLocalUsersStatus(), batchedList.getNextBatch() );
+        }
+    }
+
+    private void synchronizeAllGroups()
+    {
+        final Set<String> remoteGroupIdentities = new HashSet<String>();
+        status.setTotalRemoteGroupCount( 0 );
+
+        new PagedPass<RemoteGroup>()
+        {
+            @Override
+            protected RemotePrincipalPage<RemoteGroup> getPage( final String cursor )
+            {
+                return userStoreConnector.getGroups( changedSince, cursor, pageSize );
+            }
+
+            @Override
+            protected List<RemoteGroup> accept( final List<RemoteGroup> remoteGroups )
+            {
+                status.addTotalRemoteGroupCount( remoteGroups.size() );
+
+                if ( isFullSync() )
+                {
+                    for ( final RemoteGroup remoteGroup : remoteGroups )
+                    {
+                        remoteGroupIdentities.add( toIdentity( remoteGroup.getId(), remoteGroup.getSync() ) );
+                    }
+                }
+                return remoteGroups;
+            }
+
+            @Override
+            protected void apply( final List<RemoteGroup> batch, final MemberCache memberCache )
+            {
+                userStoreService.synchronizeGroups( status, userStoreKey, batch, false, false, memberCache );
+            }
+        }.run();
+
+        if ( isFullSync() )
+        {
+            deleteGroupsNotFound( remoteGroupIdentities );
+        }
+    }
+
+    private void deleteGroupsNotFound( final Set<String> remoteGroupIdentities )
+    {
+        final GroupSpecification groupSpec = new GroupSpecification();
+        groupSpec.setUserStoreKey( userStoreKey );
+        groupSpec.setDeletedState( GroupSpecification.DeletedState.NOT_DELETED );
+        groupSpec.setType( GroupType.USERSTORE_GROUP );
+
+        final List<GroupKey> groupsToDelete = new ArrayList<GroupKey>();
+        for ( final GroupEntity group : userStoreService.getGroups( groupSpec ) )
+        {
+            if ( !remoteGroupIdentities.contains( toIdentity( group.getName(), group.getSyncValue() ) ) )
+            {
+                groupsToDelete.add( group.getGroupKey() );
+            }
+        }
+
+        status.setTotalLocalGroupCount( groupsToDelete.size() );
+
+        final BatchedList<GroupKey> batchedList = new BatchedList<GroupKey>( groupsToDelete, batchSize );
+        while ( batchedList.hasMoreBatches() )
+        {
+            userStoreService.deleteGroupsLocally( status.getLocalGroupsStatus(), userStoreKey, batchedList.getNextBatch() );
+        }
+    }
+
+    private void synchronizeAllUserMemberships()
+    {
+        final Set<String> usedUserNames = new HashSet<String>();
+        status.setTotalUserMembershipsCount( 0 );
+
+        new PagedPass<RemoteUser>()
+        {
+            @Override
+            protected RemotePrincipalPage<RemoteUser> getPage( final String cursor )
+            {
+                return userStoreConnector.getUsers( changedSince, cursor, pageSize );
+            }
+
+            @Override
+            protected List<RemoteUser> accept( final List<RemoteUser> remoteUsers )
+            {
+                final List<RemoteUser> accepted = new ArrayList<RemoteUser>( remoteUsers.size() );
+                for ( final RemoteUser remoteUser : remoteUsers )
+                {
+                    if ( usedUserNames.add( remoteUser.getId().toLowerCase() ) )
+                    {
+                        accepted.add( remoteUser );
+                    }
+                }
+
+                status.addTotalUserMembershipsCount( accepted.size() );
+                return accepted;
+            }
+
+            @Override
+            protected void apply( final List<RemoteUser> batch, final MemberCache memberCache )
+            {
+                userStoreService.synchronizeUserMemberships( status, userStoreKey, batch, memberCache );
+                for ( int i = 0; i < batch.size(); i++ )
+                {
+                    status.nextUserMemberships();
+                }
+            }
+        }.run();
+    }
+
+    private void synchronizeAllGroupMemberships()
+    {
+        status.setTotalGroupMembershipsCount( 0 );
+
+        new PagedPass<RemoteGroup>()
+        {
+            @Override
+            protected RemotePrincipalPage<RemoteGroup> getPage( final String cursor )
+            {
+                return userStoreConnector.getGroups( changedSince, cursor, pageSize );
+            }
+
+            @Override
+            protected List<RemoteGroup> accept( final List<RemoteGroup> remoteGroups )
+            {
+                status.addTotalGroupMembershipsCount( remoteGroups.size() );
+                return remoteGroups;
+            }
+
+            @Override
+            protected void apply( final List<RemoteGroup> batch, final MemberCache memberCache )
+            {
+                // members removed from a changed group are not listed as changed users, so the members of changed
+                // groups are synchronized as well
+                userStoreService.synchronizeGroupMemberships( status, userStoreKey, batch, !isFullSync(), memberCache );
+                for ( int i = 0; i < batch.size(); i++ )
+                {
+                    status.nextGroupMemberships();
+                }
+            }
+        }.run();
+    }
+
+    private String toIdentity( final String name, final String sync )
+    {
+        return name + "\n" + sync;
+    }
+
+    private void waitFor( final List<Future<?>> futures )
+    {
+        try
+        {
+            for ( final Future<?> future : futures )
+            {
+                future.get();
+            }
+        }
+        catch ( final InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException( "Synchronization of userstore " + userStoreKey + " was interrupted", e );
+        }
+        catch ( final ExecutionException e )
+        {
+            throw Throwables.propagate( e.getCause() );
+        }
+    }
+
+    public SynchronizeStatus getStatus()
+    {
+        return status;
+    }
+
+    public void setUserStoreService( final UserStoreService value )
+    {
+        userStoreService = value;
+    }
+
+    public void setUserStoreConnector( final RemoteUserStoreConnector value )
+    {
+        userStoreConnector = value;
+    }
+
+    public void setChangeMarkers( final SynchronizeChangeMarkers value )
+    {
+        changeMarkers = value;
+    }
+
+    public void setLock( final Lock value )
+    {
+        lock = value;
+    }
+
+    public void setChangedSince( final String value )
+    {
+        changedSince = value;
+    }
+
+    /**
+     * Reads the pages of a pass one by one, and applies the accepted principals of a page in batches while the next
+     * page is read. Each batch has its own member cache, as the cache is not thread safe.
+     */
+    private abstract class PagedPass<T extends RemotePrincipal>
+    {
+        public void run()
+        {
+            List<Future<?>> pending = Collections.emptyList();
+            String cursor = null;
+            RemotePrincipalPage<T> page;
+            do
+            {
+                page = getPage( cursor );
+                final List<T> accepted = accept( page.getPrincipals() );
+                waitFor( pending );
+                pending = submit( accepted );
+                cursor = page.getNextCursor();
+            }
+            while ( !page.isLast() );
+
+            waitFor( pending );
+        }
+
+        private List<Future<?>> submit( final List<T> principals )
+        {
+            final List<Future<?>> futures = new ArrayList<Future<?>>();
+            final BatchedList<T> batchedList = new BatchedList<T>( principals, batchSize );
+            while ( batchedList.hasMoreBatches() )
+            {
+                final List<T> batch = batchedList.getNextBatch();
+                futures.add( executor.submit( new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        apply( batch, new MemberCache() );
+                    }
+                } ) );
+            }
+            return futures;
+        }
+
+        protected abstract RemotePrincipalPage<T> getPage( String cursor );
+
+        protected abstract List<T> accept( List<T> principals );
+
+        protected abstract void apply( List<T> batch, MemberCache memberCache );
+    }
+
+    private static final class SynchronizeThreadFactory
+        implements ThreadFactory
+    {
+        private final String namePrefix;
+
+        private final AtomicInteger threadNumber = new AtomicInteger( 1 );
+
+        private SynchronizeThreadFactory( final UserStoreKey userStoreKey )
+        {
+            this.namePrefix = "userstore-sync-" + userStoreKey + "-";
+        }
+
+        @Override
+        public Thread newThread( final Runnable runnable )
+        {
+            final Thread thread = new Thread( runnable, this.namePrefix + this.threadNumber.getAndIncrement() );
+            thread.setDaemon( true );
+            return thread;
+        }
+    }
+}
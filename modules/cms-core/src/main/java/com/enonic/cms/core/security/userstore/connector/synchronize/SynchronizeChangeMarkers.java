@@ -0,0 +1,76 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.core.security.userstore.connector.synchronize;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.enonic.cms.core.security.userstore.UserStoreKey;
+
+/**
+ * The change markers of the last completed synchronizations, by user store and synchronization type. The markers are
+ * only kept in memory, so the first synchronization after a restart is a full one.
+ */
+final class SynchronizeChangeMarkers
+{
+    private final ConcurrentMap<String, Marker> markers = new ConcurrentHashMap<String, Marker>();
+
+    /**
+     * Returns the marker to synchronize changes since, or null if a full synchronization is due.
+     */
+    public String getChangedSince( final UserStoreKey userStoreKey, final SynchronizeUserStoreType type, final long now,
+                                   final long fullSyncInterval )
+    {
+        final Marker marker = this.markers.get( toKey( userStoreKey, type ) );
+        if ( marker == null || now - marker.lastFullSyncTime >= fullSyncInterval )
+        {
+            return null;
+        }
+
+        return marker.value;
+    }
+
+    /**
+     * Records the marker taken before a synchronization that has completed.
+     */
+    public void completed( final UserStoreKey userStoreKey, final SynchronizeUserStoreType type, final String value,
+                           final boolean fullSync, final long startTime )
+    {
+        final String key = toKey( userStoreKey, type );
+        if ( value == null )
+        {
+            this.markers.remove( key );
+            return;
+        }
+
+        final Marker previous = this.markers.get( key );
+        if ( fullSync )
+        {
+            this.markers.put( key, new Marker( value, startTime ) );
+        }
+        else if ( previous != null )
+        {
+            this.markers.put( key, new Marker( value, previous.lastFullSyncTime ) );
+        }
+    }
+
+    private String toKey( final UserStoreKey userStoreKey, final SynchronizeUserStoreType type )
+    {
+        return userStoreKey + ":" + type;
+    }
+
+    private static final class Marker
+    {
+        private final String value;
+
+        private final long lastFullSyncTime;
+
+        private Marker( final String value, final long lastFullSyncTime )
+        {
+            this.value = value;
+            this.lastFullSyncTime = lastFullSyncTime;
+        }
+    }
+}
@@ -5,8 +5,11 @@
 package com.enonic.cms.core.security.userstore.connector.synchronize;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.enonic.cms.framework.util.GenericConcurrencyLock;
+
 import com.enonic.cms.core.security.userstore.UserStoreConnectorManager;
 import com.enonic.cms.core.security.userstore.UserStoreKey;
 import com.enonic.cms.core.security.userstore.UserStoreService;
@@ -21,6 +24,16 @@ public class SynchronizeUserStoreJobFactory
     @Autowired
     private UserStoreConnectorManager userStoreConnectorManager;
 
+    private final GenericConcurrencyLock<UserStoreKey> userStoreLocks = GenericConcurrencyLock.create();
+
+    private final SynchronizeChangeMarkers changeMarkers = new SynchronizeChangeMarkers();
+
+    private int threads;
+
+    private int pageSize;
+
+    private long fullSyncInterval;
+
     public SynchronizeUserStoreJob createSynchronizeUserStoreJob( final UserStoreKey userStoreKey, final SynchronizeUserStoreType type,
                                                                   final int batchSize )
     {
@@ -37,9 +50,39 @@ public class SynchronizeUserStoreJobFactory
             throw new IllegalStateException( "Can't synchronize groups with this userstore connector" );
         }
 
+        if ( connector.isPagingSupported() )
+        {
+            final PagedSynchronizeUserStoreJob job = new PagedSynchronizeUserStoreJob( userStoreKey, type, batchSize, pageSize, threads );
+            job.setUserStoreService( userStoreService );
+            job.setUserStoreConnector( connector );
+            job.setChangeMarkers( changeMarkers );
+            job.setChangedSince( changeMarkers.getChangedSince( userStoreKey, type, System.currentTimeMillis(), fullSyncInterval ) );
+            job.setLock( userStoreLocks.getLock( userStoreKey ) );
+            return job;
+        }
+
         final SynchronizeUserStoreJobImpl job = new SynchronizeUserStoreJobImpl( userStoreKey, type, batchSize );
         job.setUserStoreService( userStoreService );
         job.setUserStoreConnector( connector );
+        job.setLock( userStoreLocks.getLock( userStoreKey ) );
         return job;
     }
+
+    @Value("${cms.userstore.sync.threads}")
+    public void setThreads( final int threads )
+    {
+        this.threads = Math.max( 1, threads );
+    }
+
+    @Value("${cms.userstore.sync.pageSize}")
+    public void setPageSize( final int pageSize )
+    {
+        this.pageSize = Math.max( 1, pageSize );
+    }
+
+    @Value("${cms.userstore.sync.fullSyncInterval}")
+    public void setFullSyncInterval( final long fullSyncInterval )
+    {
+        this.fullSyncInterval = fullSyncInterval * 1000;
+    }
 }
@@ -9,6 +9,7 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
 
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
@@ -46,6 +47,8 @@ public class SynchronizeUserStoreJobImpl
 
     private SynchronizeStatus status;
 
+    private Lock lock;
+
     public SynchronizeUserStoreJobImpl( final UserStoreKey userStoreKey, final SynchronizeUserStoreType type, final int batchSize )
     {
         this.userStoreKey = userStoreKey;
@@ -57,12 +60,14 @@ public class SynchronizeUserStoreJobImpl
 
     public void start()
     {
+        lock.lock();
         try
         {
             doStart();
         }
         finally
         {
+            lock.unlock();
             status.setCompleted();
         }
     }
@@ -269,4 +274,9 @@ public class SynchronizeUserStoreJobImpl
     {
         userStoreConnector = value;
     }
+
+    public void setLock( final Lock value )
+    {
+        lock = value;
+    }
 }
\ No newline at end of file
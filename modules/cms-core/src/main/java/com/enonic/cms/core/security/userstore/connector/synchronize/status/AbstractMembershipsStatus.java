@@ -26,6 +26,14 @@ public abstract class AbstractMembershipsStatus
         currentCount.set( 0 );
     }
 
+    /**
+     * Adds to the total count, for when the total is only known page by page.
+     */
+    public void addTotalCount( final int value )
+    {
+        totalCount.addAndGet( value );
+    }
+
     public int getTotalCount()
     {
         return totalCount.get();
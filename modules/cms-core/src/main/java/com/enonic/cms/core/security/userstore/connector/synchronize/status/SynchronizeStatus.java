@@ -83,6 +83,11 @@ public class SynchronizeStatus
         remoteUsersStatus.setTotalCount( value );
     }
 
+    public void addTotalRemoteUserCount( final int value )
+    {
+        remoteUsersStatus.addTotalCount( value );
+    }
+
     public void userCreated()
     {
         remoteUsersStatus.created();
@@ -117,6 +122,11 @@ public class SynchronizeStatus
         remoteGroupsStatus.setTotalCount( value );
     }
 
+    public void addTotalRemoteGroupCount( final int value )
+    {
+        remoteGroupsStatus.addTotalCount( value );
+    }
+
     public void groupCreated()
     {
         remoteGroupsStatus.created();
@@ -151,6 +161,11 @@ public class SynchronizeStatus
         userMembershipsStatus.setTotalCount( value );
     }
 
+    public void addTotalUserMembershipsCount( final int value )
+    {
+        userMembershipsStatus.addTotalCount( value );
+    }
+
     public void nextUserMemberships()
     {
         userMembershipsStatus.next();
@@ -178,6 +193,11 @@ public class SynchronizeStatus
         groupMembershipsStatus.setTotalCount( value );
     }
 
+    public void addTotalGroupMembershipsCount( final int value )
+    {
+        groupMembershipsStatus.addTotalCount( value );
+    }
+
     public void nextGroupMemberships()
     {
         groupMembershipsStatus.next();
@@ -55,6 +55,33 @@ public class SiteProperties
         return getPropertyAsBoolean( SitePropertyNames.LOGGING_AUTHENTICATION );
     }
 
+    /**
+     * Parallel window rendering is enabled either for the whole site, or for the page templates listed by key.
+     */
+    public boolean getParallelWindowRenderingEnabled( final int pageTemplateKey )
+    {
+        if ( getPropertyAsBoolean( SitePropertyNames.PAGE_PARALLEL_WINDOW_RENDERING ) )
+        {
+            return true;
+        }
+
+        final String pageTemplates = properties.getProperty( SitePropertyNames.PAGE_PARALLEL_WINDOW_RENDERING_PAGE_TEMPLATES );
+        if ( StringUtils.isBlank( pageTemplates ) )
+        {
+            return false;
+        }
+
+        for ( final String key : StringUtils.split( pageTemplates, ", " ) )
+        {
+            if ( key.equals( String.valueOf( pageTemplateKey ) ) )
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     public Integer getPropertyAsInteger( final String key )
     {
         String svalue = StringUtils.trimToNull( properties.getProperty( key ) );
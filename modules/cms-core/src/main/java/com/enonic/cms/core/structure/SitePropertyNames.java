@@ -43,6 +43,10 @@ public class SitePropertyNames
 
     public static final String ENABLE_UNPUBLISHED_CONTENT_PERMALINKS = "cms.site.page.enableUnpublishedContentPermalinks";
 
+    public static final String PAGE_PARALLEL_WINDOW_RENDERING = "cms.site.page.parallelWindowRendering";
+
+    public static final String PAGE_PARALLEL_WINDOW_RENDERING_PAGE_TEMPLATES = "cms.site.page.parallelWindowRendering.pageTemplates";
+
     public static final String SITE_URL = "cms.site.url";
 
     public static final String LOGGING_AUTHENTICATION = "cms.site.logging.authentication";
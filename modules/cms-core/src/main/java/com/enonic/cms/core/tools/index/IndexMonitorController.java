@@ -163,6 +163,9 @@ public final class IndexMonitorController
         model.put( "reindexInProgress", reindexContentToolService.isReIndexInProgress() );
 
         model.put( "reindexError", reindexContentToolService.isLastReindexFailed() );
+        model.put( "reindexCheckpointed", reindexContentToolService.isReindexCheckpointed() );
+        model.put( "reindexedDocuments", reindexContentToolService.getReindexedDocumentCount() );
+        model.put( "reindexDocumentsPerSecond", reindexContentToolService.getReindexDocumentsPerSecond() );
 
         if ( reindexContentToolService.getLastReindexTime() != null )
         {
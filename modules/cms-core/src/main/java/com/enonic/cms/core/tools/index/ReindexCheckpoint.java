@@ -0,0 +1,79 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.core.tools.index;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+import com.enonic.cms.core.content.ContentKey;
+
+/**
+ * File holding the last content key a reindex has completed, including all keys before it. A reindex that is
+ * interrupted resumes after this key.
+ */
+final class ReindexCheckpoint
+{
+    private static final Logger LOG = LoggerFactory.getLogger( ReindexCheckpoint.class );
+
+    private final File file;
+
+    public ReindexCheckpoint( final File file )
+    {
+        this.file = file;
+    }
+
+    public synchronized ContentKey load()
+    {
+        if ( !this.file.exists() )
+        {
+            return null;
+        }
+
+        try
+        {
+            return new ContentKey( Files.toString( this.file, Charsets.UTF_8 ).trim() );
+        }
+        catch ( final Exception e )
+        {
+            LOG.warn( "Failed to read reindex checkpoint [" + this.file.getAbsolutePath() + "], reindexing from start", e );
+            return null;
+        }
+    }
+
+    public synchronized void save( final ContentKey contentKey )
+    {
+        final File tmpFile = new File( this.file.getPath() + ".tmp" );
+
+        try
+        {
+            Files.createParentDirs( this.file );
+            Files.write( contentKey.toString(), tmpFile, Charsets.UTF_8 );
+            Files.move( tmpFile, this.file );
+        }
+        catch ( final IOException e )
+        {
+            LOG.warn( "Failed to write reindex checkpoint [" + this.file.getAbsolutePath() + "]", e );
+        }
+    }
+
+    public synchronized void clear()
+    {
+        if ( this.file.exists() && !this.file.delete() )
+        {
+            LOG.warn( "Failed to delete reindex checkpoint [" + this.file.getAbsolutePath() + "]" );
+        }
+    }
+
+    public synchronized boolean exists()
+    {
+        return this.file.exists();
+    }
+}
@@ -0,0 +1,342 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.core.tools.index;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.Iterables;
+
+import com.enonic.cms.core.content.ContentKey;
+import com.enonic.cms.core.content.IndexService;
+import com.enonic.cms.core.search.ContentIndexBatch;
+import com.enonic.cms.core.search.IndexException;
+import com.enonic.cms.core.search.query.ContentIndexService;
+import com.enonic.cms.store.dao.ContentDao;
+
+/**
+ * Reindexes all content in three stages: the calling thread pages through the content keys in key order, a pool of
+ * document workers loads each batch and creates its documents, and a pool of bulk workers sends the batches to the
+ * index. The stages are connected by bounded queues, so a slow stage holds back the ones before it.
+ * <p/>
+ * Batches complete out of order. The checkpoint is only moved past a batch when all batches before it have completed,
+ * so a reindex resumed from the checkpoint never skips content.
+ */
+final class ReindexContentPipeline
+{
+    private static final Logger LOG = LoggerFactory.getLogger( ReindexContentPipeline.class );
+
+    private static final int MAX_RETRIES = 3;
+
+    private static final int LOG_INTERVAL = 100;
+
+    private final IndexService indexService;
+
+    private final ContentIndexService contentIndexService;
+
+    private final ContentDao contentDao;
+
+    private final ReindexCheckpoint checkpoint;
+
+    private int batchSize = 100;
+
+    private int documentThreads = 1;
+
+    private int bulkThreads = 1;
+
+    private final AtomicLong documentCount = new AtomicLong( 0 );
+
+    private final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+    private final SortedMap<Long, ContentKey> pendingBatches = new TreeMap<Long, ContentKey>();
+
+    private final Set<Long> completedBatches = new HashSet<Long>();
+
+    private volatile long startTime;
+
+    private volatile long endTime;
+
+    public ReindexContentPipeline( final IndexService indexService, final ContentIndexService contentIndexService,
+                                   final ContentDao contentDao, final ReindexCheckpoint checkpoint )
+    {
+        this.indexService = indexService;
+        this.contentIndexService = contentIndexService;
+        this.contentDao = contentDao;
+        this.checkpoint = checkpoint;
+    }
+
+    public void run( final List<String> logEntries )
+    {
+        ContentKey lastKey = this.checkpoint.load();
+        if ( lastKey != null )
+        {
+            logEntries.add( "Resuming reindex after content key " + lastKey );
+        }
+        else
+        {
+            lastKey = new ContentKey( 0 );
+        }
+
+        this.startTime = System.currentTimeMillis();
+
+        final ThreadPoolExecutor documentPool = createPool( "reindex-document", this.documentThreads );
+        final ThreadPoolExecutor bulkPool = createPool( "reindex-bulk", this.bulkThreads );
+
+        long sequence = 0;
+        try
+        {
+            while ( this.failure.get() == null )
+            {
+                final List<ContentKey> contentKeys = this.contentDao.findContentKeysAfter( lastKey, this.batchSize );
+                if ( contentKeys.isEmpty() )
+                {
+                    break;
+                }
+
+                lastKey = contentKeys.get( contentKeys.size() - 1 );
+                registerBatch( sequence, lastKey );
+                documentPool.execute( new DocumentStage( sequence, contentKeys, bulkPool ) );
+
+                if ( ++sequence % LOG_INTERVAL == 0 )
+                {
+                    logEntries.add( "Reindexed " + this.documentCount.get() + " content, " + getDocumentsPerSecond() + " docs/sec" );
+                }
+            }
+        }
+        finally
+        {
+            awaitTermination( documentPool );
+            awaitTermination( bulkPool );
+            this.endTime = System.currentTimeMillis();
+        }
+
+        final Throwable cause = this.failure.get();
+        if ( cause != null )
+        {
+            throw new ReindexContentException( "Reindex failed, it will resume after content key " + this.checkpoint.load(), cause );
+        }
+
+        this.contentIndexService.flush();
+        this.checkpoint.clear();
+
+        logEntries.add( "Reindexed " + this.documentCount.get() + " content, " + getDocumentsPerSecond() + " docs/sec" );
+    }
+
+    private synchronized void registerBatch( final long sequence, final ContentKey lastKey )
+    {
+        this.pendingBatches.put( sequence, lastKey );
+    }
+
+    private synchronized void completeBatch( final long sequence )
+    {
+        this.completedBatches.add( sequence );
+
+        ContentKey completedKey = null;
+        while ( !this.pendingBatches.isEmpty() && this.completedBatches.remove( this.pendingBatches.firstKey() ) )
+        {
+            completedKey = this.pendingBatches.remove( this.pendingBatches.firstKey() );
+        }
+
+        if ( completedKey != null )
+        {
+            this.checkpoint.save( completedKey );
+        }
+    }
+
+    private void fail( final Throwable cause )
+    {
+        if ( this.failure.compareAndSet( null, cause ) )
+        {
+            LOG.error( "Reindex failed", cause );
+        }
+    }
+
+    /**
+     * Number of content reindexed so far.
+     */
+    public long getDocumentCount()
+    {
+        return this.documentCount.get();
+    }
+
+    /**
+     * Average number of content reindexed per second.
+     */
+    public long getDocumentsPerSecond()
+    {
+        final long end = this.endTime > 0 ? this.endTime : System.currentTimeMillis();
+        final long elapsed = end - this.startTime;
+        return elapsed > 0 ? this.documentCount.get() * 1000 / elapsed : 0;
+    }
+
+    public void setBatchSize( final int batchSize )
+    {
+        this.batchSize = Math.max( batchSize, 1 );
+    }
+
+    public void setDocumentThreads( final int documentThreads )
+    {
+        this.documentThreads = Math.max( documentThreads, 1 );
+    }
+
+    public void setBulkThreads( final int bulkThreads )
+    {
+        this.bulkThreads = Math.max( bulkThreads, 1 );
+    }
+
+    private ThreadPoolExecutor createPool( final String name, final int threads )
+    {
+        // a full queue makes the submitting stage do the work itself, which throttles it
+        return new ThreadPoolExecutor( threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>( threads * 2 ),
+                                       new ReindexThreadFactory( name ), new ThreadPoolExecutor.CallerRunsPolicy() );
+    }
+
+    private void awaitTermination( final ThreadPoolExecutor pool )
+    {
+        pool.shutdown();
+
+        try
+        {
+            while ( !pool.awaitTermination( 10, TimeUnit.SECONDS ) )
+            {
+                LOG.debug( "Waiting for " + pool.getActiveCount() + " reindex workers to complete" );
+            }
+        }
+        catch ( final InterruptedException e )
+        {
+            pool.shutdownNow();
+            fail( e );
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private final class DocumentStage
+        implements Runnable
+    {
+        private final long sequence;
+
+        private final List<ContentKey> contentKeys;
+
+        private final ThreadPoolExecutor bulkPool;
+
+        private DocumentStage( final long sequence, final List<ContentKey> contentKeys, final ThreadPoolExecutor bulkPool )
+        {
+            this.sequence = sequence;
+            this.contentKeys = contentKeys;
+            this.bulkPool = bulkPool;
+        }
+
+        @Override
+        public void run()
+        {
+            if ( failure.get() != null )
+            {
+                return;
+            }
+
+            try
+            {
+                final ContentIndexBatch batch = indexService.createIndexBatch( this.contentKeys );
+                this.bulkPool.execute( new BulkStage( this.sequence, batch ) );
+            }
+            catch ( final Throwable e )
+            {
+                fail( e );
+            }
+        }
+    }
+
+    private final class BulkStage
+        implements Runnable
+    {
+        private final long sequence;
+
+        private final ContentIndexBatch batch;
+
+        private BulkStage( final long sequence, final ContentIndexBatch batch )
+        {
+            this.sequence = sequence;
+            this.batch = batch;
+        }
+
+        @Override
+        public void run()
+        {
+            if ( failure.get() != null )
+            {
+                return;
+            }
+
+            try
+            {
+                index();
+                documentCount.addAndGet( this.batch.size() );
+                completeBatch( this.sequence );
+            }
+            catch ( final Throwable e )
+            {
+                fail( e );
+            }
+        }
+
+        private void index()
+        {
+            int retry = 0;
+            while ( true )
+            {
+                try
+                {
+                    contentIndexService.index( this.batch );
+                    return;
+                }
+                catch ( final IndexException e )
+                {
+                    retry++;
+                    if ( retry > MAX_RETRIES )
+                    {
+                        throw e;
+                    }
+
+                    LOG.warn( "Unexpected error indexing batch with keys: " + Iterables.toString( this.batch.getContentKeys() ), e );
+                    LOG.warn( "Retrying (" + retry + ") ..." );
+                }
+            }
+        }
+    }
+
+    private static final class ReindexThreadFactory
+        implements ThreadFactory
+    {
+        private final String name;
+
+        private final AtomicInteger threadNumber = new AtomicInteger( 1 );
+
+        private ReindexThreadFactory( final String name )
+        {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread( final Runnable runnable )
+        {
+            final Thread thread = new Thread( runnable, this.name + "-" + this.threadNumber.getAndIncrement() );
+            thread.setDaemon( true );
+            return thread;
+        }
+    }
+}
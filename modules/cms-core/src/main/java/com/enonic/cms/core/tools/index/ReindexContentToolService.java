@@ -24,4 +24,15 @@ public interface ReindexContentToolService
 
     public boolean isLastReindexFailed();
 
+    /**
+     * Return true if a reindex was interrupted and will resume from its checkpoint.
+     */
+    public boolean isReindexCheckpointed();
+
+    public void clearReindexCheckpoint();
+
+    public long getReindexedDocumentCount();
+
+    public long getReindexDocumentsPerSecond();
+
 }
@@ -4,21 +4,21 @@
  */
 package com.enonic.cms.core.tools.index;
 
+import java.io.File;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.io.Writer;
-import java.util.Collection;
 import java.util.List;
 
 import org.joda.time.DateTime;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import com.enonic.cms.core.content.ContentService;
 import com.enonic.cms.core.content.IndexService;
-import com.enonic.cms.core.content.RegenerateIndexBatcher;
-import com.enonic.cms.core.content.contenttype.ContentTypeEntity;
+import com.enonic.cms.core.search.query.ContentIndexService;
+import com.enonic.cms.store.dao.ContentDao;
 
 @Component
 public class ReindexContentToolServiceImpl
@@ -26,9 +26,19 @@ public class ReindexContentToolServiceImpl
 {
     private IndexService indexService;
 
-    private ContentService contentService;
+    private ContentIndexService contentIndexService;
 
-    protected static final int BATCH_SIZE = 10;
+    private ContentDao contentDao;
+
+    private ReindexCheckpoint checkpoint;
+
+    private int batchSize;
+
+    private int documentThreads;
+
+    private int bulkThreads;
+
+    private volatile ReindexContentPipeline currentPipeline;
 
     private Boolean reIndexInProgress = Boolean.FALSE;
 
@@ -48,20 +58,19 @@ public class ReindexContentToolServiceImpl
         {
             logEntries.add( "Index does not exist, createing..." );
             indexService.createIndex();
+            checkpoint.clear();
         }
 
-        Collection<ContentTypeEntity> contentTypes = contentService.getAllContentTypes();
-
-        logEntries.add( "Generating indexes for " + contentTypes.size() + " content types..." );
+        logEntries.add( "Generating indexes for all content..." );
 
         try
         {
-            doReindexAllContentTypes( logEntries, contentTypes );
+            doReindexAllContent( logEntries );
         }
         catch ( Exception e )
         {
             logEntries.add( "Reindex failed: " + stackTraceLogString( e ) );
-            throw new ReindexContentException( "Reindex all contenttypes failed", e );
+            throw new ReindexContentException( "Reindex all content failed", e );
         }
 
         long globalTimeUsed = ( System.currentTimeMillis() - globalStart );
@@ -71,7 +80,7 @@ public class ReindexContentToolServiceImpl
         this.lastIndexedTime = new DateTime();
         this.lastReindexRuntime = globalTimeUsed;
 
-        logEntries.add( "Reindexing of all content types was successful!" );
+        logEntries.add( "Reindexing of all content was successful!" );
         logEntries.add( "Total time used: " + timeUsed );
 
     }
@@ -92,28 +101,41 @@ public class ReindexContentToolServiceImpl
         return timeUsedSeconds > 240 ? timeUsedSeconds / 60 + " min" : timeUsedSeconds + " sec";
     }
 
-    private void doReindexAllContentTypes( final List<String> logEntries, final Collection<ContentTypeEntity> contentTypes )
+    private void doReindexAllContent( final List<String> logEntries )
     {
-        int count = 1;
-
-        for ( ContentTypeEntity contentType : contentTypes )
-        {
-            final StringBuffer message = new StringBuffer();
-            message.append( "Generating indexes for '" ).append( contentType.getName() ).append( "'" );
-            message.append( " (#" ).append( count++ ).append( " of " ).append( contentTypes.size() ).append( ")..." );
+        final ReindexContentPipeline pipeline = new ReindexContentPipeline( indexService, contentIndexService, contentDao, checkpoint );
+        pipeline.setBatchSize( batchSize );
+        pipeline.setDocumentThreads( documentThreads );
+        pipeline.setBulkThreads( bulkThreads );
 
-            logEntries.add( message.toString() );
-
-            long start = System.currentTimeMillis();
+        this.currentPipeline = pipeline;
+        pipeline.run( logEntries );
+    }
 
-            final RegenerateIndexBatcher batcher = new RegenerateIndexBatcher( indexService, contentService );
+    @Override
+    public boolean isReindexCheckpointed()
+    {
+        return checkpoint.exists();
+    }
 
-            batcher.regenerateIndex( contentType, BATCH_SIZE, logEntries );
+    @Override
+    public void clearReindexCheckpoint()
+    {
+        checkpoint.clear();
+    }
 
-            long end = System.currentTimeMillis();
+    @Override
+    public long getReindexedDocumentCount()
+    {
+        final ReindexContentPipeline pipeline = this.currentPipeline;
+        return pipeline != null ? pipeline.getDocumentCount() : 0;
+    }
 
-            logEntries.add( "... index values generated in " + ( end - start ) + " ms" );
-        }
+    @Override
+    public long getReindexDocumentsPerSecond()
+    {
+        final ReindexContentPipeline pipeline = this.currentPipeline;
+        return pipeline != null ? pipeline.getDocumentsPerSecond() : 0;
     }
 
     @Override
@@ -146,9 +168,39 @@ public class ReindexContentToolServiceImpl
     }
 
     @Autowired
-    public void setContentService( @Qualifier("contentService") ContentService value )
+    public void setContentIndexService( final ContentIndexService contentIndexService )
+    {
+        this.contentIndexService = contentIndexService;
+    }
+
+    @Autowired
+    public void setContentDao( final ContentDao contentDao )
+    {
+        this.contentDao = contentDao;
+    }
+
+    @Value("${cms.index.reindex.checkpoint}")
+    public void setCheckpointFile( final File checkpointFile )
+    {
+        this.checkpoint = new ReindexCheckpoint( checkpointFile );
+    }
+
+    @Value("${cms.index.reindex.batchSize}")
+    public void setBatchSize( final int batchSize )
+    {
+        this.batchSize = batchSize;
+    }
+
+    @Value("${cms.index.reindex.documentThreads}")
+    public void setDocumentThreads( final int documentThreads )
+    {
+        this.documentThreads = documentThreads;
+    }
+
+    @Value("${cms.index.reindex.bulkThreads}")
+    public void setBulkThreads( final int bulkThreads )
     {
-        this.contentService = value;
+        this.bulkThreads = bulkThreads;
     }
 
     public boolean isLastReindexFailed()
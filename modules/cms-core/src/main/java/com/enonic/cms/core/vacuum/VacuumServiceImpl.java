@@ -131,6 +131,12 @@ public final class VacuumServiceImpl
             return ProgressInfo.NONE;
         }
 
+        if ( garbageCollector.isRunning() )
+        {
+            setProgress( "Vacuum blob store... scanned " + garbageCollector.getScannedCount() + " blob(s), deleted " +
+                             garbageCollector.getDeletedCount(), 80 + garbageCollector.getProgress() / 5 );
+        }
+
         return progressInfo;
     }
 
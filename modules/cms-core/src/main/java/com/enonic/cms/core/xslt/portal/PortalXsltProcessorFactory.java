@@ -12,4 +12,10 @@ public interface PortalXsltProcessorFactory
 {
     public PortalXsltProcessor createProcessor( FileResourceName name )
         throws XsltProcessorException;
+
+    /**
+     * Compiles the stylesheet into the templates cache, unless it is cached already.
+     */
+    public void compileTemplates( FileResourceName name )
+        throws XsltProcessorException;
 }
@@ -12,7 +12,6 @@ import javax.xml.transform.TransformerException;
 
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import com.enonic.cms.framework.cache.CacheFacade;
@@ -38,8 +37,6 @@ public final class PortalXsltProcessorFactoryImpl
 
     private CacheFacade cacheFacade;
 
-    private long checkInterval = 5000;
-
     @Autowired
     public void setPortalFunctions( final PortalFunctionsMediator portalFunctions )
     {
@@ -56,6 +53,13 @@ public final class PortalXsltProcessorFactoryImpl
         return new PortalXsltProcessorImpl( transformer );
     }
 
+    @Override
+    public void compileTemplates( final FileResourceName name )
+        throws XsltProcessorException
+    {
+        compileTemplates( name, new XsltTrackingUriResolver( this.resourceLoader ) );
+    }
+
     private XsltTemplatesCacheEntry compileTemplates( final FileResourceName name, final XsltTrackingUriResolver resolver )
         throws XsltProcessorException
     {
@@ -100,16 +104,10 @@ public final class PortalXsltProcessorFactoryImpl
         this.cacheFacade = cacheManager.getXsltCache();
     }
 
-    @Value("${cms.cache.xslt.checkInterval}")
-    public void setCheckInterval( final long checkInterval )
-    {
-        this.checkInterval = checkInterval;
-    }
-
     @Override
     public void afterPropertiesSet()
     {
-        this.templatesCache = new XsltTemplatesCache( this.cacheFacade, this.resourceService, this.checkInterval );
+        this.templatesCache = new XsltTemplatesCache( this.cacheFacade, this.resourceService );
         this.resourceLoader = new XsltResourceLoader( this.resourceService );
     }
 }
@@ -5,16 +5,32 @@
 
 package com.enonic.cms.core.xslt.portal;
 
+import java.util.Map;
+import java.util.Set;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.SetMultimap;
+import com.google.common.collect.Sets;
+
 import com.enonic.cms.framework.cache.CacheFacade;
 
 import com.enonic.cms.core.resource.FileResource;
+import com.enonic.cms.core.resource.FileResourceListener;
 import com.enonic.cms.core.resource.FileResourceName;
 import com.enonic.cms.core.resource.FileResourceService;
 
+/**
+ * Compiled templates by the name of their stylesheet. A reverse index maps each stylesheet, import and include to the
+ * templates compiled from it, so that a change reported by the resource service removes exactly the templates that
+ * depend on the changed resource. Resources are not checked when templates are looked up.
+ * <p/>
+ * Templates are removed through the cache facade, which publishes the eviction to the other nodes in the cluster.
+ */
 final class XsltTemplatesCache
+    implements FileResourceListener
 {
     private final static Logger LOG = LoggerFactory.getLogger( XsltTemplatesCache.class );
 
@@ -22,71 +38,86 @@ final class XsltTemplatesCache
 
     private final FileResourceService resourceService;
 
-    private final long checkInterval;
+    private final SetMultimap<FileResourceName, FileResourceName> dependents = HashMultimap.create();
 
-    public XsltTemplatesCache( final CacheFacade cacheFacade, final FileResourceService resourceService, final long checkInterval )
+    public XsltTemplatesCache( final CacheFacade cacheFacade, final FileResourceService resourceService )
     {
         this.cacheFacade = cacheFacade;
         this.resourceService = resourceService;
-        this.checkInterval = checkInterval;
+        this.resourceService.addResourceListener( this );
     }
 
     public XsltTemplatesCacheEntry get( final FileResourceName name )
     {
-        final XsltTemplatesCacheEntry entry = (XsltTemplatesCacheEntry) this.cacheFacade.get( null, name.toString() );
-        if ( entry == null )
+        return (XsltTemplatesCacheEntry) this.cacheFacade.get( null, name.toString() );
+    }
+
+    public void put( final XsltTemplatesCacheEntry entry )
+    {
+        synchronized ( this.dependents )
         {
-            return null;
+            for ( final FileResourceName name : entry.getResourceSet() )
+            {
+                this.dependents.put( name, entry.getName() );
+            }
         }
 
-        if ( isValid( entry ) )
+        for ( final FileResourceName name : entry.getResourceSet() )
         {
-            return entry;
+            this.resourceService.watchResource( name );
         }
-        else
+
+        this.cacheFacade.put( null, entry.getName().toString(), entry );
+
+        // a resource changed while compiling, before it was watched, is not reported
+        if ( isModifiedAfter( entry ) )
         {
-            this.cacheFacade.remove( null, name.toString() );
-            return null;
+            this.cacheFacade.remove( null, entry.getName().toString() );
         }
     }
 
-    public void put( final XsltTemplatesCacheEntry entry )
+    @Override
+    public void resourceChanged( final FileResourceName name )
     {
-        this.cacheFacade.put( null, entry.getName().toString(), entry );
-    }
+        final Set<FileResourceName> templates = Sets.newHashSet();
 
-    public boolean isValid( final XsltTemplatesCacheEntry entry )
-    {
-        final long now = System.currentTimeMillis();
-        if ( ( now - entry.getLastValidated() ) < this.checkInterval )
+        synchronized ( this.dependents )
         {
-            return true;
+            for ( final Map.Entry<FileResourceName, FileResourceName> entry : this.dependents.entries() )
+            {
+                if ( entry.getKey().isAtOrBelow( name ) )
+                {
+                    templates.add( entry.getValue() );
+                }
+            }
+
+            // the removed templates are indexed again when compiled
+            this.dependents.values().removeAll( templates );
         }
 
-        entry.setLastValidated( now );
-        final boolean flag = isModifiedAfter( entry );
+        for ( final FileResourceName template : templates )
+        {
+            this.cacheFacade.remove( null, template.toString() );
+        }
 
-        LOG.debug( "XsltTemplatesCacheEntry validation took " + ( System.currentTimeMillis() - now ) + " ms and checked " +
-                       entry.getResourceSet().size() + " resources for modifications." );
-        return flag;
+        if ( !templates.isEmpty() )
+        {
+            LOG.debug( "Resource " + name + " changed, removed " + templates.size() + " compiled templates" );
+        }
     }
 
     private boolean isModifiedAfter( final XsltTemplatesCacheEntry entry )
     {
         for ( final FileResourceName name : entry.getResourceSet() )
         {
-            if ( isModifiedAfter( name, entry.getCompileTimestamp() ) )
+            final FileResource resource = this.resourceService.getResource( name );
+            if ( ( resource == null ) || ( resource.getLastModified().getMillis() > entry.getCompileTimestamp() ) )
             {
-                return false;
+                return true;
             }
         }
 
-        return true;
+        return false;
     }
 
-    private boolean isModifiedAfter( final FileResourceName name, final long timestamp )
-    {
-        final FileResource resource = this.resourceService.getResource( name );
-        return ( resource == null ) || ( resource.getLastModified().getMillis() > timestamp );
-    }
 }
@@ -28,8 +28,6 @@ final class XsltTemplatesCacheEntry
 
     private final long timestamp;
 
-    private long lastValidated;
-
     public XsltTemplatesCacheEntry( final FileResourceName name, final Templates templates )
     {
         this.name = name;
@@ -37,7 +35,6 @@ final class XsltTemplatesCacheEntry
         this.timestamp = System.currentTimeMillis();
         this.resourceSet = Sets.newHashSet();
         this.resourceSet.add( this.name );
-        this.lastValidated = this.timestamp;
     }
 
     public FileResourceName getName()
@@ -68,16 +65,6 @@ final class XsltTemplatesCacheEntry
         return this.templates.getOutputProperties();
     }
 
-    public long getLastValidated()
-    {
-        return lastValidated;
-    }
-
-    public void setLastValidated( final long lastValidated )
-    {
-        this.lastValidated = lastValidated;
-    }
-
     public void addIncludes( final Collection<FileResourceName> includes )
     {
         this.resourceSet.addAll( includes );
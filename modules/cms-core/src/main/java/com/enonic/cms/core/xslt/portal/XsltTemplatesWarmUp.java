@@ -0,0 +1,304 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+
+package com.enonic.cms.core.xslt.portal;
+
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.stereotype.Component;
+
+import com.google.common.collect.Sets;
+
+import com.enonic.cms.core.resource.FileResourceName;
+import com.enonic.cms.core.resource.ResourceKey;
+import com.enonic.cms.core.structure.page.template.PageTemplateEntity;
+import com.enonic.cms.core.structure.portlet.PortletEntity;
+import com.enonic.cms.store.dao.PageTemplateDao;
+import com.enonic.cms.store.dao.PortletDao;
+
+/**
+ * Compiles the stylesheets of all page templates and portlets into the templates cache when the application has
+ * started, so the first requests after a restart do not wait for compiling them. The stylesheets are compiled in the
+ * background by a small pool of threads.
+ * <p/>
+ * When readiness is blocked, the node is reported as not ready until all stylesheets are compiled, so a load balancer
+ * can keep traffic away from a cold node.
+ */
+@Component
+public final class XsltTemplatesWarmUp
+    implements ApplicationListener<ContextRefreshedEvent>
+{
+    private final static Logger LOG = LoggerFactory.getLogger( XsltTemplatesWarmUp.class );
+
+    public static final String STATE_DISABLED = "disabled";
+
+    public static final String STATE_PENDING = "pending";
+
+    public static final String STATE_RUNNING = "running";
+
+    public static final String STATE_COMPLETED = "completed";
+
+    private PortalXsltProcessorFactory xsltProcessorFactory;
+
+    private PageTemplateDao pageTemplateDao;
+
+    private PortletDao portletDao;
+
+    private boolean enabled;
+
+    private int threads;
+
+    private boolean blockReadiness;
+
+    private final AtomicBoolean started = new AtomicBoolean( false );
+
+    private volatile String state = STATE_PENDING;
+
+    private volatile int stylesheetCount;
+
+    private final AtomicInteger remainingCount = new AtomicInteger( 0 );
+
+    private final AtomicInteger compiledCount = new AtomicInteger( 0 );
+
+    private final AtomicInteger failedCount = new AtomicInteger( 0 );
+
+    private volatile long startTime;
+
+    private volatile long endTime;
+
+    @Override
+    public void onApplicationEvent( final ContextRefreshedEvent event )
+    {
+        // refresh events are published by the child contexts as well
+        if ( this.started.compareAndSet( false, true ) )
+        {
+            start();
+        }
+    }
+
+    void start()
+    {
+        if ( !this.enabled )
+        {
+            this.state = STATE_DISABLED;
+            return;
+        }
+
+        final Set<FileResourceName> names;
+        try
+        {
+            names = findStylesheets();
+        }
+        catch ( final RuntimeException e )
+        {
+            LOG.warn( "Failed to find stylesheets to compile, skipping warm-up", e );
+            this.state = STATE_COMPLETED;
+            return;
+        }
+
+        this.stylesheetCount = names.size();
+        this.remainingCount.set( names.size() );
+        this.startTime = System.currentTimeMillis();
+        this.state = STATE_RUNNING;
+
+        if ( names.isEmpty() )
+        {
+            complete();
+            return;
+        }
+
+        LOG.info( "Compiling " + names.size() + " stylesheets in the background" );
+
+        final ExecutorService executor = Executors.newFixedThreadPool( Math.min( this.threads, names.size() ), new WarmUpThreadFactory() );
+        for ( final FileResourceName name : names )
+        {
+            executor.execute( new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    compile( name );
+                }
+            } );
+        }
+
+        executor.shutdown();
+    }
+
+    private Set<FileResourceName> findStylesheets()
+    {
+        final Set<FileResourceName> names = Sets.newLinkedHashSet();
+
+        // page templates first, as every page needs one
+        for ( final PageTemplateEntity pageTemplate : this.pageTemplateDao.findAll() )
+        {
+            addStylesheet( names, pageTemplate.getStyleKey() );
+        }
+
+        for ( final PortletEntity portlet : this.portletDao.findAll() )
+        {
+            addStylesheet( names, portlet.getStyleKey() );
+            addStylesheet( names, portlet.getBorderKey() );
+        }
+
+        return names;
+    }
+
+    private void addStylesheet( final Set<FileResourceName> names, final ResourceKey key )
+    {
+        if ( key != null )
+        {
+            names.add( new FileResourceName( key.toString() ) );
+        }
+    }
+
+    private void compile( final FileResourceName name )
+    {
+        try
+        {
+            this.xsltProcessorFactory.compileTemplates( name );
+            this.compiledCount.incrementAndGet();
+        }
+        catch ( final Exception e )
+        {
+            // a broken stylesheet is reported when it is used
+            LOG.warn( "Failed to compile stylesheet " + name + ": " + e.getMessage() );
+            this.failedCount.incrementAndGet();
+        }
+        finally
+        {
+            if ( this.remainingCount.decrementAndGet() == 0 )
+            {
+                complete();
+            }
+        }
+    }
+
+    private void complete()
+    {
+        this.endTime = System.currentTimeMillis();
+        this.state = STATE_COMPLETED;
+
+        LOG.info( "Compiled " + this.compiledCount.get() + " of " + this.stylesheetCount + " stylesheets in " +
+                      ( this.endTime - this.startTime ) + " ms, " + this.failedCount.get() + " failed" );
+    }
+
+    /**
+     * False while the warm-up is pending or running and readiness is blocked.
+     */
+    public boolean isReady()
+    {
+        return !this.blockReadiness || STATE_DISABLED.equals( this.state ) || STATE_COMPLETED.equals( this.state );
+    }
+
+    public String getState()
+    {
+        return this.state;
+    }
+
+    public int getStylesheetCount()
+    {
+        return this.stylesheetCount;
+    }
+
+    public int getCompiledCount()
+    {
+        return this.compiledCount.get();
+    }
+
+    public int getFailedCount()
+    {
+        return this.failedCount.get();
+    }
+
+    /**
+     * Percent of the stylesheets compiled or failed.
+     */
+    public int getProgress()
+    {
+        final int count = this.stylesheetCount;
+        if ( count == 0 )
+        {
+            return STATE_COMPLETED.equals( this.state ) ? 100 : 0;
+        }
+
+        return ( count - this.remainingCount.get() ) * 100 / count;
+    }
+
+    /**
+     * Time in milliseconds the running or completed warm-up has taken.
+     */
+    public long getTime()
+    {
+        if ( this.startTime == 0 )
+        {
+            return 0;
+        }
+
+        final long end = this.endTime > 0 ? this.endTime : System.currentTimeMillis();
+        return end - this.startTime;
+    }
+
+    private static final class WarmUpThreadFactory
+        implements ThreadFactory
+    {
+        private final AtomicInteger threadNumber = new AtomicInteger( 1 );
+
+        @Override
+        public Thread newThread( final Runnable runnable )
+        {
+            final Thread thread = new Thread( runnable, "xslt-warmup-" + this.threadNumber.getAndIncrement() );
+            thread.setDaemon( true );
+            return thread;
+        }
+    }
+
+    @Autowired
+    public void setXsltProcessorFactory( final PortalXsltProcessorFactory xsltProcessorFactory )
+    {
+        this.xsltProcessorFactory = xsltProcessorFactory;
+    }
+
+    @Autowired
+    public void setPageTemplateDao( final PageTemplateDao pageTemplateDao )
+    {
+        this.pageTemplateDao = pageTemplateDao;
+    }
+
+    @Autowired
+    public void setPortletDao( final PortletDao portletDao )
+    {
+        this.portletDao = portletDao;
+    }
+
+    @Value("${cms.xslt.warmUp.enabled}")
+    public void setEnabled( final boolean enabled )
+    {
+        this.enabled = enabled;
+    }
+
+    @Value("${cms.xslt.warmUp.threads}")
+    public void setThreads( final int threads )
+    {
+        this.threads = Math.max( threads, 1 );
+    }
+
+    @Value("${cms.xslt.warmUp.blockReadiness}")
+    public void setBlockReadiness( final boolean blockReadiness )
+    {
+        this.blockReadiness = blockReadiness;
+    }
+}
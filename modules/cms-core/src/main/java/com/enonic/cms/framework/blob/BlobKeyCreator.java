@@ -4,59 +4,67 @@
  */
 package com.enonic.cms.framework.blob;
 
-import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.security.DigestOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
-import com.google.common.io.ByteStreams;
-
 public final class BlobKeyCreator
 {
     private static final String DIGEST = "SHA-1";
 
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     public static BlobKey createKey( final byte[] data )
         throws BlobStoreException
     {
-        return createKey( new ByteArrayInputStream( data ) );
+        final MessageDigest digest = createMessageDigest();
+        digest.update( data );
+        return new BlobKey( digest.digest() );
     }
 
     public static BlobKey createKey( final InputStream in )
         throws BlobStoreException
     {
-        return createKey( in, new OutputStream()
-        {
-            @Override
-            public void write( final int b )
-                throws IOException
-            {
-                // Do nothing
-            }
-        } );
+        return createKey( in, null );
     }
 
+    /**
+     * Create the key while copying the stream to given output, which may be null. Both streams are closed.
+     */
     public static BlobKey createKey( final InputStream in, final OutputStream out )
         throws BlobStoreException
     {
+        final ReadableByteChannel inChannel = newChannel( in );
+        final WritableByteChannel outChannel = out != null ? newChannel( out ) : null;
+
         try
         {
-            final MessageDigest digest = createMessageDigest();
-            final DigestOutputStream digestOut = new DigestOutputStream( out, digest );
-
             try
             {
-                ByteStreams.copy( in, digestOut );
+                return new BlobKey( copy( inChannel, outChannel ) );
             }
             finally
             {
-                digestOut.close();
-                in.close();
+                try
+                {
+                    if ( outChannel != null )
+                    {
+                        outChannel.close();
+                    }
+                }
+                finally
+                {
+                    inChannel.close();
+                }
             }
-
-            return new BlobKey( digest.digest() );
         }
         catch ( IOException e )
         {
@@ -64,6 +72,41 @@ public final class BlobKeyCreator
         }
     }
 
+    private static byte[] copy( final ReadableByteChannel in, final WritableByteChannel out )
+        throws IOException
+    {
+        final MessageDigest digest = createMessageDigest();
+        final ByteBuffer buffer = ByteBuffer.allocate( BUFFER_SIZE );
+
+        while ( in.read( buffer ) != -1 )
+        {
+            buffer.flip();
+            digest.update( buffer.array(), buffer.arrayOffset(), buffer.limit() );
+
+            if ( out != null )
+            {
+                while ( buffer.hasRemaining() )
+                {
+                    out.write( buffer );
+                }
+            }
+
+            buffer.clear();
+        }
+
+        return digest.digest();
+    }
+
+    private static ReadableByteChannel newChannel( final InputStream in )
+    {
+        return in instanceof FileInputStream ? ( (FileInputStream) in ).getChannel() : Channels.newChannel( in );
+    }
+
+    private static WritableByteChannel newChannel( final OutputStream out )
+    {
+        return out instanceof FileOutputStream ? ( (FileOutputStream) out ).getChannel() : Channels.newChannel( out );
+    }
+
     private static MessageDigest createMessageDigest()
     {
         try
@@ -48,6 +48,17 @@ public interface BlobStore
     public Iterable<BlobKey> getAllKeys()
         throws BlobStoreException;
 
+    /**
+     * Get the stored keys starting with the given prefix. Only the records matching the prefix are
+     * visited, so a large store can be walked one prefix at a time.
+     *
+     * @param prefix key prefix
+     * @return the matching keys
+     * @throws IOException if an error occurred
+     */
+    public Iterable<BlobKey> getKeys( String prefix )
+        throws BlobStoreException;
+
     /**
      * Delete blobs from blobstore.
      *
@@ -58,4 +69,16 @@ public interface BlobStore
     public boolean deleteRecord( BlobKey key )
         throws BlobStoreException;
 
+    /**
+     * Delete a blob if it is not modified after the given time. Adding the same stream again marks the blob as
+     * modified, and can not happen between the check and the delete.
+     *
+     * @param key  blob key
+     * @param time time in milliseconds
+     * @return true if deleted, false otherwise
+     * @throws IOException if an error occurred
+     */
+    public boolean deleteRecordIfNotModifiedSince( BlobKey key, long time )
+        throws BlobStoreException;
+
 }
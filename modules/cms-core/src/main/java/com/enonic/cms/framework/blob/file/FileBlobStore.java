@@ -9,7 +9,9 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.locks.Lock;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,6 +19,10 @@ import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.google.common.base.Function;
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.Striped;
+
 import com.enonic.cms.framework.blob.BlobKey;
 import com.enonic.cms.framework.blob.BlobKeyCreator;
 import com.enonic.cms.framework.blob.BlobRecord;
@@ -31,6 +37,10 @@ public final class FileBlobStore
 
     private static final String TMP = "tmp-";
 
+    private static final int LOCK_STRIPES = 64;
+
+    private final Striped<Lock> locks = Striped.lock( LOCK_STRIPES );
+
     private File dir;
 
     @Value("${cms.blobstore.dir}")
@@ -77,17 +87,33 @@ public final class FileBlobStore
         }
     }
 
-    private synchronized BlobRecord addRecord( final BlobKey key, final File tmpFile )
+    private BlobRecord addRecord( final BlobKey key, final File tmpFile )
         throws BlobStoreException
     {
         final File file = getBlobFile( key );
-        if ( !file.exists() )
+        final Lock lock = this.locks.get( key );
+
+        lock.lock();
+        try
         {
-            mkdirs( file.getParentFile(), false );
-            if ( !tmpFile.renameTo( file ) )
+            // the temporary file is in the store directory, so the rename publishes the complete file atomically
+            if ( file.exists() )
             {
-                throw new BlobStoreException( "Failed to rename file [" + key.toString() + "]" );
+                // mark the existing record as recently added, so that it is not garbage collected before it is referenced
+                file.setLastModified( System.currentTimeMillis() );
             }
+            else
+            {
+                mkdirs( file.getParentFile(), false );
+                if ( !tmpFile.renameTo( file ) && !file.exists() )
+                {
+                    throw new BlobStoreException( "Failed to rename file [" + key.toString() + "]" );
+                }
+            }
+        }
+        finally
+        {
+            lock.unlock();
         }
 
         return new FileBlobRecord( key, file );
@@ -95,15 +121,43 @@ public final class FileBlobStore
 
     public Iterable<BlobKey> getAllKeys()
         throws BlobStoreException
+    {
+        final File[] dirs = this.dir.listFiles();
+        if ( dirs == null )
+        {
+            return Collections.emptyList();
+        }
+
+        // list one top level directory at a time, as the whole store may not fit in memory
+        final List<String> prefixes = new ArrayList<String>();
+        for ( final File dir : dirs )
+        {
+            if ( dir.isDirectory() )
+            {
+                prefixes.add( dir.getName() );
+            }
+        }
+
+        return Iterables.concat( Iterables.transform( prefixes, new Function<String, Iterable<BlobKey>>()
+        {
+            public Iterable<BlobKey> apply( final String prefix )
+            {
+                return getKeys( prefix );
+            }
+        } ) );
+    }
+
+    public Iterable<BlobKey> getKeys( final String prefix )
+        throws BlobStoreException
     {
         final ArrayList<File> files = new ArrayList<File>();
-        findFiles( files, this.dir );
+        findFiles( files, getPrefixDirectory( prefix ) );
 
         final ArrayList<BlobKey> identifiers = new ArrayList<BlobKey>();
         for ( final File f : files )
         {
             String name = f.getName();
-            if ( !name.startsWith( TMP ) )
+            if ( !name.startsWith( TMP ) && name.startsWith( prefix ) )
             {
                 identifiers.add( new BlobKey( name ) );
             }
@@ -119,6 +173,24 @@ public final class FileBlobStore
         return delete( file );
     }
 
+    public boolean deleteRecordIfNotModifiedSince( final BlobKey key, final long time )
+        throws BlobStoreException
+    {
+        final File file = getBlobFile( key );
+        final Lock lock = this.locks.get( key );
+
+        // under the lock of addRecord, so the blob is not added again between the check and the delete
+        lock.lock();
+        try
+        {
+            return file.lastModified() <= time && delete( file );
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
     private File getBlobFile( final BlobKey key )
     {
         final String id = key.toString();
@@ -129,6 +201,17 @@ public final class FileBlobStore
         return new File( file, id );
     }
 
+    private File getPrefixDirectory( final String prefix )
+    {
+        File file = this.dir;
+        for ( int i = 0; i + 2 <= prefix.length() && i < 6; i += 2 )
+        {
+            file = new File( file, prefix.substring( i, i + 2 ) );
+        }
+
+        return file;
+    }
+
     private void findFiles( final List<File> list, final File file )
     {
         final File[] files = file.listFiles();
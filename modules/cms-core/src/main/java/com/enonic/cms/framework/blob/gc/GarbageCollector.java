@@ -4,28 +4,56 @@
  */
 package com.enonic.cms.framework.blob.gc;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import com.google.common.collect.Sets;
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
 
 import com.enonic.cms.framework.blob.BlobKey;
 import com.enonic.cms.framework.blob.BlobStore;
 
+/**
+ * Deletes blobs that are not in use. The store is collected one shard at a time, a shard being the keys that start
+ * with the same two hex digits. Only the used keys and the stored keys of one shard are held in memory at once.
+ * <p/>
+ * The next shard to collect is saved to a checkpoint file, so an interrupted collect resumes where it stopped. Blobs
+ * modified within the grace period are kept, as they may belong to content that is not yet committed.
+ */
 @Component("blobStoreGarbageCollector")
 public final class GarbageCollector
 {
     private final static Logger LOG = LoggerFactory.getLogger( GarbageCollector.class );
 
+    private static final int SHARD_COUNT = 256;
+
+    private static final int LOG_INTERVAL = 16;
+
     private BlobStore store;
 
     private UsedBlobKeyFinder finder;
 
-    private boolean running;
+    private File checkpointFile;
+
+    private long pause;
+
+    private long gracePeriod;
+
+    private volatile boolean running;
+
+    private volatile int completedShards;
+
+    private final AtomicLong scannedCount = new AtomicLong( 0 );
+
+    private final AtomicLong deletedCount = new AtomicLong( 0 );
 
     @Autowired
     public void setStore( final BlobStore store )
@@ -39,18 +67,38 @@ public final class GarbageCollector
         this.finder = finder;
     }
 
-    private int deleteUnused()
+    @Value("${cms.blobstore.gc.checkpoint}")
+    public void setCheckpointFile( final File checkpointFile )
+    {
+        this.checkpointFile = checkpointFile;
+    }
+
+    @Value("${cms.blobstore.gc.pause}")
+    public void setPause( final long pause )
+    {
+        this.pause = pause;
+    }
+
+    @Value("${cms.blobstore.gc.gracePeriod}")
+    public void setGracePeriod( final long gracePeriod )
+    {
+        this.gracePeriod = gracePeriod;
+    }
+
+    private void deleteUnused( final String prefix, final long startTime )
         throws Exception
     {
-        final Set<BlobKey> keys = Sets.newHashSet( this.store.getAllKeys() );
-        keys.removeAll( this.finder.findKeys() );
+        final Set<BlobKey> used = this.finder.findKeys( prefix );
 
-        for ( final BlobKey key : keys )
+        for ( final BlobKey key : this.store.getKeys( prefix ) )
         {
-            this.store.deleteRecord( key );
-        }
+            this.scannedCount.incrementAndGet();
 
-        return keys.size();
+            if ( !used.contains( key ) && this.store.deleteRecordIfNotModifiedSince( key, startTime - this.gracePeriod ) )
+            {
+                this.deletedCount.incrementAndGet();
+            }
+        }
     }
 
     public void process()
@@ -80,12 +128,117 @@ public final class GarbageCollector
         throws Exception
     {
         final long now = System.currentTimeMillis();
-        LOG.debug( "Starting blob store garbage collect" );
+        final int firstShard = loadCheckpoint();
+
+        this.completedShards = firstShard;
+        this.scannedCount.set( 0 );
+        this.deletedCount.set( 0 );
+
+        if ( firstShard > 0 )
+        {
+            LOG.info( "Resuming blob store garbage collect at shard " + firstShard + " of " + SHARD_COUNT );
+        }
+        else
+        {
+            LOG.debug( "Starting blob store garbage collect" );
+        }
+
+        for ( int shard = firstShard; shard < SHARD_COUNT; shard++ )
+        {
+            deleteUnused( String.format( "%02x", shard ), now );
+
+            this.completedShards = shard + 1;
+            saveCheckpoint( shard + 1 );
+
+            if ( this.completedShards % LOG_INTERVAL == 0 )
+            {
+                LOG.info( "Garbage collected " + this.completedShards + " of " + SHARD_COUNT + " shards, scanned " +
+                              this.scannedCount.get() + " blob(s), deleted " + this.deletedCount.get() );
+            }
+
+            if ( this.pause > 0 && this.completedShards < SHARD_COUNT )
+            {
+                Thread.sleep( this.pause );
+            }
+        }
 
-        final int deleted = deleteUnused();
-        LOG.debug( "Deleted " + deleted + " blob(s) that was not in use" );
+        clearCheckpoint();
 
         final long totalTime = System.currentTimeMillis() - now;
-        LOG.info( "Garbage collected " + deleted + " blob(s) in " + totalTime + " ms" );
+        LOG.info( "Garbage collected " + this.deletedCount.get() + " of " + this.scannedCount.get() + " blob(s) in " + totalTime + " ms" );
+    }
+
+    private int loadCheckpoint()
+    {
+        if ( this.checkpointFile == null || !this.checkpointFile.exists() )
+        {
+            return 0;
+        }
+
+        try
+        {
+            final int shard = Integer.parseInt( Files.toString( this.checkpointFile, Charsets.UTF_8 ).trim() );
+            return shard >= 0 && shard < SHARD_COUNT ? shard : 0;
+        }
+        catch ( final Exception e )
+        {
+            LOG.warn( "Failed to read blob store garbage collect checkpoint [" + this.checkpointFile.getAbsolutePath() + "]", e );
+            return 0;
+        }
+    }
+
+    private void saveCheckpoint( final int shard )
+    {
+        if ( this.checkpointFile == null )
+        {
+            return;
+        }
+
+        try
+        {
+            Files.createParentDirs( this.checkpointFile );
+            Files.write( String.valueOf( shard ), this.checkpointFile, Charsets.UTF_8 );
+        }
+        catch ( final IOException e )
+        {
+            LOG.warn( "Failed to write blob store garbage collect checkpoint [" + this.checkpointFile.getAbsolutePath() + "]", e );
+        }
+    }
+
+    private void clearCheckpoint()
+    {
+        if ( this.checkpointFile != null && this.checkpointFile.exists() && !this.checkpointFile.delete() )
+        {
+            LOG.warn( "Failed to delete blob store garbage collect checkpoint [" + this.checkpointFile.getAbsolutePath() + "]" );
+        }
+    }
+
+    public boolean isRunning()
+    {
+        return this.running;
+    }
+
+    /**
+     * Percent of the shards collected by the running or last garbage collect.
+     */
+    public int getProgress()
+    {
+        return this.completedShards * 100 / SHARD_COUNT;
+    }
+
+    /**
+     * Number of blobs scanned by the running or last garbage collect.
+     */
+    public long getScannedCount()
+    {
+        return this.scannedCount.get();
+    }
+
+    /**
+     * Number of blobs deleted by the running or last garbage collect.
+     */
+    public long getDeletedCount()
+    {
+        return this.deletedCount.get();
     }
 }
@@ -10,6 +10,9 @@ import com.enonic.cms.framework.blob.BlobKey;
 
 public interface UsedBlobKeyFinder
 {
-    public Set<BlobKey> findKeys()
+    /**
+     * Find the used keys starting with the given prefix.
+     */
+    public Set<BlobKey> findKeys( String prefix )
         throws Exception;
 }
@@ -19,6 +19,11 @@ public interface CacheFacade
      */
     public int getMemoryCapacity();
 
+    /**
+     * Return the memory capacity in bytes. 0 if the capacity is counted in entries.
+     */
+    public long getMemoryCapacityBytes();
+
     /**
      * Return the time to live in seconds. 0 if eternal cache.
      */
@@ -61,6 +66,17 @@ public interface CacheFacade
      */
     public void removeAll();
 
+    /**
+     * Generation of the cache, changed every time the cache is cleared, also when cleared by another cluster node.
+     */
+    public long getGeneration();
+
+    /**
+     * Put an entry computed when the cache was at the given generation. The entry is not kept if the cache has been
+     * cleared since, as it may be computed from stale data.
+     */
+    public void putUnlessCleared( String group, String key, Object value, long generation );
+
     /**
      * Number of times a requested item was found in cache.
      */
@@ -91,6 +107,16 @@ public interface CacheFacade
      */
     public int getCount();
 
+    /**
+     * Return the estimated size of objects in cache in bytes. 0 if the capacity is counted in entries.
+     */
+    public long getSizeInBytes();
+
+    /**
+     * Number of objects evicted because the cache was full.
+     */
+    public long getEvictionCount();
+
     /**
      * Clears the statistics.
      */
@@ -24,4 +24,8 @@ public interface CacheManager
     public CacheFacade getPageCache();
 
     public CacheFacade getXsltCache();
+
+    public CacheFacade getDatasourceCache();
+
+    public CacheFacade getMembershipCache();
 }
@@ -24,6 +24,8 @@ public abstract class AbstractCacheFacade
 
     private final AtomicInteger removeAllCount;
 
+    private final AtomicLong generation;
+
     private CacheEventPublisher eventPublisher;
 
     public AbstractCacheFacade()
@@ -31,6 +33,7 @@ public abstract class AbstractCacheFacade
         this.hitCount = new AtomicLong( 0 );
         this.missCount = new AtomicLong( 0 );
         this.removeAllCount = new AtomicInteger( 0 );
+        this.generation = new AtomicLong( 0 );
     }
 
     @Override
@@ -45,6 +48,12 @@ public abstract class AbstractCacheFacade
         return this.config.getMemoryCapacity();
     }
 
+    @Override
+    public final long getMemoryCapacityBytes()
+    {
+        return this.config.getMemoryCapacityBytes();
+    }
+
     @Override
     public final int getTimeToLive()
     {
@@ -66,6 +75,11 @@ public abstract class AbstractCacheFacade
     @Override
     public final int getMemoryCapacityUsage()
     {
+        if ( getMemoryCapacityBytes() > 0 )
+        {
+            return (int) ( 100L * getSizeInBytes() / getMemoryCapacityBytes() );
+        }
+
         if ( getMemoryCapacity() == 0 )
         {
             return 0;
@@ -139,6 +153,25 @@ public abstract class AbstractCacheFacade
         }
     }
 
+    @Override
+    public final void putUnlessCleared( final String group, final String key, final Object value, final long generation )
+    {
+        final String compositeKey = createCompositeKey( group, key );
+        doPut( compositeKey, value, this.config.getTimeToLive() );
+
+        // checked after the put, so the entry is either removed here or by the clear that changed the generation
+        if ( this.generation.get() != generation )
+        {
+            doRemove( compositeKey );
+        }
+    }
+
+    @Override
+    public final long getGeneration()
+    {
+        return this.generation.get();
+    }
+
     @Override
     public final void remove( String group, String key )
     {
@@ -164,7 +197,7 @@ public abstract class AbstractCacheFacade
     @Override
     public final void removeAll()
     {
-        doRemoveAll();
+        clear();
 
         removeAllCount.incrementAndGet();
         clearStatistics();
@@ -172,6 +205,12 @@ public abstract class AbstractCacheFacade
         this.eventPublisher.publishEvictAll( this.name );
     }
 
+    final void clear()
+    {
+        this.generation.incrementAndGet();
+        doRemoveAll();
+    }
+
     private String createCompositeKey( final String group, final String key )
     {
         if ( group != null )
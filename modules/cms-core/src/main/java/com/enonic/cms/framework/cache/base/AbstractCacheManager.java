@@ -91,7 +91,7 @@ public abstract class AbstractCacheManager
         final AbstractCacheFacade cache = this.cacheMap.get( cacheName );
         if ( cache != null )
         {
-            cache.doRemoveAll();
+            cache.clear();
         }
     }
 
@@ -161,6 +161,18 @@ public abstract class AbstractCacheManager
         return getCache( "xslt" );
     }
 
+    @Override
+    public final CacheFacade getDatasourceCache()
+    {
+        return getCache( "datasource" );
+    }
+
+    @Override
+    public final CacheFacade getMembershipCache()
+    {
+        return getCache( "membership" );
+    }
+
     @Override
     public void afterPropertiesSet()
     {
@@ -169,5 +181,7 @@ public abstract class AbstractCacheManager
         createCache( "image" );
         createCache( "xslt" );
         createCache( "localization" );
+        createCache( "datasource" );
+        createCache( "membership" );
     }
 }
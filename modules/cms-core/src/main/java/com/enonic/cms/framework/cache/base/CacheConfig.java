@@ -19,10 +19,27 @@ public final class CacheConfig
      */
     private final int timeToLive;
 
+    /**
+     * Memory capacity in bytes. 0 if capacity is counted in entries.
+     */
+    private final long memoryCapacityBytes;
+
+    /**
+     * True if byte[] and serializable values should be stored outside the java heap.
+     */
+    private final boolean offHeap;
+
     public CacheConfig( final int memoryCapacity, final int timeToLive )
+    {
+        this( memoryCapacity, timeToLive, 0, false );
+    }
+
+    public CacheConfig( final int memoryCapacity, final int timeToLive, final long memoryCapacityBytes, final boolean offHeap )
     {
         this.memoryCapacity = memoryCapacity;
         this.timeToLive = timeToLive;
+        this.memoryCapacityBytes = memoryCapacityBytes;
+        this.offHeap = offHeap;
     }
 
     public int getMemoryCapacity()
@@ -34,4 +51,19 @@ public final class CacheConfig
     {
         return this.timeToLive;
     }
+
+    public long getMemoryCapacityBytes()
+    {
+        return this.memoryCapacityBytes;
+    }
+
+    public boolean isByteWeighted()
+    {
+        return this.memoryCapacityBytes > 0;
+    }
+
+    public boolean isOffHeap()
+    {
+        return this.offHeap;
+    }
 }
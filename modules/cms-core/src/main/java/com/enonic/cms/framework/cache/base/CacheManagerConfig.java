@@ -44,10 +44,31 @@ final class CacheManagerConfig
         }
     }
 
+    private long getLongProperty( final String key, final long defValue )
+    {
+        final String value = getProperty( key, String.valueOf( defValue ) );
+
+        try
+        {
+            return Long.parseLong( value.trim() );
+        }
+        catch ( final Exception e )
+        {
+            return defValue;
+        }
+    }
+
+    private boolean getBooleanProperty( final String key, final boolean defValue )
+    {
+        return Boolean.valueOf( getProperty( key, String.valueOf( defValue ) ).trim() );
+    }
+
     public CacheConfig getCacheConfig( final String name )
     {
         final int memoryCapacity = getIntegerProperty( name + ".memoryCapacity", DEFAULT_MEMORY_CAPACITY );
         final int timeToLive = getIntegerProperty( name + ".timeToLive", DEFAULT_TIME_TO_LIVE );
+        final long memoryCapacityBytes = getLongProperty( name + ".memoryCapacityBytes", 0 );
+        final boolean offHeap = getBooleanProperty( name + ".offHeap", false );
         if ( "entity".equalsIgnoreCase( name ) )
         {
             if ( timeToLive != 0 )
@@ -57,6 +78,12 @@ final class CacheManagerConfig
             }
         }
 
-        return new CacheConfig( memoryCapacity, timeToLive );
+        if ( offHeap && memoryCapacityBytes <= 0 )
+        {
+            throw new IllegalArgumentException( "Off-heap storage requires a capacity in bytes. " +
+                                                    "Please set property 'cms.cache." + name + ".memoryCapacityBytes' in cms.properties." );
+        }
+
+        return new CacheConfig( memoryCapacity, timeToLive, memoryCapacityBytes, offHeap );
     }
 }
@@ -8,6 +8,7 @@ package com.enonic.cms.framework.cache.standard;
  * This class implements the cache entry.
  */
 final class CacheEntry
+    implements CacheEntryHolder
 {
     /**
      * Cache key.
@@ -53,9 +54,45 @@ final class CacheEntry
      */
     public Object getValue()
     {
+        if ( this.value instanceof OffHeapValue )
+        {
+            return ( (OffHeapValue) this.value ).getValue();
+        }
+
         return this.value;
     }
 
+    /**
+     * Return the value as it is stored.
+     */
+    Object getStoredValue()
+    {
+        return this.value;
+    }
+
+    /**
+     * Return a copy of this entry with the value stored off-heap, or this entry if the value cannot be stored off-heap.
+     */
+    public CacheEntry toOffHeap()
+    {
+        if ( this.value instanceof OffHeapValue )
+        {
+            return this;
+        }
+
+        final OffHeapValue offHeapValue = OffHeapValue.create( this.value );
+        return offHeapValue != null ? new CacheEntry( this.key, offHeapValue, this.timeToLive ) : this;
+    }
+
+    /**
+     * Return this entry. Entries referenced directly from the cache are never reclaimed.
+     */
+    @Override
+    public CacheEntry getEntry()
+    {
+        return this;
+    }
+
     /**
      * Update last access time.
      */
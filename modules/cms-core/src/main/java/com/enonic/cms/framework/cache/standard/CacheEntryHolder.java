@@ -0,0 +1,16 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.framework.cache.standard;
+
+/**
+ * This interface defines how a cache entry is referenced from the cache map.
+ */
+interface CacheEntryHolder
+{
+    /**
+     * Return the entry or null if it has been reclaimed.
+     */
+    public CacheEntry getEntry();
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.framework.cache.standard;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+
+import com.googlecode.concurrentlinkedhashmap.Weigher;
+
+/**
+ * Weighs cache entries by their estimated size. Weights are given in units of {@link #UNIT_SIZE} bytes so that
+ * capacities above 2 GB still fit the integer weights of the map.
+ */
+final class CacheEntryWeigher
+    implements Weigher<CacheEntryHolder>
+{
+    public final static int UNIT_SIZE = 1024;
+
+    private final static int DEFAULT_SIZE = UNIT_SIZE;
+
+    @Override
+    public int weightOf( final CacheEntryHolder holder )
+    {
+        final CacheEntry entry = holder.getEntry();
+        if ( entry == null )
+        {
+            return 1;
+        }
+
+        final long size = sizeOf( entry );
+        return (int) Math.max( 1, Math.min( Integer.MAX_VALUE, ( size + UNIT_SIZE - 1 ) / UNIT_SIZE ) );
+    }
+
+    public static int toUnits( final long bytes )
+    {
+        return (int) Math.max( 1, Math.min( Integer.MAX_VALUE, bytes / UNIT_SIZE ) );
+    }
+
+    static long sizeOf( final CacheEntry entry )
+    {
+        return 2L * entry.getKey().length() + sizeOf( entry.getStoredValue() );
+    }
+
+    static long sizeOf( final Object value )
+    {
+        if ( value instanceof OffHeapValue )
+        {
+            return ( (OffHeapValue) value ).getSize();
+        }
+
+        if ( value instanceof byte[] )
+        {
+            return ( (byte[]) value ).length;
+        }
+
+        if ( value instanceof String )
+        {
+            return 2L * ( (String) value ).length();
+        }
+
+        if ( value instanceof Serializable )
+        {
+            return serializedSizeOf( value );
+        }
+
+        return DEFAULT_SIZE;
+    }
+
+    private static long serializedSizeOf( final Object value )
+    {
+        final CountingOutputStream counter = new CountingOutputStream();
+
+        try
+        {
+            final ObjectOutputStream out = new ObjectOutputStream( counter );
+            out.writeObject( value );
+            out.close();
+            return counter.count;
+        }
+        catch ( final IOException e )
+        {
+            return DEFAULT_SIZE;
+        }
+    }
+
+    private final static class CountingOutputStream
+        extends OutputStream
+    {
+        private long count = 0;
+
+        @Override
+        public void write( final int b )
+        {
+            this.count++;
+        }
+
+        @Override
+        public void write( final byte[] b, final int off, final int len )
+        {
+            this.count += len;
+        }
+    }
+}
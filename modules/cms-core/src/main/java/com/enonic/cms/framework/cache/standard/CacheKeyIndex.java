@@ -0,0 +1,66 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.framework.cache.standard;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Sorted index over the composite keys of a cache. Keys sharing a prefix (and therefore a group) are stored next
+ * to each other, so looking up a group costs a log(n) seek plus the size of the group instead of a full scan.
+ * <p/>
+ * The index is allowed to hold keys that are no longer in the cache, but never the other way around. Callers must
+ * therefore add a key after it has been put into the cache, and remove it before it is removed from the cache.
+ */
+final class CacheKeyIndex
+{
+    private final ConcurrentSkipListSet<String> keys;
+
+    public CacheKeyIndex()
+    {
+        this.keys = new ConcurrentSkipListSet<String>();
+    }
+
+    public void add( final String key )
+    {
+        this.keys.add( key );
+    }
+
+    public void remove( final String key )
+    {
+        this.keys.remove( key );
+    }
+
+    public void clear()
+    {
+        this.keys.clear();
+    }
+
+    public int size()
+    {
+        return this.keys.size();
+    }
+
+    /**
+     * Return all indexed keys that start with given prefix.
+     */
+    public Set<String> getByPrefix( final String prefix )
+    {
+        final HashSet<String> result = new HashSet<String>();
+
+        for ( final String key : this.keys.tailSet( prefix ) )
+        {
+            if ( !key.startsWith( prefix ) )
+            {
+                break;
+            }
+
+            result.add( key );
+        }
+
+        return result;
+    }
+}
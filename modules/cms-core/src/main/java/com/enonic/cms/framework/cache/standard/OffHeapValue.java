@@ -0,0 +1,133 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.framework.cache.standard;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Charsets;
+
+/**
+ * Cache value stored in a direct buffer outside the java heap. Byte arrays and strings are stored as is, other
+ * serializable values are stored in serialized form and deserialized on every read.
+ */
+final class OffHeapValue
+{
+    private static final Logger LOG = LoggerFactory.getLogger( OffHeapValue.class );
+
+    private final static byte TYPE_BYTES = 0;
+
+    private final static byte TYPE_STRING = 1;
+
+    private final static byte TYPE_OBJECT = 2;
+
+    private final byte type;
+
+    private final ByteBuffer buffer;
+
+    private OffHeapValue( final byte type, final byte[] data )
+    {
+        this.type = type;
+        this.buffer = ByteBuffer.allocateDirect( data.length );
+        this.buffer.put( data );
+        this.buffer.flip();
+    }
+
+    /**
+     * Return the value as an off-heap value, or null if the value cannot be stored off-heap.
+     */
+    public static OffHeapValue create( final Object value )
+    {
+        if ( value instanceof byte[] )
+        {
+            return new OffHeapValue( TYPE_BYTES, (byte[]) value );
+        }
+
+        if ( value instanceof String )
+        {
+            return new OffHeapValue( TYPE_STRING, ( (String) value ).getBytes( Charsets.UTF_8 ) );
+        }
+
+        if ( value instanceof Serializable )
+        {
+            final byte[] data = serialize( value );
+            return data != null ? new OffHeapValue( TYPE_OBJECT, data ) : null;
+        }
+
+        return null;
+    }
+
+    /**
+     * Return number of bytes stored off-heap.
+     */
+    public int getSize()
+    {
+        return this.buffer.capacity();
+    }
+
+    /**
+     * Return a copy of the value, or null if it could not be restored.
+     */
+    public Object getValue()
+    {
+        final byte[] data = new byte[this.buffer.capacity()];
+        this.buffer.duplicate().get( data );
+
+        switch ( this.type )
+        {
+            case TYPE_BYTES:
+                return data;
+            case TYPE_STRING:
+                return new String( data, Charsets.UTF_8 );
+            default:
+                return deserialize( data );
+        }
+    }
+
+    private static byte[] serialize( final Object value )
+    {
+        try
+        {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final ObjectOutputStream out = new ObjectOutputStream( bytes );
+            out.writeObject( value );
+            out.close();
+            return bytes.toByteArray();
+        }
+        catch ( final Exception e )
+        {
+            LOG.debug( "Could not serialize value of type [" + value.getClass().getName() + "], keeping it on heap", e );
+            return null;
+        }
+    }
+
+    private static Object deserialize( final byte[] data )
+    {
+        try
+        {
+            final ObjectInputStream in = new ObjectInputStream( new ByteArrayInputStream( data ) );
+            try
+            {
+                return in.readObject();
+            }
+            finally
+            {
+                in.close();
+            }
+        }
+        catch ( final Exception e )
+        {
+            LOG.warn( "Could not deserialize off-heap cache value", e );
+            return null;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.framework.cache.standard;
+
+import java.lang.ref.SoftReference;
+
+/**
+ * Holds the entry through a soft reference so that it may be reclaimed under memory pressure.
+ */
+final class SoftCacheEntryHolder
+    extends SoftReference<CacheEntry>
+    implements CacheEntryHolder
+{
+    public SoftCacheEntryHolder( final CacheEntry entry )
+    {
+        super( entry );
+    }
+
+    @Override
+    public CacheEntry getEntry()
+    {
+        return get();
+    }
+}
@@ -4,28 +4,62 @@
  */
 package com.enonic.cms.framework.cache.standard;
 
-import java.lang.ref.SoftReference;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
 import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap.Builder;
+import com.googlecode.concurrentlinkedhashmap.EvictionListener;
+
+import com.enonic.cms.framework.cache.base.CacheConfig;
 
 
 /**
- * Our standard cache that uses the LRU eviction method.
+ * Our standard cache that uses the LRU eviction method. Capacity is either counted in entries, where values are
+ * softly referenced, or in bytes, where values are strongly referenced and weighed by their estimated size.
  */
 final class StandardCache
 {
     private final int maxEntries;
 
-    private final ConcurrentLinkedHashMap<String, SoftReference<CacheEntry>> map;
+    private final boolean byteWeighted;
+
+    private final boolean offHeap;
+
+    private final ConcurrentLinkedHashMap<String, CacheEntryHolder> map;
+
+    private final CacheKeyIndex keyIndex;
+
+    private final AtomicLong evictionCount;
 
     public StandardCache( final int maxEntries )
     {
-        this.map = new Builder<String, SoftReference<CacheEntry>>().maximumWeightedCapacity( maxEntries ).build();
-        this.maxEntries = maxEntries;
+        this( new CacheConfig( maxEntries, 0 ) );
+    }
+
+    public StandardCache( final CacheConfig config )
+    {
+        this.maxEntries = config.getMemoryCapacity();
+        this.byteWeighted = config.isByteWeighted();
+        this.offHeap = config.isOffHeap();
+        this.keyIndex = new CacheKeyIndex();
+        this.evictionCount = new AtomicLong( 0 );
+
+        final Builder<String, CacheEntryHolder> builder = new Builder<String, CacheEntryHolder>();
+        builder.listener( new KeyIndexEvictionListener() );
+
+        if ( this.byteWeighted )
+        {
+            builder.maximumWeightedCapacity( CacheEntryWeigher.toUnits( config.getMemoryCapacityBytes() ) );
+            builder.weigher( new CacheEntryWeigher() );
+        }
+        else
+        {
+            builder.maximumWeightedCapacity( this.maxEntries );
+        }
+
+        this.map = builder.build();
     }
 
     public int getMaxEntries()
@@ -40,6 +74,16 @@ final class StandardCache
         return map.size();
     }
 
+    public long getSizeInBytes()
+    {
+        return byteWeighted ? (long) map.weightedSize() * CacheEntryWeigher.UNIT_SIZE : 0;
+    }
+
+    public long getEvictionCount()
+    {
+        return evictionCount.get();
+    }
+
     protected Set<String> getKeys()
     {
         // this method is only used in tests
@@ -49,13 +93,13 @@ final class StandardCache
     public CacheEntry get( String key )
     {
 
-        SoftReference referenceWrapper = doGet( key );
-        if ( referenceWrapper == null )
+        CacheEntryHolder holder = doGet( key );
+        if ( holder == null )
         {
             return null;
         }
 
-        CacheEntry entry = (CacheEntry) referenceWrapper.get();
+        CacheEntry entry = holder.getEntry();
 
         if ( entry == null || entry.isExpired() )
         {
@@ -111,39 +155,59 @@ final class StandardCache
         }
     }
 
-    private SoftReference doGet( String key )
+    private CacheEntryHolder doGet( String key )
     {
         return map.get( key );
     }
 
     private void doPut( CacheEntry entry )
     {
-        map.put( entry.getKey(), new SoftReference<CacheEntry>( entry ) );
+        // index after the map so that the index never misses a key that is in the map
+        map.put( entry.getKey(), createHolder( entry ) );
+        keyIndex.add( entry.getKey() );
+    }
+
+    private CacheEntryHolder createHolder( CacheEntry entry )
+    {
+        if ( !byteWeighted )
+        {
+            return new SoftCacheEntryHolder( entry );
+        }
+
+        return offHeap ? entry.toOffHeap() : entry;
     }
 
     private void doRemove( String key )
     {
+        keyIndex.remove( key );
         map.remove( key );
     }
 
     private void doRemoveAll()
     {
+        keyIndex.clear();
         map.clear();
     }
 
     private Set<String> doGetByPrefix( String prefix )
     {
+        return keyIndex.getByPrefix( prefix );
+    }
 
-        HashSet<String> keys = new HashSet<String>();
-
-        for ( String key : map.keySet() )
+    private final class KeyIndexEvictionListener
+        implements EvictionListener<String, CacheEntryHolder>
+    {
+        @Override
+        public void onEviction( final String key, final CacheEntryHolder value )
         {
-            if ( key.startsWith( prefix ) )
+            evictionCount.incrementAndGet();
+            keyIndex.remove( key );
+
+            // the key may have been put again while it was being evicted
+            if ( map.containsKey( key ) )
             {
-                keys.add( key );
+                keyIndex.add( key );
             }
         }
-
-        return keys;
     }
 }
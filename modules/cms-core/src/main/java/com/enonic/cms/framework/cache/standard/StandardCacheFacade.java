@@ -42,6 +42,18 @@ final class StandardCacheFacade
         return this.peer.numberOfEntries();
     }
 
+    @Override
+    public long getSizeInBytes()
+    {
+        return this.peer.getSizeInBytes();
+    }
+
+    @Override
+    public long getEvictionCount()
+    {
+        return this.peer.getEvictionCount();
+    }
+
     @Override
     protected void doRemove( final String compositeKey )
     {
@@ -20,7 +20,7 @@ public final class StandardCacheManager
     @Override
     protected AbstractCacheFacade doCreateCache( final CacheConfig config )
     {
-        final StandardCache cache = new StandardCache( config.getMemoryCapacity() );
+        final StandardCache cache = new StandardCache( config );
         return new StandardCacheFacade( cache );
     }
 }
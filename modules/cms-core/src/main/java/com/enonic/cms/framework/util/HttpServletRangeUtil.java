@@ -1,9 +1,12 @@
 package com.enonic.cms.framework.util;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.zip.GZIPOutputStream;
@@ -23,6 +26,14 @@ public class HttpServletRangeUtil
     private static final int DEFAULT_BUFFER_SIZE = 1<<15; // 32Kb
     private static final String SEPARATOR = "THIS_STRING_SEPARATES";
 
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
     /**
      * Process the range request.
      *
@@ -103,7 +114,7 @@ public class HttpServletRangeUtil
 
 
         // V. Process download
-        processDownload( response, contentType, file, ranges, acceptGzip );
+        processDownload( request, response, contentType, file, ranges, acceptGzip );
     }
 
     private static int checkRequestedFile( final HttpServletRequest request )
@@ -234,7 +245,7 @@ public class HttpServletRangeUtil
 
                     if ( start == -1 )
                     {
-                        start = length - end;
+                        start = Math.max( length - end, 0 );
                         end = length - 1;
                     }
                     else if ( end == -1 || end > length - 1 )
@@ -298,51 +309,60 @@ public class HttpServletRangeUtil
         return acceptsGzip;
     }
 
-    private static void processDownload( final HttpServletResponse response, final String contentType, final File file, final List<Range> ranges, final boolean acceptGzip )
+    private static void processDownload( final HttpServletRequest request, final HttpServletResponse response, final String contentType,
+                                         final File file, final List<Range> ranges, final boolean acceptGzip )
         throws IOException
     {
-        RandomAccessFile input = null;
+        final Range root = new Range( 0, file.length() - 1, file.length() );
+        final boolean whole = ranges.isEmpty() || ranges.get( 0 ).isRoot( file.length() );
+
+        if ( whole || ranges.size() == 1 )
+        {
+            final Range section = whole ? root : ranges.get( 0 );
+
+            response.setContentType( contentType );
+            if ( !whole )
+            {
+                response.setStatus( HttpServletResponse.SC_PARTIAL_CONTENT );
+            }
+
+            final String header = String.format( "bytes %d-%d/%d", section.getStart(), section.getEnd(), section.getTotal() );
+            response.setHeader( HttpHeaders.CONTENT_RANGE, header );
+
+            if ( !whole || !acceptGzip )
+            {
+                response.setHeader( HttpHeaders.CONTENT_LENGTH, String.valueOf( section.getLength() ) );
+
+                if ( sendFile( request, file, section ) )
+                {
+                    return;
+                }
+            }
+        }
+
+        FileChannel input = null;
         OutputStream output = null;
 
         try
         {
-            input = new RandomAccessFile( file, "r" );
+            input = new FileInputStream( file ).getChannel();
             output = response.getOutputStream();
 
-            if ( ranges.isEmpty() || ranges.get( 0 ).isRoot( file.length() ) )
+            if ( whole )
             {
-
-                Range root = new Range( 0, file.length() - 1, file.length() );
-                response.setContentType( contentType );
-                String header = String.format( "bytes %d-%d/%d", root.getStart(), root.getEnd(), root.getTotal() );
-                response.setHeader( HttpHeaders.CONTENT_RANGE, header );
-
                 if ( acceptGzip )
                 {
                     response.setHeader( HttpHeaders.CONTENT_ENCODING, "gzip" );
                     output = new GZIPOutputStream( output, DEFAULT_BUFFER_SIZE );
                 }
-                else
-                {
-                    response.setHeader( HttpHeaders.CONTENT_LENGTH, String.valueOf( root.getLength() ) );
-                }
 
                 // Copy complete file
                 copy( input, output, root );
             }
             else if ( ranges.size() == 1 )
             {
-
-                Range section = ranges.get( 0 );
-
-                response.setContentType( contentType );
-                response.setStatus( HttpServletResponse.SC_PARTIAL_CONTENT );
-                String header = String.format( "bytes %d-%d/%d", section.getStart(), section.getEnd(), section.getTotal() );
-                response.setHeader( HttpHeaders.CONTENT_RANGE, header );
-                response.setHeader( HttpHeaders.CONTENT_LENGTH, String.valueOf( section.getLength() ) );
-
                 // Copy single section
-                copy( input, output, section );
+                copy( input, output, ranges.get( 0 ) );
             }
             else
             {
@@ -351,9 +371,15 @@ public class HttpServletRangeUtil
 
                 for ( Range section : ranges )
                 {
-                    // Copy multiple sections
+                    // Copy multiple sections, each preceded by its part headers
+                    output.write( ( "\r\n--" + SEPARATOR + "\r\n" ).getBytes( "ISO-8859-1" ) );
+                    output.write( ( HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n" ).getBytes( "ISO-8859-1" ) );
+                    output.write( String.format( "%s: bytes %d-%d/%d\r\n\r\n", HttpHeaders.CONTENT_RANGE, section.getStart(),
+                                                 section.getEnd(), section.getTotal() ).getBytes( "ISO-8859-1" ) );
                     copy( input, output, section );
                 }
+
+                output.write( ( "\r\n--" + SEPARATOR + "--\r\n" ).getBytes( "ISO-8859-1" ) );
             }
         }
         finally
@@ -361,17 +387,33 @@ public class HttpServletRangeUtil
             if ( input != null )
             {
                 input.close();
-                input = null;
             }
 
             if ( output != null )
             {
                 output.close();
-                output = null;
             }
         }
     }
 
+    /**
+     * Let the container write the section straight from the file to the socket, when it supports it (Tomcat with NIO or
+     * APR connectors). The file is then never read into the heap at all.
+     */
+    private static boolean sendFile( final HttpServletRequest request, final File file, final Range section )
+        throws IOException
+    {
+        if ( !Boolean.TRUE.equals( request.getAttribute( SENDFILE_SUPPORT ) ) )
+        {
+            return false;
+        }
+
+        request.setAttribute( SENDFILE_FILENAME, file.getCanonicalPath() );
+        request.setAttribute( SENDFILE_START, section.getStart() );
+        request.setAttribute( SENDFILE_END, section.getEnd() + 1 );
+        return true;
+    }
+
     private static void setExpiresHeader( final HttpServletResponse response )
     {
         DateTime now = new DateTime();
@@ -386,38 +428,29 @@ public class HttpServletRangeUtil
         return ( substring.length() > 0 ) ? Long.parseLong( substring ) : -1;
     }
 
-    private static void copy( final RandomAccessFile input, final OutputStream output, final Range range )
+    /**
+     * Transfers the range from the file channel, letting the file system hand over the bytes instead of copying them
+     * through a heap buffer.
+     */
+    private static void copy( final FileChannel input, final OutputStream output, final Range range )
         throws IOException
     {
-        byte[] buffer = new byte[DEFAULT_BUFFER_SIZE];
-        int read;
+        // not closed, that would close the response output stream
+        final WritableByteChannel target = Channels.newChannel( output );
 
-        // all
-        if ( input.length() == range.getLength() )
+        long position = range.getStart();
+        long remaining = range.getLength();
+
+        while ( remaining > 0 )
         {
-            while ( ( read = input.read( buffer ) ) > 0 )
+            final long transferred = input.transferTo( position, remaining, target );
+            if ( transferred <= 0 )
             {
-                output.write( buffer, 0, read );
+                break;
             }
-        }
-        // partition
-        else
-        {
-            input.seek( range.getStart() );
-            long length = range.getLength();
 
-            while ( ( read = input.read( buffer ) ) > 0 )
-            {
-                if ( ( length -= read ) > 0 )
-                {
-                    output.write( buffer, 0, read );
-                }
-                else
-                {
-                    output.write( buffer, 0, (int) length + read );
-                    break;
-                }
-            }
+            position += transferred;
+            remaining -= transferred;
         }
     }
 }
@@ -18,8 +18,10 @@ import java.util.Iterator;
 
 import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
 import javax.imageio.ImageWriteParam;
 import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
 import javax.imageio.stream.MemoryCacheImageOutputStream;
 
 public final class ImageHelper
@@ -37,6 +39,20 @@ public final class ImageHelper
         }
     }
 
+    public static ImageReader getReader( ImageInputStream in )
+        throws IOException
+    {
+        Iterator<ImageReader> iter = ImageIO.getImageReaders( in );
+        if ( !iter.hasNext() )
+        {
+            throw new IOException( "Image format is not supported" );
+        }
+
+        ImageReader reader = iter.next();
+        reader.setInput( in, true, true );
+        return reader;
+    }
+
     public static BufferedImage readImage( InputStream in )
         throws IOException
     {
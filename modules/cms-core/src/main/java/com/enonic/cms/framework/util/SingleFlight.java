@@ -0,0 +1,160 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.framework.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Coalesces concurrent executions for the same key. The first caller for a key executes the callable, callers that
+ * arrive while it is running wait for it and share its result. If the execution fails, each waiting caller retries on
+ * its own, so one failed execution never fails other requests.
+ * <p/>
+ * Unlike {@link GenericConcurrencyLock} there is no global monitor; callers for different keys never block each other.
+ */
+public final class SingleFlight<K, V>
+{
+    private final ConcurrentMap<K, Flight<V>> flights = new ConcurrentHashMap<K, Flight<V>>();
+
+    private final AtomicLong executionCount = new AtomicLong( 0 );
+
+    private final AtomicLong coalescedCount = new AtomicLong( 0 );
+
+    private final AtomicLong waitTimeNanos = new AtomicLong( 0 );
+
+    private final AtomicLong maxWaitTimeNanos = new AtomicLong( 0 );
+
+    public static <K, V> SingleFlight<K, V> create()
+    {
+        return new SingleFlight<K, V>();
+    }
+
+    public V execute( final K key, final Callable<V> callable )
+    {
+        while ( true )
+        {
+            final Flight<V> flight = new Flight<V>();
+            final Flight<V> existing = this.flights.putIfAbsent( key, flight );
+
+            if ( existing == null )
+            {
+                return lead( key, flight, callable );
+            }
+
+            if ( existing.leader == Thread.currentThread() )
+            {
+                // reentrant call from the executing thread, waiting would deadlock
+                return call( callable );
+            }
+
+            final long start = System.nanoTime();
+            Uninterruptibles.awaitUninterruptibly( existing.done );
+            registerWait( System.nanoTime() - start );
+
+            if ( existing.succeeded )
+            {
+                return existing.value;
+            }
+        }
+    }
+
+    private V lead( final K key, final Flight<V> flight, final Callable<V> callable )
+    {
+        this.executionCount.incrementAndGet();
+
+        try
+        {
+            flight.value = call( callable );
+            flight.succeeded = true;
+            return flight.value;
+        }
+        finally
+        {
+            this.flights.remove( key, flight );
+            flight.done.countDown();
+        }
+    }
+
+    private V call( final Callable<V> callable )
+    {
+        try
+        {
+            return callable.call();
+        }
+        catch ( final Exception e )
+        {
+            throw Throwables.propagate( e );
+        }
+    }
+
+    private void registerWait( final long nanos )
+    {
+        this.coalescedCount.incrementAndGet();
+        this.waitTimeNanos.addAndGet( nanos );
+
+        long max = this.maxWaitTimeNanos.get();
+        while ( nanos > max && !this.maxWaitTimeNanos.compareAndSet( max, nanos ) )
+        {
+            max = this.maxWaitTimeNanos.get();
+        }
+    }
+
+    /**
+     * Number of executions started.
+     */
+    public long getExecutionCount()
+    {
+        return this.executionCount.get();
+    }
+
+    /**
+     * Number of callers that waited for another caller's execution instead of executing themselves.
+     */
+    public long getCoalescedCount()
+    {
+        return this.coalescedCount.get();
+    }
+
+    /**
+     * Number of executions currently running.
+     */
+    public int getInFlightCount()
+    {
+        return this.flights.size();
+    }
+
+    /**
+     * Total time in milliseconds callers have waited for other executions.
+     */
+    public long getTotalWaitTime()
+    {
+        return this.waitTimeNanos.get() / 1000000L;
+    }
+
+    /**
+     * Longest time in milliseconds a caller has waited for another execution.
+     */
+    public long getMaxWaitTime()
+    {
+        return this.maxWaitTimeNanos.get() / 1000000L;
+    }
+
+    private static final class Flight<V>
+    {
+        private final Thread leader = Thread.currentThread();
+
+        private final CountDownLatch done = new CountDownLatch( 1 );
+
+        private volatile V value;
+
+        private volatile boolean succeeded;
+    }
+}
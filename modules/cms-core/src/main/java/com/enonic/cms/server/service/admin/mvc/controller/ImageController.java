@@ -24,6 +24,7 @@ import com.enonic.cms.core.content.access.ContentAccessResolver;
 import com.enonic.cms.core.image.ImageRequest;
 import com.enonic.cms.core.image.ImageRequestParser;
 import com.enonic.cms.core.image.ImageResponse;
+import com.enonic.cms.core.portal.image.ImageProcessingRejectedException;
 import com.enonic.cms.core.portal.image.ImageProcessorException;
 import com.enonic.cms.core.portal.image.ImageRequestAccessResolver;
 import com.enonic.cms.core.portal.image.ImageService;
@@ -106,6 +107,11 @@ public final class ImageController
                 HttpServletUtil.copyNoCloseOut( imageResponse.getDataAsStream(), res.getOutputStream() );
             }
         }
+        catch ( ImageProcessingRejectedException e )
+        {
+            res.setHeader( "Retry-After", String.valueOf( e.getRetryAfter() ) );
+            res.sendError( HttpServletResponse.SC_SERVICE_UNAVAILABLE, e.getMessage() );
+        }
         catch ( ImageProcessorException e )
         {
             LOG.warn( e.getMessage(), e );
@@ -15,7 +15,6 @@ import com.google.common.collect.Sets;
 import com.enonic.cms.framework.blob.BlobKey;
 import com.enonic.cms.framework.blob.gc.UsedBlobKeyFinder;
 
-import com.enonic.cms.core.content.binary.BinaryDataEntity;
 import com.enonic.cms.store.dao.BinaryDataDao;
 
 @Component("usedBlobStoreFinder")
@@ -24,26 +23,17 @@ public final class DbUsedBlobKeyFinder
 {
     private BinaryDataDao binaryDataDao;
 
-    public Set<BlobKey> findKeys()
+    public Set<BlobKey> findKeys( final String prefix )
         throws Exception
     {
         final HashSet<BlobKey> keys = Sets.newHashSet();
 
-        findFromBinaryData( keys );
-
-        return keys;
-    }
-
-    private void findFromBinaryData( final Set<BlobKey> keys )
-    {
-        for ( final BinaryDataEntity entity : this.binaryDataDao.findAll() )
+        for ( final String key : this.binaryDataDao.findBlobKeysByPrefix( prefix ) )
         {
-            final String key = entity.getBlobKey();
-            if ( key != null )
-            {
-                keys.add( new BlobKey( key ) );
-            }
+            keys.add( new BlobKey( key ) );
         }
+
+        return keys;
     }
 
     @Autowired
@@ -17,6 +17,8 @@ public interface BinaryDataDao
 {
     List<BinaryDataEntity> findAll();
 
+    List<String> findBlobKeysByPrefix( String prefix );
+
     BinaryDataEntity findByKey( BinaryDataKey key );
 
     long countReferences( BinaryDataEntity binaryData );
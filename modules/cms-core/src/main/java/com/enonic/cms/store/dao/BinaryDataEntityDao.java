@@ -68,4 +68,9 @@ public final class BinaryDataEntityDao
     {
         return findByNamedQuery( BinaryDataEntity.class, "BinaryDataEntity.getAll" );
     }
+
+    public List<String> findBlobKeysByPrefix( final String prefix )
+    {
+        return findByNamedQuery( String.class, "BinaryDataEntity.findBlobKeysByPrefix", "prefix", prefix + "%" );
+    }
 }
@@ -39,6 +39,11 @@ public interface ContentDao
 
     List<ContentKey> findAll();
 
+    /**
+     * Find at most count content keys greater than given key, in ascending order.
+     */
+    List<ContentKey> findContentKeysAfter( ContentKey contentKey, int count );
+
     EntityPageList<ContentEntity> findAll( int index, int count );
 
     int findCountBySpecification( ContentSpecification specification );
@@ -4,12 +4,16 @@
  */
 package com.enonic.cms.store.dao;
 
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
+import org.hibernate.HibernateException;
 import org.hibernate.Query;
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.hibernate3.HibernateCallback;
 import org.springframework.stereotype.Repository;
 
 import com.enonic.cms.framework.cache.CacheFacade;
@@ -217,6 +221,21 @@ public class ContentEntityDao
         return findByNamedQuery( ContentKey.class, "ContentEntity.findAll" );
     }
 
+    public List<ContentKey> findContentKeysAfter( final ContentKey contentKey, final int count )
+    {
+        return executeListResult( ContentKey.class, new HibernateCallback()
+        {
+            public Object doInHibernate( Session session )
+                throws HibernateException, SQLException
+            {
+                final Query query = session.getNamedQuery( "ContentEntity.findKeysAfter" );
+                query.setParameter( "key", contentKey );
+                query.setMaxResults( count );
+                return query.list();
+            }
+        } );
+    }
+
     public EntityPageList<ContentEntity> findAll( int index, int count )
     {
         return findPageList( ContentEntity.class, "x.deleted = 0", index, count );
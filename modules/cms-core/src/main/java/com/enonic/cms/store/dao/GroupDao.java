@@ -6,8 +6,10 @@ package com.enonic.cms.store.dao;
 
 import com.enonic.cms.core.security.group.GroupEntity;
 import com.enonic.cms.core.security.group.GroupKey;
+import com.enonic.cms.core.security.group.GroupMembershipClosure;
 import com.enonic.cms.core.security.group.GroupSpecification;
 import com.enonic.cms.core.security.group.GroupType;
+import com.enonic.cms.core.security.user.UserEntity;
 import com.enonic.cms.core.security.userstore.UserStoreKey;
 import com.enonic.cms.store.support.EntityPageList;
 
@@ -63,4 +65,10 @@ public interface GroupDao
     GroupEntity findByUserStoreKeyAndSyncValue( UserStoreKey userStoreKey, String syncValue, boolean includeDeleted );
 
     EntityPageList<GroupEntity> findAll( int index, int count );
+
+    /**
+     * Returns the groups whose access rights apply to the user. The result is cached by user, and invalidated when
+     * users, groups or memberships are written to.
+     */
+    GroupMembershipClosure findMembershipClosure( UserEntity user );
 }
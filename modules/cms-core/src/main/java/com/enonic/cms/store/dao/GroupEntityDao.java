@@ -6,9 +6,13 @@ package com.enonic.cms.store.dao;
 
 import com.enonic.cms.core.security.group.GroupEntity;
 import com.enonic.cms.core.security.group.GroupKey;
+import com.enonic.cms.core.security.group.GroupMembershipClosure;
 import com.enonic.cms.core.security.group.GroupSpecification;
 import com.enonic.cms.core.security.group.GroupType;
+import com.enonic.cms.core.security.user.UserEntity;
 import com.enonic.cms.core.security.userstore.UserStoreKey;
+import com.enonic.cms.framework.cache.CacheFacade;
+import com.enonic.cms.framework.cache.CacheManager;
 import com.enonic.cms.framework.hibernate.support.SelectBuilder;
 import com.enonic.cms.store.support.EntityPageList;
 import org.hibernate.Criteria;
@@ -18,6 +22,7 @@ import org.hibernate.Session;
 import org.hibernate.criterion.MatchMode;
 import org.hibernate.criterion.Order;
 import org.hibernate.criterion.Restrictions;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.orm.hibernate3.HibernateCallback;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.Assert;
@@ -25,7 +30,10 @@ import org.springframework.util.Assert;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
 @Repository("groupDao")
 public final class GroupEntityDao
@@ -50,6 +58,8 @@ public final class GroupEntityDao
 
     private transient GroupKey cachedAnonymousGroupKey;
 
+    private CacheFacade membershipCache;
+
     public void invalidateCachedKeys()
     {
         initializedCacheKeys = false;
@@ -460,4 +470,86 @@ public final class GroupEntityDao
     {
         return findPageList( GroupEntity.class, "x.deleted = 0", index, count );
     }
+
+    public GroupMembershipClosure findMembershipClosure( final UserEntity user )
+    {
+        final String cacheKey = user.getKey().toString();
+
+        // read before the closure is computed, so a closure computed while memberships are invalidated is not cached
+        final long generation = membershipCache != null ? membershipCache.getGeneration() : 0;
+        GroupMembershipClosure closure = membershipCache != null ? (GroupMembershipClosure) membershipCache.get( null, cacheKey ) : null;
+        if ( closure != null )
+        {
+            return closure;
+        }
+
+        // computed from memberships queried now, not from the groups of the user already loaded by the request, which
+        // may be older than the generation
+        final GroupEntity anonymousGroup = findBuiltInAnonymous();
+        final GroupEntity authenticatedUsersGroup =
+            user.getUserStore() != null ? findBuiltInAuthenticatedUsers( user.getUserStore().getKey() ) : null;
+        final GroupEntity enterpriseAdminsGroup = findBuiltInEnterpriseAdministrator();
+
+        closure = GroupMembershipClosure.create( user, anonymousGroup != null ? anonymousGroup.getGroupKey() : null,
+                                                 findAllMembershipKeys( anonymousGroup ), findAllMembershipKeys( user.getUserGroup() ),
+                                                 findAllMembershipKeys( authenticatedUsersGroup ),
+                                                 enterpriseAdminsGroup != null ? enterpriseAdminsGroup.getGroupKey() : null );
+
+        if ( membershipCache != null )
+        {
+            membershipCache.putUnlessCleared( null, cacheKey, closure, generation );
+        }
+
+        return closure;
+    }
+
+    /**
+     * Returns the keys of the group and of all groups it is a member of, directly or indirectly, skipping deleted groups.
+     */
+    private Set<GroupKey> findAllMembershipKeys( final GroupEntity group )
+    {
+        final Set<GroupKey> groupKeys = new LinkedHashSet<GroupKey>();
+        if ( group == null )
+        {
+            return groupKeys;
+        }
+
+        final LinkedList<GroupKey> unresolved = new LinkedList<GroupKey>();
+        groupKeys.add( group.getGroupKey() );
+        unresolved.add( group.getGroupKey() );
+
+        while ( !unresolved.isEmpty() )
+        {
+            for ( final GroupKey membership : findMembershipKeys( unresolved.removeFirst() ) )
+            {
+                if ( groupKeys.add( membership ) )
+                {
+                    unresolved.add( membership );
+                }
+            }
+        }
+        return groupKeys;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<GroupKey> findMembershipKeys( final GroupKey groupKey )
+    {
+        return (List<GroupKey>) getHibernateTemplate().execute( new HibernateCallback()
+        {
+            public Object doInHibernate( Session session )
+                throws HibernateException, SQLException
+            {
+                Query query = session.createQuery(
+                    "select m.key from GroupEntity g join g.memberships m where g.key = :groupKey and m.deleted = 0" );
+                query.setParameter( "groupKey", groupKey );
+                return query.list();
+            }
+        } );
+    }
+
+    @Autowired
+    public void setCacheManager( CacheManager cacheManager )
+    {
+        this.membershipCache = cacheManager.getMembershipCache();
+    }
 }
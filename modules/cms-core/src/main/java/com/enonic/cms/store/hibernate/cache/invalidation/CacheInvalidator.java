@@ -5,12 +5,26 @@
 package com.enonic.cms.store.hibernate.cache.invalidation;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.hibernate.SessionFactory;
+import org.hibernate.cache.StandardQueryCache;
+import org.hibernate.cache.UpdateTimestampsCache;
 import org.hibernate.cfg.Configuration;
+import org.hibernate.engine.SessionFactoryImplementor;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableSet;
 
 import com.enonic.esl.sql.model.Column;
 import com.enonic.esl.sql.model.Database;
@@ -21,14 +35,33 @@ import com.enonic.esl.sql.model.datatypes.IntegerType;
 
 import com.enonic.cms.framework.cache.CacheFacade;
 import com.enonic.cms.framework.cache.CacheManager;
+import com.enonic.cms.framework.cache.event.CacheEventPublisher;
+import com.enonic.cms.framework.cache.event.CacheEventPublisherAdapter;
+
+import com.enonic.cms.core.cluster.NopClusterEventPublisher;
 
 import com.enonic.cms.store.DatabaseAccessor;
 
 /**
- * This class implements the cache invalidator.
+ * This class implements the cache invalidator. The analyzed sql is cached by statement, as prepared statements are
+ * executed many times with the same sql.
+ * <p/>
+ * A query cached by hibernate is only invalidated when one of the tables it selects from is written to. The query and
+ * collection caches of a table are invalidated on the first write to it in a transaction, and again when the
+ * transaction ends, so queries cached by other transactions in between do not keep uncommitted state.
+ * <p/>
+ * The update timestamps are not shared with the other cluster nodes, so their query caches are evicted by a cluster
+ * event, once per transaction.
  */
 public class CacheInvalidator
 {
+    private static final int MAX_ANALYZED_SQL = 1000;
+
+    /**
+     * Tables the cached membership closures of users are resolved from.
+     */
+    private static final Set<String> MEMBERSHIP_TABLES = ImmutableSet.of( "tuser", "tgroup", "tgrpgrpmembership" );
+
     /**
      * Session factory.
      */
@@ -48,6 +81,25 @@ public class CacheInvalidator
 
     private Map<String, Column[]> tableMap = new HashMap<String, Column[]>();
 
+    /**
+     * Query space of each table, by lower case table name.
+     */
+    private final Map<String, Serializable> querySpaces = new HashMap<String, Serializable>();
+
+    private final LoadingCache<String, SqlAnalyzer> analyzerCache;
+
+    /**
+     * Query cache regions, as named in the cache.
+     */
+    private final List<String> queryCacheRegions = new ArrayList<String>();
+
+    /**
+     * Publisher of query cache evictions to the other cluster nodes.
+     */
+    private CacheEventPublisher cacheEventPublisher = new CacheEventPublisherAdapter( new NopClusterEventPublisher() );
+
+    private final ConcurrentMap<String, AtomicLong> invalidationCounts = new ConcurrentHashMap<String, AtomicLong>();
+
     /**
      * Construct the invalidator.
      */
@@ -64,6 +116,75 @@ public class CacheInvalidator
         {
             tableMap.put( table.getName().toLowerCase(), table.getPrimaryKeys() );
         }
+
+        if ( sessionFactory instanceof SessionFactoryImplementor )
+        {
+            resolveQuerySpaces( (SessionFactoryImplementor) sessionFactory );
+            resolveQueryCacheRegions( (SessionFactoryImplementor) sessionFactory );
+        }
+
+        this.analyzerCache = CacheBuilder.newBuilder().maximumSize( MAX_ANALYZED_SQL ).build( new CacheLoader<String, SqlAnalyzer>()
+        {
+            @Override
+            public SqlAnalyzer load( final String sql )
+            {
+                return new SqlAnalyzer( sql.trim().toLowerCase() );
+            }
+        } );
+    }
+
+    /**
+     * Resolve the query space of the tables mapped by entities and collections.
+     */
+    private void resolveQuerySpaces( SessionFactoryImplementor factory )
+    {
+        for ( Object entityName : factory.getAllClassMetadata().keySet() )
+        {
+            for ( Serializable space : factory.getEntityPersister( (String) entityName ).getQuerySpaces() )
+            {
+                addQuerySpace( space );
+            }
+        }
+
+        for ( Object role : factory.getAllCollectionMetadata().keySet() )
+        {
+            for ( Serializable space : factory.getCollectionPersister( (String) role ).getCollectionSpaces() )
+            {
+                addQuerySpace( space );
+            }
+        }
+    }
+
+    /**
+     * Resolve the names of the default and the named query cache regions, prefixed as hibernate does.
+     */
+    private void resolveQueryCacheRegions( SessionFactoryImplementor factory )
+    {
+        String prefix = factory.getSettings().getCacheRegionPrefix();
+
+        List<String> regionNames = new ArrayList<String>();
+        regionNames.add( StandardQueryCache.class.getName() );
+        regionNames.addAll( this.invalidationRules.getQueryCacheRegions() );
+
+        for ( String regionName : regionNames )
+        {
+            this.queryCacheRegions.add( prefix != null ? prefix + "." + regionName : regionName );
+        }
+    }
+
+    /**
+     * Set the publisher of query cache evictions to the other cluster nodes.
+     */
+    public void setCacheEventPublisher( CacheEventPublisher cacheEventPublisher )
+    {
+        this.cacheEventPublisher = cacheEventPublisher;
+    }
+
+    private void addQuerySpace( Serializable space )
+    {
+        // spaces may be qualified by schema, the sql analyzer only resolves the table name
+        String tableName = space.toString().toLowerCase();
+        this.querySpaces.put( tableName.substring( tableName.lastIndexOf( '.' ) + 1 ), space );
     }
 
     /**
@@ -79,11 +200,38 @@ public class CacheInvalidator
      */
     public void invalidateSql( String sql, List paramList )
     {
-        SqlAnalyzer analyzer = new SqlAnalyzer( sql.trim().toLowerCase() );
+        invalidateSql( sql, paramList, null );
+    }
+
+    /**
+     * Analyze the SQL. If it's not a select, find the affected table and invalidate it. The query and collection caches
+     * are not invalidated if the table is already written to in the batch.
+     */
+    public void invalidateSql( String sql, List paramList, InvalidationBatch batch )
+    {
+        SqlAnalyzer analyzer = this.analyzerCache.getUnchecked( sql );
 
         if ( analyzer.resolveTableName() != null )
         {
-            invalidateTable( analyzer, paramList );
+            invalidateTable( analyzer, paramList, batch );
+        }
+    }
+
+    /**
+     * Invalidate the query and collection caches of the tables in the batch, when the transaction has ended.
+     */
+    public void invalidateBatch( InvalidationBatch batch )
+    {
+        boolean queriesInvalidated = false;
+        for ( TableInvalidation rule : batch.drain() )
+        {
+            invalidateTableCaches( rule );
+            queriesInvalidated |= this.querySpaces.containsKey( rule.getTableName() );
+        }
+
+        if ( queriesInvalidated )
+        {
+            publishQueryEviction();
         }
     }
 
@@ -124,7 +272,7 @@ public class CacheInvalidator
      * Find the right table to invalidate and make calls to invalidate the necessary domain objects and collections that are affected by the
      * table change.
      */
-    private void invalidateTable( SqlAnalyzer analyzer, List paramList )
+    private void invalidateTable( SqlAnalyzer analyzer, List paramList, InvalidationBatch batch )
     {
         TableInvalidation rule = this.invalidationRules.getTableRuleByName( analyzer.resolveTableName() );
         if ( rule != null )
@@ -134,17 +282,27 @@ public class CacheInvalidator
             {
                 primaryKey = findPrimaryKeyValue( analyzer.resolveTableName(), analyzer.getSql(), paramList );
             }
-            invalidateTable( rule, primaryKey, analyzer.isInsertType() );
+            invalidateTable( rule, primaryKey, analyzer.isInsertType(), batch );
         }
     }
 
     /**
      * Invalidate on table.
      */
-    private void invalidateTable( TableInvalidation rule, Serializable primaryKey, boolean insertType )
+    private void invalidateTable( TableInvalidation rule, Serializable primaryKey, boolean insertType, InvalidationBatch batch )
     {
-        invalidateNamedQueries();
-        invalidateCollectionCaches( rule );
+        if ( batch == null )
+        {
+            invalidateTableCaches( rule );
+            if ( this.querySpaces.containsKey( rule.getTableName() ) )
+            {
+                publishQueryEviction();
+            }
+        }
+        else if ( batch.add( rule ) )
+        {
+            invalidateTableCaches( rule );
+        }
 
         if ( !insertType )
         {
@@ -153,15 +311,107 @@ public class CacheInvalidator
     }
 
     /**
-     * Invalidate queries.
+     * Invalidate the query and collection caches of the table.
+     */
+    private void invalidateTableCaches( TableInvalidation rule )
+    {
+        invalidateQueries( rule );
+        invalidateCollectionCaches( rule );
+        invalidateMembershipCache( rule );
+        countInvalidation( rule );
+    }
+
+    /**
+     * Invalidate the membership closures of all users, on this and the other cluster nodes, when users, groups or
+     * memberships are written to.
+     */
+    private void invalidateMembershipCache( TableInvalidation rule )
+    {
+        if ( MEMBERSHIP_TABLES.contains( rule.getTableName() ) )
+        {
+            CacheFacade membershipCache = this.cacheMananger.getMembershipCache();
+            if ( membershipCache != null )
+            {
+                membershipCache.removeAll();
+            }
+        }
+    }
+
+    /**
+     * Invalidate queries selecting from the table. Cached query results older than the update timestamp of any of
+     * their tables are not used.
+     */
+    private void invalidateQueries( TableInvalidation rule )
+    {
+        Serializable space = this.querySpaces.get( rule.getTableName() );
+        UpdateTimestampsCache timestampsCache = getUpdateTimestampsCache();
+
+        if ( ( space != null ) && ( timestampsCache != null ) )
+        {
+            timestampsCache.invalidate( new Serializable[]{space} );
+        }
+    }
+
+    /**
+     * Evict the query caches of the other cluster nodes. The eviction is only published, the query caches of this node
+     * are invalidated by the update timestamps.
+     */
+    private void publishQueryEviction()
+    {
+        CacheFacade queryCache = this.cacheMananger != null ? this.cacheMananger.getEntityCache() : null;
+        if ( queryCache == null )
+        {
+            return;
+        }
+
+        for ( String regionName : this.queryCacheRegions )
+        {
+            this.cacheEventPublisher.publishEvictByGroup( queryCache.getName(), regionName );
+        }
+    }
+
+    private UpdateTimestampsCache getUpdateTimestampsCache()
+    {
+        if ( this.sessionFactory instanceof SessionFactoryImplementor )
+        {
+            return ( (SessionFactoryImplementor) this.sessionFactory ).getUpdateTimestampsCache();
+        }
+
+        return null;
+    }
+
+    private void countInvalidation( TableInvalidation rule )
+    {
+        AtomicLong count = this.invalidationCounts.get( rule.getTableName() );
+        if ( count == null )
+        {
+            this.invalidationCounts.putIfAbsent( rule.getTableName(), new AtomicLong( 0 ) );
+            count = this.invalidationCounts.get( rule.getTableName() );
+        }
+
+        count.incrementAndGet();
+    }
+
+    /**
+     * Return the number of query and collection cache invalidations by table.
      */
-    private void invalidateNamedQueries()
+    public Map<String, Long> getInvalidationCounts()
     {
-        this.sessionFactory.evictQueries();
-        for ( String regionName : this.invalidationRules.getQueryCacheRegions() )
+        Map<String, Long> counts = new TreeMap<String, Long>();
+        for ( Map.Entry<String, AtomicLong> entry : this.invalidationCounts.entrySet() )
         {
-            this.sessionFactory.evictQueries( regionName );
+            counts.put( entry.getKey(), entry.getValue().get() );
         }
+
+        return counts;
+    }
+
+    /**
+     * Return the number of analyzed sql statements cached.
+     */
+    public long getAnalyzedSqlCount()
+    {
+        return this.analyzerCache.size();
     }
 
     /**
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.store.hibernate.cache.invalidation;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Tables written to by the current transaction of a connection. The query and collection caches of a table are
+ * invalidated on the first write to it, and again when the transaction ends.
+ */
+public final class InvalidationBatch
+{
+    private final Set<TableInvalidation> rules = new LinkedHashSet<TableInvalidation>();
+
+    /**
+     * Add the rule, returns false if the table is already written to in this transaction.
+     */
+    public boolean add( final TableInvalidation rule )
+    {
+        return this.rules.add( rule );
+    }
+
+    public boolean isEmpty()
+    {
+        return this.rules.isEmpty();
+    }
+
+    public Set<TableInvalidation> drain()
+    {
+        final Set<TableInvalidation> drained = new LinkedHashSet<TableInvalidation>( this.rules );
+        this.rules.clear();
+        return drained;
+    }
+}
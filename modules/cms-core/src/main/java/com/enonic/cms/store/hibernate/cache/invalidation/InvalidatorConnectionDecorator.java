@@ -10,6 +10,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.List;
 
 import com.enonic.cms.framework.jdbc.ConnectionDecorator;
 import com.enonic.cms.framework.jdbc.wrapper.ConnectionWrapper;
@@ -17,7 +18,9 @@ import com.enonic.cms.framework.jdbc.wrapper.PreparedStatementWrapper;
 import com.enonic.cms.framework.jdbc.wrapper.StatementWrapper;
 
 /**
- * This class implements a connection decorator based on the auto cache invalidator.
+ * This class implements a connection decorator based on the auto cache invalidator. Tables written to in a transaction
+ * are collected per connection, and their caches are invalidated again when the transaction is committed or rolled
+ * back.
  */
 public final class InvalidatorConnectionDecorator
     implements ConnectionDecorator
@@ -39,11 +42,82 @@ public final class InvalidatorConnectionDecorator
     private final class ConnectionImpl
         extends ConnectionWrapper
     {
+        private final InvalidationBatch batch = new InvalidationBatch();
+
         public ConnectionImpl( final Connection conn )
         {
             super( conn );
         }
 
+        private void invalidateSql( final String sql, final List<Object> paramList )
+        {
+            invalidator.invalidateSql( sql, paramList, this.batch );
+        }
+
+        private void afterExecute()
+            throws SQLException
+        {
+            if ( !this.batch.isEmpty() && getAutoCommit() )
+            {
+                invalidator.invalidateBatch( this.batch );
+            }
+        }
+
+        @Override
+        public void commit()
+            throws SQLException
+        {
+            try
+            {
+                super.commit();
+            }
+            finally
+            {
+                invalidator.invalidateBatch( this.batch );
+            }
+        }
+
+        @Override
+        public void rollback()
+            throws SQLException
+        {
+            try
+            {
+                super.rollback();
+            }
+            finally
+            {
+                invalidator.invalidateBatch( this.batch );
+            }
+        }
+
+        @Override
+        public void setAutoCommit( final boolean autoCommit )
+            throws SQLException
+        {
+            super.setAutoCommit( autoCommit );
+
+            // enabling auto commit commits the current transaction
+            if ( autoCommit )
+            {
+                invalidator.invalidateBatch( this.batch );
+            }
+        }
+
+        @Override
+        public void close()
+            throws SQLException
+        {
+            try
+            {
+                invalidator.invalidateBatch( this.batch );
+            }
+            finally
+            {
+                super.close();
+            }
+        }
+
         @Override
         protected Statement createWrappedStatement( final Statement stmt )
         {
@@ -60,25 +134,32 @@ public final class InvalidatorConnectionDecorator
     private final class StatementImpl
         extends StatementWrapper
     {
-        public StatementImpl( final Statement stmt, final Connection conn )
+        private final ConnectionImpl conn;
+
+        public StatementImpl( final Statement stmt, final ConnectionImpl conn )
         {
             super( stmt, conn );
+            this.conn = conn;
         }
 
         @Override
         public int executeUpdate( final String sql )
             throws SQLException
         {
-            invalidator.invalidateSql( sql );
-            return super.executeUpdate( sql );
+            this.conn.invalidateSql( sql, null );
+            final int result = super.executeUpdate( sql );
+            this.conn.afterExecute();
+            return result;
         }
 
         @Override
         public boolean execute( final String sql )
             throws SQLException
         {
-            invalidator.invalidateSql( sql );
-            return super.execute( sql );
+            this.conn.invalidateSql( sql, null );
+            final boolean result = super.execute( sql );
+            this.conn.afterExecute();
+            return result;
         }
 
         @Override
@@ -96,43 +177,54 @@ public final class InvalidatorConnectionDecorator
 
         private final ArrayList<Object> paramList;
 
-        public PreparedStatementImpl( final String sql, final PreparedStatement stmt, final Connection conn )
+        private final ConnectionImpl conn;
+
+        public PreparedStatementImpl( final String sql, final PreparedStatement stmt, final ConnectionImpl conn )
         {
             super( stmt, conn );
             this.sql = sql;
             this.paramList = new ArrayList<Object>();
+            this.conn = conn;
         }
 
         @Override
         public boolean execute()
             throws SQLException
         {
-            invalidator.invalidateSql( this.sql, this.paramList );
-            return super.execute();
+            this.conn.invalidateSql( this.sql, this.paramList );
+            final boolean result = super.execute();
+            this.conn.afterExecute();
+            return result;
         }
 
         @Override
         public int executeUpdate()
             throws SQLException
         {
-            invalidator.invalidateSql( this.sql, this.paramList );
-            return super.executeUpdate();
+            this.conn.invalidateSql( this.sql, this.paramList );
+            final int result = super.executeUpdate();
+            this.conn.afterExecute();
+            return result;
         }
 
         @Override
         public int executeUpdate( String sql )
             throws SQLException
         {
-            invalidator.invalidateSql( sql );
-            return super.executeUpdate( sql );
+            this.conn.invalidateSql( sql, null );
+            final int result = super.executeUpdate( sql );
+            this.conn.afterExecute();
+            return result;
         }
 
         @Override
         public boolean execute( String sql )
             throws SQLException
         {
-            invalidator.invalidateSql( sql );
-            return super.execute( sql );
+            this.conn.invalidateSql( sql, null );
+            final boolean result = super.execute( sql );
+            this.conn.afterExecute();
+            return result;
         }
 
         @Override
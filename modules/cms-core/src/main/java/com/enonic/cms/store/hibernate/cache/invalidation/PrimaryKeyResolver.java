@@ -6,6 +6,8 @@ package com.enonic.cms.store.hibernate.cache.invalidation;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -16,6 +18,9 @@ public class PrimaryKeyResolver
 
     private static final String PATTERN = ".+\\s+columnName\\s*=\\s*['\"]??([\\d\\w]+)['\"]??.*";
 
+    // compiled patterns by primary key column, there is one per table
+    private final ConcurrentMap<String, Pattern> patterns = new ConcurrentHashMap<String, Pattern>();
+
 
     public Serializable resolveIntegerValue( String sql, final List paramList, final String columnName )
     {
@@ -52,7 +57,13 @@ public class PrimaryKeyResolver
     {
 
         sql = replaceValuePlaceHoldersWithValues( sql, paramList );
-        Pattern pattern = Pattern.compile( patternStr );
+        Pattern pattern = this.patterns.get( patternStr );
+        if ( pattern == null )
+        {
+            pattern = Pattern.compile( patternStr );
+            this.patterns.put( patternStr, pattern );
+        }
+
         Matcher matcher = pattern.matcher( sql );
         if ( matcher.matches() )
         {
@@ -14,11 +14,14 @@ import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import com.enonic.cms.framework.cache.CacheManager;
+import com.enonic.cms.framework.cache.event.CacheEventPublisherAdapter;
 import com.enonic.cms.framework.jdbc.ConnectionDecorator;
 import com.enonic.cms.framework.jdbc.DialectConnectionDecorator;
 import com.enonic.cms.framework.jdbc.LoggingConnectionDecorator;
 import com.enonic.cms.framework.jdbc.dialect.Dialect;
 
+import com.enonic.cms.core.cluster.ClusterEventPublisher;
+
 import com.enonic.cms.store.hibernate.cache.invalidation.CacheInvalidator;
 import com.enonic.cms.store.hibernate.cache.invalidation.InvalidatorConnectionDecorator;
 
@@ -48,6 +51,16 @@ public final class DecoratorManager
      */
     private InvalidatorConnectionDecorator invalidatorDecorator;
 
+    /**
+     * Cache invalidator.
+     */
+    private CacheInvalidator cacheInvalidator;
+
+    /**
+     * Cluster event publisher, if clustered.
+     */
+    private ClusterEventPublisher clusterEventPublisher;
+
     /**
      * Logging decorator.
      */
@@ -88,6 +101,15 @@ public final class DecoratorManager
         this.cacheManager = cacheManager;
     }
 
+    /**
+     * Set the cluster event publisher.
+     */
+    @Autowired(required = false)
+    public void setClusterEventPublisher( ClusterEventPublisher clusterEventPublisher )
+    {
+        this.clusterEventPublisher = clusterEventPublisher;
+    }
+
     /**
      * Decorate the connection.
      */
@@ -113,6 +135,14 @@ public final class DecoratorManager
         this.dialect = dialect;
     }
 
+    /**
+     * Return the cache invalidator.
+     */
+    public CacheInvalidator getCacheInvalidator()
+    {
+        return this.cacheInvalidator;
+    }
+
     /**
      * Configure the data source.
      */
@@ -121,8 +151,12 @@ public final class DecoratorManager
     {
         SessionFactoryImplementor impl = (SessionFactoryImplementor) this.sessionFactory;
         Configuration config = HibernateConfigurator.getInstance().getHibernateConfiguration();
-        CacheInvalidator cacheInvalidator = new CacheInvalidator( config, impl, this.cacheManager );
-        this.invalidatorDecorator = new InvalidatorConnectionDecorator( cacheInvalidator );
+        this.cacheInvalidator = new CacheInvalidator( config, impl, this.cacheManager );
+        if ( this.clusterEventPublisher != null )
+        {
+            this.cacheInvalidator.setCacheEventPublisher( new CacheEventPublisherAdapter( this.clusterEventPublisher ) );
+        }
+        this.invalidatorDecorator = new InvalidatorConnectionDecorator( this.cacheInvalidator );
         this.loggingDecorator = new LoggingConnectionDecorator();
         this.dialectDecorator = new DialectConnectionDecorator( this.dialect );
     }
@@ -26,6 +26,7 @@ import com.enonic.cms.core.image.ImageRequestParser;
 import com.enonic.cms.core.image.ImageResponse;
 import com.enonic.cms.core.portal.ReservedLocalPaths;
 import com.enonic.cms.core.portal.ResourceNotFoundException;
+import com.enonic.cms.core.portal.image.ImageProcessingRejectedException;
 import com.enonic.cms.core.portal.image.ImageProcessorException;
 import com.enonic.cms.core.portal.image.ImageRequestAccessResolver;
 import com.enonic.cms.core.portal.image.ImageService;
@@ -91,6 +92,12 @@ public final class ImageHandler
                     {
                         imageResponse = processImageRequest( imageRequest, sitePath, imageRequestTrace );
                     }
+                    catch ( ImageProcessingRejectedException e )
+                    {
+                        response.setHeader( "Retry-After", String.valueOf( e.getRetryAfter() ) );
+                        response.sendError( HttpServletResponse.SC_SERVICE_UNAVAILABLE, e.getMessage() );
+                        return;
+                    }
                     catch ( ImageProcessorException e )
                     {
                         response.sendError( HttpServletResponse.SC_INTERNAL_SERVER_ERROR, e.getMessage() );
@@ -31,6 +31,7 @@ import com.enonic.cms.core.structure.SiteProperties;
 import com.enonic.cms.core.structure.SitePropertyNames;
 import com.enonic.cms.web.portal.PortalWebContext;
 import com.enonic.cms.web.portal.handler.WebHandlerBase;
+import com.enonic.cms.web.portal.instanttrace.InstantTraceRequestInspector;
 
 @Component
 public final class PageHandler
@@ -82,7 +83,9 @@ public final class PageHandler
         final PortalRequest request;
         final PortalResponse response;
 
-        final PortalRequestTrace portalRequestTrace = PortalRequestTracer.startTracing( originalUrl, livePortalTraceService );
+        // instant trace shows the trace of the request to the client, so it is traced regardless of the sample rate
+        final PortalRequestTrace portalRequestTrace =
+            PortalRequestTracer.startTracing( originalUrl, livePortalTraceService, InstantTraceRequestInspector.isClientEnabled( httpRequest ) );
         try
         {
             PortalRequestTracer.traceMode( portalRequestTrace, previewService );
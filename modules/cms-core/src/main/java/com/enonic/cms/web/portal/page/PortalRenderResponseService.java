@@ -47,6 +47,12 @@ public class PortalRenderResponseService
     @Value("${cms.portal.encodeRedirectUrl}")
     private boolean encodeRedirectUrl;
 
+    @Value("${cms.portal.gzip.enabled}")
+    private boolean gzipEnabled;
+
+    @Value("${cms.portal.gzip.minSize}")
+    private int gzipMinSize;
+
     public void serveResponse( final PortalRequest request, final PortalResponse response, final HttpServletResponse httpResponse,
                                final HttpServletRequest httpRequest, final PortalRequestTrace portalRequestTrace )
         throws Exception
@@ -69,6 +75,8 @@ public class PortalRenderResponseService
         final SiteProperties siteProperties = sitePropertiesService.getSiteProperties( requestedSiteKey );
         processor.setForceNoCacheForSite( siteProperties.getPropertyAsBoolean( SitePropertyNames.PAGE_CACHE_HEADERS_FORCENOCACHE ) );
         processor.setEncodeRedirectUrl( encodeRedirectUrl );
+        processor.setGzipEnabled( gzipEnabled );
+        processor.setGzipMinSize( gzipMinSize );
         processor.setCacheHeadersEnabledForSite( siteProperties.getPropertyAsBoolean( SitePropertyNames.PAGE_CACHE_HEADERS_ENABLED ) );
 
         final String matchingPath = originalPathResolver.getRequestPathFromHttpRequest( httpRequest );
@@ -20,10 +20,6 @@ import org.apache.commons.lang.StringUtils;
 import org.joda.time.DateTime;
 import org.joda.time.Interval;
 
-import com.google.common.base.Preconditions;
-
-import com.enonic.esl.util.DigestUtil;
-
 import com.enonic.cms.framework.util.HttpCacheControlSettings;
 import com.enonic.cms.framework.util.HttpServletUtil;
 
@@ -33,6 +29,7 @@ import com.enonic.cms.core.SiteBasePath;
 import com.enonic.cms.core.SiteBasePathAndSitePath;
 import com.enonic.cms.core.SiteBasePathAndSitePathToStringBuilder;
 import com.enonic.cms.core.SiteBasePathResolver;
+import com.enonic.cms.core.portal.EncodedResponse;
 import com.enonic.cms.core.portal.PortalRenderingException;
 import com.enonic.cms.core.portal.PortalRequest;
 import com.enonic.cms.core.portal.PortalResponse;
@@ -51,6 +48,8 @@ public class PortalResponseProcessor
 
     private static final int SECOND_IN_MILLIS = 1000;
 
+    private static final String GZIP_ETAG_SUFFIX = "-gzip";
+
     private SiteRedirectAndForwardHelper siteRedirectAndForwardHelper;
 
     private List<HttpResponseFilter> responseFilters;
@@ -83,6 +82,10 @@ public class PortalResponseProcessor
 
     private boolean encodeRedirectUrl;
 
+    private boolean gzipEnabled = false;
+
+    private int gzipMinSize = 0;
+
     public void serveResponse()
         throws Exception
     {
@@ -125,12 +128,17 @@ public class PortalResponseProcessor
 
         boolean isHeadRequest = "HEAD".compareToIgnoreCase( httpRequest.getMethod() ) == 0;
         boolean writeContent = !isHeadRequest;
+        boolean notModified = false;
         boolean handleEtagLogic = cacheHeadersEnabledForSite && !forceNoCacheForSite && !instantTraceEnabled;
 
-        if ( handleEtagLogic && !StringUtils.isEmpty( content ) ) // resolveEtag does not like empty strings
+        final EncodedResponse encodedContent = response.getEncodedContent();
+        final boolean compressible = isCompressible( response.getHttpContentType(), encodedContent );
+        final boolean gzip = compressible && isGzipAccepted();
+
+        if ( handleEtagLogic && !StringUtils.isEmpty( content ) ) // empty content has no etag
         {
-            // Handling etag logic if cache headers are enabled
-            final String etagFromContent = resolveEtag( content );
+            // Handling etag logic if cache headers are enabled, the gzipped variant has its own etag
+            final String etagFromContent = gzip ? encodedContent.getEtag() + GZIP_ETAG_SUFFIX : encodedContent.getEtag();
 
             HttpServletUtil.setEtag( httpResponse, etagFromContent );
 
@@ -138,6 +146,7 @@ public class PortalResponseProcessor
             {
                 httpResponse.setStatus( HttpServletResponse.SC_NOT_MODIFIED );
                 writeContent = false;
+                notModified = true;
             }
         }
 
@@ -152,21 +161,78 @@ public class PortalResponseProcessor
 
         httpResponse.setContentType( response.getHttpContentType() );
 
+        if ( compressible )
+        {
+            httpResponse.addHeader( "Vary", "Accept-Encoding" );
+        }
+
+        if ( gzip )
+        {
+            httpResponse.setHeader( "Content-Encoding", "gzip" );
+        }
+
+        if ( notModified )
+        {
+            // no body, so no need to encode or compress it
+            return;
+        }
+
+        final byte[] bytes = gzip ? encodedContent.getGzippedBytes() : encodedContent.getBytes();
+
         if ( isHeadRequest )
         {
-            httpResponse.setContentLength( response.getContentAsBytes().length );
+            httpResponse.setContentLength( bytes.length );
         }
 
         if ( writeContent )
         {
-            writeContent( response.getContentAsBytes() );
+            writeContent( bytes );
+        }
+    }
+
+    private boolean isCompressible( final String contentType, final EncodedResponse encodedContent )
+    {
+        if ( !gzipEnabled || contentType == null || encodedContent.getBytes().length < gzipMinSize )
+        {
+            return false;
+        }
+
+        final String mimeType = StringUtils.substringBefore( contentType, ";" ).trim().toLowerCase();
+        return mimeType.startsWith( "text/" ) || mimeType.endsWith( "+xml" ) || mimeType.endsWith( "/xml" ) ||
+            mimeType.endsWith( "/json" ) || mimeType.endsWith( "/javascript" );
+    }
+
+    private boolean isGzipAccepted()
+    {
+        final String acceptEncoding = httpRequest.getHeader( "Accept-Encoding" );
+        if ( acceptEncoding == null )
+        {
+            return false;
         }
+
+        for ( final String value : acceptEncoding.split( "," ) )
+        {
+            final String coding = StringUtils.substringBefore( value, ";" ).trim();
+            if ( "gzip".equalsIgnoreCase( coding ) || "x-gzip".equalsIgnoreCase( coding ) || "*".equals( coding ) )
+            {
+                return !isQualityZero( StringUtils.substringAfter( value, ";" ) );
+            }
+        }
+
+        return false;
     }
 
-    private String resolveEtag( String content )
+    private boolean isQualityZero( final String params )
     {
-        Preconditions.checkArgument( StringUtils.isNotEmpty( content ) );
-        return "content_" + DigestUtil.generateSHA( content );
+        final String quality = StringUtils.substringAfter( params.replace( " ", "" ), "q=" );
+        try
+        {
+            return quality.length() > 0 && Float.parseFloat( StringUtils.substringBefore( quality, ";" ) ) == 0;
+        }
+        catch ( final NumberFormatException e )
+        {
+            return false;
+        }
     }
 
     private boolean isContentModified( String etagFromContent )
@@ -411,4 +477,14 @@ public class PortalResponseProcessor
     {
         this.encodeRedirectUrl = encodeRedirectUrl;
     }
+
+    public void setGzipEnabled( final boolean gzipEnabled )
+    {
+        this.gzipEnabled = gzipEnabled;
+    }
+
+    public void setGzipMinSize( final int gzipMinSize )
+    {
+        this.gzipMinSize = gzipMinSize;
+    }
 }
@@ -3,6 +3,8 @@ package com.enonic.cms.web.status;
 import java.util.Collections;
 import java.util.List;
 
+import javax.servlet.http.HttpServletResponse;
+
 import org.codehaus.jackson.node.JsonNodeFactory;
 import org.codehaus.jackson.node.ObjectNode;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,11 +14,15 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.ResponseBody;
 
+import com.enonic.cms.core.xslt.portal.XsltTemplatesWarmUp;
+
 @Controller
 public final class StatusController
 {
     private List<StatusInfoBuilder> infoBuilders;
 
+    private XsltTemplatesWarmUp xsltTemplatesWarmUp;
+
     @ResponseBody
     @RequestMapping(value = "/status", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
     public String serveStatus()
@@ -25,6 +31,22 @@ public final class StatusController
         return serializeJson( json );
     }
 
+    /**
+     * Responds with 503 until the node is ready to serve traffic, for load balancer health checks.
+     */
+    @ResponseBody
+    @RequestMapping(value = "/status/ready", method = RequestMethod.GET, produces = MediaType.TEXT_PLAIN_VALUE)
+    public String serveReady( final HttpServletResponse response )
+    {
+        if ( this.xsltTemplatesWarmUp.isReady() )
+        {
+            return "ready";
+        }
+
+        response.setStatus( HttpServletResponse.SC_SERVICE_UNAVAILABLE );
+        return "warming up";
+    }
+
     private ObjectNode createStatus()
     {
         final ObjectNode node = JsonNodeFactory.instance.objectNode();
@@ -47,4 +69,10 @@ public final class StatusController
         this.infoBuilders = infoBuilders;
         Collections.sort( this.infoBuilders );
     }
+
+    @Autowired
+    public void setXsltTemplatesWarmUp( final XsltTemplatesWarmUp xsltTemplatesWarmUp )
+    {
+        this.xsltTemplatesWarmUp = xsltTemplatesWarmUp;
+    }
 }
@@ -0,0 +1,37 @@
+package com.enonic.cms.web.status.builders;
+
+import java.util.Map;
+
+import org.codehaus.jackson.node.ObjectNode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.enonic.cms.store.hibernate.cache.invalidation.CacheInvalidator;
+import com.enonic.cms.store.support.DecoratorManager;
+import com.enonic.cms.web.status.StatusInfoBuilder;
+
+@Component
+public final class CacheInvalidationStatusInfoBuilder
+    extends StatusInfoBuilder
+{
+    @Autowired
+    private DecoratorManager decoratorManager;
+
+    public CacheInvalidationStatusInfoBuilder()
+    {
+        super( "cacheInvalidation" );
+    }
+
+    @Override
+    protected void build( final ObjectNode json )
+    {
+        final CacheInvalidator cacheInvalidator = decoratorManager.getCacheInvalidator();
+        json.put( "analyzedSql", cacheInvalidator.getAnalyzedSqlCount() );
+
+        final ObjectNode tables = json.putObject( "invalidationsByTable" );
+        for ( final Map.Entry<String, Long> entry : cacheInvalidator.getInvalidationCounts().entrySet() )
+        {
+            tables.put( entry.getKey(), entry.getValue() );
+        }
+    }
+}
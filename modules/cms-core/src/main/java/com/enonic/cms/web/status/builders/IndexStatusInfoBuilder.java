@@ -6,6 +6,8 @@ import org.elasticsearch.action.admin.indices.status.IndexStatus;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import com.enonic.cms.core.search.ContentIndexBatchExecutor;
+import com.enonic.cms.core.search.ContentIndexQueryCache;
 import com.enonic.cms.core.search.ElasticSearchIndexService;
 import com.enonic.cms.web.status.StatusInfoBuilder;
 
@@ -16,6 +18,12 @@ public class IndexStatusInfoBuilder
     @Autowired
     private ElasticSearchIndexService elasticSearchIndexService;
 
+    @Autowired
+    private ContentIndexBatchExecutor contentIndexBatchExecutor;
+
+    @Autowired
+    private ContentIndexQueryCache contentIndexQueryCache;
+
     public IndexStatusInfoBuilder()
     {
         super( "index" );
@@ -26,6 +34,27 @@ public class IndexStatusInfoBuilder
     {
         buildClusterHealtStatus( json );
         buildIndexStatus( json );
+        buildIndexQueueStatus( json );
+        buildQueryCacheStatus( json );
+    }
+
+    private void buildQueryCacheStatus( final ObjectNode json )
+    {
+        final ObjectNode queryCache = json.putObject( "queryCache" );
+        queryCache.put( "enabled", contentIndexQueryCache.isEnabled() );
+        queryCache.put( "size", contentIndexQueryCache.getSize() );
+        queryCache.put( "hits", contentIndexQueryCache.getHitCount() );
+        queryCache.put( "misses", contentIndexQueryCache.getMissCount() );
+        queryCache.put( "generation", contentIndexQueryCache.getGeneration() );
+    }
+
+    private void buildIndexQueueStatus( final ObjectNode json )
+    {
+        json.put( "asyncIndexing", contentIndexBatchExecutor.isAsync() );
+        json.put( "pendingBatches", contentIndexBatchExecutor.getPendingBatchCount() );
+        json.put( "indexLag", contentIndexBatchExecutor.getIndexLag() );
+        json.put( "maxIndexLag", contentIndexBatchExecutor.getMaxIndexLag() );
+        json.put( "failedBatches", contentIndexBatchExecutor.getFailedBatchCount() );
     }
 
     private void buildIndexStatus( final ObjectNode json )
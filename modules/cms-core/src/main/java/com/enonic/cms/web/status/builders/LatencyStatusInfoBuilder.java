@@ -0,0 +1,45 @@
+package com.enonic.cms.web.status.builders;
+
+import org.codehaus.jackson.node.ObjectNode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.enonic.cms.core.portal.livetrace.latency.LatencyCategory;
+import com.enonic.cms.core.portal.livetrace.latency.LatencyMetrics;
+import com.enonic.cms.core.portal.livetrace.latency.LatencyStats;
+import com.enonic.cms.web.status.StatusInfoBuilder;
+
+@Component
+public final class LatencyStatusInfoBuilder
+    extends StatusInfoBuilder
+{
+    @Autowired
+    private LatencyMetrics latencyMetrics;
+
+    public LatencyStatusInfoBuilder()
+    {
+        super( "latency" );
+    }
+
+    @Override
+    protected void build( final ObjectNode json )
+    {
+        json.put( "enabled", latencyMetrics.isEnabled() );
+        json.put( "since", latencyMetrics.getSince() );
+
+        for ( final LatencyCategory category : LatencyCategory.values() )
+        {
+            final ObjectNode categoryNode = json.putObject( category.getName() );
+            for ( final LatencyStats stats : latencyMetrics.getStats( category ) )
+            {
+                final ObjectNode node = categoryNode.putObject( stats.getName() );
+                node.put( "count", stats.getCount() );
+                node.put( "mean", stats.getMean() );
+                node.put( "p50", stats.getP50() );
+                node.put( "p90", stats.getP90() );
+                node.put( "p99", stats.getP99() );
+                node.put( "max", stats.getMax() );
+            }
+        }
+    }
+}
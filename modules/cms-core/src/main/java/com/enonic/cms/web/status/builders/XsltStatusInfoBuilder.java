@@ -0,0 +1,34 @@
+package com.enonic.cms.web.status.builders;
+
+import org.codehaus.jackson.node.ObjectNode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.enonic.cms.core.xslt.portal.XsltTemplatesWarmUp;
+import com.enonic.cms.web.status.StatusInfoBuilder;
+
+@Component
+public final class XsltStatusInfoBuilder
+    extends StatusInfoBuilder
+{
+    @Autowired
+    private XsltTemplatesWarmUp xsltTemplatesWarmUp;
+
+    public XsltStatusInfoBuilder()
+    {
+        super( "xslt" );
+    }
+
+    @Override
+    protected void build( final ObjectNode json )
+    {
+        final ObjectNode warmUp = json.putObject( "warmUp" );
+        warmUp.put( "state", xsltTemplatesWarmUp.getState() );
+        warmUp.put( "ready", xsltTemplatesWarmUp.isReady() );
+        warmUp.put( "progress", xsltTemplatesWarmUp.getProgress() );
+        warmUp.put( "stylesheets", xsltTemplatesWarmUp.getStylesheetCount() );
+        warmUp.put( "compiled", xsltTemplatesWarmUp.getCompiledCount() );
+        warmUp.put( "failed", xsltTemplatesWarmUp.getFailedCount() );
+        warmUp.put( "time", xsltTemplatesWarmUp.getTime() );
+    }
+}
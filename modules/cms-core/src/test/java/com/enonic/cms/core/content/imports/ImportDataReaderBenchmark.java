@@ -0,0 +1,193 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.core.content.imports;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.enonic.cms.core.content.contenttype.ContentHandlerName;
+import com.enonic.cms.core.content.contenttype.ContentTypeConfig;
+import com.enonic.cms.core.content.contenttype.CtyFormConfig;
+import com.enonic.cms.core.content.contenttype.CtyImportConfig;
+import com.enonic.cms.core.content.contenttype.CtyImportMappingConfig;
+import com.enonic.cms.core.content.contenttype.CtyImportModeConfig;
+import com.enonic.cms.core.content.contenttype.CtySetConfig;
+import com.enonic.cms.core.content.contenttype.dataentryconfig.TextDataEntryConfig;
+
+/**
+ * Benchmark measuring how fast {@link ImportDataReaderXml} and {@link ImportDataReaderCsv} read a synthetic feed, and
+ * how much heap they use while doing so. The feed is generated as it is read, so the heap used is that of the reader.
+ * It is not run as part of the test suite; start it with the main method. Pass the number of rows as argument,
+ * otherwise 1 000 000 rows are read.
+ */
+public final class ImportDataReaderBenchmark
+{
+    private static final int HEAP_SAMPLE_INTERVAL = 10000;
+
+    public static void main( final String[] args )
+        throws Exception
+    {
+        final int rows = args.length > 0 ? Integer.parseInt( args[0] ) : 1000000;
+
+        // warm up
+        run( CtyImportModeConfig.XML, 10000, false );
+        run( CtyImportModeConfig.CSV, 10000, false );
+
+        run( CtyImportModeConfig.XML, rows, true );
+        run( CtyImportModeConfig.CSV, rows, true );
+    }
+
+    private static void run( final CtyImportModeConfig mode, final int rows, final boolean report )
+        throws Exception
+    {
+        System.gc();
+        final Runtime runtime = Runtime.getRuntime();
+        final long baseHeap = runtime.totalMemory() - runtime.freeMemory();
+        long maxHeap = baseHeap;
+
+        final long startTime = System.nanoTime();
+        final ImportDataReader reader = createReader( mode, rows );
+
+        int count = 0;
+        while ( reader.hasMoreEntries() )
+        {
+            reader.getNextEntry();
+            if ( ++count % HEAP_SAMPLE_INTERVAL == 0 )
+            {
+                maxHeap = Math.max( maxHeap, runtime.totalMemory() - runtime.freeMemory() );
+            }
+        }
+        final long elapsed = System.nanoTime() - startTime;
+
+        if ( count != rows )
+        {
+            throw new IllegalStateException( "Expected " + rows + " entries, read " + count );
+        }
+
+        if ( report )
+        {
+            final double seconds = elapsed / 1000000000.0;
+            System.out.println( String.format( "%s: rows: %d, rows/s: %8.0f, max heap growth: %6.1f MB", mode, rows, rows / seconds,
+                                               ( maxHeap - baseHeap ) / ( 1024.0 * 1024.0 ) ) );
+        }
+    }
+
+    private static ImportDataReader createReader( final CtyImportModeConfig mode, final int rows )
+    {
+        final ContentTypeConfig contentTypeConfig = new ContentTypeConfig( ContentHandlerName.CUSTOM, "Product" );
+        final CtyFormConfig formConfig = new CtyFormConfig( contentTypeConfig );
+        final CtySetConfig setConfig = new CtySetConfig( formConfig, "Product", null );
+        setConfig.addInput( new TextDataEntryConfig( "id", false, "Id", "contentdata/id" ) );
+        setConfig.addInput( new TextDataEntryConfig( "name", false, "Name", "contentdata/name" ) );
+        setConfig.addInput( new TextDataEntryConfig( "price", false, "Price", "contentdata/price" ) );
+        formConfig.addBlock( setConfig );
+
+        final CtyImportConfig importConfig = new CtyImportConfig( formConfig, "products", null, null );
+        importConfig.setMode( mode );
+
+        if ( mode == CtyImportModeConfig.XML )
+        {
+            importConfig.setBase( "/products/product" );
+            importConfig.addMapping( new CtyImportMappingConfig( importConfig, "@id", "id" ) );
+            importConfig.addMapping( new CtyImportMappingConfig( importConfig, "name", "name" ) );
+            importConfig.addMapping( new CtyImportMappingConfig( importConfig, "price", "price" ) );
+            return new ImportDataReaderXml( importConfig, new FeedInputStream( mode, rows ) );
+        }
+
+        importConfig.addMapping( new CtyImportMappingConfig( importConfig, "1", "id" ) );
+        importConfig.addMapping( new CtyImportMappingConfig( importConfig, "2", "name" ) );
+        importConfig.addMapping( new CtyImportMappingConfig( importConfig, "3", "price" ) );
+        return new ImportDataReaderCsv( importConfig, new FeedInputStream( mode, rows ) );
+    }
+
+    /**
+     * Generates the rows of the feed as they are read.
+     */
+    private static final class FeedInputStream
+        extends InputStream
+    {
+        private final CtyImportModeConfig mode;
+
+        private final int rows;
+
+        private int row = -1;
+
+        private byte[] buffer = new byte[0];
+
+        private int position;
+
+        private FeedInputStream( final CtyImportModeConfig mode, final int rows )
+        {
+            this.mode = mode;
+            this.rows = rows;
+        }
+
+        @Override
+        public int read()
+            throws IOException
+        {
+            if ( this.position == this.buffer.length && !fill() )
+            {
+                return -1;
+            }
+            return this.buffer[this.position++] & 0xff;
+        }
+
+        @Override
+        public int read( final byte[] bytes, final int offset, final int length )
+            throws IOException
+        {
+            if ( this.position == this.buffer.length && !fill() )
+            {
+                return -1;
+            }
+
+            final int count = Math.min( length, this.buffer.length - this.position );
+            System.arraycopy( this.buffer, this.position, bytes, offset, count );
+            this.position += count;
+            return count;
+        }
+
+        private boolean fill()
+            throws IOException
+        {
+            do
+            {
+                if ( this.row > this.rows )
+                {
+                    return false;
+                }
+
+                this.buffer = nextChunk().getBytes( "UTF-8" );
+                this.position = 0;
+                this.row++;
+            }
+            while ( this.buffer.length == 0 );
+
+            return true;
+        }
+
+        private String nextChunk()
+        {
+            final boolean xml = this.mode == CtyImportModeConfig.XML;
+            if ( this.row == -1 )
+            {
+                return xml ? "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<products>\n" : "";
+            }
+            if ( this.row == this.rows )
+            {
+                return xml ? "</products>\n" : "";
+            }
+
+            final String name = "Product number " + this.row + " with a rather long name \u00e6\u00f8\u00e5";
+            final String price = ( this.row % 1000 ) + ".95";
+            if ( xml )
+            {
+                return "  <product id=\"" + this.row + "\"><name>" + name + "</name><price>" + price + "</price></product>\n";
+            }
+            return this.row + ";" + name + ";" + price + "\n";
+        }
+    }
+}
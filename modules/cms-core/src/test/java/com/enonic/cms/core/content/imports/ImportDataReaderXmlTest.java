@@ -418,6 +418,98 @@ public class ImportDataReaderXmlTest
         assertEquals( "some text", textAsString );
     }
 
+    @Test
+    public void base_elements_are_streamed_with_namespaces_in_scope()
+        throws UnsupportedEncodingException
+    {
+        CtyImportConfig importConfig = new CtyImportConfig( ctyFormConfig, "import-xml-ns", null, null );
+        importConfig.setBase( "p:item" );
+        importConfig.setMode( CtyImportModeConfig.XML );
+        CtyImportMappingConfig mappingId = new CtyImportMappingConfig( importConfig, "p:id/@value", "id" );
+        importConfig.addMapping( mappingId );
+
+        assertTrue( ImportDataXmlStream.isStreamable( importConfig ) );
+
+        StringBuffer importSource = new StringBuffer();
+        importSource.append( "<p:root xmlns:p='urn:p'>" +
+                                 "<p:item><p:id value='1001'/></p:item>" +
+                                 "<p:other><p:item><p:id value='1002'/></p:item></p:other>" +
+                                 "<p:item><p:id value='1003'/></p:item>" +
+                                 "</p:root>" );
+
+        ImportDataReaderXml reader = new ImportDataReaderXml( importConfig, stringBufferToInputStream( importSource ) );
+
+        assertTrue( reader.hasMoreEntries() );
+        assertEquals( "1001", ( (StringSourceValue) reader.getNextEntry().getConfigAndValueMap().get( mappingId ) ).getValue() );
+        assertTrue( reader.hasMoreEntries() );
+        assertEquals( "1003", ( (StringSourceValue) reader.getNextEntry().getConfigAndValueMap().get( mappingId ) ).getValue() );
+        assertFalse( reader.hasMoreEntries() );
+    }
+
+    @Test
+    public void mapping_outside_base_element_reads_whole_document()
+        throws UnsupportedEncodingException
+    {
+        CtyImportMappingConfig mappingText = new CtyImportMappingConfig( importMultiTypeXml, "../@type", "text" );
+        importMultiTypeXml.addMapping( mappingText );
+
+        assertFalse( ImportDataXmlStream.isStreamable( importMultiTypeXml ) );
+
+        StringBuffer importSource = new StringBuffer();
+        importSource.append( "<root type='employee'><multi-type><id value='1001'/></multi-type></root>" );
+
+        ImportDataReaderXml reader = new ImportDataReaderXml( importMultiTypeXml, stringBufferToInputStream( importSource ) );
+
+        assertTrue( reader.hasMoreEntries() );
+        assertEquals( "employee", ( (StringSourceValue) reader.getNextEntry().getConfigAndValueMap().get( mappingText ) ).getValue() );
+        assertFalse( reader.hasMoreEntries() );
+    }
+
+    @Test
+    public void base_with_predicate_is_not_streamed()
+    {
+        importMultiTypeXml.setBase( "/root/multi-type[@active = 'true']" );
+        assertFalse( ImportDataXmlStream.isStreamable( importMultiTypeXml ) );
+
+        importMultiTypeXml.setBase( "//multi-type" );
+        assertFalse( ImportDataXmlStream.isStreamable( importMultiTypeXml ) );
+
+        importMultiTypeXml.setBase( "/root/*" );
+        assertTrue( ImportDataXmlStream.isStreamable( importMultiTypeXml ) );
+    }
+
+    @Test
+    public void mapping_with_absolute_path_after_operator_is_not_streamed()
+    {
+        CtyImportMappingConfig mappingText = new CtyImportMappingConfig( importMultiTypeXml, "x = /root/y", "text" );
+        importMultiTypeXml.addMapping( mappingText );
+        assertFalse( ImportDataXmlStream.isStreamable( importMultiTypeXml ) );
+    }
+
+    @Test
+    public void mapping_comparing_with_absolute_path_is_not_streamed()
+    {
+        CtyImportMappingConfig mappingText = new CtyImportMappingConfig( importMultiTypeXml, "@id != /a/b", "text" );
+        importMultiTypeXml.addMapping( mappingText );
+        assertFalse( ImportDataXmlStream.isStreamable( importMultiTypeXml ) );
+    }
+
+    @Test
+    public void mapping_adding_absolute_path_is_not_streamed()
+    {
+        CtyImportMappingConfig mappingText = new CtyImportMappingConfig( importMultiTypeXml, ". + /r/n", "text" );
+        importMultiTypeXml.addMapping( mappingText );
+        assertFalse( ImportDataXmlStream.isStreamable( importMultiTypeXml ) );
+    }
+
+    @Test
+    public void mapping_with_relative_paths_and_slash_in_literal_is_streamed()
+    {
+        CtyImportMappingConfig mappingText = new CtyImportMappingConfig( importMultiTypeXml, "concat( text//@name, '/', id * 2 )", "text" );
+        importMultiTypeXml.addMapping( mappingText );
+        assertTrue( ImportDataXmlStream.isStreamable( importMultiTypeXml ) );
+    }
+
     private InputStream stringBufferToInputStream( StringBuffer buffer )
         throws UnsupportedEncodingException
     {
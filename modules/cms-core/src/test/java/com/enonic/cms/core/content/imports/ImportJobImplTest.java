@@ -0,0 +1,236 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.core.content.imports;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.enonic.cms.core.content.ContentKey;
+import com.enonic.cms.core.content.IndexService;
+import com.enonic.cms.core.content.category.CategoryEntity;
+import com.enonic.cms.core.content.category.CategoryKey;
+import com.enonic.cms.core.content.contenttype.ContentTypeEntity;
+import com.enonic.cms.core.content.contenttype.CtyImportBlockConfig;
+import com.enonic.cms.core.content.contenttype.CtyImportConfig;
+import com.enonic.cms.core.content.contenttype.CtyImportMappingConfig;
+import com.enonic.cms.core.content.index.ContentIndexQuery;
+import com.enonic.cms.core.content.resultset.ContentResultSet;
+import com.enonic.cms.core.search.query.ContentIndexService;
+import com.enonic.cms.store.dao.ContentDao;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.*;
+
+public class ImportJobImplTest
+{
+    private ImportService importService;
+
+    private IndexService indexService;
+
+    private ImportDataReader importDataReader;
+
+    private CtyImportConfig importConfig;
+
+    private int entriesLeft;
+
+    @Before
+    public void setUp()
+    {
+        importService = mock( ImportService.class );
+        indexService = mock( IndexService.class );
+        importDataReader = mock( ImportDataReader.class );
+
+        importConfig = mock( CtyImportConfig.class );
+        when( importConfig.getMappings() ).thenReturn( Collections.<CtyImportMappingConfig>emptyList() );
+        when( importConfig.getBlocks() ).thenReturn( Collections.<CtyImportBlockConfig>emptyList() );
+
+        entriesLeft = 250;
+        when( importDataReader.hasMoreEntries() ).thenAnswer( new Answer<Boolean>()
+        {
+            public Boolean answer( final InvocationOnMock invocation )
+            {
+                return entriesLeft > 0;
+            }
+        } );
+        when( importDataReader.getNextEntry() ).thenAnswer( new Answer<ImportDataEntry>()
+        {
+            public ImportDataEntry answer( final InvocationOnMock invocation )
+            {
+                entriesLeft--;
+                return new ImportDataEntry( null );
+            }
+        } );
+    }
+
+    @Test
+    public void testImportInBatchesIndexesAllContentAtTheEnd()
+    {
+        when( importService.importBatch( anyListOf( ImportDataEntry.class ), any( ImportJob.class ) ) ).thenAnswer(
+            new ContentKeysAnswer( 0 ) );
+
+        createJob().start();
+
+        verify( importService, times( 3 ) ).importBatch( anyListOf( ImportDataEntry.class ), any( ImportJob.class ) );
+        verify( importService, never() ).importData( any( ImportDataEntry.class ), any( ImportJob.class ) );
+        assertEquals( 250, getReindexedContent().size() );
+    }
+
+    @Test
+    public void testImportInBatchesIndexesStoredContentWhenFailing()
+    {
+        entriesLeft = 300;
+        when( importService.importBatch( anyListOf( ImportDataEntry.class ), any( ImportJob.class ) ) ).thenAnswer(
+            new ContentKeysAnswer( 2 ) );
+
+        try
+        {
+            createJob().start();
+            fail( "Expected ImportException" );
+        }
+        catch ( ImportException e )
+        {
+            assertEquals( "Failed batch", e.getMessage() );
+        }
+
+        // the content of the batch stored before the failure is indexed, the content of the failing batch is not
+        final Set<ContentKey> reindexed = getReindexedContent();
+        for ( int i = 0; i < 200; i++ )
+        {
+            assertEquals( i < 100, reindexed.contains( new ContentKey( i ) ) );
+        }
+    }
+
+    @Test
+    public void testImportEntryByEntryWhenRelatingToImportedContentType()
+    {
+        final CtyImportMappingConfig mapping = mock( CtyImportMappingConfig.class );
+        when( mapping.getRelatedContentType() ).thenReturn( "Article" );
+        when( importConfig.getMappings() ).thenReturn( Collections.singletonList( mapping ) );
+
+        createJob().start();
+
+        verify( importService, never() ).importBatch( anyListOf( ImportDataEntry.class ), any( ImportJob.class ) );
+        verify( importService, times( 250 ) ).importData( any( ImportDataEntry.class ), any( ImportJob.class ) );
+    }
+
+    @Test
+    public void testImportInBatchesFailsOnSyncValuesDifferingInCaseOnly()
+    {
+        entriesLeft = 2;
+        when( importConfig.isSyncEnabled() ).thenReturn( true );
+        doAnswer( new Answer<ImportDataEntry>()
+        {
+            public ImportDataEntry answer( final InvocationOnMock invocation )
+            {
+                final ImportDataEntry entry = mock( ImportDataEntry.class );
+                when( entry.getSyncValue() ).thenReturn( entriesLeft-- == 2 ? "key" : "KEY" );
+                return entry;
+            }
+        } ).when( importDataReader ).getNextEntry();
+
+        // no existing content in the category
+        when( importConfig.isSyncMappedToContentKey() ).thenReturn( true );
+        final ContentIndexService contentIndexService = mock( ContentIndexService.class );
+        when( contentIndexService.query( any( ContentIndexQuery.class ) ) ).thenReturn( mock( ContentResultSet.class ) );
+
+        final ImportJobImpl job = createJob();
+        job.setContentDao( mock( ContentDao.class ) );
+        job.setContentIndexService( contentIndexService );
+
+        try
+        {
+            job.start();
+            fail( "Expected InvalidImportDataException" );
+        }
+        catch ( InvalidImportDataException e )
+        {
+            assertTrue( e.getMessage().contains( "KEY" ) );
+        }
+        verify( importService, never() ).importBatch( anyListOf( ImportDataEntry.class ), any( ImportJob.class ) );
+    }
+
+    private ImportJobImpl createJob()
+    {
+        final ContentTypeEntity contentType = mock( ContentTypeEntity.class );
+        when( contentType.getName() ).thenReturn( "article" );
+
+        final CategoryEntity category = mock( CategoryEntity.class );
+        when( category.getKey() ).thenReturn( new CategoryKey( 1 ) );
+        when( category.getContentType() ).thenReturn( contentType );
+
+        final ImportJobImpl job = new ImportJobImpl();
+        job.setImportService( importService );
+        job.setIndexService( indexService );
+        job.setImportConfig( importConfig );
+        job.setCategoryToImportTo( category );
+        job.setImportDataReader( importDataReader );
+        job.setExecuteInOneTransaction( false );
+        job.setBatchSize( 100 );
+        job.setThreads( 2 );
+        return job;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<ContentKey> getReindexedContent()
+    {
+        final ArgumentCaptor<List> captor = ArgumentCaptor.forClass( List.class );
+        verify( indexService, atLeastOnce() ).reindex( captor.capture() );
+
+        final Set<ContentKey> reindexed = new HashSet<ContentKey>();
+        for ( List<ContentKey> contentKeys : captor.getAllValues() )
+        {
+            reindexed.addAll( contentKeys );
+        }
+        return reindexed;
+    }
+
+    /**
+     * Returns a content key for every entry of a batch, numbered in the order the batches are stored, and fails when
+     * storing the batch with the given number.
+     */
+    private static final class ContentKeysAnswer
+        implements Answer<Set<ContentKey>>
+    {
+        private final int failingBatch;
+
+        private int batchCount;
+
+        private int nextKey;
+
+        private ContentKeysAnswer( final int failingBatch )
+        {
+            this.failingBatch = failingBatch;
+        }
+
+        public synchronized Set<ContentKey> answer( final InvocationOnMock invocation )
+        {
+            final List<?> batch = (List<?>) invocation.getArguments()[0];
+            final int batchStart = this.nextKey;
+            this.nextKey += batch.size();
+
+            if ( ++this.batchCount == this.failingBatch )
+            {
+                throw new ImportException( "Failed batch" );
+            }
+
+            final Set<ContentKey> contentKeys = new HashSet<ContentKey>();
+            for ( int i = batchStart; i < this.nextKey; i++ )
+            {
+                contentKeys.add( new ContentKey( i ) );
+            }
+            return Collections.unmodifiableSet( contentKeys );
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+
+package com.enonic.cms.core.image.cache;
+
+import java.io.File;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.enonic.cms.framework.cache.CacheFacade;
+import com.enonic.cms.framework.cache.CacheManager;
+
+import com.enonic.cms.core.image.ImageRequest;
+import com.enonic.cms.core.image.ImageResponse;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class DiskImageCacheTest
+{
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private File dir;
+
+    @Before
+    public void setUp()
+        throws Exception
+    {
+        this.dir = this.folder.newFolder( "image-cache" );
+    }
+
+    @Test
+    public void testPutAndGet()
+    {
+        final DiskImageCache cache = createCache( 1000 );
+        final ImageRequest req = createRequest( "0123" );
+
+        assertNull( cache.get( req ) );
+
+        cache.put( req, new ImageResponse( "name", new byte[]{1, 2, 3}, "png" ) );
+
+        final ImageResponse res = cache.get( req );
+        assertNotNull( res );
+        assertArrayEquals( new byte[]{1, 2, 3}, res.getData() );
+        assertEquals( 1, cache.getCount() );
+        assertEquals( 3, cache.getSizeInBytes() );
+        assertEquals( 1, cache.getHitCount() );
+        assertEquals( 1, cache.getMissCount() );
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed()
+    {
+        final DiskImageCache cache = createCache( 20 );
+        final ImageRequest req1 = createRequest( "0001" );
+        final ImageRequest req2 = createRequest( "0002" );
+        final ImageRequest req3 = createRequest( "0003" );
+
+        cache.put( req1, new ImageResponse( "name", new byte[8], "png" ) );
+        cache.put( req2, new ImageResponse( "name", new byte[8], "png" ) );
+        assertNotNull( cache.get( req1 ) );
+
+        cache.put( req3, new ImageResponse( "name", new byte[8], "png" ) );
+
+        assertNotNull( cache.get( req1 ) );
+        assertNull( cache.get( req2 ) );
+        assertNotNull( cache.get( req3 ) );
+        assertEquals( 16, cache.getSizeInBytes() );
+        assertEquals( 1, cache.getEvictionCount() );
+    }
+
+    @Test
+    public void testEntriesSurviveRestart()
+    {
+        final ImageRequest req = createRequest( "0123" );
+        createCache( 1000 ).put( req, new ImageResponse( "name", new byte[]{1, 2, 3}, "png" ) );
+
+        final DiskImageCache cache = createCache( 1000 );
+        assertEquals( 1, cache.getCount() );
+        assertNotNull( cache.get( req ) );
+    }
+
+    @Test
+    public void testPutLeavesNoTemporaryFiles()
+    {
+        final DiskImageCache cache = createCache( 1000 );
+        final ImageRequest req = createRequest( "0123" );
+
+        cache.put( req, new ImageResponse( "name", new byte[]{1, 2, 3}, "png" ) );
+        cache.put( req, new ImageResponse( "name", new byte[]{4, 5}, "png" ) );
+
+        assertArrayEquals( new String[]{"0123"}, new File( this.dir, "01" ).list() );
+        assertArrayEquals( new byte[]{4, 5}, cache.get( req ).getData() );
+        assertEquals( 2, cache.getSizeInBytes() );
+    }
+
+    @Test
+    public void testClear()
+    {
+        final DiskImageCache cache = createCache( 1000 );
+        final ImageRequest req = createRequest( "0123" );
+        cache.put( req, new ImageResponse( "name", new byte[]{1, 2, 3}, "png" ) );
+
+        cache.clear();
+
+        assertNull( cache.get( req ) );
+        assertEquals( 0, cache.getCount() );
+        assertEquals( 0, cache.getSizeInBytes() );
+        assertEquals( 0, new File( this.dir, "01" ).list().length );
+    }
+
+    @Test
+    public void testClearedWithMemoryCache()
+    {
+        final CacheFacade memoryCache = mock( CacheFacade.class );
+        final CacheManager cacheManager = mock( CacheManager.class );
+        when( cacheManager.getImageCache() ).thenReturn( memoryCache );
+        when( memoryCache.getGeneration() ).thenReturn( 1L );
+
+        final DiskImageCache cache = new DiskImageCache();
+        cache.setCacheManager( cacheManager );
+        cache.setEnabled( true );
+        cache.setDirectory( this.dir );
+        cache.setMaxSize( 1000 );
+        cache.init();
+
+        final ImageRequest req = createRequest( "0123" );
+        cache.put( req, new ImageResponse( "name", new byte[]{1, 2, 3}, "png" ) );
+        assertNotNull( cache.get( req ) );
+
+        when( memoryCache.getGeneration() ).thenReturn( 2L );
+
+        assertNull( cache.get( req ) );
+        assertEquals( 0, cache.getCount() );
+        assertEquals( 0, new File( this.dir, "01" ).list().length );
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        final DiskImageCache cache = new DiskImageCache();
+        cache.setEnabled( false );
+        cache.init();
+
+        final ImageRequest req = createRequest( "0123" );
+        cache.put( req, new ImageResponse( "name", new byte[]{1, 2, 3}, "png" ) );
+
+        assertNull( cache.get( req ) );
+        assertEquals( 0, this.dir.list().length );
+    }
+
+    private DiskImageCache createCache( final long maxSize )
+    {
+        final DiskImageCache cache = new DiskImageCache();
+        cache.setEnabled( true );
+        cache.setDirectory( this.dir );
+        cache.setMaxSize( maxSize );
+        cache.init();
+        return cache;
+    }
+
+    private ImageRequest createRequest( final String blobKey )
+    {
+        final ImageRequest req = new ImageRequest();
+        req.setBlobKey( blobKey );
+        return req;
+    }
+}
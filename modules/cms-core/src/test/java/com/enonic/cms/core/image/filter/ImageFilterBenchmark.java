@@ -0,0 +1,112 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+
+package com.enonic.cms.core.image.filter;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.enonic.cms.framework.util.ImageHelper;
+
+/**
+ * Benchmark for common filter chains, comparing one pass per filter with the fused point filters, and with blur and
+ * sharpen running on tiles in parallel. It is not run as part of the test suite; start it with the main method.
+ */
+public final class ImageFilterBenchmark
+{
+    private static final String[] CHAINS =
+        {"scalewidth(400);rounded(8);grayscale;sharpen", "grayscale;sepia(20);invert", "colorize(1.2,0.9,0.8);hsbadjust(0.1,0.1,0);invert",
+            "blur(6)", "scalewidth(1200);blur(3);sharpen"};
+
+    private static final int ITERATIONS = 10;
+
+    public static void main( final String[] args )
+        throws Exception
+    {
+        final int threads = Runtime.getRuntime().availableProcessors();
+        final ExecutorService executor = Executors.newFixedThreadPool( threads );
+
+        try
+        {
+            final BufferedImage source = createSource( 2000, 1500 );
+            final ImageFilterBuilder builder = new ImageFilterBuilder();
+
+            final BuilderContext plainContext = new BuilderContext();
+            final BuilderContext tiledContext = new BuilderContext();
+            tiledContext.setTileExecutor( executor, threads );
+
+            System.out.println( String.format( "source: 2000x1500, tile threads: %d", threads ) );
+
+            for ( final String chain : CHAINS )
+            {
+                final ImageFilter[] separate = buildSeparate( builder, plainContext, chain );
+                final ImageFilter fused = builder.build( plainContext, chain );
+                final ImageFilter tiled = builder.build( tiledContext, chain );
+
+                // warm up
+                run( separate, source );
+                run( new ImageFilter[]{fused}, source );
+                run( new ImageFilter[]{tiled}, source );
+
+                final long separateTime = time( separate, source );
+                final long fusedTime = time( new ImageFilter[]{fused}, source );
+                final long tiledTime = time( new ImageFilter[]{tiled}, source );
+
+                System.out.println(
+                    String.format( "%-50s separate: %5d ms  fused: %5d ms  fused+tiled: %5d ms", chain, separateTime, fusedTime,
+                                   tiledTime ) );
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private static ImageFilter[] buildSeparate( final ImageFilterBuilder builder, final BuilderContext context, final String chain )
+    {
+        final String[] exprs = chain.split( ";" );
+        final ImageFilter[] filters = new ImageFilter[exprs.length];
+        for ( int i = 0; i < exprs.length; i++ )
+        {
+            filters[i] = builder.build( context, exprs[i] );
+        }
+        return filters;
+    }
+
+    private static long time( final ImageFilter[] filters, final BufferedImage source )
+    {
+        final long start = System.nanoTime();
+        for ( int i = 0; i < ITERATIONS; i++ )
+        {
+            run( filters, source );
+        }
+        return ( System.nanoTime() - start ) / ITERATIONS / 1000000L;
+    }
+
+    private static BufferedImage run( final ImageFilter[] filters, final BufferedImage source )
+    {
+        BufferedImage image = source;
+        for ( final ImageFilter filter : filters )
+        {
+            image = filter.filter( image );
+        }
+        return image;
+    }
+
+    private static BufferedImage createSource( final int width, final int height )
+    {
+        final BufferedImage image = ImageHelper.createImage( width, height, false );
+        final Graphics2D g = image.createGraphics();
+        g.setPaint( new GradientPaint( 0, 0, Color.BLUE, width, height, Color.ORANGE ) );
+        g.fillRect( 0, 0, width, height );
+        g.dispose();
+        return image;
+    }
+}
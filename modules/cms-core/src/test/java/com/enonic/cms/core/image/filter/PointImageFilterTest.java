@@ -0,0 +1,76 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+
+package com.enonic.cms.core.image.filter;
+
+import java.awt.image.BufferedImage;
+
+import org.junit.Test;
+
+import com.enonic.cms.framework.util.ImageHelper;
+
+import com.enonic.cms.core.image.filter.effect.ColorizeFilter;
+import com.enonic.cms.core.image.filter.effect.SepiaFilter;
+
+import static org.junit.Assert.*;
+
+public class PointImageFilterTest
+{
+    @Test
+    public void testMergedEqualsSeparatePasses()
+    {
+        final BufferedImage source = createSource();
+
+        final BufferedImage separate =
+            new AwtImageFilter( new ColorizeFilter( 1.2f, 0.8f, 1f ) ).filter( new AwtImageFilter( new SepiaFilter( 20 ) ).filter( source ) );
+
+        final PointImageFilter merged = new PointImageFilter( new SepiaFilter( 20 ) );
+        merged.merge( new PointImageFilter( new ColorizeFilter( 1.2f, 0.8f, 1f ) ) );
+        final BufferedImage fused = merged.filter( source );
+
+        assertEquals( separate.getWidth(), fused.getWidth() );
+        assertEquals( separate.getHeight(), fused.getHeight() );
+        for ( int y = 0; y < source.getHeight(); y++ )
+        {
+            for ( int x = 0; x < source.getWidth(); x++ )
+            {
+                assertEquals( separate.getRGB( x, y ), fused.getRGB( x, y ) );
+            }
+        }
+    }
+
+    @Test
+    public void testFilterSetMergesConsecutivePointFilters()
+    {
+        final ImageFilter scale = new ImageFilter()
+        {
+            public BufferedImage filter( final BufferedImage source )
+            {
+                return source;
+            }
+        };
+
+        final ImageFilterSet set = new ImageFilterSet();
+        set.addFilter( new PointImageFilter( new SepiaFilter( 20 ) ) );
+        set.addFilter( new PointImageFilter( new ColorizeFilter( 1f, 1f, 1f ) ) );
+        set.addFilter( scale );
+        set.addFilter( new PointImageFilter( new SepiaFilter( 10 ) ) );
+
+        assertEquals( 3, set.getFilterCount() );
+    }
+
+    private BufferedImage createSource()
+    {
+        final BufferedImage image = ImageHelper.createImage( 40, 30, false );
+        for ( int y = 0; y < image.getHeight(); y++ )
+        {
+            for ( int x = 0; x < image.getWidth(); x++ )
+            {
+                image.setRGB( x, y, ( ( x * 6 ) << 16 ) | ( ( y * 8 ) << 8 ) | ( ( x + y ) * 3 ) | 0xFF000000 );
+            }
+        }
+        return image;
+    }
+}
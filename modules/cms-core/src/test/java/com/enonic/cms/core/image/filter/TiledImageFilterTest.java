@@ -0,0 +1,71 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+
+package com.enonic.cms.core.image.filter;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ConvolveOp;
+import java.awt.image.Kernel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.enonic.cms.framework.util.ImageHelper;
+
+import static org.junit.Assert.*;
+
+public class TiledImageFilterTest
+{
+    private final ExecutorService executor = Executors.newFixedThreadPool( 4 );
+
+    @After
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testTiledEqualsWholeImage()
+    {
+        final float[] weights = new float[25];
+        for ( int i = 0; i < weights.length; i++ )
+        {
+            weights[i] = 1f / weights.length;
+        }
+        final ConvolveOp blur = new ConvolveOp( new Kernel( 5, 5, weights ) );
+
+        final BufferedImage source = ImageHelper.createImage( 200, 301, false );
+        for ( int y = 0; y < source.getHeight(); y++ )
+        {
+            for ( int x = 0; x < source.getWidth(); x++ )
+            {
+                source.setRGB( x, y, ( x * 7 + y * 13 ) & 0xFFFFFF );
+            }
+        }
+
+        final BufferedImage whole = blur.filter( source, null );
+        final BufferedImage tiled = new TiledImageFilter( blur, 2, executor, 4 ).filter( source );
+
+        for ( int y = 0; y < source.getHeight(); y++ )
+        {
+            for ( int x = 0; x < source.getWidth(); x++ )
+            {
+                assertEquals( "pixel " + x + "," + y, whole.getRGB( x, y ), tiled.getRGB( x, y ) );
+            }
+        }
+    }
+
+    @Test
+    public void testSmallImageIsNotTiled()
+    {
+        final ConvolveOp identity = new ConvolveOp( new Kernel( 1, 1, new float[]{1f} ) );
+        final BufferedImage source = ImageHelper.createImage( 10, 10, false );
+
+        final BufferedImage result = new TiledImageFilter( identity, 1, executor, 4 ).filter( source );
+        assertEquals( 10, result.getHeight() );
+    }
+}
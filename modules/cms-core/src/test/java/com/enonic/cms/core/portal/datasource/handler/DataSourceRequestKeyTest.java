@@ -0,0 +1,51 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+
+package com.enonic.cms.core.portal.datasource.handler;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DataSourceRequestKeyTest
+{
+    @Test
+    public void testEqualsIgnoresParameterOrder()
+    {
+        final DataSourceRequest request1 = new DataSourceRequest();
+        request1.setName( "getContent" );
+        request1.addParam( "contentKeys", "1,2,3" );
+        request1.addParam( "query", "" );
+
+        final DataSourceRequest request2 = new DataSourceRequest();
+        request2.setName( "getContent" );
+        request2.addParam( "query", "" );
+        request2.addParam( "contentKeys", "1,2,3" );
+
+        assertEquals( request1.getKey(), request2.getKey() );
+        assertEquals( request1.getKey().hashCode(), request2.getKey().hashCode() );
+        assertEquals( "getContent-contentKeys:1,2,3-query:", request1.getKey().toString() );
+    }
+
+    @Test
+    public void testNotEquals()
+    {
+        final DataSourceRequest request1 = new DataSourceRequest();
+        request1.setName( "getContent" );
+        request1.addParam( "contentKeys", "1" );
+
+        final DataSourceRequest request2 = new DataSourceRequest();
+        request2.setName( "getContentByQuery" );
+        request2.addParam( "contentKeys", "1" );
+
+        assertFalse( request1.getKey().equals( request2.getKey() ) );
+
+        request2.setName( "getContent" );
+        assertEquals( request1.getKey(), request2.getKey() );
+
+        request2.addParam( "count", "10" );
+        assertFalse( request1.getKey().equals( request2.getKey() ) );
+    }
+}
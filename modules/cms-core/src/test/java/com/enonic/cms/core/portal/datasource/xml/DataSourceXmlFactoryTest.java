@@ -159,6 +159,21 @@ public class DataSourceXmlFactoryTest
         assertEquals( "age >= 33", params.get( "param1" ) );
     }
 
+    @Test
+    public void testParse_cacheTimeToLive()
+        throws Exception
+    {
+        final DataSourcesElement result = parse( "cachettl" );
+
+        final List<DataSourceElement> list = result.getList();
+        assertNotNull( list );
+        assertEquals( 3, list.size() );
+
+        assertEquals( 60, list.get( 0 ).getCacheTimeToLive() );
+        assertEquals( 0, list.get( 1 ).getCacheTimeToLive() );
+        assertEquals( 0, list.get( 2 ).getCacheTimeToLive() );
+    }
+
     private DataSourcesElement parse( final String name )
         throws Exception
     {
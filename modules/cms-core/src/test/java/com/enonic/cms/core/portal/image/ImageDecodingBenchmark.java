@@ -0,0 +1,115 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.core.portal.image;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+import javax.imageio.stream.MemoryCacheImageInputStream;
+
+import com.enonic.cms.framework.util.ImageHelper;
+
+import com.enonic.cms.core.image.ImageRequest;
+import com.enonic.cms.core.image.filter.BuilderContext;
+import com.enonic.cms.core.image.filter.ImageFilter;
+import com.enonic.cms.core.image.filter.ImageFilterBuilder;
+
+/**
+ * Benchmark comparing decoding the full original and then scaling it, with the subsampled decoding done by
+ * {@link ImageProcessor}, for the scale filters. It is not run as part of the test suite; start it with the main method,
+ * optionally with the source width and height as arguments.
+ */
+public final class ImageDecodingBenchmark
+{
+    private static final String[] FILTERS =
+        {"scalewidth(100)", "scalewidth(800)", "scaleheight(200)", "scalemax(200)", "scalesquare(150)", "scalewide(300,100)",
+            "scaleblock(200,200)"};
+
+    private static final int ITERATIONS = 5;
+
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    public static void main( final String[] args )
+        throws Exception
+    {
+        final int width = args.length > 0 ? Integer.parseInt( args[0] ) : 6000;
+        final int height = args.length > 1 ? Integer.parseInt( args[1] ) : 4000;
+        final byte[] source = createSource( width, height );
+
+        System.out.println( String.format( "source: %dx%d jpeg, %d KB", width, height, source.length / 1024 ) );
+
+        final ImageProcessor processor = new ImageProcessor();
+        final ImageFilterBuilder builder = new ImageFilterBuilder();
+
+        for ( final String filter : FILTERS )
+        {
+            final ImageRequest request = new ImageRequest();
+            request.setFormat( "jpeg" );
+            request.getParams().setFilter( filter );
+
+            // warm up
+            full( builder, request, source );
+            subsampled( processor, request, source );
+
+            long fullTime = 0;
+            long fullHeap = 0;
+            long subsampledTime = 0;
+            long subsampledHeap = 0;
+
+            for ( int i = 0; i < ITERATIONS; i++ )
+            {
+                System.gc();
+                long heap = MEMORY.getHeapMemoryUsage().getUsed();
+                long start = System.nanoTime();
+                full( builder, request, source );
+                fullTime += System.nanoTime() - start;
+                fullHeap = Math.max( fullHeap, MEMORY.getHeapMemoryUsage().getUsed() - heap );
+
+                System.gc();
+                heap = MEMORY.getHeapMemoryUsage().getUsed();
+                start = System.nanoTime();
+                subsampled( processor, request, source );
+                subsampledTime += System.nanoTime() - start;
+                subsampledHeap = Math.max( subsampledHeap, MEMORY.getHeapMemoryUsage().getUsed() - heap );
+            }
+
+            System.out.println(
+                String.format( "%-22s full: %6d ms %6d MB   subsampled: %6d ms %6d MB", filter, fullTime / ITERATIONS / 1000000L,
+                               fullHeap / ( 1024 * 1024 ), subsampledTime / ITERATIONS / 1000000L, subsampledHeap / ( 1024 * 1024 ) ) );
+        }
+    }
+
+    private static byte[] full( final ImageFilterBuilder builder, final ImageRequest request, final byte[] source )
+        throws Exception
+    {
+        final BuilderContext context = new BuilderContext();
+        final ImageFilter filter = builder.build( context, request.getParams().getFilter() );
+        final BufferedImage image = filter.filter( ImageHelper.readImage( source ) );
+        final BufferedImage opaque = ImageHelper.removeAlphaChannel( image, request.getParams().getBackgroundColor() );
+        return ImageHelper.writeImage( opaque, request.getFormat(), request.getParams().getQuality() );
+    }
+
+    private static byte[] subsampled( final ImageProcessor processor, final ImageRequest request, final byte[] source )
+        throws Exception
+    {
+        return processor.process( request, new MemoryCacheImageInputStream( new ByteArrayInputStream( source ) ) ).getData();
+    }
+
+    private static byte[] createSource( final int width, final int height )
+        throws Exception
+    {
+        final BufferedImage image = ImageHelper.createImage( width, height, false );
+        final Graphics2D g = image.createGraphics();
+        g.setPaint( new GradientPaint( 0, 0, Color.BLUE, width, height, Color.ORANGE ) );
+        g.fillRect( 0, 0, width, height );
+        g.dispose();
+        return ImageHelper.writeImage( image, "jpeg", 90 );
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.core.portal.image;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ImageProcessingExecutorTest
+{
+    private ImageProcessingExecutor executor;
+
+    private final CountDownLatch release = new CountDownLatch( 1 );
+
+    @Before
+    public void setUp()
+    {
+        executor = new ImageProcessingExecutor();
+        executor.setThreads( 1 );
+        executor.setQueueSize( 1 );
+        executor.setRetryAfter( 7 );
+        executor.start();
+    }
+
+    @After
+    public void tearDown()
+    {
+        release.countDown();
+        executor.stop();
+    }
+
+    @Test
+    public void testExecuteReturnsResult()
+        throws Exception
+    {
+        assertEquals( "done", executor.execute( new Callable<String>()
+        {
+            public String call()
+            {
+                return "done";
+            }
+        } ) );
+        assertEquals( 1, executor.getProcessedCount() );
+    }
+
+    @Test
+    public void testExecuteThrowsTaskException()
+        throws Exception
+    {
+        try
+        {
+            executor.execute( new Callable<String>()
+            {
+                public String call()
+                    throws Exception
+                {
+                    throw new IOException( "broken image" );
+                }
+            } );
+            fail( "Expected IOException" );
+        }
+        catch ( IOException e )
+        {
+            assertEquals( "broken image", e.getMessage() );
+        }
+    }
+
+    @Test
+    public void testRejectedWhenQueueIsFull()
+        throws Exception
+    {
+        final CountDownLatch started = new CountDownLatch( 1 );
+
+        // occupy the thread and the queue slot
+        startBlockingTask( started );
+        started.await();
+        startBlockingTask( null );
+
+        while ( executor.getQueueSize() < 1 )
+        {
+            Thread.sleep( 10 );
+        }
+
+        try
+        {
+            executor.execute( new Callable<String>()
+            {
+                public String call()
+                {
+                    return "rejected";
+                }
+            } );
+            fail( "Expected ImageProcessingRejectedException" );
+        }
+        catch ( ImageProcessingRejectedException e )
+        {
+            assertEquals( 7, e.getRetryAfter() );
+        }
+
+        assertEquals( 1, executor.getRejectedCount() );
+        assertEquals( 1, executor.getActiveCount() );
+    }
+
+    private void startBlockingTask( final CountDownLatch started )
+    {
+        final Thread thread = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    executor.execute( new Callable<String>()
+                    {
+                        public String call()
+                            throws Exception
+                        {
+                            if ( started != null )
+                            {
+                                started.countDown();
+                            }
+                            release.await();
+                            return "blocked";
+                        }
+                    } );
+                }
+                catch ( Exception e )
+                {
+                    // stopped by tear down
+                }
+            }
+        };
+        thread.setDaemon( true );
+        thread.start();
+    }
+}
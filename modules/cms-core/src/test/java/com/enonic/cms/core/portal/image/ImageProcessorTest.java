@@ -0,0 +1,112 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.core.portal.image;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+
+import javax.imageio.stream.MemoryCacheImageInputStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.enonic.cms.framework.util.ImageHelper;
+
+import com.enonic.cms.core.image.ImageRequest;
+import com.enonic.cms.core.image.ImageResponse;
+
+import static org.junit.Assert.*;
+
+public class ImageProcessorTest
+{
+    private ImageProcessor processor;
+
+    private byte[] source;
+
+    @Before
+    public void setUp()
+        throws Exception
+    {
+        processor = new ImageProcessor();
+        source = ImageHelper.writeImage( ImageHelper.createImage( 1600, 1200, false ), "jpeg", 90 );
+    }
+
+    @Test
+    public void testSubsampling()
+    {
+        assertEquals( 8, ImageProcessor.getSubsampling( 1600, 1200, new Dimension( 100, 75 ) ) );
+        assertEquals( 1, ImageProcessor.getSubsampling( 1600, 1200, new Dimension( 1000, 750 ) ) );
+        assertEquals( 1, ImageProcessor.getSubsampling( 1600, 1200, new Dimension( 3200, 2400 ) ) );
+        assertEquals( 1, ImageProcessor.getSubsampling( 1600, 1200, null ) );
+    }
+
+    @Test
+    public void testScaleWidth()
+        throws Exception
+    {
+        final BufferedImage image = process( "scalewidth(100)" );
+        assertEquals( 100, image.getWidth() );
+        assertEquals( 75, image.getHeight() );
+    }
+
+    @Test
+    public void testScaleMax()
+        throws Exception
+    {
+        final BufferedImage image = process( "scalemax(200)" );
+        assertEquals( 200, image.getWidth() );
+        assertEquals( 150, image.getHeight() );
+    }
+
+    @Test
+    public void testScaleSquare()
+        throws Exception
+    {
+        final BufferedImage image = process( "scalesquare(64)" );
+        assertEquals( 64, image.getWidth() );
+        assertEquals( 64, image.getHeight() );
+    }
+
+    @Test
+    public void testScaleUnevenSource()
+        throws Exception
+    {
+        // subsampled by 5 the reader rounds the source up to 201x141, which would scale to 100x70
+        source = ImageHelper.writeImage( ImageHelper.createImage( 1003, 701, false ), "jpeg", 90 );
+
+        BufferedImage image = process( "scalewidth(100)" );
+        assertEquals( 100, image.getWidth() );
+        assertEquals( 69, image.getHeight() );
+
+        image = process( "scalemax(100)" );
+        assertEquals( 100, image.getWidth() );
+        assertEquals( 69, image.getHeight() );
+
+        image = process( "scaleheight(69)" );
+        assertEquals( 98, image.getWidth() );
+        assertEquals( 69, image.getHeight() );
+    }
+
+    @Test
+    public void testNoScaling()
+        throws Exception
+    {
+        final BufferedImage image = process( "grayscale" );
+        assertEquals( 1600, image.getWidth() );
+        assertEquals( 1200, image.getHeight() );
+    }
+
+    private BufferedImage process( final String filter )
+        throws Exception
+    {
+        final ImageRequest request = new ImageRequest();
+        request.setFormat( "png" );
+        request.getParams().setFilter( filter );
+
+        final ImageResponse response = processor.process( request, new MemoryCacheImageInputStream( new ByteArrayInputStream( source ) ) );
+        return ImageHelper.readImage( response.getData() );
+    }
+}
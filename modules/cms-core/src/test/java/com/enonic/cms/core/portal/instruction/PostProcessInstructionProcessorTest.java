@@ -7,19 +7,34 @@ package com.enonic.cms.core.portal.instruction;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import javax.servlet.http.HttpServletRequest;
 
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import com.google.common.collect.Lists;
 
+import com.enonic.cms.core.portal.livetrace.LivePortalTraceService;
 import com.enonic.cms.core.portal.rendering.WindowRendererContext;
+import com.enonic.cms.core.portal.rendering.WindowRenderingExecutor;
 import com.enonic.cms.core.structure.SiteEntity;
+import com.enonic.cms.core.structure.SiteKey;
+import com.enonic.cms.store.dao.ContentDao;
+import com.enonic.cms.store.dao.LanguageDao;
+import com.enonic.cms.store.dao.MenuItemDao;
+import com.enonic.cms.store.dao.PageTemplateDao;
+import com.enonic.cms.store.dao.SiteDao;
+import com.enonic.cms.store.dao.UserDao;
 
 import static org.junit.Assert.*;
 
@@ -153,6 +168,82 @@ public class PostProcessInstructionProcessorTest
     }
 
 
+    @Test
+    public void testRenderWindowsInParallel()
+        throws Exception
+    {
+        final int numberOfWindows = 3;
+
+        List<PostProcessInstruction> instructions = new ArrayList<PostProcessInstruction>();
+        for ( int i = 0; i < numberOfWindows; i++ )
+        {
+            RenderWindowInstruction instruction = new RenderWindowInstruction();
+            instruction.setPortletWindowKey( "window" + i );
+            instructions.add( instruction );
+            instructions.add( new CreateContentUrlInstruction() );
+        }
+
+        final CountDownLatch allStarted = new CountDownLatch( numberOfWindows );
+
+        final SiteEntity reloadedSite = new SiteEntity();
+        reloadedSite.setKey( 1 );
+        final SiteDao siteDao = Mockito.mock( SiteDao.class );
+        Mockito.when( siteDao.findByKey( new SiteKey( 1 ) ) ).thenReturn( reloadedSite );
+
+        Mockito.when( executor.execute( Mockito.isA( RenderWindowInstruction.class ),
+                                        Mockito.isA( PostProcessInstructionContext.class ) ) ).thenAnswer( new Answer<String>()
+        {
+            public String answer( final InvocationOnMock invocation )
+                throws Throwable
+            {
+                // windows are rendered with the site loaded in the session of the worker
+                assertSame( reloadedSite, ( (PostProcessInstructionContext) invocation.getArguments()[1] ).getSite() );
+
+                // completes only when all windows are rendered at the same time
+                allStarted.countDown();
+                assertTrue( allStarted.await( 10, TimeUnit.SECONDS ) );
+                return "[" + ( (RenderWindowInstruction) invocation.getArguments()[0] ).getPortletWindowKey() + "]";
+            }
+        } );
+
+        WindowRenderingExecutor windowRenderingExecutor = createWindowRenderingExecutor( numberOfWindows, siteDao );
+        try
+        {
+            processor = new PostProcessInstructionProcessor( setUpContext(), executor, windowRenderingExecutor );
+
+            String result = processor.processInstructions( createInputDoc( instructions ) );
+
+            assertEquals( 3, numberOfMatches( ELEMENT_CREATE_CONTENTURL_REPLACEMENT, result ) );
+            assertTrue( result.indexOf( "[window0]" ) >= 0 );
+            assertTrue( result.indexOf( "[window0]" ) < result.indexOf( "[window1]" ) );
+            assertTrue( result.indexOf( "[window1]" ) < result.indexOf( "[window2]" ) );
+        }
+        finally
+        {
+            windowRenderingExecutor.stop();
+        }
+    }
+
+    private WindowRenderingExecutor createWindowRenderingExecutor( final int threads, final SiteDao siteDao )
+    {
+        SessionFactory sessionFactory = Mockito.mock( SessionFactory.class );
+        Mockito.when( sessionFactory.openSession() ).thenReturn( Mockito.mock( Session.class ) );
+
+        WindowRenderingExecutor windowRenderingExecutor = new WindowRenderingExecutor();
+        windowRenderingExecutor.setSessionFactory( sessionFactory );
+        windowRenderingExecutor.setLivePortalTraceService( Mockito.mock( LivePortalTraceService.class ) );
+        windowRenderingExecutor.setSiteDao( siteDao );
+        windowRenderingExecutor.setMenuItemDao( Mockito.mock( MenuItemDao.class ) );
+        windowRenderingExecutor.setPageTemplateDao( Mockito.mock( PageTemplateDao.class ) );
+        windowRenderingExecutor.setUserDao( Mockito.mock( UserDao.class ) );
+        windowRenderingExecutor.setLanguageDao( Mockito.mock( LanguageDao.class ) );
+        windowRenderingExecutor.setContentDao( Mockito.mock( ContentDao.class ) );
+        windowRenderingExecutor.setThreads( threads );
+        windowRenderingExecutor.setQueueSize( 10 );
+        windowRenderingExecutor.start();
+        return windowRenderingExecutor;
+    }
+
     private PostProcessInstructionContext setUpContext()
     {
         HttpServletRequest request = Mockito.mock( HttpServletRequest.class );
@@ -79,6 +79,45 @@ public class CompletedPortalRequestsTest
         assertSame( trace1, actualList.get( 1 ) );
     }
 
+    @Test
+    public void oldest_items_are_overwritten_when_history_is_full()
+    {
+        CompletedPortalRequests requests = new CompletedPortalRequests( 3 );
+
+        for ( int i = 1; i <= 5; i++ )
+        {
+            requests.add( new PortalRequestTrace( i, "http://locahost:8080/site/0/home" ) );
+        }
+
+        List<PortalRequestTrace> actualList = requests.getList();
+        assertEquals( 3, requests.getSize() );
+        assertEquals( 3, actualList.size() );
+        assertEquals( 5, actualList.get( 0 ).getCompletedNumber() );
+        assertEquals( 4, actualList.get( 1 ).getCompletedNumber() );
+        assertEquals( 3, actualList.get( 2 ).getCompletedNumber() );
+    }
+
+    @Test
+    public void getCompletedBefore_and_getCompletedAfter_exclude_given_number()
+    {
+        CompletedPortalRequests requests = new CompletedPortalRequests( 10 );
+
+        for ( int i = 1; i <= 5; i++ )
+        {
+            requests.add( new PortalRequestTrace( i, "http://locahost:8080/site/0/home" ) );
+        }
+
+        List<PortalRequestTrace> before = requests.getCompletedBefore( 3 );
+        assertEquals( 2, before.size() );
+        assertEquals( 2, before.get( 0 ).getCompletedNumber() );
+        assertEquals( 1, before.get( 1 ).getCompletedNumber() );
+
+        List<PortalRequestTrace> after = requests.getCompletedAfter( 3 );
+        assertEquals( 2, after.size() );
+        assertEquals( 5, after.get( 0 ).getCompletedNumber() );
+        assertEquals( 4, after.get( 1 ).getCompletedNumber() );
+    }
+
     @Test
     public void concurrent_100_threads_adding_random_requests()
     {
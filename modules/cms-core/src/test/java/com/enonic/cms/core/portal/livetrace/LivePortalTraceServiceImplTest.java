@@ -133,6 +133,37 @@ public class LivePortalTraceServiceImplTest
         assertEquals( 2, windowInstructionPostProcessingTrace.getDuration().getAsMilliseconds() );
     }
 
+    @Test
+    public void sampleRequest_picks_given_fraction_of_requests()
+    {
+        service.setSampleRate( 0.25 );
+
+        int sampled = 0;
+        for ( int i = 0; i < 100; i++ )
+        {
+            if ( service.sampleRequest() )
+            {
+                sampled++;
+            }
+        }
+
+        assertEquals( 25, sampled );
+    }
+
+    @Test
+    public void request_not_sampled_is_not_traced()
+    {
+        service.setSampleRate( 0.0 );
+
+        assertNull( PortalRequestTracer.startTracing( "http://localhost:8080/site/0", service ) );
+        assertNull( service.getCurrentPortalRequestTrace() );
+        assertEquals( 0, service.getNumberOfPortalRequestTracesInProgress() );
+
+        PortalRequestTrace forcedTrace = PortalRequestTracer.startTracing( "http://localhost:8080/site/0", service, true );
+        assertNotNull( forcedTrace );
+        PortalRequestTracer.stopTracing( forcedTrace, service );
+    }
+
     private ViewTransformationTrace simulateViewTransformation( int timeInMillis )
     {
         ViewTransformationTrace trace = ViewTransformationTracer.startTracing( service );
@@ -87,6 +87,51 @@ public class LongestPortalRequestsTest
         assertSame( inTheMiddleTrace, actualList.get( 2 ) );
     }
 
+    @Test
+    public void getList_merges_traces_added_by_different_threads()
+        throws Exception
+    {
+        final LongestPortalRequests requests = new LongestPortalRequests( 2 );
+
+        requests.add( createTrace( 1, "http://locahost:8080/site/0/home", 10 ) );
+        final PortalRequestTrace longestTrace = createTrace( 2, "http://locahost:8080/site/0/home", 30 );
+        requests.add( longestTrace );
+
+        final PortalRequestTrace secondLongestTrace = createTrace( 3, "http://locahost:8080/site/0/home", 20 );
+        Thread thread = new Thread()
+        {
+            public void run()
+            {
+                requests.add( secondLongestTrace );
+            }
+        };
+        thread.start();
+        thread.join();
+
+        List<PortalRequestTrace> actualList = requests.getList();
+        assertEquals( 2, actualList.size() );
+        assertSame( longestTrace, actualList.get( 0 ) );
+        assertSame( secondLongestTrace, actualList.get( 1 ) );
+    }
+
+    @Test
+    public void clear_removes_all_traces_and_accepts_shorter_traces_again()
+    {
+        LongestPortalRequests requests = new LongestPortalRequests( 1 );
+
+        requests.add( createTrace( 1, "http://locahost:8080/site/0/home", 100 ) );
+        assertEquals( 1, requests.getList().size() );
+
+        requests.clear();
+        assertEquals( 0, requests.getList().size() );
+
+        PortalRequestTrace shortTrace = createTrace( 2, "http://locahost:8080/site/0/home", 10 );
+        requests.add( shortTrace );
+        List<PortalRequestTrace> actualList = requests.getList();
+        assertEquals( 1, actualList.size() );
+        assertSame( shortTrace, actualList.get( 0 ) );
+    }
+
     @Test
     public void concurrent_100_threads_adding_random_requests()
     {
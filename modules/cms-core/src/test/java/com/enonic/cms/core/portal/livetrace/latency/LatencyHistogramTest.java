@@ -0,0 +1,68 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.core.portal.livetrace.latency;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest
+{
+    @Test
+    public void empty_histogram_returns_zero()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals( 0, histogram.getCount() );
+        assertEquals( 0, histogram.getMean() );
+        assertEquals( 0, histogram.getPercentile( 99 ) );
+    }
+
+    @Test
+    public void small_values_are_exact()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for ( int i = 1; i <= 20; i++ )
+        {
+            histogram.record( i );
+        }
+
+        assertEquals( 20, histogram.getCount() );
+        assertEquals( 10, histogram.getPercentile( 50 ) );
+        assertEquals( 18, histogram.getPercentile( 90 ) );
+        assertEquals( 20, histogram.getMax() );
+    }
+
+    @Test
+    public void percentiles_are_within_precision()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for ( int i = 1; i <= 10000; i++ )
+        {
+            histogram.record( i * 100 );
+        }
+
+        assertWithin( 500000, histogram.getPercentile( 50 ) );
+        assertWithin( 990000, histogram.getPercentile( 99 ) );
+        assertEquals( 1000000, histogram.getPercentile( 100 ) );
+        assertEquals( 500050, histogram.getMean() );
+    }
+
+    @Test
+    public void bucket_holds_its_highest_value()
+    {
+        for ( long value = 0; value < 100000; value += 7 )
+        {
+            final int index = LatencyHistogram.indexOf( value );
+            assertTrue( value <= LatencyHistogram.highestValueOf( index ) );
+            assertTrue( index == 0 || value > LatencyHistogram.highestValueOf( index - 1 ) );
+        }
+    }
+
+    private void assertWithin( long expected, long actual )
+    {
+        assertTrue( "expected " + expected + " but was " + actual, actual >= expected && actual <= expected + expected / 16 );
+    }
+}
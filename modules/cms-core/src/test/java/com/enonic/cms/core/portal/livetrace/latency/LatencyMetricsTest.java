@@ -0,0 +1,100 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.core.portal.livetrace.latency;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.enonic.cms.core.portal.datasource.DataSourceType;
+import com.enonic.cms.core.portal.livetrace.ContentIndexQueryTracer;
+import com.enonic.cms.core.portal.livetrace.DatasourceExecutionTracer;
+import com.enonic.cms.core.portal.livetrace.LivePortalTraceServiceImpl;
+import com.enonic.cms.core.portal.livetrace.ViewTransformationTracer;
+import com.enonic.cms.core.time.MockTimeService;
+
+import static org.junit.Assert.*;
+
+public class LatencyMetricsTest
+{
+    private LatencyMetrics latencyMetrics = new LatencyMetrics();
+
+    private LivePortalTraceServiceImpl service = new LivePortalTraceServiceImpl();
+
+    @Before
+    public void before()
+    {
+        latencyMetrics.setEnabled( true );
+
+        service.setEnabled( "false" );
+        service.setTimeService( new MockTimeService() );
+        service.setLatencyMetrics( latencyMetrics );
+        service.init();
+    }
+
+    @Test
+    public void datasources_are_measured_when_tracing_is_disabled()
+    {
+        DatasourceExecutionTracer.stopTracing(
+            DatasourceExecutionTracer.startTracing( DataSourceType.PORTLET, "getContent", service ), service );
+        DatasourceExecutionTracer.stopTracing(
+            DatasourceExecutionTracer.startTracing( DataSourceType.PORTLET, "getContent", service ), service );
+        DatasourceExecutionTracer.stopTracing(
+            DatasourceExecutionTracer.startTracing( DataSourceType.PORTLET, "getMenu", service ), service );
+
+        List<LatencyStats> stats = latencyMetrics.getDatasources();
+        assertEquals( 2, stats.size() );
+        assertEquals( "getContent", stats.get( 0 ).getName() );
+        assertEquals( 2, stats.get( 0 ).getCount() );
+        assertEquals( "getMenu", stats.get( 1 ).getName() );
+        assertEquals( 1, stats.get( 1 ).getCount() );
+    }
+
+    @Test
+    public void index_query_is_named_by_enclosing_datasource()
+    {
+        DatasourceExecutionTracer.startTracing( DataSourceType.PORTLET, "getContentByQuery", service );
+        ContentIndexQueryTracer.stopTracing( ContentIndexQueryTracer.startTracing( service ), service );
+        DatasourceExecutionTracer.stopTracing( null, service );
+
+        List<LatencyStats> stats = latencyMetrics.getIndexQueries();
+        assertEquals( 1, stats.size() );
+        assertEquals( "getContentByQuery", stats.get( 0 ).getName() );
+    }
+
+    @Test
+    public void view_is_named_when_traced()
+    {
+        ViewTransformationTracer.startTracing( service );
+        ViewTransformationTracer.traceView( "/site/view.xsl", null, service );
+        ViewTransformationTracer.stopTracing( null, service );
+
+        List<LatencyStats> stats = latencyMetrics.getViews();
+        assertEquals( 1, stats.size() );
+        assertEquals( "/site/view.xsl", stats.get( 0 ).getName() );
+    }
+
+    @Test
+    public void nothing_is_measured_when_disabled()
+    {
+        latencyMetrics.setEnabled( false );
+
+        DatasourceExecutionTracer.stopTracing(
+            DatasourceExecutionTracer.startTracing( DataSourceType.PORTLET, "getContent", service ), service );
+
+        assertTrue( latencyMetrics.getDatasources().isEmpty() );
+    }
+
+    @Test
+    public void reset_removes_all_latencies()
+    {
+        latencyMetrics.record( LatencyCategory.CLIENT_METHOD, "getContent", 1000000 );
+        assertEquals( 1, latencyMetrics.getClientMethods().size() );
+
+        latencyMetrics.reset();
+        assertTrue( latencyMetrics.getClientMethods().isEmpty() );
+    }
+}
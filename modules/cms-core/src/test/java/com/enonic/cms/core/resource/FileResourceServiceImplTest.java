@@ -11,6 +11,7 @@ import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.mockito.Mockito;
 
+import java.io.File;
 import java.util.List;
 
 import com.enonic.cms.framework.util.MimeTypeResolver;
@@ -22,6 +23,8 @@ public class FileResourceServiceImplTest
 
     private FileResourceServiceImpl fileService;
 
+    private File resourceRoot;
+
     @Before
     public void setUp()
         throws Exception
@@ -31,7 +34,8 @@ public class FileResourceServiceImplTest
 
         this.fileService = new FileResourceServiceImpl();
         this.fileService.setMimeTypeResolver( mimeTypeResolver );
-        this.fileService.setResourceRoot( this.tmpFolder.newFolder() );
+        this.resourceRoot = this.tmpFolder.newFolder();
+        this.fileService.setResourceRoot( this.resourceRoot );
     }
 
     @Test
@@ -338,6 +342,48 @@ public class FileResourceServiceImplTest
         Assert.assertEquals( "/a/b/c/other.txt", data.getAsString() );
     }
 
+    @Test
+    public void testListenersNotifiedOfChanges()
+    {
+        createSampleData();
+
+        final FileResourceListener listener = Mockito.mock( FileResourceListener.class );
+        this.fileService.addResourceListener( listener );
+
+        this.fileService.setResourceData( new FileResourceName( "/a/sample.txt" ), FileResourceData.create( "changed" ) );
+        Mockito.verify( listener ).resourceChanged( new FileResourceName( "/a/sample.txt" ) );
+
+        Assert.assertTrue( this.fileService.moveResource( new FileResourceName( "/a/b" ), new FileResourceName( "/a/x" ) ) );
+        Mockito.verify( listener ).resourceChanged( new FileResourceName( "/a/b" ) );
+        Mockito.verify( listener ).resourceChanged( new FileResourceName( "/a/x" ) );
+
+        Assert.assertFalse( this.fileService.deleteResource( new FileResourceName( "/a/b" ) ) );
+        Mockito.verifyNoMoreInteractions( listener );
+    }
+
+    @Test
+    public void testWatchedResourceChangedOnDisk()
+    {
+        createSampleData();
+
+        final FileResourceListener listener = Mockito.mock( FileResourceListener.class );
+        this.fileService.addResourceListener( listener );
+        this.fileService.watchResource( new FileResourceName( "/a/b/sample.txt" ) );
+
+        final File file = new File( this.resourceRoot, "a/b/sample.txt" );
+        Assert.assertTrue( file.setLastModified( file.lastModified() - 10000 ) );
+        this.fileService.checkWatchedResources();
+        this.fileService.checkWatchedResources();
+
+        Mockito.verify( listener, Mockito.times( 1 ) ).resourceChanged( new FileResourceName( "/a/b/sample.txt" ) );
+
+        // changed through the service, not reported again by the watcher
+        this.fileService.setResourceData( new FileResourceName( "/a/b/sample.txt" ), FileResourceData.create( "changed" ) );
+        this.fileService.checkWatchedResources();
+
+        Mockito.verify( listener, Mockito.times( 2 ) ).resourceChanged( new FileResourceName( "/a/b/sample.txt" ) );
+    }
+
     private void createSampleData()
     {
         this.fileService.createFile( new FileResourceName( "/a/sample.txt" ), FileResourceData.create( "/a/sample.txt" ) );
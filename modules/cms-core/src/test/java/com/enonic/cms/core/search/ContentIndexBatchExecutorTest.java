@@ -0,0 +1,174 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+
+package com.enonic.cms.core.search;
+
+import java.io.File;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.InOrder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.google.common.collect.Lists;
+
+import com.enonic.cms.core.content.ContentKey;
+import com.enonic.cms.core.content.IndexService;
+import com.enonic.cms.core.search.query.ContentDocument;
+import com.enonic.cms.core.search.query.ContentIndexService;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class ContentIndexBatchExecutorTest
+{
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private ContentIndexService contentIndexService;
+
+    private IndexService indexService;
+
+    private File retryJournalFile;
+
+    @Before
+    public void setUp()
+    {
+        this.contentIndexService = mock( ContentIndexService.class );
+        this.indexService = mock( IndexService.class );
+        this.retryJournalFile = new File( this.folder.getRoot(), "retry-journal.txt" );
+    }
+
+    @Test
+    public void testExecuteSync()
+    {
+        final ContentIndexBatchExecutor executor = createExecutor( false );
+        final ContentIndexBatch batch = createBatch( 1 );
+
+        executor.execute( batch );
+
+        verify( this.contentIndexService, times( 1 ) ).index( batch );
+        verify( this.contentIndexService, times( 1 ) ).flush();
+        assertFalse( executor.isAsync() );
+        assertEquals( 0, executor.getPendingBatchCount() );
+    }
+
+    @Test
+    public void testExecuteAsyncRetriesFailedBatch()
+        throws Exception
+    {
+        final ContentIndexBatchExecutor executor = createExecutor( true );
+        final ContentIndexBatch batch = createBatch( 1 );
+
+        doThrow( new IndexException( "failed" ) ).doNothing().when( this.contentIndexService ).index( batch );
+
+        executor.execute( batch );
+        executor.stop();
+
+        verify( this.contentIndexService, times( 2 ) ).index( batch );
+        assertEquals( 0, executor.getFailedBatchCount() );
+        assertEquals( 0, executor.getPendingBatchCount() );
+        assertEquals( 0, executor.getIndexLag() );
+        assertFalse( this.retryJournalFile.exists() );
+    }
+
+    @Test
+    public void testFailedBatchIsReindexedFromRetryJournal()
+        throws Exception
+    {
+        final ContentIndexBatchExecutor executor = createExecutor( true );
+        final ContentIndexBatch failing = createBatch( 1 );
+        final ContentIndexBatch succeeding = createBatch( 2 );
+
+        doThrow( new IndexException( "failed" ) ).when( this.contentIndexService ).index( failing );
+
+        executor.execute( failing );
+        executor.execute( succeeding );
+        executor.stop();
+
+        assertEquals( 1, executor.getFailedBatchCount() );
+        verify( this.indexService, times( 1 ) ).reindex( Lists.newArrayList( new ContentKey( 1 ) ) );
+        assertFalse( this.retryJournalFile.exists() );
+    }
+
+    @Test
+    public void testExecuteAsyncKeepsOrderWhenQueueIsFull()
+        throws Exception
+    {
+        final ContentIndexBatchExecutor executor = createExecutor( true, 1 );
+        final ContentIndexBatch[] batches = new ContentIndexBatch[5];
+        for ( int i = 0; i < batches.length; i++ )
+        {
+            batches[i] = createBatch( i );
+        }
+
+        doAnswer( new Answer<Void>()
+        {
+            public Void answer( final InvocationOnMock invocation )
+                throws Throwable
+            {
+                Thread.sleep( 20 );
+                return null;
+            }
+        } ).when( this.contentIndexService ).index( batches[0] );
+
+        for ( final ContentIndexBatch batch : batches )
+        {
+            executor.execute( batch );
+        }
+        executor.stop();
+
+        final InOrder inOrder = inOrder( this.contentIndexService );
+        for ( final ContentIndexBatch batch : batches )
+        {
+            inOrder.verify( this.contentIndexService ).index( batch );
+        }
+        assertEquals( 0, executor.getPendingBatchCount() );
+    }
+
+    @Test
+    public void testExecuteAfterStopAppliesBatch()
+        throws Exception
+    {
+        final ContentIndexBatchExecutor executor = createExecutor( true );
+        final ContentIndexBatch batch = createBatch( 1 );
+
+        executor.stop();
+        executor.execute( batch );
+
+        verify( this.contentIndexService, times( 1 ) ).index( batch );
+        assertEquals( 0, executor.getPendingBatchCount() );
+        assertFalse( this.retryJournalFile.exists() );
+    }
+
+    private ContentIndexBatchExecutor createExecutor( final boolean async )
+    {
+        return createExecutor( async, 10 );
+    }
+
+    private ContentIndexBatchExecutor createExecutor( final boolean async, final int queueSize )
+    {
+        final ContentIndexBatchExecutor executor = new ContentIndexBatchExecutor();
+        executor.setContentIndexService( this.contentIndexService );
+        executor.setIndexService( this.indexService );
+        executor.setAsync( async );
+        executor.setQueueSize( queueSize );
+        executor.setMaxRetries( 2 );
+        executor.setRetryDelay( 1 );
+        executor.setRetryJournalFile( this.retryJournalFile );
+        executor.start();
+        return executor;
+    }
+
+    private ContentIndexBatch createBatch( final int contentKey )
+    {
+        final ContentIndexBatch batch = new ContentIndexBatch();
+        batch.index( new ContentDocument( new ContentKey( contentKey ) ), false );
+        return batch;
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+
+package com.enonic.cms.core.search;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.enonic.cms.core.content.ContentKey;
+import com.enonic.cms.core.content.category.CategoryKey;
+import com.enonic.cms.core.content.index.ContentIndexQuery;
+import com.enonic.cms.core.security.group.GroupKey;
+
+import static org.junit.Assert.*;
+
+public class ContentIndexQueryCacheTest
+{
+    private static final long NOW = 1356998400000L;
+
+    private ContentIndexQueryCache cache;
+
+    private AtomicInteger loadCount;
+
+    @Before
+    public void setUp()
+    {
+        this.cache = new ContentIndexQueryCache();
+        this.cache.setMaxStaleness( 60000 );
+        this.cache.setMaxSize( 100 );
+        this.cache.init();
+        this.loadCount = new AtomicInteger( 0 );
+    }
+
+    @Test
+    public void testKeyIgnoresFilterOrderAndSeconds()
+    {
+        final ContentIndexQuery query1 = createQuery( NOW );
+        query1.setCategoryFilter( Arrays.asList( new CategoryKey( 1 ), new CategoryKey( 2 ) ) );
+        query1.setSecurityFilter( Arrays.asList( new GroupKey( "AB" ), new GroupKey( "CD" ) ) );
+
+        final ContentIndexQuery query2 = createQuery( NOW + 30000 );
+        query2.setCategoryFilter( Arrays.asList( new CategoryKey( 2 ), new CategoryKey( 1 ) ) );
+        query2.setSecurityFilter( Arrays.asList( new GroupKey( "CD" ), new GroupKey( "AB" ) ) );
+
+        assertEquals( ContentIndexQueryCache.createKey( 0, query1 ), ContentIndexQueryCache.createKey( 0, query2 ) );
+    }
+
+    @Test
+    public void testKeyDiffersBySecurityFilter()
+    {
+        final ContentIndexQuery query1 = createQuery( NOW );
+        query1.setSecurityFilter( Arrays.asList( new GroupKey( "AB" ) ) );
+
+        final ContentIndexQuery query2 = createQuery( NOW );
+        query2.setSecurityFilter( Arrays.asList( new GroupKey( "AB" ), new GroupKey( "CD" ) ) );
+
+        assertFalse( ContentIndexQueryCache.createKey( 0, query1 ).equals( ContentIndexQueryCache.createKey( 0, query2 ) ) );
+    }
+
+    @Test
+    public void testKeyDiffersByMinute()
+    {
+        assertFalse( ContentIndexQueryCache.createKey( 0, createQuery( NOW ) ).equals(
+            ContentIndexQueryCache.createKey( 0, createQuery( NOW + 60000 ) ) ) );
+    }
+
+    @Test
+    public void testQueryWithoutOnlineFilterIsNotCached()
+    {
+        final ContentIndexQuery query = new ContentIndexQuery( "title = 'a'" );
+        assertNull( ContentIndexQueryCache.createKey( 0, query ) );
+
+        this.cache.get( query, createLoader() );
+        this.cache.get( query, createLoader() );
+        assertEquals( 2, this.loadCount.get() );
+    }
+
+    @Test
+    public void testCachedUntilInvalidated()
+    {
+        final ContentIndexQueryResult result = this.cache.get( createQuery( NOW ), createLoader() );
+        assertSame( result, this.cache.get( createQuery( NOW ), createLoader() ) );
+        assertEquals( 1, this.loadCount.get() );
+        assertEquals( 1, this.cache.getHitCount() );
+
+        this.cache.invalidate();
+
+        assertNotSame( result, this.cache.get( createQuery( NOW ), createLoader() ) );
+        assertEquals( 2, this.loadCount.get() );
+    }
+
+    @Test
+    public void testFailedLoadIsNotCached()
+    {
+        try
+        {
+            this.cache.get( createQuery( NOW ), new Callable<ContentIndexQueryResult>()
+            {
+                @Override
+                public ContentIndexQueryResult call()
+                {
+                    throw new IllegalStateException( "failed" );
+                }
+            } );
+            fail( "Expected exception" );
+        }
+        catch ( final IllegalStateException e )
+        {
+            assertEquals( "failed", e.getMessage() );
+        }
+
+        this.cache.get( createQuery( NOW ), createLoader() );
+        assertEquals( 1, this.loadCount.get() );
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        final ContentIndexQueryCache disabled = new ContentIndexQueryCache();
+        disabled.setMaxStaleness( 0 );
+        disabled.setMaxSize( 100 );
+        disabled.init();
+
+        disabled.get( createQuery( NOW ), createLoader() );
+        disabled.get( createQuery( NOW ), createLoader() );
+        assertFalse( disabled.isEnabled() );
+        assertEquals( 2, this.loadCount.get() );
+    }
+
+    private ContentIndexQuery createQuery( final long onlineAt )
+    {
+        final ContentIndexQuery query = new ContentIndexQuery( "title = 'a'" );
+        query.setContentOnlineAtFilter( new Date( onlineAt ) );
+        return query;
+    }
+
+    private Callable<ContentIndexQueryResult> createLoader()
+    {
+        return new Callable<ContentIndexQueryResult>()
+        {
+            @Override
+            public ContentIndexQueryResult call()
+            {
+                loadCount.incrementAndGet();
+                return new ContentIndexQueryResult( Arrays.asList( new ContentKey( 1 ) ), 0, 1, null );
+            }
+        };
+    }
+}
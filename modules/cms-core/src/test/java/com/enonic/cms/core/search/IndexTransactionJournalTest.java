@@ -7,6 +7,7 @@ package com.enonic.cms.core.search;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 import com.google.common.collect.Lists;
 
@@ -17,10 +18,11 @@ import com.enonic.cms.core.content.IndexService;
 import com.enonic.cms.core.search.builder.ContentIndexData;
 import com.enonic.cms.core.search.builder.ContentIndexDataFactory;
 import com.enonic.cms.core.search.query.ContentDocument;
-import com.enonic.cms.core.search.query.ContentIndexService;
 import com.enonic.cms.store.dao.ContentDao;
 import com.enonic.cms.store.dao.FindContentByKeysCommand;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.isA;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -35,7 +37,7 @@ public class IndexTransactionJournalTest
 
     IndexService indexService;
 
-    ContentIndexService contentIndexService;
+    ContentIndexBatchExecutor contentIndexBatchExecutor;
 
     ContentDao contentDao;
 
@@ -44,12 +46,12 @@ public class IndexTransactionJournalTest
     @Before
     public void setup()
     {
-        contentIndexService = mock( ContentIndexService.class );
+        contentIndexBatchExecutor = mock( ContentIndexBatchExecutor.class );
         indexService = mock( IndexService.class );
         contentIndexDataFactory = mock( ContentIndexDataFactory.class );
         contentDao = mock( ContentDao.class );
 
-        journal = new IndexTransactionJournal( contentIndexService, indexService, contentDao );
+        journal = new IndexTransactionJournal( contentIndexBatchExecutor, indexService, contentDao );
     }
 
     @Test
@@ -70,7 +72,32 @@ public class IndexTransactionJournalTest
         journal.registerUpdate( new ContentKey( 1 ), false );
         journal.afterCommit();
 
-        verify( contentIndexService, times( 1 ) ).index( isA( ContentDocument.class ), isA( Boolean.class ) );
+        final ArgumentCaptor<ContentIndexBatch> batch = ArgumentCaptor.forClass( ContentIndexBatch.class );
+        verify( contentIndexBatchExecutor, times( 1 ) ).execute( batch.capture() );
+        assertEquals( 1, batch.getValue().size() );
+        assertEquals( 1, batch.getValue().getDocuments().size() );
+    }
+
+    @Test
+    public void deleted_content_is_removed_in_same_batch()
+    {
+        final ContentKey contentKey_1 = new ContentKey( 1 );
+        final ContentKey contentKey_2 = new ContentKey( 2 );
+        final ContentMap contentMap = new ContentMap( Lists.newArrayList( contentKey_1 ) );
+        contentMap.add( createContent( contentKey_1 ) );
+
+        when( contentDao.findByKeys( isA( FindContentByKeysCommand.class ) ) ).thenReturn( contentMap );
+        when( indexService.createContentDocument( isA( ContentEntity.class ), isA( Boolean.class ) ) ).thenReturn(
+            createContentIndexData() );
+
+        journal.registerUpdate( contentKey_1, true );
+        journal.registerRemove( contentKey_2 );
+        journal.afterCommit();
+
+        final ArgumentCaptor<ContentIndexBatch> batch = ArgumentCaptor.forClass( ContentIndexBatch.class );
+        verify( contentIndexBatchExecutor, times( 1 ) ).execute( batch.capture() );
+        assertEquals( 1, batch.getValue().getMetadataDocuments().size() );
+        assertTrue( batch.getValue().getRemovals().contains( contentKey_2 ) );
     }
 
     private ContentEntity createContent( ContentKey contentKey )
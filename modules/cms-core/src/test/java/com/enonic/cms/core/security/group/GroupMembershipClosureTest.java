@@ -0,0 +1,190 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.core.security.group;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.enonic.cms.core.content.ContentEntity;
+import com.enonic.cms.core.content.access.ContentAccessEntity;
+import com.enonic.cms.core.content.access.ContentAccessRightsAccumulated;
+import com.enonic.cms.core.content.access.ContentAccessType;
+import com.enonic.cms.core.security.user.UserEntity;
+import com.enonic.cms.core.security.user.UserKey;
+import com.enonic.cms.core.security.user.UserType;
+
+import static org.junit.Assert.*;
+
+public class GroupMembershipClosureTest
+{
+    private GroupEntity anonymousGroup;
+
+    private GroupEntity authenticatedUsersGroup;
+
+    private GroupEntity enterpriseAdminsGroup;
+
+    @Before
+    public void setUp()
+    {
+        anonymousGroup = createGroup( "CL_ANON", GroupType.ANONYMOUS );
+        authenticatedUsersGroup = createGroup( "CL_AUTH", GroupType.AUTHENTICATED_USERS );
+        enterpriseAdminsGroup = createGroup( "CL_EA", GroupType.ENTERPRISE_ADMINS );
+    }
+
+    @Test
+    public void testIndirectMemberships()
+    {
+        final UserEntity user = createUser( "CL_USER1", UserType.NORMAL );
+        final GroupEntity norway = createGroup( "CL_NORWAY", GroupType.GLOBAL_GROUP );
+        final GroupEntity europe = createGroup( "CL_EUROPE", GroupType.GLOBAL_GROUP );
+        final GroupEntity asia = createGroup( "CL_ASIA", GroupType.GLOBAL_GROUP );
+        user.getUserGroup().addMembership( norway );
+        norway.addMembership( europe );
+
+        final GroupMembershipClosure closure = createClosure( user );
+
+        assertTrue( closure.contains( user.getUserGroup().getGroupKey() ) );
+        assertTrue( closure.contains( norway.getGroupKey() ) );
+        assertTrue( closure.contains( europe.getGroupKey() ) );
+        assertTrue( closure.contains( anonymousGroup.getGroupKey() ) );
+        assertTrue( closure.contains( authenticatedUsersGroup.getGroupKey() ) );
+        assertFalse( closure.contains( asia.getGroupKey() ) );
+        assertFalse( closure.contains( new GroupKey( "CL_UNKNOWN" ) ) );
+        assertFalse( closure.isAdministrator() );
+    }
+
+    @Test
+    public void testDeletedMembershipsAreExcluded()
+    {
+        final UserEntity user = createUser( "CL_USER2", UserType.NORMAL );
+        final GroupEntity deleted = createGroup( "CL_DELETED", GroupType.GLOBAL_GROUP );
+        deleted.setDeleted( true );
+        user.getUserGroup().addMembership( deleted );
+
+        assertFalse( createClosure( user ).contains( deleted.getGroupKey() ) );
+    }
+
+    @Test
+    public void testAnonymousUser()
+    {
+        final UserEntity user = createUser( "CL_ANONUSER", UserType.ANONYMOUS );
+        final GroupEntity everyone = createGroup( "CL_EVERYONE", GroupType.GLOBAL_GROUP );
+        anonymousGroup.addMembership( everyone );
+
+        final GroupMembershipClosure closure = createClosure( user );
+
+        assertTrue( closure.contains( anonymousGroup.getGroupKey() ) );
+        assertFalse( closure.contains( user.getUserGroup().getGroupKey() ) );
+        assertFalse( closure.contains( authenticatedUsersGroup.getGroupKey() ) );
+
+        // memberships of the anonymous group are only included when accumulating rights
+        assertFalse( closure.contains( everyone.getGroupKey() ) );
+        assertTrue( closure.containsAccumulated( everyone.getGroupKey() ) );
+        assertFalse( closure.isAdministrator() );
+    }
+
+    @Test
+    public void testAdministrator()
+    {
+        final UserEntity user = createUser( "CL_USER3", UserType.NORMAL );
+        final GroupEntity admins = createGroup( "CL_ADMINS", GroupType.GLOBAL_GROUP );
+        user.getUserGroup().addMembership( admins );
+        admins.addMembership( enterpriseAdminsGroup );
+
+        assertTrue( createClosure( user ).isAdministrator() );
+
+        final UserEntity root = createUser( "CL_ROOT", UserType.ADMINISTRATOR );
+        root.setName( "admin" );
+        assertTrue( createClosure( root ).isAdministrator() );
+    }
+
+    @Test
+    public void testContentAccessRights()
+    {
+        final UserEntity user = createUser( "CL_USER4", UserType.NORMAL );
+        final GroupEntity editors = createGroup( "CL_EDITORS", GroupType.GLOBAL_GROUP );
+        final GroupEntity others = createGroup( "CL_OTHERS", GroupType.GLOBAL_GROUP );
+        user.getUserGroup().addMembership( editors );
+
+        final ContentEntity content = new ContentEntity();
+        content.addContentAccessRight( createAccess( content, editors, true, true, false ) );
+        content.addContentAccessRight( createAccess( content, others, true, true, true ) );
+
+        final GroupMembershipClosure closure = createClosure( user );
+
+        assertTrue( content.hasAccessRightSet( closure, ContentAccessType.READ ) );
+        assertTrue( content.hasAccessRightSet( closure, ContentAccessType.UPDATE ) );
+        assertFalse( content.hasAccessRightSet( closure, ContentAccessType.DELETE ) );
+
+        final ContentAccessRightsAccumulated accumulated = new ContentAccessRightsAccumulated( false );
+        content.accumulateAccess( accumulated, closure );
+        assertTrue( accumulated.isReadAccess() );
+        assertTrue( accumulated.isUpdateAccess() );
+        assertFalse( accumulated.isDeleteAccess() );
+    }
+
+    @Test
+    public void testCreateFromGroupKeys()
+    {
+        final UserEntity user = createUser( "CL_USER5", UserType.NORMAL );
+        final GroupKey userGroup = user.getUserGroup().getGroupKey();
+        final GroupKey editors = new GroupKey( "CL_KEY_EDITORS" );
+        final GroupKey everyone = new GroupKey( "CL_KEY_EVERYONE" );
+
+        // memberships given by key, not by the groups of the user
+        final GroupMembershipClosure closure =
+            GroupMembershipClosure.create( user, anonymousGroup.getGroupKey(), Arrays.asList( anonymousGroup.getGroupKey(), everyone ),
+                                           Arrays.asList( userGroup, editors, enterpriseAdminsGroup.getGroupKey() ),
+                                           Arrays.asList( authenticatedUsersGroup.getGroupKey() ), enterpriseAdminsGroup.getGroupKey() );
+
+        assertTrue( closure.contains( userGroup ) );
+        assertTrue( closure.contains( editors ) );
+        assertTrue( closure.contains( authenticatedUsersGroup.getGroupKey() ) );
+        assertFalse( closure.contains( everyone ) );
+        assertTrue( closure.containsAccumulated( everyone ) );
+        assertTrue( closure.isAdministrator() );
+    }
+
+    private GroupMembershipClosure createClosure( final UserEntity user )
+    {
+        return GroupMembershipClosure.create( user, anonymousGroup, authenticatedUsersGroup, enterpriseAdminsGroup );
+    }
+
+    private ContentAccessEntity createAccess( final ContentEntity content, final GroupEntity group, final boolean read,
+                                              final boolean update, final boolean delete )
+    {
+        final ContentAccessEntity access = new ContentAccessEntity();
+        access.setKey( group.getGroupKey().toString() );
+        access.setContent( content );
+        access.setGroup( group );
+        access.setReadAccess( read );
+        access.setUpdateAccess( update );
+        access.setDeleteAccess( delete );
+        return access;
+    }
+
+    private GroupEntity createGroup( final String key, final GroupType type )
+    {
+        final GroupEntity group = new GroupEntity();
+        group.setKey( key );
+        group.setName( key );
+        group.setDeleted( 0 );
+        group.setType( type );
+        return group;
+    }
+
+    private UserEntity createUser( final String key, final UserType type )
+    {
+        final UserEntity user = new UserEntity();
+        user.setKey( new UserKey( key ) );
+        user.setName( key );
+        user.setDeleted( 0 );
+        user.setType( type );
+        user.setUserGroup( createGroup( key + "_GROUP", GroupType.USER ) );
+        return user;
+    }
+}
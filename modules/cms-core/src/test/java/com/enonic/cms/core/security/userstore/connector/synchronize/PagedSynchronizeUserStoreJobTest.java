@@ -0,0 +1,151 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.core.security.userstore.connector.synchronize;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Multimap;
+
+import com.enonic.cms.api.plugin.ext.userstore.RemotePrincipalPage;
+import com.enonic.cms.api.plugin.ext.userstore.RemoteUser;
+import com.enonic.cms.core.security.user.UserEntity;
+import com.enonic.cms.core.security.user.UserKey;
+import com.enonic.cms.core.security.userstore.UserStoreKey;
+import com.enonic.cms.core.security.userstore.UserStoreService;
+import com.enonic.cms.core.security.userstore.connector.remote.MemberCache;
+import com.enonic.cms.core.security.userstore.connector.remote.RemoteUserStoreConnector;
+import com.enonic.cms.core.security.userstore.connector.synchronize.status.SynchronizeStatus;
+import com.enonic.cms.core.security.userstore.status.LocalUsersStatus;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isNull;
+import static org.mockito.Mockito.*;
+
+public class PagedSynchronizeUserStoreJobTest
+{
+    private final UserStoreKey userStoreKey = new UserStoreKey( 1 );
+
+    private UserStoreService userStoreService;
+
+    private RemoteUserStoreConnector connector;
+
+    private SynchronizeChangeMarkers changeMarkers;
+
+    @Before
+    public void setUp()
+    {
+        userStoreService = mock( UserStoreService.class );
+        connector = mock( RemoteUserStoreConnector.class );
+        changeMarkers = new SynchronizeChangeMarkers();
+
+        when( connector.getChangeMarker() ).thenReturn( "42" );
+        when( connector.getUsers( (String) isNull(), (String) isNull(), anyInt() ) ).thenReturn(
+            page( "next", createRemoteUser( "a" ), createRemoteUser( "b" ), createRemoteUser( "A" ) ) );
+        when( connector.getUsers( (String) isNull(), eq( "next" ), anyInt() ) ).thenReturn(
+            page( null, createRemoteUser( "c" ) ) );
+    }
+
+    @Test
+    public void testFullSyncAppliesAllPagesAndDeletesMissingUsers()
+    {
+        final Multimap<String, UserEntity> localUsers = HashMultimap.create();
+        localUsers.put( "a", createUser( "1", "a" ) );
+        localUsers.put( "gone", createUser( "2", "gone" ) );
+        when( userStoreService.getUsersAsMapByName( userStoreKey ) ).thenReturn( localUsers );
+
+        final PagedSynchronizeUserStoreJob job = createJob( null );
+        job.start();
+
+        verify( userStoreService, times( 2 ) ).synchronizeUsers( any( SynchronizeStatus.class ), eq( userStoreKey ),
+                                                                 anyListOf( RemoteUser.class ), eq( false ), any( MemberCache.class ) );
+        verify( userStoreService ).deleteUsersLocally( eq( userStoreKey ), any( LocalUsersStatus.class ),
+                                                       eq( Collections.singletonList( new UserKey( "2" ) ) ) );
+
+        final SynchronizeStatus status = job.getStatus();
+        assertTrue( status.isCompleted() );
+        assertEquals( 4, status.getRemoteUsersStatus().getTotalCount() );
+        assertEquals( 1, status.getRemoteUsersStatus().getSkippedCount() );
+        assertEquals( 3, status.getUserMembershipsStatus().getTotalCount() );
+        assertEquals( 3, status.getUserMembershipsStatus().getCurrentCount() );
+
+        assertEquals( "42", changeMarkers.getChangedSince( userStoreKey, SynchronizeUserStoreType.USERS_ONLY, System.currentTimeMillis(),
+                                                           60000 ) );
+    }
+
+    @Test
+    public void testDeltaSyncDeletesNothing()
+    {
+        when( connector.getUsers( eq( "41" ), (String) isNull(), anyInt() ) ).thenReturn( page( null, createRemoteUser( "b" ) ) );
+
+        final PagedSynchronizeUserStoreJob job = createJob( "41" );
+        job.start();
+
+        verify( userStoreService ).synchronizeUsers( any( SynchronizeStatus.class ), eq( userStoreKey ), anyListOf( RemoteUser.class ),
+                                                     eq( false ), any( MemberCache.class ) );
+        verify( userStoreService, never() ).getUsersAsMapByName( userStoreKey );
+        verify( userStoreService, never() ).deleteUsersLocally( any( UserStoreKey.class ), any( LocalUsersStatus.class ),
+                                                                anyListOf( UserKey.class ) );
+
+        // a delta synchronization is not recorded as a full one
+        assertNull( changeMarkers.getChangedSince( userStoreKey, SynchronizeUserStoreType.USERS_ONLY, System.currentTimeMillis(),
+                                                   60000 ) );
+    }
+
+    @Test
+    public void testChangeMarkersExpire()
+    {
+        changeMarkers.completed( userStoreKey, SynchronizeUserStoreType.USERS_ONLY, "1", true, 1000 );
+        changeMarkers.completed( userStoreKey, SynchronizeUserStoreType.USERS_ONLY, "2", false, 5000 );
+
+        assertEquals( "2", changeMarkers.getChangedSince( userStoreKey, SynchronizeUserStoreType.USERS_ONLY, 10000, 10000 ) );
+        assertNull( changeMarkers.getChangedSince( userStoreKey, SynchronizeUserStoreType.USERS_ONLY, 11000, 10000 ) );
+        assertNull( changeMarkers.getChangedSince( userStoreKey, SynchronizeUserStoreType.USERS_AND_GROUPS, 10000, 10000 ) );
+    }
+
+    private PagedSynchronizeUserStoreJob createJob( final String changedSince )
+    {
+        final PagedSynchronizeUserStoreJob job =
+            new PagedSynchronizeUserStoreJob( userStoreKey, SynchronizeUserStoreType.USERS_ONLY, 2, 3, 2 );
+        job.setUserStoreService( userStoreService );
+        job.setUserStoreConnector( connector );
+        job.setChangeMarkers( changeMarkers );
+        job.setLock( new ReentrantLock() );
+        job.setChangedSince( changedSince );
+        return job;
+    }
+
+    private RemotePrincipalPage<RemoteUser> page( final String nextCursor, final RemoteUser... users )
+    {
+        final List<RemoteUser> list = Lists.newArrayList( users );
+        return new RemotePrincipalPage<RemoteUser>( list, nextCursor );
+    }
+
+    private RemoteUser createRemoteUser( final String id )
+    {
+        final RemoteUser user = new RemoteUser( id );
+        user.setSync( id.toLowerCase() );
+        return user;
+    }
+
+    private UserEntity createUser( final String key, final String name )
+    {
+        final UserEntity user = new UserEntity();
+        user.setKey( new UserKey( key ) );
+        user.setName( name );
+        user.setSyncValue( name );
+        return user;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.core.tools.index;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.enonic.cms.core.content.ContentKey;
+import com.enonic.cms.core.content.IndexService;
+import com.enonic.cms.core.search.ContentIndexBatch;
+import com.enonic.cms.core.search.IndexException;
+import com.enonic.cms.core.search.query.ContentIndexService;
+import com.enonic.cms.store.dao.ContentDao;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyList;
+import static org.mockito.Mockito.*;
+
+public class ReindexContentPipelineTest
+{
+    private static final int CONTENT_COUNT = 95;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private IndexService indexService;
+
+    private ContentIndexService contentIndexService;
+
+    private ContentDao contentDao;
+
+    private ReindexCheckpoint checkpoint;
+
+    @Before
+    public void setUp()
+    {
+        this.indexService = mock( IndexService.class );
+        this.contentIndexService = mock( ContentIndexService.class );
+        this.contentDao = mock( ContentDao.class );
+        this.checkpoint = new ReindexCheckpoint( new File( this.folder.getRoot(), "reindex-checkpoint.txt" ) );
+
+        when( this.contentDao.findContentKeysAfter( any( ContentKey.class ), anyInt() ) ).thenAnswer( new Answer<List<ContentKey>>()
+        {
+            @Override
+            public List<ContentKey> answer( final InvocationOnMock invocation )
+            {
+                final int after = ( (ContentKey) invocation.getArguments()[0] ).toInt();
+                final int count = (Integer) invocation.getArguments()[1];
+
+                final List<ContentKey> keys = new ArrayList<ContentKey>();
+                for ( int key = after + 1; key <= CONTENT_COUNT && keys.size() < count; key++ )
+                {
+                    keys.add( new ContentKey( key ) );
+                }
+                return keys;
+            }
+        } );
+
+        when( this.indexService.createIndexBatch( anyList() ) ).thenAnswer( new Answer<ContentIndexBatch>()
+        {
+            @Override
+            @SuppressWarnings("unchecked")
+            public ContentIndexBatch answer( final InvocationOnMock invocation )
+            {
+                final ContentIndexBatch batch = new ContentIndexBatch();
+                for ( final ContentKey key : (List<ContentKey>) invocation.getArguments()[0] )
+                {
+                    batch.remove( key );
+                }
+                return batch;
+            }
+        } );
+    }
+
+    @Test
+    public void testReindexAll()
+    {
+        final ReindexContentPipeline pipeline = createPipeline();
+        pipeline.run( new ArrayList<String>() );
+
+        assertEquals( CONTENT_COUNT, pipeline.getDocumentCount() );
+        verify( this.contentIndexService, times( 10 ) ).index( any( ContentIndexBatch.class ) );
+        verify( this.contentIndexService, times( 1 ) ).flush();
+        assertFalse( this.checkpoint.exists() );
+    }
+
+    @Test
+    public void testResumeFromCheckpoint()
+    {
+        this.checkpoint.save( new ContentKey( 50 ) );
+
+        final ReindexContentPipeline pipeline = createPipeline();
+        pipeline.run( new ArrayList<String>() );
+
+        assertEquals( 45, pipeline.getDocumentCount() );
+        assertFalse( this.checkpoint.exists() );
+    }
+
+    @Test
+    public void testFailureKeepsCheckpoint()
+    {
+        doThrow( new IndexException( "failed" ) ).when( this.contentIndexService ).index( any( ContentIndexBatch.class ) );
+
+        final ReindexContentPipeline pipeline = createPipeline();
+        try
+        {
+            pipeline.run( new ArrayList<String>() );
+            fail( "Expected ReindexContentException" );
+        }
+        catch ( final ReindexContentException e )
+        {
+            // expected
+        }
+
+        verify( this.contentIndexService, never() ).flush();
+        assertNull( this.checkpoint.load() );
+    }
+
+    private ReindexContentPipeline createPipeline()
+    {
+        final ReindexContentPipeline pipeline =
+            new ReindexContentPipeline( this.indexService, this.contentIndexService, this.contentDao, this.checkpoint );
+        pipeline.setBatchSize( 10 );
+        pipeline.setDocumentThreads( 3 );
+        pipeline.setBulkThreads( 2 );
+        return pipeline;
+    }
+}
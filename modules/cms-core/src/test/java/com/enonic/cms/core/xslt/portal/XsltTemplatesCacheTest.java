@@ -0,0 +1,94 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+
+package com.enonic.cms.core.xslt.portal;
+
+import java.util.Arrays;
+
+import javax.xml.transform.Templates;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.enonic.cms.framework.cache.CacheFacade;
+
+import com.enonic.cms.core.resource.FileResource;
+import com.enonic.cms.core.resource.FileResourceName;
+import com.enonic.cms.core.resource.FileResourceService;
+
+public class XsltTemplatesCacheTest
+{
+    private CacheFacade cacheFacade;
+
+    private FileResourceService resourceService;
+
+    private XsltTemplatesCache cache;
+
+    @Before
+    public void setUp()
+    {
+        this.cacheFacade = Mockito.mock( CacheFacade.class );
+        this.resourceService = Mockito.mock( FileResourceService.class );
+        this.cache = new XsltTemplatesCache( this.cacheFacade, this.resourceService );
+
+        Mockito.verify( this.resourceService ).addResourceListener( this.cache );
+    }
+
+    @Test
+    public void testChangedDependencyRemovesTemplates()
+    {
+        final XsltTemplatesCacheEntry page = newEntry( "/site/page.xsl", "/site/lib/common.xsl", "/site/lib/menu.xsl" );
+        final XsltTemplatesCacheEntry other = newEntry( "/site/other.xsl", "/site/lib/common.xsl" );
+        this.cache.put( page );
+        this.cache.put( other );
+
+        Mockito.verify( this.resourceService ).watchResource( new FileResourceName( "/site/lib/menu.xsl" ) );
+
+        this.cache.resourceChanged( new FileResourceName( "/site/lib/menu.xsl" ) );
+        Mockito.verify( this.cacheFacade ).remove( null, "/site/page.xsl" );
+        Mockito.verify( this.cacheFacade, Mockito.never() ).remove( null, "/site/other.xsl" );
+
+        this.cache.resourceChanged( new FileResourceName( "/site/unused.xsl" ) );
+        Mockito.verify( this.cacheFacade, Mockito.never() ).remove( null, "/site/other.xsl" );
+
+        // a folder change applies to the resources below it
+        this.cache.resourceChanged( new FileResourceName( "/site/lib" ) );
+        Mockito.verify( this.cacheFacade ).remove( null, "/site/other.xsl" );
+    }
+
+    @Test
+    public void testTemplatesNotCachedWhenChangedWhileCompiling()
+    {
+        final XsltTemplatesCacheEntry page = newEntry( "/site/page.xsl", "/site/lib/common.xsl" );
+        mockResource( "/site/lib/common.xsl", page.getCompileTimestamp() + 1000 );
+
+        this.cache.put( page );
+
+        Mockito.verify( this.cacheFacade ).remove( null, "/site/page.xsl" );
+    }
+
+    private XsltTemplatesCacheEntry newEntry( final String name, final String... includes )
+    {
+        final XsltTemplatesCacheEntry entry = new XsltTemplatesCacheEntry( new FileResourceName( name ), Mockito.mock( Templates.class ) );
+        mockResource( name, entry.getCompileTimestamp() - 1000 );
+
+        for ( final String include : includes )
+        {
+            entry.addIncludes( Arrays.asList( new FileResourceName( include ) ) );
+            mockResource( include, entry.getCompileTimestamp() - 1000 );
+        }
+
+        return entry;
+    }
+
+    private void mockResource( final String name, final long lastModified )
+    {
+        final FileResource resource = new FileResource( new FileResourceName( name ) );
+        resource.setLastModified( new DateTime( lastModified ) );
+        Mockito.when( this.resourceService.getResource( new FileResourceName( name ) ) ).thenReturn( resource );
+    }
+}
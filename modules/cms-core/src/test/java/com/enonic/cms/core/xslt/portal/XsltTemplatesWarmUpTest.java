@@ -0,0 +1,113 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+
+package com.enonic.cms.core.xslt.portal;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.enonic.cms.core.resource.FileResourceName;
+import com.enonic.cms.core.resource.ResourceKey;
+import com.enonic.cms.core.structure.page.template.PageTemplateEntity;
+import com.enonic.cms.core.structure.portlet.PortletEntity;
+import com.enonic.cms.core.xslt.XsltProcessorException;
+import com.enonic.cms.store.dao.PageTemplateDao;
+import com.enonic.cms.store.dao.PortletDao;
+
+import static org.junit.Assert.*;
+
+public class XsltTemplatesWarmUpTest
+{
+    private PortalXsltProcessorFactory xsltProcessorFactory;
+
+    private XsltTemplatesWarmUp warmUp;
+
+    @Before
+    public void setUp()
+    {
+        final PageTemplateEntity pageTemplate = new PageTemplateEntity();
+        pageTemplate.setStyleKey( ResourceKey.from( "/site/page.xsl" ) );
+
+        final PortletEntity portlet = new PortletEntity();
+        portlet.setStyleKey( ResourceKey.from( "/site/portlet.xsl" ) );
+        portlet.setBorderKey( ResourceKey.from( "/site/page.xsl" ) );
+
+        final PortletEntity brokenPortlet = new PortletEntity();
+        brokenPortlet.setStyleKey( ResourceKey.from( "/site/broken.xsl" ) );
+
+        final PageTemplateDao pageTemplateDao = Mockito.mock( PageTemplateDao.class );
+        Mockito.when( pageTemplateDao.findAll() ).thenReturn( Arrays.asList( pageTemplate ) );
+
+        final PortletDao portletDao = Mockito.mock( PortletDao.class );
+        Mockito.when( portletDao.findAll() ).thenReturn( Arrays.asList( portlet, brokenPortlet ) );
+
+        this.xsltProcessorFactory = Mockito.mock( PortalXsltProcessorFactory.class );
+
+        this.warmUp = new XsltTemplatesWarmUp();
+        this.warmUp.setXsltProcessorFactory( this.xsltProcessorFactory );
+        this.warmUp.setPageTemplateDao( pageTemplateDao );
+        this.warmUp.setPortletDao( portletDao );
+        this.warmUp.setEnabled( true );
+        this.warmUp.setThreads( 2 );
+    }
+
+    @Test
+    public void testCompilesEachStylesheetOnce()
+        throws Exception
+    {
+        Mockito.doThrow( new XsltProcessorException( "broken" ) ).when( this.xsltProcessorFactory ).compileTemplates(
+            new FileResourceName( "/site/broken.xsl" ) );
+
+        this.warmUp.setBlockReadiness( true );
+        assertFalse( this.warmUp.isReady() );
+
+        this.warmUp.start();
+        waitForCompleted();
+
+        Mockito.verify( this.xsltProcessorFactory ).compileTemplates( new FileResourceName( "/site/page.xsl" ) );
+        Mockito.verify( this.xsltProcessorFactory ).compileTemplates( new FileResourceName( "/site/portlet.xsl" ) );
+        Mockito.verify( this.xsltProcessorFactory ).compileTemplates( new FileResourceName( "/site/broken.xsl" ) );
+
+        assertEquals( 3, this.warmUp.getStylesheetCount() );
+        assertEquals( 2, this.warmUp.getCompiledCount() );
+        assertEquals( 1, this.warmUp.getFailedCount() );
+        assertEquals( 100, this.warmUp.getProgress() );
+        assertTrue( this.warmUp.isReady() );
+    }
+
+    @Test
+    public void testReadyWhenNotBlocking()
+    {
+        this.warmUp.setBlockReadiness( false );
+        assertTrue( this.warmUp.isReady() );
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        this.warmUp.setEnabled( false );
+        this.warmUp.setBlockReadiness( true );
+        this.warmUp.start();
+
+        assertEquals( XsltTemplatesWarmUp.STATE_DISABLED, this.warmUp.getState() );
+        assertTrue( this.warmUp.isReady() );
+        Mockito.verifyZeroInteractions( this.xsltProcessorFactory );
+    }
+
+    private void waitForCompleted()
+        throws InterruptedException
+    {
+        final long timeout = System.currentTimeMillis() + 10000;
+        while ( !XsltTemplatesWarmUp.STATE_COMPLETED.equals( this.warmUp.getState() ) && System.currentTimeMillis() < timeout )
+        {
+            Thread.sleep( 10 );
+        }
+
+        assertEquals( XsltTemplatesWarmUp.STATE_COMPLETED, this.warmUp.getState() );
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.framework.blob;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BlobKeyCreatorTest
+{
+    @Test
+    public void testKnownDigest()
+    {
+        final BlobKey key = BlobKeyCreator.createKey( "abc".getBytes() );
+        Assert.assertEquals( "a9993e364706816aba3e25717850c26c9cd0d89d", key.toString() );
+    }
+
+    @Test
+    public void testStreamAndBytesGiveSameKey()
+    {
+        final byte[] data = new byte[200 * 1024];
+        new Random( 42 ).nextBytes( data );
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final BlobKey key1 = BlobKeyCreator.createKey( new ByteArrayInputStream( data ), out );
+        final BlobKey key2 = BlobKeyCreator.createKey( data );
+        final BlobKey key3 = BlobKeyCreator.createKey( new ByteArrayInputStream( data ) );
+
+        Assert.assertEquals( key2, key1 );
+        Assert.assertEquals( key2, key3 );
+        Assert.assertArrayEquals( data, out.toByteArray() );
+    }
+}
@@ -77,6 +77,19 @@ public abstract class BlobStoreTest
         Assert.assertEquals(key2, keys2.iterator().next());
     }
 
+    @Test
+    public void testDeleteRecordIfNotModifiedSince()
+    {
+        final BlobKey key1 = addRecord("test1").getKey();
+        final long beforeAdded = System.currentTimeMillis() - 60000;
+
+        Assert.assertFalse( this.store.deleteRecordIfNotModifiedSince( key1, beforeAdded ) );
+        Assert.assertNotNull( this.store.getRecord( key1 ) );
+
+        Assert.assertTrue( this.store.deleteRecordIfNotModifiedSince( key1, System.currentTimeMillis() + 60000 ) );
+        Assert.assertNull( this.store.getRecord( key1 ) );
+    }
+
     private BlobRecord addRecord(final String content)
     {
         return this.store.addRecord( new ByteArrayInputStream(content.getBytes()) );
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.framework.blob.file;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.commons.io.FileUtils;
+
+import com.google.common.io.Files;
+
+/**
+ * Benchmark measuring upload throughput of {@link FileBlobStore} with an increasing number of concurrent uploaders.
+ * It is not run as part of the test suite; start it with the main method. Pass a directory as argument to benchmark
+ * a specific disk, otherwise a temporary directory is used.
+ */
+public final class FileBlobStoreBenchmark
+{
+    private static final int[] THREADS = {1, 2, 4, 8, 16};
+
+    private static final int UPLOADS_PER_THREAD = 200;
+
+    private static final int BLOB_SIZE = 256 * 1024;
+
+    public static void main( final String[] args )
+        throws Exception
+    {
+        final File baseDir = args.length > 0 ? new File( args[0] ) : Files.createTempDir();
+
+        // warm up
+        run( baseDir, 4, false );
+
+        for ( final int threads : THREADS )
+        {
+            run( baseDir, threads, true );
+        }
+    }
+
+    private static void run( final File baseDir, final int threads, final boolean report )
+        throws Exception
+    {
+        final File dir = new File( baseDir, "blobs-" + threads + "-" + System.nanoTime() );
+        final FileBlobStore store = new FileBlobStore();
+        store.setDirectory( dir );
+        store.afterPropertiesSet();
+
+        final CountDownLatch start = new CountDownLatch( 1 );
+        final CountDownLatch done = new CountDownLatch( threads );
+
+        for ( int i = 0; i < threads; i++ )
+        {
+            final Random random = new Random( i );
+            new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    final byte[] data = new byte[BLOB_SIZE];
+                    try
+                    {
+                        start.await();
+                        for ( int upload = 0; upload < UPLOADS_PER_THREAD; upload++ )
+                        {
+                            random.nextBytes( data );
+                            store.addRecord( new ByteArrayInputStream( data ) );
+                        }
+                    }
+                    catch ( final InterruptedException e )
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+                    finally
+                    {
+                        done.countDown();
+                    }
+                }
+            }.start();
+        }
+
+        final long startTime = System.nanoTime();
+        start.countDown();
+        done.await();
+        final long elapsed = System.nanoTime() - startTime;
+
+        if ( report )
+        {
+            final double seconds = elapsed / 1000000000.0;
+            final long uploads = (long) threads * UPLOADS_PER_THREAD;
+            System.out.println( String.format( "threads: %2d, uploads/s: %8.0f, MB/s: %8.1f", threads, uploads / seconds,
+                                               uploads * BLOB_SIZE / seconds / ( 1024 * 1024 ) ) );
+        }
+
+        deleteQuietly( dir );
+    }
+
+    private static void deleteQuietly( final File dir )
+    {
+        try
+        {
+            FileUtils.deleteDirectory( dir );
+        }
+        catch ( final IOException e )
+        {
+            // ignore
+        }
+    }
+}
@@ -5,6 +5,7 @@
 package com.enonic.cms.framework.blob.gc;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.util.Set;
 
 import org.junit.Assert;
@@ -12,10 +13,11 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
-import org.mockito.Mockito;
 
+import com.google.common.base.Charsets;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
+import com.google.common.io.Files;
 
 import com.enonic.cms.framework.blob.BlobKey;
 import com.enonic.cms.framework.blob.file.FileBlobStore;
@@ -57,6 +59,8 @@ public class GarbageCollectorTest
 
         // Check contents of blob store
         assertBlobStoreContents(this.key1, this.key2, this.key3);
+        Assert.assertEquals( 3, collector.getScannedCount() );
+        Assert.assertEquals( 0, collector.getDeletedCount() );
     }
 
     @Test
@@ -74,14 +78,63 @@ public class GarbageCollectorTest
 
         // Check contents of blob store
         assertBlobStoreContents(this.key1, this.key2);
+        Assert.assertEquals( 1, collector.getDeletedCount() );
+        Assert.assertEquals( 100, collector.getProgress() );
+    }
+
+    @Test
+    public void testGarbageKeptWithinGracePeriod()
+        throws Exception
+    {
+        final GarbageCollector collector = new GarbageCollector();
+        collector.setFinder( createFinder( this.key1 ) );
+        collector.setStore( this.store );
+        collector.setGracePeriod( 60000 );
+        collector.process();
+
+        assertBlobStoreContents(this.key1, this.key2, this.key3);
+    }
+
+    @Test
+    public void testResumeFromCheckpoint()
+        throws Exception
+    {
+        final File checkpoint = this.folder.newFile( "checkpoint.txt" );
+        Files.write( "255", checkpoint, Charsets.UTF_8 );
+
+        final GarbageCollector collector = new GarbageCollector();
+        collector.setFinder( createFinder() );
+        collector.setStore( this.store );
+        collector.setCheckpointFile( checkpoint );
+        collector.process();
+
+        // only the last shard is collected, and the checkpoint is removed when done
+        for ( final BlobKey key : new BlobKey[]{this.key1, this.key2, this.key3} )
+        {
+            Assert.assertEquals( !key.toString().startsWith( "ff" ), this.store.getRecord( key ) != null );
+        }
+        Assert.assertFalse( checkpoint.exists() );
     }
 
     private UsedBlobKeyFinder createFinder(final BlobKey... keys)
         throws Exception
     {
-        final UsedBlobKeyFinder finder = Mockito.mock( UsedBlobKeyFinder.class );
-        Mockito.when( finder.findKeys() ).thenReturn( Sets.newHashSet( keys ));
-        return finder;
+        final Set<BlobKey> used = Sets.newHashSet( keys );
+        return new UsedBlobKeyFinder()
+        {
+            public Set<BlobKey> findKeys( final String prefix )
+            {
+                final Set<BlobKey> result = Sets.newHashSet();
+                for ( final BlobKey key : used )
+                {
+                    if ( key.toString().startsWith( prefix ) )
+                    {
+                        result.add( key );
+                    }
+                }
+                return result;
+            }
+        };
     }
 
     private void assertBlobStoreSize(final int size)
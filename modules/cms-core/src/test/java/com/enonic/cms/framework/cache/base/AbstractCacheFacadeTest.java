@@ -47,6 +47,26 @@ public class AbstractCacheFacadeTest
         assertEquals( 1, cache.getRemoveAllCount());
     }
 
+    @Test
+    public void testPutUnlessCleared()
+        throws Exception
+    {
+        CacheFacade cache = this.cacheManager.getXsltCache();
+
+        long generation = cache.getGeneration();
+        cache.putUnlessCleared( null, "key1", "value1", generation );
+        assertEquals( "value1", cache.get( null, "key1" ) );
+
+        cache.removeAll();
+        cache.putUnlessCleared( null, "key2", "value2", generation );
+        assertEquals( null, cache.get( null, "key2" ) );
+
+        generation = cache.getGeneration();
+        this.cacheManager.handleEvictAll( cache.getName() );
+        cache.putUnlessCleared( null, "key3", "value3", generation );
+        assertEquals( null, cache.get( null, "key3" ) );
+    }
+
     @Test
     public void testGetEffectiveness()
         throws Exception
@@ -46,6 +46,32 @@ public class CacheManagerConfigTest
         assertEquals( 0, config.getTimeToLive() );
     }
 
+    @Test
+    public void testByteWeightedCacheConfig()
+    {
+        final Properties props = new Properties();
+        props.setProperty( "cms.cache.page.memoryCapacityBytes", "104857600" );
+        props.setProperty( "cms.cache.page.offHeap", "true" );
+        this.managerConfig = new CacheManagerConfig( props );
+
+        final CacheConfig config = this.managerConfig.getCacheConfig( "page" );
+
+        assertTrue( config.isByteWeighted() );
+        assertTrue( config.isOffHeap() );
+        assertEquals( 104857600L, config.getMemoryCapacityBytes() );
+        assertFalse( this.managerConfig.getCacheConfig( "entity" ).isByteWeighted() );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCacheConfig_IllegalArgumentException_thrown_when_off_heap_without_byte_capacity()
+    {
+        final Properties props = new Properties();
+        props.setProperty( "cms.cache.page.offHeap", "true" );
+        this.managerConfig = new CacheManagerConfig( props );
+
+        this.managerConfig.getCacheConfig( "page" );
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testCacheConfig_IllegalArgumentException_thrown_when_entity_cache_timeToLive_is_other_than_zero()
     {
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.framework.cache.standard;
+
+/**
+ * Microbenchmark that measures the cost of evicting a small group from caches of increasing size. It is not run as
+ * part of the test suite; start it with the main method. With the key index in place the time per eviction should
+ * stay flat as the cache grows.
+ */
+public final class StandardCacheGroupEvictionBenchmark
+{
+    private static final int[] CACHE_SIZES = {1000, 10000, 100000, 500000};
+
+    private static final int GROUP_SIZE = 20;
+
+    private static final int ROUNDS = 2000;
+
+    public static void main( final String[] args )
+    {
+        // warm up
+        run( 10000, false );
+
+        for ( final int size : CACHE_SIZES )
+        {
+            run( size, true );
+        }
+    }
+
+    private static void run( final int cacheSize, final boolean report )
+    {
+        final StandardCache cache = new StandardCache( cacheSize + GROUP_SIZE );
+        final int numGroups = cacheSize / GROUP_SIZE;
+
+        for ( int i = 0; i < cacheSize; i++ )
+        {
+            cache.put( createEntry( i % numGroups, i ) );
+        }
+
+        long elapsed = 0;
+        for ( int round = 0; round < ROUNDS; round++ )
+        {
+            final int group = round % numGroups;
+
+            final long start = System.nanoTime();
+            cache.removeGroup( "group" + group );
+            elapsed += System.nanoTime() - start;
+
+            for ( int i = 0; i < GROUP_SIZE; i++ )
+            {
+                cache.put( createEntry( group, i ) );
+            }
+        }
+
+        if ( report )
+        {
+            System.out.println(
+                String.format( "cache size: %8d, avg removeGroup: %10.2f us", cacheSize, elapsed / 1000.0 / ROUNDS ) );
+        }
+    }
+
+    private static CacheEntry createEntry( final int group, final int key )
+    {
+        return new CacheEntry( "group" + group + ":" + key, "value", 0 );
+    }
+}
@@ -8,6 +8,8 @@ import java.util.Set;
 
 import junit.framework.TestCase;
 
+import com.enonic.cms.framework.cache.base.CacheConfig;
+
 public class StandardCacheTest
     extends TestCase
 {
@@ -148,6 +150,70 @@ public class StandardCacheTest
         assertEquals( 2, cache.numberOfEntries() );
     }
 
+    public void testRemoveGroupByPrefix()
+    {
+        cache = new StandardCache( 100 );
+        cache.put( createCacheEntry( "1-page-1:A", "1", Long.MAX_VALUE ) );
+        cache.put( createCacheEntry( "1-window-2:A", "2", Long.MAX_VALUE ) );
+        cache.put( createCacheEntry( "10-page-1:A", "3", Long.MAX_VALUE ) );
+        cache.put( createCacheEntry( "2-page-1:A", "4", Long.MAX_VALUE ) );
+
+        cache.removeGroupByPrefix( "1-" );
+
+        Set<String> set = cache.getKeys();
+        assertEquals( 2, set.size() );
+        assertTrue( set.contains( "10-page-1:A" ) );
+        assertTrue( set.contains( "2-page-1:A" ) );
+    }
+
+    public void testRemoveGroupAfterEviction()
+    {
+        cache = new StandardCache( 2 );
+        cache.put( createCacheEntry( "group1:A", "1", Long.MAX_VALUE ) );
+        cache.put( createCacheEntry( "group1:B", "2", Long.MAX_VALUE ) );
+        cache.put( createCacheEntry( "group2:A", "3", Long.MAX_VALUE ) );
+
+        assertEquals( 2, cache.numberOfEntries() );
+
+        cache.put( createCacheEntry( "group1:A", "4", Long.MAX_VALUE ) );
+        cache.removeGroup( "group1" );
+
+        Set<String> set = cache.getKeys();
+        assertEquals( 1, set.size() );
+        assertTrue( set.contains( "group2:A" ) );
+    }
+
+    public void testByteWeightedCapacity()
+    {
+        cache = new StandardCache( new CacheConfig( 0, 0, 10 * 1024, false ) );
+        cache.put( createCacheEntry( "A", new byte[4000], Long.MAX_VALUE ) );
+        cache.put( createCacheEntry( "B", new byte[4000], Long.MAX_VALUE ) );
+
+        assertEquals( 2, cache.numberOfEntries() );
+        assertEquals( 0, cache.getEvictionCount() );
+
+        cache.put( createCacheEntry( "C", new byte[4000], Long.MAX_VALUE ) );
+
+        assertEquals( 2, cache.numberOfEntries() );
+        assertEquals( 1, cache.getEvictionCount() );
+        assertTrue( cache.getSizeInBytes() <= 10 * 1024 );
+        assertNull( cache.get( "A" ) );
+    }
+
+    public void testOffHeapValues()
+    {
+        cache = new StandardCache( new CacheConfig( 0, 0, 1024 * 1024, true ) );
+        cache.put( createCacheEntry( "bytes", new byte[]{1, 2, 3}, Long.MAX_VALUE ) );
+        cache.put( createCacheEntry( "string", "markup \u00e6\u00f8\u00e5", Long.MAX_VALUE ) );
+        cache.put( createCacheEntry( "object", 42L, Long.MAX_VALUE ) );
+
+        final byte[] bytes = (byte[]) cache.get( "bytes" ).getValue();
+        assertEquals( 3, bytes.length );
+        assertEquals( 3, bytes[2] );
+        assertEquals( "markup \u00e6\u00f8\u00e5", cache.get( "string" ).getValue() );
+        assertEquals( 42L, cache.get( "object" ).getValue() );
+    }
+
     public void testTimeToLive()
     {
 
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.framework.util;
+
+import java.io.File;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+import static org.junit.Assert.*;
+
+public class HttpServletRangeUtilTest
+{
+    private static final String CONTENT = "0123456789abcdefghij";
+
+    private File file;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    @Before
+    public void setUp()
+        throws Exception
+    {
+        this.file = File.createTempFile( "range", ".txt" );
+        Files.write( CONTENT, this.file, Charsets.UTF_8 );
+
+        this.request = new MockHttpServletRequest( "GET", "/file.bin" );
+        this.request.setPathInfo( "/file.bin" );
+        this.response = new MockHttpServletResponse();
+    }
+
+    @After
+    public void tearDown()
+    {
+        this.file.delete();
+    }
+
+    @Test
+    public void testWholeFile()
+        throws Exception
+    {
+        HttpServletRangeUtil.processRequest( request, response, "file.bin", "application/octet-stream", file );
+
+        assertEquals( 200, response.getStatus() );
+        assertEquals( "bytes", response.getHeader( "Accept-Ranges" ) );
+        assertEquals( "20", response.getHeader( "Content-Length" ) );
+        assertEquals( CONTENT, response.getContentAsString() );
+    }
+
+    @Test
+    public void testSingleRange()
+        throws Exception
+    {
+        request.addHeader( "Range", "bytes=5-9" );
+
+        HttpServletRangeUtil.processRequest( request, response, "file.bin", "application/octet-stream", file );
+
+        assertEquals( 206, response.getStatus() );
+        assertEquals( "bytes 5-9/20", response.getHeader( "Content-Range" ) );
+        assertEquals( "5", response.getHeader( "Content-Length" ) );
+        assertEquals( "56789", response.getContentAsString() );
+    }
+
+    @Test
+    public void testOpenAndSuffixRange()
+        throws Exception
+    {
+        request.addHeader( "Range", "bytes=15-" );
+        HttpServletRangeUtil.processRequest( request, response, "file.bin", "application/octet-stream", file );
+        assertEquals( "fghij", response.getContentAsString() );
+
+        request = new MockHttpServletRequest( "GET", "/file.bin" );
+        request.setPathInfo( "/file.bin" );
+        request.addHeader( "Range", "bytes=-3" );
+        response = new MockHttpServletResponse();
+        HttpServletRangeUtil.processRequest( request, response, "file.bin", "application/octet-stream", file );
+        assertEquals( "bytes 17-19/20", response.getHeader( "Content-Range" ) );
+        assertEquals( "hij", response.getContentAsString() );
+    }
+
+    @Test
+    public void testMultipleRanges()
+        throws Exception
+    {
+        request.addHeader( "Range", "bytes=0-1,10-11" );
+
+        HttpServletRangeUtil.processRequest( request, response, "file.bin", "application/octet-stream", file );
+
+        assertEquals( 206, response.getStatus() );
+        assertTrue( response.getContentType().startsWith( "multipart/byteranges" ) );
+
+        final String body = response.getContentAsString();
+        assertTrue( body.contains( "Content-Range: bytes 0-1/20\r\n\r\n01" ) );
+        assertTrue( body.contains( "Content-Range: bytes 10-11/20\r\n\r\nab" ) );
+        assertTrue( body.endsWith( "--\r\n" ) );
+    }
+
+    @Test
+    public void testUnsatisfiableRange()
+        throws Exception
+    {
+        request.addHeader( "Range", "bytes=15-10" );
+
+        HttpServletRangeUtil.processRequest( request, response, "file.bin", "application/octet-stream", file );
+
+        assertEquals( 416, response.getStatus() );
+        assertEquals( "bytes */20", response.getHeader( "Content-Range" ) );
+    }
+
+    @Test
+    public void testSendFileWhenSupportedByContainer()
+        throws Exception
+    {
+        request.setAttribute( "org.apache.tomcat.sendfile.support", Boolean.TRUE );
+        request.addHeader( "Range", "bytes=5-9" );
+
+        HttpServletRangeUtil.processRequest( request, response, "file.bin", "application/octet-stream", file );
+
+        assertEquals( 206, response.getStatus() );
+        assertEquals( file.getCanonicalPath(), request.getAttribute( "org.apache.tomcat.sendfile.filename" ) );
+        assertEquals( 5L, request.getAttribute( "org.apache.tomcat.sendfile.start" ) );
+        assertEquals( 10L, request.getAttribute( "org.apache.tomcat.sendfile.end" ) );
+        assertEquals( 0, response.getContentAsByteArray().length );
+    }
+}
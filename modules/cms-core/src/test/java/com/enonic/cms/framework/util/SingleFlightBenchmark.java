@@ -0,0 +1,168 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.framework.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Benchmark comparing {@link GenericConcurrencyLock} with {@link SingleFlight} for the render-on-cache-miss pattern
+ * used by the page and window renderers. It is not run as part of the test suite; start it with the main method.
+ */
+public final class SingleFlightBenchmark
+{
+    private static final int THREADS = 64;
+
+    private static final int OPERATIONS_PER_THREAD = 20000;
+
+    private static final int KEYS = 2000;
+
+    private static final int RENDER_WORK = 2000;
+
+    public static void main( final String[] args )
+        throws Exception
+    {
+        // warm up
+        run( new LockStrategy(), false );
+        run( new SingleFlightStrategy(), false );
+
+        run( new LockStrategy(), true );
+        run( new SingleFlightStrategy(), true );
+    }
+
+    private static void run( final Strategy strategy, final boolean report )
+        throws Exception
+    {
+        final CountDownLatch start = new CountDownLatch( 1 );
+        final CountDownLatch done = new CountDownLatch( THREADS );
+
+        for ( int i = 0; i < THREADS; i++ )
+        {
+            final int seed = i;
+            new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        start.await();
+                        for ( int op = 0; op < OPERATIONS_PER_THREAD; op++ )
+                        {
+                            final Integer key = ( seed * 31 + op * 17 ) % KEYS;
+                            strategy.get( key );
+
+                            // evict now and then so that misses keep occurring
+                            if ( op % 10 == 0 )
+                            {
+                                strategy.cache.remove( key );
+                            }
+                        }
+                    }
+                    catch ( final InterruptedException e )
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+                    finally
+                    {
+                        done.countDown();
+                    }
+                }
+            }.start();
+        }
+
+        final long startTime = System.nanoTime();
+        start.countDown();
+        done.await();
+        final long elapsed = System.nanoTime() - startTime;
+
+        if ( report )
+        {
+            final long operations = (long) THREADS * OPERATIONS_PER_THREAD;
+            System.out.println(
+                String.format( "%-20s threads: %d, ops/s: %10.0f, renders: %d", strategy.getClass().getSimpleName(), THREADS,
+                               operations / ( elapsed / 1000000000.0 ), strategy.renders.get() ) );
+        }
+    }
+
+    private static String render( final Integer key )
+    {
+        long value = key;
+        for ( int i = 0; i < RENDER_WORK; i++ )
+        {
+            value = value * 31 + i;
+        }
+
+        return String.valueOf( value );
+    }
+
+    private abstract static class Strategy
+    {
+        protected final ConcurrentHashMap<Integer, String> cache = new ConcurrentHashMap<Integer, String>();
+
+        protected final AtomicLong renders = new AtomicLong( 0 );
+
+        public abstract String get( Integer key );
+
+        protected String renderAndCache( final Integer key )
+        {
+            this.renders.incrementAndGet();
+            final String value = render( key );
+            this.cache.put( key, value );
+            return value;
+        }
+    }
+
+    private static final class LockStrategy
+        extends Strategy
+    {
+        private final GenericConcurrencyLock<Integer> concurrencyLock = GenericConcurrencyLock.create();
+
+        @Override
+        public String get( final Integer key )
+        {
+            final Lock locker = this.concurrencyLock.getLock( key );
+            try
+            {
+                locker.lock();
+
+                final String cached = this.cache.get( key );
+                return cached != null ? cached : renderAndCache( key );
+            }
+            finally
+            {
+                locker.unlock();
+            }
+        }
+    }
+
+    private static final class SingleFlightStrategy
+        extends Strategy
+    {
+        private final SingleFlight<Integer, String> flights = SingleFlight.create();
+
+        @Override
+        public String get( final Integer key )
+        {
+            final String cached = this.cache.get( key );
+            if ( cached != null )
+            {
+                return cached;
+            }
+
+            return this.flights.execute( key, new Callable<String>()
+            {
+                public String call()
+                {
+                    final String cached = cache.get( key );
+                    return cached != null ? cached : renderAndCache( key );
+                }
+            } );
+        }
+    }
+}
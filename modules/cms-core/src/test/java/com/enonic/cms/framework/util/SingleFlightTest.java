@@ -0,0 +1,157 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+package com.enonic.cms.framework.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SingleFlightTest
+{
+    @Test
+    public void testExecute()
+    {
+        final SingleFlight<String, String> flights = SingleFlight.create();
+
+        assertEquals( "value", flights.execute( "key", constant( "value" ) ) );
+        assertEquals( 1, flights.getExecutionCount() );
+        assertEquals( 0, flights.getCoalescedCount() );
+        assertEquals( 0, flights.getInFlightCount() );
+    }
+
+    @Test
+    public void testConcurrentCallersShareOneExecution()
+        throws Exception
+    {
+        final SingleFlight<String, Integer> flights = SingleFlight.create();
+        final AtomicInteger executions = new AtomicInteger( 0 );
+        final CountDownLatch started = new CountDownLatch( 1 );
+        final CountDownLatch release = new CountDownLatch( 1 );
+
+        final Callable<Integer> slow = new Callable<Integer>()
+        {
+            public Integer call()
+                throws Exception
+            {
+                started.countDown();
+                release.await();
+                return executions.incrementAndGet();
+            }
+        };
+
+        final ExecutorService executor = Executors.newFixedThreadPool( 8 );
+        final List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+        results.add( executor.submit( executeTask( flights, slow ) ) );
+        started.await();
+
+        for ( int i = 0; i < 7; i++ )
+        {
+            results.add( executor.submit( executeTask( flights, slow ) ) );
+        }
+
+        // give the other callers time to join the running execution
+        Thread.sleep( 200 );
+        release.countDown();
+
+        for ( final Future<Integer> result : results )
+        {
+            assertEquals( Integer.valueOf( 1 ), result.get( 5, TimeUnit.SECONDS ) );
+        }
+
+        executor.shutdown();
+        assertEquals( 1, executions.get() );
+        assertEquals( 1, flights.getExecutionCount() );
+        assertEquals( 7, flights.getCoalescedCount() );
+    }
+
+    @Test
+    public void testWaitingCallerRetriesWhenExecutionFails()
+        throws Exception
+    {
+        final SingleFlight<String, String> flights = SingleFlight.create();
+        final CountDownLatch started = new CountDownLatch( 1 );
+        final CountDownLatch release = new CountDownLatch( 1 );
+
+        final Callable<String> failing = new Callable<String>()
+        {
+            public String call()
+                throws Exception
+            {
+                started.countDown();
+                release.await();
+                throw new IllegalStateException( "failed" );
+            }
+        };
+
+        final ExecutorService executor = Executors.newFixedThreadPool( 2 );
+        final Future<String> first = executor.submit( executeTask( flights, failing ) );
+        started.await();
+        final Future<String> second = executor.submit( executeTask( flights, constant( "value" ) ) );
+
+        Thread.sleep( 100 );
+        release.countDown();
+
+        try
+        {
+            first.get( 5, TimeUnit.SECONDS );
+            fail( "Expected exception" );
+        }
+        catch ( final Exception e )
+        {
+            assertTrue( e.getCause() instanceof IllegalStateException );
+        }
+
+        assertEquals( "value", second.get( 5, TimeUnit.SECONDS ) );
+        executor.shutdown();
+    }
+
+    @Test
+    public void testReentrantExecuteDoesNotDeadlock()
+    {
+        final SingleFlight<String, String> flights = SingleFlight.create();
+
+        final String value = flights.execute( "key", new Callable<String>()
+        {
+            public String call()
+            {
+                return "outer-" + flights.execute( "key", constant( "inner" ) );
+            }
+        } );
+
+        assertEquals( "outer-inner", value );
+    }
+
+    private static <V> Callable<V> executeTask( final SingleFlight<String, V> flights, final Callable<V> callable )
+    {
+        return new Callable<V>()
+        {
+            public V call()
+            {
+                return flights.execute( "key", callable );
+            }
+        };
+    }
+
+    private static <V> Callable<V> constant( final V value )
+    {
+        return new Callable<V>()
+        {
+            public V call()
+            {
+                return value;
+            }
+        };
+    }
+}
@@ -4,11 +4,16 @@
  */
 package com.enonic.cms.store.hibernate.cache.invalidation;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import com.enonic.cms.framework.jdbc.AbstractConnectionDecoratorTest;
 import com.enonic.cms.framework.jdbc.ConnectionDecorator;
@@ -21,11 +26,13 @@ public class InvalidatorConnectionDecoratorTest
 {
     private ConnectionDecorator connectionDecorator;
 
+    private CacheInvalidator cacheInvalidator;
+
     @Before
     public void before()
         throws SQLException
     {
-        CacheInvalidator cacheInvalidator = Mockito.mock( CacheInvalidator.class );
+        cacheInvalidator = Mockito.mock( CacheInvalidator.class );
         connectionDecorator = new InvalidatorConnectionDecorator( cacheInvalidator );
         setupRealConnectionStatementAndResultSet();
     }
@@ -50,4 +57,46 @@ public class InvalidatorConnectionDecoratorTest
     {
         testDecoratingLevel( connectionDecorator, 3 );
     }
+
+    @Test
+    public void batch_invalidated_when_transaction_is_committed()
+        throws SQLException
+    {
+        final String sql = "update tContent set con_lTimestamp = ? where con_lKey = ?";
+        final Connection connection = connectionDecorator.decorate( realConnection );
+
+        final PreparedStatement statement = connection.prepareStatement( sql );
+        statement.setInt( 2, 42 );
+        statement.executeUpdate();
+        statement.executeUpdate();
+
+        final ArgumentCaptor<InvalidationBatch> batch = ArgumentCaptor.forClass( InvalidationBatch.class );
+        Mockito.verify( cacheInvalidator, Mockito.times( 2 ) ).invalidateSql( Mockito.eq( sql ), Mockito.anyList(), batch.capture() );
+        Mockito.verify( cacheInvalidator, Mockito.never() ).invalidateBatch( Mockito.any( InvalidationBatch.class ) );
+
+        connection.commit();
+        Mockito.verify( realConnection ).commit();
+        Mockito.verify( cacheInvalidator ).invalidateBatch( batch.getValue() );
+    }
+
+    @Test
+    public void batch_invalidated_after_each_statement_in_auto_commit_mode()
+        throws SQLException
+    {
+        Mockito.doAnswer( new Answer<Object>()
+        {
+            @Override
+            public Object answer( final InvocationOnMock invocation )
+            {
+                ( (InvalidationBatch) invocation.getArguments()[2] ).add( new TableInvalidation( "tContent", null ) );
+                return null;
+            }
+        } ).when( cacheInvalidator ).invalidateSql( Mockito.anyString(), Mockito.anyList(), Mockito.any( InvalidationBatch.class ) );
+        Mockito.when( realConnection.getAutoCommit() ).thenReturn( true );
+
+        final Connection connection = connectionDecorator.decorate( realConnection );
+        connection.createStatement().executeUpdate( "delete from tContent where con_lKey = 42" );
+
+        Mockito.verify( cacheInvalidator ).invalidateBatch( Mockito.any( InvalidationBatch.class ) );
+    }
 }
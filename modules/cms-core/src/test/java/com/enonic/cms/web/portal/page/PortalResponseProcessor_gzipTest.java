@@ -0,0 +1,173 @@
+/*
+ * Copyright 2000-2013 Enonic AS
+ * http://www.enonic.com/license
+ */
+
+package com.enonic.cms.web.portal.page;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.util.ArrayList;
+import java.util.zip.GZIPInputStream;
+
+import org.joda.time.DateTime;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.google.common.base.Strings;
+
+import com.enonic.cms.api.plugin.ext.http.HttpResponseFilter;
+import com.enonic.cms.core.Path;
+import com.enonic.cms.core.portal.PortalRequest;
+import com.enonic.cms.core.portal.PortalResponse;
+import com.enonic.cms.core.portal.rendering.RenderedPageResult;
+import com.enonic.cms.core.security.user.UserKey;
+import com.enonic.cms.core.structure.SiteKey;
+import com.enonic.cms.core.structure.SitePath;
+
+import static org.junit.Assert.*;
+
+/**
+ * unit tests for gzip negotiation
+ */
+public class PortalResponseProcessor_gzipTest
+{
+    private static final String CONTENT_VALUE = "<html><body>" + Strings.repeat( "<p>content text</p>", 100 ) + "</body></html>";
+
+    private static final String ETAG_HEADER_NAME = "Etag";
+
+    private final PortalRequest portalRequest = new PortalRequest();
+
+    private RenderedPageResult renderedPageResult;
+
+    @Before
+    public void before()
+    {
+        portalRequest.setOriginalUrl( "http://localhost/site/0/news" );
+        portalRequest.setRequestTime( new DateTime() );
+        portalRequest.setSitePath( new SitePath( new SiteKey( 0 ), new Path( "/news" ) ) );
+        portalRequest.setRequester( new UserKey( "1" ) );
+
+        renderedPageResult = new RenderedPageResult();
+        renderedPageResult.setContent( CONTENT_VALUE );
+        renderedPageResult.setHttpContentType( "text/html; charset=UTF-8" );
+    }
+
+    @Test
+    public void testGzipWhenAccepted()
+        throws Exception
+    {
+        final MockHttpServletResponse httpResponse = serve( "gzip, deflate" );
+
+        assertEquals( "gzip", httpResponse.getHeader( "Content-Encoding" ) );
+        assertEquals( "Accept-Encoding", httpResponse.getHeader( "Vary" ) );
+        assertTrue( ( (String) httpResponse.getHeader( ETAG_HEADER_NAME ) ).endsWith( "-gzip" ) );
+        assertEquals( CONTENT_VALUE, gunzip( httpResponse.getContentAsByteArray() ) );
+        assertEquals( httpResponse.getContentAsByteArray().length, httpResponse.getContentLength() );
+    }
+
+    @Test
+    public void testIdentityWhenNotAccepted()
+        throws Exception
+    {
+        assertIdentity( serve( null ) );
+        assertIdentity( serve( "gzip;q=0, identity" ) );
+        assertIdentity( serve( "deflate" ) );
+    }
+
+    @Test
+    public void testIdentityWhenSmall()
+        throws Exception
+    {
+        renderedPageResult.setContent( "small" );
+
+        final MockHttpServletResponse httpResponse = serve( "gzip" );
+
+        assertNull( httpResponse.getHeader( "Content-Encoding" ) );
+        assertEquals( "small", httpResponse.getContentAsString() );
+    }
+
+    @Test
+    public void testNotModifiedByGzipEtag()
+        throws Exception
+    {
+        final String etag = (String) serve( "gzip" ).getHeader( ETAG_HEADER_NAME );
+
+        final MockHttpServletRequest httpRequest = createRequest( "gzip" );
+        httpRequest.addHeader( "If-None-Match", etag );
+        final MockHttpServletResponse httpResponse = serve( httpRequest );
+
+        assertEquals( 304, httpResponse.getStatus() );
+        assertEquals( 0, httpResponse.getContentAsByteArray().length );
+    }
+
+    @Test
+    public void testEncodingReusedByClones()
+        throws Exception
+    {
+        final PortalResponse first = PortalResponse.createContent( (RenderedPageResult) renderedPageResult.clone() );
+        final PortalResponse second = PortalResponse.createContent( (RenderedPageResult) renderedPageResult.clone() );
+        assertSame( first.getEncodedContent(), second.getEncodedContent() );
+
+        final RenderedPageResult changed = (RenderedPageResult) renderedPageResult.clone();
+        changed.setContent( CONTENT_VALUE + "<!-- changed -->" );
+        assertNotSame( first.getEncodedContent(), PortalResponse.createContent( changed ).getEncodedContent() );
+    }
+
+    private void assertIdentity( final MockHttpServletResponse httpResponse )
+        throws Exception
+    {
+        assertNull( httpResponse.getHeader( "Content-Encoding" ) );
+        assertEquals( "Accept-Encoding", httpResponse.getHeader( "Vary" ) );
+        assertTrue( ( (String) httpResponse.getHeader( ETAG_HEADER_NAME ) ).startsWith( "content_" ) );
+        assertFalse( ( (String) httpResponse.getHeader( ETAG_HEADER_NAME ) ).endsWith( "-gzip" ) );
+        assertEquals( CONTENT_VALUE, httpResponse.getContentAsString() );
+    }
+
+    private MockHttpServletResponse serve( final String acceptEncoding )
+        throws Exception
+    {
+        return serve( createRequest( acceptEncoding ) );
+    }
+
+    private MockHttpServletResponse serve( final MockHttpServletRequest httpRequest )
+        throws Exception
+    {
+        final MockHttpServletResponse httpResponse = new MockHttpServletResponse();
+
+        final PortalResponseProcessor processor = new PortalResponseProcessor();
+        processor.setHttpRequest( httpRequest );
+        processor.setHttpResponse( httpResponse );
+        processor.setRequest( portalRequest );
+        processor.setResponse( PortalResponse.createContent( (RenderedPageResult) renderedPageResult.clone() ) );
+        processor.setCacheHeadersEnabledForSite( true );
+        processor.setResponseFilters( new ArrayList<HttpResponseFilter>() );
+        processor.setGzipEnabled( true );
+        processor.setGzipMinSize( 1024 );
+        processor.serveResponse();
+        return httpResponse;
+    }
+
+    private MockHttpServletRequest createRequest( final String acceptEncoding )
+    {
+        final MockHttpServletRequest httpRequest = new MockHttpServletRequest();
+        httpRequest.setMethod( "GET" );
+        if ( acceptEncoding != null )
+        {
+            httpRequest.addHeader( "Accept-Encoding", acceptEncoding );
+        }
+        return httpRequest;
+    }
+
+    private String gunzip( final byte[] bytes )
+        throws Exception
+    {
+        final DataInputStream in = new DataInputStream( new GZIPInputStream( new ByteArrayInputStream( bytes ) ) );
+        final byte[] content = new byte[CONTENT_VALUE.getBytes( "UTF-8" ).length];
+        in.readFully( content );
+        assertEquals( -1, in.read() );
+        return new String( content, "UTF-8" );
+    }
+}
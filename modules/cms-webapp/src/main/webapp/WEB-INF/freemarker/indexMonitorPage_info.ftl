@@ -123,6 +123,11 @@
     <#if reindexInProgress>
         <div class="operation-bottom">
             <a href="reindexContent?op=custom">Reindex in progress...</a><br/>
+            Reindexed ${reindexedDocuments} content ( ${reindexDocumentsPerSecond} docs/sec )
+        </div>
+    <#elseif reindexCheckpointed>
+        <div class="operation-bottom">
+            Reindex did not complete, next reindex resumes where it stopped
         </div>
     </#if>
 
@@ -132,7 +137,7 @@
 
     <#if lastReindexTime??>
         <div class="operation-bottom">
-            Last reindex: ${lastReindexTime} ( took ${lastReindexTimeUsed} )
+            Last reindex: ${lastReindexTime} ( took ${lastReindexTimeUsed}, ${reindexDocumentsPerSecond} docs/sec )
         </div>
     </#if>
 
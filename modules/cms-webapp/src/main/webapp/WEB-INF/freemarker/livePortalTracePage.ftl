@@ -27,6 +27,7 @@
     <script type="text/javascript" src="liveportaltrace/ctrl/PageCacheGraphController.js"></script>
     <script type="text/javascript" src="liveportaltrace/ctrl/EntityCacheGraphController.js"></script>
     <script type="text/javascript" src="liveportaltrace/ctrl/XsltCacheGraphController.js"></script>
+    <script type="text/javascript" src="liveportaltrace/ctrl/DatasourceCacheGraphController.js"></script>
     <script type="text/javascript" src="../javascript/tabpane.js"></script>
     <link rel="stylesheet" type="text/css" href="liveportaltrace/jquery.treeTable.css"/>
     <link rel="stylesheet" type="text/css" href="liveportaltrace/live-portal-trace.css"/>
@@ -97,6 +98,90 @@
                     <td class="system-info-label">cap. usage:</td>
                     <td class="system-info-value" id="xslt-cache-capacity-usage"></td>
                 </tr>
+                <tr style="border-bottom: 1px solid #DDDDDD">
+                    <th class="system-info-group-name-td">
+                        <a onclick="$('#datasource-cache-details-row').toggle();" href="javascript: void(0);">
+                            Datasource cache
+                        </a>
+                    </th>
+                    <td colspan="8"><span id="graph-datasource-cache"></span></td>
+                </tr>
+                <tr id="datasource-cache-details-row" style="display: none; background-color: #EEEEEE; border-bottom: 1px solid #DDDDDD">
+                    <th class="system-info-group-name-td"></th>
+                    <td class="system-info-label">count:</td>
+                    <td class="system-info-value" id="datasource-cache-count"></td>
+                    <td class="system-info-label">eff.:</td>
+                    <td class="system-info-value" id="datasource-cache-effectiveness"></td>
+                    <td class="system-info-label">hit count:</td>
+                    <td class="system-info-value" id="datasource-cache-hit-count"></td>
+                    <td class="system-info-label">miss count:</td>
+                    <td class="system-info-value" id="datasource-cache-miss-count"></td>
+                    <td class="system-info-label">capacity:</td>
+                    <td class="system-info-value" id="datasource-cache-capacity-count"></td>
+                    <td class="system-info-label">cap. usage:</td>
+                    <td class="system-info-value" id="datasource-cache-capacity-usage"></td>
+                </tr>
+                <tr style="border-bottom: 1px solid #DDDDDD">
+                    <th class="system-info-group-name-td">
+                        <a onclick="$('.image-cache-details-row').toggle();" href="javascript: void(0);">
+                            Image cache
+                        </a>
+                    </th>
+                    <td colspan="8"><span id="image-cache-summary"></span></td>
+                </tr>
+                <tr class="image-cache-details-row" style="display: none; background-color: #EEEEEE; border-bottom: 1px solid #DDDDDD">
+                    <th class="system-info-group-name-td">memory</th>
+                    <td class="system-info-label">count:</td>
+                    <td class="system-info-value" id="image-memory-cache-count"></td>
+                    <td class="system-info-label">eff.:</td>
+                    <td class="system-info-value" id="image-memory-cache-effectiveness"></td>
+                    <td class="system-info-label">hit count:</td>
+                    <td class="system-info-value" id="image-memory-cache-hit-count"></td>
+                    <td class="system-info-label">miss count:</td>
+                    <td class="system-info-value" id="image-memory-cache-miss-count"></td>
+                    <td class="system-info-label">evictions:</td>
+                    <td class="system-info-value" id="image-memory-cache-eviction-count"></td>
+                    <td class="system-info-label">size:</td>
+                    <td class="system-info-value" id="image-memory-cache-size"></td>
+                </tr>
+                <tr class="image-cache-details-row" style="display: none; background-color: #EEEEEE; border-bottom: 1px solid #DDDDDD">
+                    <th class="system-info-group-name-td">disk</th>
+                    <td class="system-info-label">count:</td>
+                    <td class="system-info-value" id="image-disk-cache-count"></td>
+                    <td class="system-info-label">eff.:</td>
+                    <td class="system-info-value" id="image-disk-cache-effectiveness"></td>
+                    <td class="system-info-label">hit count:</td>
+                    <td class="system-info-value" id="image-disk-cache-hit-count"></td>
+                    <td class="system-info-label">miss count:</td>
+                    <td class="system-info-value" id="image-disk-cache-miss-count"></td>
+                    <td class="system-info-label">evictions:</td>
+                    <td class="system-info-value" id="image-disk-cache-eviction-count"></td>
+                    <td class="system-info-label">size:</td>
+                    <td class="system-info-value" id="image-disk-cache-size"></td>
+                </tr>
+                <tr style="border-bottom: 1px solid #DDDDDD">
+                    <th class="system-info-group-name-td">
+                        <a onclick="$('#image-processing-details-row').toggle();" href="javascript: void(0);">
+                            Image processing
+                        </a>
+                    </th>
+                    <td colspan="8"><span id="image-processing-summary"></span></td>
+                </tr>
+                <tr id="image-processing-details-row" style="display: none; background-color: #EEEEEE; border-bottom: 1px solid #DDDDDD">
+                    <th class="system-info-group-name-td"></th>
+                    <td class="system-info-label">queued:</td>
+                    <td class="system-info-value" id="image-processing-queue-size"></td>
+                    <td class="system-info-label">active:</td>
+                    <td class="system-info-value" id="image-processing-active-count"></td>
+                    <td class="system-info-label">processed:</td>
+                    <td class="system-info-value" id="image-processing-processed-count"></td>
+                    <td class="system-info-label">rejected:</td>
+                    <td class="system-info-value" id="image-processing-rejected-count"></td>
+                    <td class="system-info-label">coalesced:</td>
+                    <td class="system-info-value" id="image-processing-coalesced-count"></td>
+                    <td class="system-info-label">avg/max time:</td>
+                    <td class="system-info-value" id="image-processing-time"></td>
+                </tr>
                 <tr style="border-bottom: 1px solid #DDDDDD">
                     <th class="system-info-group-name-td">
                         <a onclick="$('#page-cache-details-row').toggle();" href="javascript: void(0);">
@@ -411,6 +496,7 @@
     var pageCacheGraphController = new lpt.PageCacheGraphController();
     var entityCacheGraphController = new lpt.EntityCacheGraphController();
     var xsltCacheGraphController = new lpt.XsltCacheGraphController();
+    var datasourceCacheGraphController = new lpt.DatasourceCacheGraphController();
     var javaMemoryGraphController = new lpt.JavaMemoryGraphController();
 
     var systemInfoController = new lpt.SystemInfoController(1000);
@@ -419,6 +505,7 @@
     systemInfoController.setPageCacheGraphController(pageCacheGraphController);
     systemInfoController.setEntityCacheGraphController(entityCacheGraphController);
     systemInfoController.setXsltCacheGraphController(xsltCacheGraphController);
+    systemInfoController.setDatasourceCacheGraphController(datasourceCacheGraphController);
     systemInfoController.setJavaMemoryGraphController(javaMemoryGraphController);
     systemInfoController.init();
 
@@ -10,6 +10,7 @@ lpt.SystemInfoController = function (automaticReloadTimeInMillis) {
     var pageCacheGraphController;
     var entityCacheGraphController;
     var xsltCacheGraphController;
+    var datasourceCacheGraphController;
     var javaMemoryGraphController;
     var workerThreadIsSupported = false;
     var taskInProgress = {
@@ -36,6 +37,10 @@ lpt.SystemInfoController = function (automaticReloadTimeInMillis) {
         xsltCacheGraphController = ctrl;
     };
 
+    this.setDatasourceCacheGraphController = function (ctrl) {
+        datasourceCacheGraphController = ctrl;
+    };
+
     this.setJavaMemoryGraphController = function (ctrl) {
         javaMemoryGraphController = ctrl;
     };
@@ -138,6 +143,35 @@ lpt.SystemInfoController = function (automaticReloadTimeInMillis) {
             $('#graph-xslt-cache').text("off");
         }
 
+        if (systemInfo.datasourceCacheStatistic.count > 0) {
+            $('#datasource-cache-count').text(systemInfo.datasourceCacheStatistic.count);
+            $('#datasource-cache-effectiveness').text(systemInfo.datasourceCacheStatistic.effectiveness + " %");
+            $('#datasource-cache-hit-count').text(systemInfo.datasourceCacheStatistic.hitCount);
+            $('#datasource-cache-miss-count').text(systemInfo.datasourceCacheStatistic.missCount);
+            $('#datasource-cache-capacity-count').text(systemInfo.datasourceCacheStatistic.capacity);
+            $('#datasource-cache-capacity-usage').text(systemInfo.datasourceCacheStatistic.memoryCapacityUsage + " %");
+
+            datasourceCacheGraphController.add(systemInfo.datasourceCacheStatistic.memoryCapacityUsage, systemInfo.datasourceCacheStatistic.effectiveness);
+        }
+        else {
+            $('#graph-datasource-cache').text("off");
+        }
+
+        updateImageCacheStatistic('memory', systemInfo.imageCacheStatistic);
+        updateImageCacheStatistic('disk', systemInfo.imageDiskCacheStatistic);
+        $('#image-cache-summary').text("memory eff.: " + systemInfo.imageCacheStatistic.effectiveness + " %, disk eff.: " +
+            systemInfo.imageDiskCacheStatistic.effectiveness + " %");
+
+        var imageProcessing = systemInfo.imageProcessingStatistic;
+        $('#image-processing-queue-size').text(imageProcessing.queueSize);
+        $('#image-processing-active-count').text(imageProcessing.activeCount);
+        $('#image-processing-processed-count').text(imageProcessing.processedCount);
+        $('#image-processing-rejected-count').text(imageProcessing.rejectedCount);
+        $('#image-processing-coalesced-count').text(systemInfo.imageProcessConcurrencyStatistic.coalescedCount);
+        $('#image-processing-time').text(imageProcessing.averageProcessingTime + " / " + imageProcessing.maxProcessingTime + " ms");
+        $('#image-processing-summary').text("queued: " + imageProcessing.queueSize + ", active: " + imageProcessing.activeCount +
+            ", rejected: " + imageProcessing.rejectedCount);
+
         if (systemInfo.pageCacheStatistic.count > 0) {
             $('#page-cache-count').text(systemInfo.pageCacheStatistic.count);
             $('#page-cache-effectiveness').text(systemInfo.pageCacheStatistic.effectiveness + " %");
@@ -176,6 +210,15 @@ lpt.SystemInfoController = function (automaticReloadTimeInMillis) {
         }
     }
 
+    function updateImageCacheStatistic(tier, statistic) {
+        $('#image-' + tier + '-cache-count').text(statistic.count);
+        $('#image-' + tier + '-cache-effectiveness').text(statistic.effectiveness + " %");
+        $('#image-' + tier + '-cache-hit-count').text(statistic.hitCount);
+        $('#image-' + tier + '-cache-miss-count').text(statistic.missCount);
+        $('#image-' + tier + '-cache-eviction-count').text(statistic.evictionCount);
+        $('#image-' + tier + '-cache-size').text(humanReadableBytes(statistic.sizeInBytes));
+    }
+
     function formatDateAsMostSignificantValueFirst(date) {
         return date.getFullYear() + "-" + (date.getMonth() + 1) + "-" + padZero(date.getDate()) + " " + padZero(date.getHours()) + ":" +
                padZero(date.getMinutes()) + ":" + padZero(date.getSeconds());
@@ -11,7 +11,8 @@ lpt.PortalRequestTraceDetailHtmlBuilder = function () {
         html += "</tr>";
 
         html += "<tr id='node-" + id + "-1' class='child-of-node-" + id + "'>";
-        html += "<td>Cache</td><td>" + buildCacheUsage(imageRequestTrace.cacheUsage, true) + "</td>";
+        html += "<td>Cache</td><td>" + buildCacheUsage(imageRequestTrace.cacheUsage, true) +
+                (imageRequestTrace.cacheTier ? " (" + imageRequestTrace.cacheTier + ")" : "") + "</td>";
         html += "</tr>";
         html += "<tr id='node-" + id + "-2' class='child-of-node-" + id + "'>";
         html += "<td>Size</td><td>" + imageRequestTrace.sizeInBytes + "</td>";
@@ -34,6 +35,12 @@ lpt.PortalRequestTraceDetailHtmlBuilder = function () {
         html += "<tr id='node-" + id + "-8' class='child-of-node-" + id + "'>";
         html += "<td>Background color</td><td>" + imageRequestTrace.imageParamBackgroundColor + "</td>";
         html += "</tr>";
+        if (imageRequestTrace.processingTime != null) {
+            html += "<tr id='node-" + id + "-9' class='child-of-node-" + id + "'>";
+            html += "<td>Processing</td><td>" + imageRequestTrace.processingTime + " ms (queued " +
+                    imageRequestTrace.processingQueueTime + " ms)</td>";
+            html += "</tr>";
+        }
 
         return html;
     }
@@ -200,14 +207,17 @@ lpt.PortalRequestTraceDetailHtmlBuilder = function () {
             html += "<tr id='node-" + id + "-3' class='child-of-node-" + id + "'>";
             html += "<td>Used cached result (request scoped)</td><td>" + booleanToYesNo(datasourceExecutionTrace.cacheUsed) + "</td>";
             html += "</tr>";
+            html += "<tr id='node-" + id + "-4' class='child-of-node-" + id + "'>";
+            html += "<td>Used cached result (shared)</td><td>" + booleanToYesNo(datasourceExecutionTrace.sharedCacheUsed) + "</td>";
+            html += "</tr>";
 
             // Method arguments
-            html += "<tr id='node-" + id + "-4' class='child-of-node-" + id + "'>";
+            html += "<tr id='node-" + id + "-5' class='child-of-node-" + id + "'>";
             html += "<td>Method arguments</td><td></td>";
             html += "</tr>";
-            html += buildDatasourceMethodArguments(datasourceExecutionTrace.datasourceMethodArguments, id + "-4");
+            html += buildDatasourceMethodArguments(datasourceExecutionTrace.datasourceMethodArguments, id + "-5");
 
-            var counter = 4;
+            var counter = 5;
 
             if (datasourceExecutionTrace.contentIndexQueryTraces != null) {
                 html += buildContentIndexQueryTraces(datasourceExecutionTrace.contentIndexQueryTraces, id + "-" + (++counter));